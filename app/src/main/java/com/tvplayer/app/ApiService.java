@@ -4,6 +4,7 @@ import android.os.Handler;
 import android.os.Looper;
 
 import com.google.gson.Gson;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
 
 import java.io.IOException;
 
@@ -18,10 +19,35 @@ public class ApiService {
     private final Gson gson;
 
     public ApiService() {
-        this.client = new OkHttpClient();
+        this.client = HttpClientProvider.getClient();
         this.gson = new Gson();
     }
 
+    /**
+     * Wire format of the markers endpoint: one range per type plus the Next Episode start.
+     * SkipMarkers itself is an interval index and is no longer deserialized directly.
+     */
+    private static final class SkipMarkersJson {
+        Range intro;
+        Range recap;
+        Range credits;
+        int nextEpisodeStart = -1;
+
+        private static final class Range {
+            int start = -1;
+            int end = -1;
+        }
+
+        SkipMarkers toSkipMarkers() {
+            SkipMarkers markers = new SkipMarkers();
+            if (intro != null) markers.add(SkipSegmentType.INTRO, intro.start, intro.end);
+            if (recap != null) markers.add(SkipSegmentType.RECAP, recap.start, recap.end);
+            if (credits != null) markers.add(SkipSegmentType.CREDITS, credits.start, credits.end);
+            markers.setNextEpisodeStart(nextEpisodeStart);
+            return markers;
+        }
+    }
+
     public interface SkipMarkersCallback {
         void onSuccess(SkipMarkers markers);
         void onError(Exception e);
@@ -46,7 +72,7 @@ public class ApiService {
                     }
 
                     String jsonData = response.body().string();
-                    SkipMarkers markers = gson.fromJson(jsonData, SkipMarkers.class);
+                    SkipMarkers markers = gson.fromJson(jsonData, SkipMarkersJson.class).toSkipMarkers();
                     
                     new Handler(Looper.getMainLooper()).post(() -> callback.onSuccess(markers));
                 } catch (Exception e) {
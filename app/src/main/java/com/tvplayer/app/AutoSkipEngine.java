@@ -0,0 +1,177 @@
+package com.tvplayer.app;
+
+import android.os.SystemClock;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+
+/**
+ * AutoSkipEngine
+ * FUNCTION: Decides, at every skip boundary event, whether playback should jump over the
+ *           segment it just entered. Works for the whole episode (credits 40 minutes in, the
+ *           Next Episode marker), not only when detection finishes.
+ * INTERACTS WITH: MainActivity.java (feeds it SkipBoundaryScheduler events and performs the seek),
+ *                 SkipMarkers.java (the segments), PreferencesHelper.java (which types auto-skip).
+ * RULES:
+ * - Only entries by playback (or markers arriving while already inside a segment) auto-skip.
+ * - Each segment auto-skips at most once per media item, also when refined or replaced markers
+ *   move its edges (see HandledSegments).
+ * - Seeking into a segment means the user wants to watch it: it is never auto-skipped afterwards.
+ * - Playback entries right after a user seek are ignored (scrubbing across an edge is not an entry).
+ * - The seek target is the exact end of the segment; if that lands inside another enabled
+ *   segment (recap straight after the intro), both are skipped with a single seek.
+ * PERSONALIZATION:
+ * - SEEK_DEBOUNCE_MS: how long after a user seek playback entries are ignored.
+ */
+public class AutoSkipEngine {
+
+    private static final long SEEK_DEBOUNCE_MS = 1500;
+    // # Our own seeks land exactly on the target; allow for the player snapping to a sync frame
+    private static final long OWN_SEEK_TOLERANCE_MS = 1000;
+    // # Segment ends this close to the end of the media skip to the very end
+    private static final long END_OF_MEDIA_SLACK_MS = 1000;
+    // # activeSegment() result for the Next Episode marker (not part of the SkipMarkers index)
+    public static final int NEXT_EPISODE_INDEX = -2;
+
+    /**
+     * Decision: The segment being skipped and where to seek.
+     */
+    public static final class Decision {
+        public final SkipSegmentType type;
+        public final long seekToMs;
+
+        Decision(SkipSegmentType type, long seekToMs) {
+            this.type = type;
+            this.seekToMs = seekToMs;
+        }
+    }
+
+    private final PreferencesHelper preferencesHelper;
+    // # Segments already auto-skipped or declined by seeking into them (see markHandled)
+    private final HandledSegments handledSegments = new HandledSegments();
+    private boolean armed = false;
+    private long lastUserSeekAtMs = -1;
+    private long pendingSkipTargetMs = -1;
+
+    public AutoSkipEngine(PreferencesHelper preferencesHelper) {
+        this.preferencesHelper = preferencesHelper;
+    }
+
+    /**
+     * Forgets all per-episode state and disarms. Call when new media is loaded.
+     */
+    public void reset() {
+        handledSegments.clear();
+        armed = false;
+        lastUserSeekAtMs = -1;
+        pendingSkipTargetMs = -1;
+    }
+
+    /**
+     * Enables auto-skipping. Called once the final markers are known, so manual defaults and
+     * provisional results never trigger a skip.
+     */
+    public void arm() {
+        armed = true;
+    }
+
+    /**
+     * Evaluates a SkipBoundaryScheduler event.
+     * @param reason One of SkipBoundaryScheduler.REASON_*.
+     * @return The skip to perform, or null.
+     */
+    public Decision onBoundary(SkipMarkers markers, long positionMs, long durationMs, int reason) {
+        long nowMs = SystemClock.elapsedRealtime();
+
+        if (reason == SkipBoundaryScheduler.REASON_SEEK) {
+            if (pendingSkipTargetMs >= 0 && Math.abs(positionMs - pendingSkipTargetMs) <= OWN_SEEK_TOLERANCE_MS) {
+                // # The landing of our own skip, not a user decision
+                pendingSkipTargetMs = -1;
+                return null;
+            }
+            pendingSkipTargetMs = -1;
+            lastUserSeekAtMs = nowMs;
+            // # The user chose to be here: never auto-skip the segment they landed in
+            int landedIn = activeSegment(markers, positionMs, durationMs, false);
+            if (landedIn != -1) {
+                markHandled(markers, landedIn);
+            }
+            return null;
+        }
+
+        if (!armed) {
+            return null;
+        }
+        if (reason == SkipBoundaryScheduler.REASON_PLAYBACK
+                && lastUserSeekAtMs >= 0 && nowMs - lastUserSeekAtMs < SEEK_DEBOUNCE_MS) {
+            return null;
+        }
+
+        int index = activeSegment(markers, positionMs, durationMs, true);
+        if (index == -1 || !markHandled(markers, index)) {
+            return null;
+        }
+
+        // # Chain through directly following enabled segments so one seek clears them all
+        long targetMs = seekTargetMs(markers, index, durationMs);
+        for (int hop = 0; hop < 4 && targetMs < durationMs; hop++) {
+            int next = activeSegment(markers, targetMs, durationMs, true);
+            if (next == -1 || !markHandled(markers, next)) {
+                break;
+            }
+            targetMs = seekTargetMs(markers, next, durationMs);
+        }
+        pendingSkipTargetMs = targetMs;
+        return new Decision(typeOf(markers, index), targetMs);
+    }
+
+    // # Highest-priority segment containing the position (Intro > Recap > Credits > Next Episode):
+    // # a SkipMarkers index, NEXT_EPISODE_INDEX or -1
+    private int activeSegment(SkipMarkers markers, long positionMs, long durationMs, boolean enabledOnly) {
+        long positionSec = positionMs / 1000;
+        int index = markers.findActive(positionSec, enabledOnly ? enabledMask() : SkipMarkers.ALL_TYPES);
+        if (index >= 0) {
+            return index;
+        }
+        // # The Next Episode "segment" runs from its marker to the end of the media
+        int nextStart = markers.getNextEpisodeStart();
+        if (nextStart > 0 && positionSec >= nextStart && (durationMs <= 0 || positionMs < durationMs)
+                && (!enabledOnly || preferencesHelper.isAutoSkipNextEpisode())) {
+            return NEXT_EPISODE_INDEX;
+        }
+        return -1;
+    }
+
+    private int enabledMask() {
+        int mask = 0;
+        if (preferencesHelper.isAutoSkipIntro()) mask |= SkipMarkers.maskOf(SkipSegmentType.INTRO);
+        if (preferencesHelper.isAutoSkipRecap()) mask |= SkipMarkers.maskOf(SkipSegmentType.RECAP);
+        if (preferencesHelper.isAutoSkipCredits()) mask |= SkipMarkers.maskOf(SkipSegmentType.CREDITS);
+        return mask;
+    }
+
+    private static SkipSegmentType typeOf(SkipMarkers markers, int index) {
+        return index == NEXT_EPISODE_INDEX ? SkipSegmentType.NEXT_EPISODE : markers.getType(index);
+    }
+
+    /**
+     * Where skipping a segment should land: its exact end, or the very end of the media if the
+     * segment (nearly) reaches it. Also used for the manual skip buttons.
+     * @param index A SkipMarkers index, or NEXT_EPISODE_INDEX.
+     */
+    public static long seekTargetMs(SkipMarkers markers, int index, long durationMs) {
+        // # A credits end before the end of the media keeps the post-credits scene
+        long endMs = index == NEXT_EPISODE_INDEX ? durationMs : markers.getEnd(index) * 1000L;
+        if (durationMs > 0 && endMs >= durationMs - END_OF_MEDIA_SLACK_MS) {
+            return durationMs;
+        }
+        return endMs;
+    }
+
+    // # False if the segment, or one of its type overlapping it before the markers changed, was handled
+    private boolean markHandled(SkipMarkers markers, int index) {
+        if (index == NEXT_EPISODE_INDEX) {
+            return handledSegments.add(SkipSegmentType.NEXT_EPISODE, markers.getNextEpisodeStart(), Integer.MAX_VALUE);
+        }
+        return handledSegments.add(markers.getType(index), markers.getStart(index), markers.getEnd(index));
+    }
+}
@@ -0,0 +1,53 @@
+package com.tvplayer.app;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HandledSegments
+ * FUNCTION: Remembers the segments of one media item that were auto-skipped or declined by
+ *           seeking into them. A segment counts as handled when one of the same type overlaps
+ *           it, so the state survives the markers being replaced by nearby edges (boundary
+ *           refinement moves starts by a second or two; a later tier may shift them further).
+ * INTERACTS WITH: AutoSkipEngine.java (its only user), SkipMarkers.java (where the spans come from).
+ * THREADING: Not thread-safe; used from the main thread only.
+ */
+class HandledSegments {
+
+    // # Parallel lists of the handled spans in seconds; a few entries per episode at most
+    private final List<SkipSegmentType> types = new ArrayList<>();
+    private final List<int[]> spans = new ArrayList<>();
+
+    /**
+     * Marks the segment as handled.
+     * @param endSec Exclusive end; Integer.MAX_VALUE for a segment that runs to the end of the media.
+     * @return false if it (or an overlapping segment of the same type) was already handled.
+     */
+    public boolean add(SkipSegmentType type, int startSec, int endSec) {
+        if (contains(type, startSec, endSec)) {
+            return false;
+        }
+        types.add(type);
+        spans.add(new int[] {startSec, endSec});
+        return true;
+    }
+
+    public boolean contains(SkipSegmentType type, int startSec, int endSec) {
+        // # An empty segment still occupies its start second
+        int end = Math.max(endSec, startSec + 1);
+        for (int i = 0; i < spans.size(); i++) {
+            int[] span = spans.get(i);
+            if (types.get(i) == type && startSec < Math.max(span[1], span[0] + 1) && span[0] < end) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        types.clear();
+        spans.clear();
+    }
+}
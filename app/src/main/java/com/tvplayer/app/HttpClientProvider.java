@@ -0,0 +1,223 @@
+package com.tvplayer.app;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import android.os.Build;
+import android.util.Log;
+
+import java.io.File;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Dns;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * HttpClientProvider
+ * FUNCTION: Owns the single OkHttpClient shared by every network caller in the app, so all
+ *           requests reuse one connection pool, one dispatcher and its TLS sessions.
+ *           Callers that need different timeouts derive a client with newClient(), which goes
+ *           through newBuilder() and keeps sharing the pool and dispatcher.
+ *           Community skip APIs use newCachingClient(), which adds a size-bounded disk cache
+ *           with the HttpCaching policy (ETag revalidation, default max-age, stale while offline).
+ * INTERACTS WITH: HttpCaching.java, IntroSkipperStrategy.java, IntroHaterStrategy.java,
+ *                 MetadataHeuristicStrategy.java, ApiService.java, MainActivity.java (calls init).
+ * PERSONALIZATION:
+ * - MAX_IDLE_CONNECTIONS / KEEP_ALIVE_MINUTES: connection reuse window.
+ * - DNS_TTL_MS: how long resolved addresses are reused before resolving again.
+ * - DISK_CACHE_BYTES: size of the HTTP response cache in the app cache dir.
+ */
+public final class HttpClientProvider {
+
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+    // # All detection strategies may hit the same host at once
+    private static final int MAX_REQUESTS_PER_HOST = 8;
+    private static final int DEFAULT_TIMEOUT_SECONDS = 15;
+    private static final long DNS_TTL_MS = 5 * 60 * 1000;
+
+    private static final String TAG = "HttpClientProvider";
+    private static final String DISK_CACHE_DIR = "http";
+    private static final long DISK_CACHE_BYTES = 10L * 1024 * 1024;
+
+    private static volatile OkHttpClient sharedClient;
+    private static volatile OkHttpClient cachingClient;
+    private static volatile Context appContext;
+    private static volatile Cache diskCache;
+
+    private HttpClientProvider() {
+    }
+
+    /**
+     * Provides the context used for the disk cache and connectivity checks.
+     * Call once at startup, before any client is requested.
+     */
+    public static void init(Context context) {
+        synchronized (HttpClientProvider.class) {
+            if (appContext != null) {
+                return;
+            }
+            appContext = context.getApplicationContext();
+            diskCache = new Cache(new File(appContext.getCacheDir(), DISK_CACHE_DIR), DISK_CACHE_BYTES);
+        }
+    }
+
+    /**
+     * Returns the shared client, creating it on first use.
+     */
+    public static OkHttpClient getClient() {
+        OkHttpClient client = sharedClient;
+        if (client == null) {
+            synchronized (HttpClientProvider.class) {
+                client = sharedClient;
+                if (client == null) {
+                    client = buildClient();
+                    sharedClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Derives a client with its own timeouts that still shares the pool, dispatcher and DNS cache.
+     * @param timeoutSeconds Connect, read and write timeout.
+     */
+    public static OkHttpClient newClient(int timeoutSeconds) {
+        return getClient().newBuilder()
+            .connectTimeout(timeoutSeconds, TimeUnit.SECONDS)
+            .readTimeout(timeoutSeconds, TimeUnit.SECONDS)
+            .writeTimeout(timeoutSeconds, TimeUnit.SECONDS)
+            .build();
+    }
+
+    /**
+     * Like newClient(), plus the HTTP disk cache (when init() has been called).
+     * Meant for idempotent GETs against community skip APIs.
+     * @param timeoutSeconds Connect, read and write timeout.
+     */
+    public static OkHttpClient newCachingClient(int timeoutSeconds) {
+        OkHttpClient base = cachingClient;
+        if (base == null) {
+            synchronized (HttpClientProvider.class) {
+                base = cachingClient;
+                if (base == null) {
+                    base = buildCachingClient();
+                    cachingClient = base;
+                }
+            }
+        }
+        return base.newBuilder()
+            .connectTimeout(timeoutSeconds, TimeUnit.SECONDS)
+            .readTimeout(timeoutSeconds, TimeUnit.SECONDS)
+            .writeTimeout(timeoutSeconds, TimeUnit.SECONDS)
+            .build();
+    }
+
+    private static OkHttpClient buildCachingClient() {
+        if (diskCache == null) {
+            Log.w(TAG, "init() not called; community API responses will not be cached.");
+            return getClient();
+        }
+        return HttpCaching.install(getClient().newBuilder(), diskCache, HttpClientProvider::isOnline)
+            .build();
+    }
+
+    private static boolean isOnline() {
+        Context context = appContext;
+        if (context == null) {
+            return true;
+        }
+        ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (cm == null) {
+            return true;
+        }
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return isOnlineLegacy(cm);
+        }
+        // # Validated: a captive portal or a network without a route out counts as offline
+        NetworkCapabilities capabilities = cm.getNetworkCapabilities(cm.getActiveNetwork());
+        return capabilities != null
+            && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET)
+            && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED);
+    }
+
+    // # API 22 has no getActiveNetwork()
+    @SuppressWarnings("deprecation")
+    private static boolean isOnlineLegacy(ConnectivityManager cm) {
+        NetworkInfo info = cm.getActiveNetworkInfo();
+        return info != null && info.isConnected();
+    }
+
+    private static OkHttpClient buildClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+        return new OkHttpClient.Builder()
+            .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+            .dispatcher(dispatcher)
+            // # HTTP/2 lets concurrent lookups to one host share a single connection
+            .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+            .dns(new CachingDns(Dns.SYSTEM, DNS_TTL_MS))
+            .retryOnConnectionFailure(true)
+            .connectTimeout(DEFAULT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            .readTimeout(DEFAULT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            .writeTimeout(DEFAULT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+            .build();
+    }
+
+    /**
+     * CachingDns: Remembers lookups for a fixed TTL. If a refresh fails, the last known
+     * addresses are used instead, which helps on flaky home networks.
+     */
+    private static final class CachingDns implements Dns {
+        private final Dns delegate;
+        private final long ttlMs;
+        private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+        CachingDns(Dns delegate, long ttlMs) {
+            this.delegate = delegate;
+            this.ttlMs = ttlMs;
+        }
+
+        @Override
+        public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+            Entry entry = entries.get(hostname);
+            long now = System.currentTimeMillis();
+            if (entry != null && now < entry.expiresAtMs) {
+                return entry.addresses;
+            }
+
+            try {
+                List<InetAddress> addresses = delegate.lookup(hostname);
+                entries.put(hostname, new Entry(addresses, now + ttlMs));
+                return addresses;
+            } catch (UnknownHostException e) {
+                if (entry != null) {
+                    return entry.addresses;
+                }
+                throw e;
+            }
+        }
+
+        private static final class Entry {
+            final List<InetAddress> addresses;
+            final long expiresAtMs;
+
+            Entry(List<InetAddress> addresses, long expiresAtMs) {
+                this.addresses = addresses;
+                this.expiresAtMs = expiresAtMs;
+            }
+        }
+    }
+}
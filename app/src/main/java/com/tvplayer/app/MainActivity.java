@@ -10,6 +10,7 @@ import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.Parcelable;
 import android.util.Log;
 import android.view.KeyEvent; 
 import android.view.MotionEvent; 
@@ -23,20 +24,23 @@ import android.widget.Toast;
 
 // # AndroidX/AppCompat (UI and compatibility support)
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.content.IntentCompat;
 
 // # Media3/ExoPlayer imports for video playback
 import androidx.media3.common.MediaItem;
+import androidx.media3.common.MediaMetadata;
 import androidx.media3.common.PlaybackException;
 import androidx.media3.common.Player;
+import androidx.media3.common.Timeline;
 import androidx.media3.common.TrackSelectionParameters;
 import androidx.media3.exoplayer.ExoPlayer;
 import androidx.media3.ui.PlayerView;
 
-// # Java standard utility imports for time/date formatting
-import java.text.SimpleDateFormat;
-import java.util.Date;
+// # Java standard utility imports
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
-import java.util.TimeZone;
 
 // # Smart Skip Detection imports
 import com.tvplayer.app.skipdetection.SmartSkipManager;
@@ -57,6 +61,7 @@ import com.tvplayer.app.skipdetection.SkipDetectionResult.DetectionSource;
  * - PreferencesHelper.java (Loading settings)
  * - SmartSkipManager.java (Running skip detection)
  * - SkipMarkers.java (Holding the active skip times)
+ * - SkipBoundaryScheduler.java (Waking the skip UI at segment edges)
  * - SettingsActivity.java (Launching the settings page)
  */
 public class MainActivity extends AppCompatActivity implements Player.Listener, SkipDetectionCallback {
@@ -98,10 +103,37 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
     private PreferencesHelper preferencesHelper;
     private SkipMarkers skipMarkers;
     private SmartSkipManager smartSkipManager;
+    private SkipBoundaryScheduler skipBoundaryScheduler;
+    private AutoSkipEngine autoSkipEngine;
+
+    // --- Episode Queue ---
+    // # Play queue extras (the names MX Player's intent API uses, which most launchers already send)
+    private static final String EXTRA_VIDEO_LIST = "video_list";
+    private static final String EXTRA_VIDEO_LIST_NAMES = "video_list.name";
+    // # How much of the next queue item Media3 buffers ahead once the current one is nearly over
+    private static final long NEXT_EPISODE_PRELOAD_US = 10_000_000;
+    // # Preload starts at the credits, or this long before the end if there are no credits markers
+    private static final int NEXT_EPISODE_PRELOAD_LEAD_SECONDS = 60;
+    private boolean nextEpisodePreloaded = false;
+    // # Set for every new media item; detection runs once per item, once its duration is known
+    private boolean awaitingDetection = false;
+    // # Bumped per detection run, so a late result for the previous episode is dropped
+    private int detectionGeneration = 0;
+    // # Per media item: a detection result replaced the manual markers.
+    // # Manual markers never overwrite detected ones (AutoSkipEngine may already be armed on them).
+    private boolean detectedMarkersApplied = false;
 
     // --- Time Formatting ---
-    private final SimpleDateFormat durationFormat;
-    private final SimpleDateFormat finishTimeFormat = new SimpleDateFormat("h:mm a", Locale.getDefault());
+    private final TimeTextFormatter timeTextFormatter = new TimeTextFormatter(Locale.getDefault());
+    // # One buffer per TextView: setText(char[], ...) keeps a reference to the array
+    private final char[] currentTimeChars = new char[TimeTextFormatter.MAX_LENGTH];
+    private final char[] totalTimeChars = new char[TimeTextFormatter.MAX_LENGTH];
+    private final char[] remainingTimeChars = new char[TimeTextFormatter.MAX_LENGTH];
+    private final char[] finishTimeChars = new char[TimeTextFormatter.MAX_LENGTH];
+    // # What the TextViews currently show, so unchanged values are not re-rendered
+    private long shownPositionSec = -1;
+    private long shownDurationSec = -1;
+    private long shownFinishMinute = -1;
 
     // --- Runnables ---
 
@@ -115,10 +147,13 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
 
     /**
      * Runnable that updates all time displays and the progress bar every second.
+     * Only runs while the controls are visible; skip buttons are driven by SkipBoundaryScheduler.
      */
     private final Runnable timeUpdateRunnable = new Runnable() {
         @Override
         public void run() {
+            // # Nothing to draw: stop until showControls() restarts the loop
+            if (customControls.getVisibility() != View.VISIBLE) return;
             if (player != null && (player.getPlaybackState() == Player.STATE_READY || player.getPlaybackState() == Player.STATE_BUFFERING) && player.isPlaying()) {
                 updateProgress();
             }
@@ -149,18 +184,6 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
         }
     };
 
-
-    /**
-     * Constructor
-     * FUNCTION: Initializes the time formatter for durations.
-     */
-    public MainActivity() {
-        super();
-        // # This formatter will correctly show "00:30:00" instead of "30:00"
-        durationFormat = new SimpleDateFormat("HH:mm:ss", Locale.getDefault());
-        durationFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
-    }
-
     // =========================================================================
     // LIFECYCLE METHODS
     // =========================================================================
@@ -173,8 +196,11 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
         setContentView(R.layout.activity_main);
 
         // # 1. Initialize helper classes
+        // # The shared HTTP client needs the cache dir before any strategy is created
+        HttpClientProvider.init(this);
         preferencesHelper = new PreferencesHelper(this);
         skipMarkers = new SkipMarkers();
+        autoSkipEngine = new AutoSkipEngine(preferencesHelper);
         // # Initialize SmartSkipManager *without* the Player.
         smartSkipManager = new SmartSkipManager(this, preferencesHelper);
         // # FIXED: Initialize AudioManager for volume control
@@ -204,8 +230,8 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
     @Override
     protected void onResume() {
         super.onResume();
-        // # Start the time update loop
-        timeUpdateHandler.post(timeUpdateRunnable);
+        // # Restart the time update loop (if the controls are showing)
+        startProgressUpdates();
         // # Load preferences in case they were changed in SettingsActivity
         loadPreferencesAndApply();
         // # Resume playback if the player exists
@@ -349,6 +375,7 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
             player = new ExoPlayer.Builder(this).build();
             player.addListener(this);
             playerView.setPlayer(player);
+            skipBoundaryScheduler = new SkipBoundaryScheduler(player, this::onSkipBoundary);
         }
     }
 
@@ -357,6 +384,10 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
      */
     private void releasePlayer() {
         if (player != null) {
+            if (skipBoundaryScheduler != null) {
+                skipBoundaryScheduler.release();
+                skipBoundaryScheduler = null;
+            }
             player.removeListener(this); // # Important: remove listener
             player.release();
             player = null;
@@ -371,15 +402,58 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
         Uri uri = intent.getData();
         if (uri != null && player != null) {
             Log.i(TAG, "Handling new media intent: " + uri.toString());
-            MediaItem mediaItem = MediaItem.fromUri(uri);
-            player.setMediaItem(mediaItem);
+            autoSkipEngine.reset();
+            nextEpisodePreloaded = false;
+            detectedMarkersApplied = false;
+            awaitingDetection = true;
+
+            // # Queue the following episodes, if the launcher sent a list
+            List<MediaItem> queue = new ArrayList<>();
+            int startIndex = -1;
+            // # Element types are only enforced from API 33, hence the instanceof check below
+            Parcelable[] videoList = IntentCompat.getParcelableArrayExtra(intent, EXTRA_VIDEO_LIST, Uri.class);
+            String[] videoNames = intent.getStringArrayExtra(EXTRA_VIDEO_LIST_NAMES);
+            if (videoList != null) {
+                for (int i = 0; i < videoList.length; i++) {
+                    if (!(videoList[i] instanceof Uri)) continue;
+                    Uri itemUri = (Uri) videoList[i];
+                    if (startIndex < 0 && itemUri.equals(uri)) {
+                        startIndex = queue.size();
+                    }
+                    String name = videoNames != null && i < videoNames.length ? videoNames[i] : null;
+                    queue.add(buildMediaItem(itemUri, name));
+                }
+            }
+            if (startIndex < 0) {
+                // # The launched URI always plays first, even if the list does not contain it
+                queue.add(0, MediaItem.fromUri(uri));
+                startIndex = 0;
+            }
+            Log.i(TAG, "Queue: item " + (startIndex + 1) + " of " + queue.size());
+
+            player.setMediaItems(queue, startIndex, 0);
             player.prepare();
+            // # Read MKV/MP4 chapters while the player buffers
+            smartSkipManager.preloadChapters(uri.toString());
             player.play();
         } else {
             Log.w(TAG, "Intent was null or had no data. Player not started.");
         }
     }
 
+    /**
+     * Creates a queue item, with its display name (if any) as the title.
+     */
+    private MediaItem buildMediaItem(Uri uri, String title) {
+        if (title == null) {
+            return MediaItem.fromUri(uri);
+        }
+        return new MediaItem.Builder()
+            .setUri(uri)
+            .setMediaMetadata(new MediaMetadata.Builder().setTitle(title).build())
+            .build();
+    }
+
     /**
      * Loads settings from PreferencesHelper and applies them to the player.
      * Interacts with: PreferencesHelper.java
@@ -387,21 +461,7 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
     private void loadPreferencesAndApply() {
         if (player == null) return;
 
-        // # Load manual markers into our SkipMarkers object
-        skipMarkers.setIntro(preferencesHelper.getIntroStart(), preferencesHelper.getIntroEnd());
-        skipMarkers.setRecap(preferencesHelper.getRecapStart(), preferencesHelper.getRecapEnd());
-
-        // # Note: Credits "start" is an offset from the end
-        long durationSec = player.getDuration() / 1000;
-        int creditsOffset = preferencesHelper.getCreditsStart();
-        if (creditsOffset > 0 && durationSec > 0) {
-            skipMarkers.setCredits((int)(durationSec - creditsOffset), (int)durationSec);
-        } else {
-             // # This is a fallback if offset isn't set but manual end time is
-            skipMarkers.setCredits(0, preferencesHelper.getCreditsEnd()); 
-        }
-
-        skipMarkers.setNextEpisodeStart(preferencesHelper.getNextEpisodeStart());
+        applyManualMarkers();
 
         // # Apply Subtitle Delay
         // # FIX: This method (`setSubtitleDelay`) is now available because
@@ -414,6 +474,34 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
         }
     }
 
+    /**
+     * Loads the manual markers from PreferencesHelper into SkipMarkers, unless a detection
+     * result has already been applied to the current item.
+     * Interacts with: PreferencesHelper.java, SkipMarkers.java
+     */
+    private void applyManualMarkers() {
+        if (detectedMarkersApplied) return;
+
+        // # Load manual markers into our SkipMarkers object. Only manual markers can be in it
+        // # at this point, so they are replaced wholesale (one range per type).
+        skipMarkers.clearAll();
+        skipMarkers.add(SkipSegmentType.INTRO, preferencesHelper.getIntroStart(), preferencesHelper.getIntroEnd());
+        skipMarkers.add(SkipSegmentType.RECAP, preferencesHelper.getRecapStart(), preferencesHelper.getRecapEnd());
+
+        // # Note: Credits "start" is an offset from the end
+        long durationSec = player.getDuration() / 1000;
+        int creditsOffset = preferencesHelper.getCreditsStart();
+        if (creditsOffset > 0 && durationSec > 0) {
+            skipMarkers.add(SkipSegmentType.CREDITS, (int)(durationSec - creditsOffset), (int)durationSec);
+        } else {
+             // # This is a fallback if offset isn't set but manual end time is
+            skipMarkers.add(SkipSegmentType.CREDITS, 0, preferencesHelper.getCreditsEnd());
+        }
+
+        skipMarkers.setNextEpisodeStart(preferencesHelper.getNextEpisodeStart());
+        rescheduleSkipBoundaries();
+    }
+
     /**
      * Initiates the Smart Skip detection process for the current media.
      * This is called once the player is ready.
@@ -422,75 +510,110 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
      */
     private void startSkipDetection() {
         if (player == null || player.getDuration() <= 0) return;
+        awaitingDetection = false;
 
         // # Pass the (now ready) player to the manager
         smartSkipManager.rebindPlayer(player);
 
-        // # Get the current media URI
-        Uri mediaUri = getIntent().getData();
-        if (mediaUri == null && player.getCurrentMediaItem() != null) {
-            mediaUri = player.getCurrentMediaItem().localConfiguration != null ?
-                      player.getCurrentMediaItem().localConfiguration.uri : null;
+        // # Get the current media URI (the queue item playing, or the launch intent's URI)
+        MediaItem currentItem = player.getCurrentMediaItem();
+        Uri mediaUri = currentItem != null && currentItem.localConfiguration != null
+            ? currentItem.localConfiguration.uri : null;
+        if (mediaUri == null) {
+            mediaUri = getIntent().getData();
         }
 
+        MediaIdentifier mediaIdentifier =
+            buildMediaIdentifier(mediaUri, player.getMediaMetadata(), player.getDuration() / 1000);
+
+        if (mediaIdentifier.isTvShow()) {
+            Log.i(TAG, "Detected TV Show: " + mediaIdentifier.getShowName() + " S" +
+                  mediaIdentifier.getSeasonNumber() + "E" + mediaIdentifier.getEpisodeNumber());
+
+            // # FIXED: Update UI to show title and episode info
+            updateMediaInfoDisplay(mediaIdentifier.getShowName() != null
+                                       ? mediaIdentifier.getShowName() : mediaIdentifier.getTitle(),
+                                   mediaIdentifier.getSeasonNumber(),
+                                   mediaIdentifier.getEpisodeNumber());
+        } else {
+            // # For movies or unknown media, just show the title
+            updateMediaInfoDisplay(mediaIdentifier.getTitle(), null, null);
+        }
+
+        // # Start the async detection. Results reach 'this' only while this item is still current.
+        smartSkipManager.detectSkipSegmentsAsync(mediaIdentifier, new CurrentItemCallback(++detectionGeneration));
+
+        // # Warm the cache for the rest of the season (binge watching)
+        smartSkipManager.prefetchUpcomingEpisodes(mediaIdentifier);
+    }
+
+    // # The part of a URI that carries the file name, falling back to the path or the whole URI
+    private static String fileNameOf(Uri uri) {
+        if (uri == null) {
+            return null;
+        }
+        String name = uri.getLastPathSegment();
+        if (name == null) {
+            name = uri.getPath();
+        }
+        return name != null ? name : uri.toString();
+    }
+
+    /**
+     * Builds the MediaIdentifier for a media item from its URI (S01E01-style file names) and
+     * its Media3 metadata. Shared by the playing item and the preloaded next queue item, so
+     * both produce the same cache key.
+     * @param mediaUri The item's URI (may be null).
+     * @param metadata The item's metadata (title, albumTitle, ID extras).
+     * @param runtimeSeconds The duration, or 0 if not known yet.
+     */
+    private MediaIdentifier buildMediaIdentifier(Uri mediaUri, MediaMetadata metadata, long runtimeSeconds) {
         // # Parse metadata from filename/URI
-        MediaMetadataParser.ParsedMetadata parsed = MediaMetadataParser.parseFromUri(mediaUri);
+        MediaMetadataParser.ParsedMetadata parsed = MediaMetadataParser.parseFromPath(fileNameOf(mediaUri));
 
         // # Get title from player metadata, fallback to parsed show name
         String title = "Unknown";
-        if (player.getMediaMetadata().title != null) {
-            title = player.getMediaMetadata().title.toString();
+        if (metadata != null && metadata.title != null) {
+            title = metadata.title.toString();
         } else if (parsed.showName != null) {
             title = parsed.showName;
         }
 
         // # Get show name and episode title from Media3 metadata if available
         String showName = parsed.showName;
-        if (player.getMediaMetadata().albumTitle != null) {
+        if (metadata != null && metadata.albumTitle != null) {
             // # albumTitle can represent the series name for TV shows
-            showName = player.getMediaMetadata().albumTitle.toString();
+            showName = metadata.albumTitle.toString();
         }
 
         // # Build MediaIdentifier with all extracted metadata
         MediaIdentifier.Builder builder = new MediaIdentifier.Builder()
             .setTitle(title)
-            .setRuntimeSeconds(player.getDuration() / 1000);
+            .setRuntimeSeconds(runtimeSeconds)
+            .setMediaUri(mediaUri != null ? mediaUri.toString() : null);
 
         // # Add TV show specific metadata if available
         if (parsed.isTvShow) {
             builder.setShowName(showName)
                    .setSeasonNumber(parsed.seasonNumber)
                    .setEpisodeNumber(parsed.episodeNumber);
-            Log.i(TAG, "Detected TV Show: " + showName + " S" + 
-                  parsed.seasonNumber + "E" + parsed.episodeNumber);
-            
-            // # FIXED: Update UI to show title and episode info
-            updateMediaInfoDisplay(showName != null ? showName : title, 
-                                   parsed.seasonNumber, 
-                                   parsed.episodeNumber);
-        } else {
-            // # For movies or unknown media, just show the title
-            updateMediaInfoDisplay(title, null, null);
         }
 
         // # Extract IDs from Media3 extras if available
         // # Note: These would need to be set by the calling app (Stremio, etc.)
-        if (player.getMediaMetadata().extras != null) {
-            String traktId = player.getMediaMetadata().extras.getString("trakt_id");
-            String tmdbId = player.getMediaMetadata().extras.getString("tmdb_id");
-            String tvdbId = player.getMediaMetadata().extras.getString("tvdb_id");
-            String imdbId = player.getMediaMetadata().extras.getString("imdb_id");
-            
+        if (metadata != null && metadata.extras != null) {
+            String traktId = metadata.extras.getString("trakt_id");
+            String tmdbId = metadata.extras.getString("tmdb_id");
+            String tvdbId = metadata.extras.getString("tvdb_id");
+            String imdbId = metadata.extras.getString("imdb_id");
+
             if (traktId != null) builder.setTraktId(traktId);
             if (tmdbId != null) builder.setTmdbId(tmdbId);
             if (tvdbId != null) builder.setTvdbId(tvdbId);
             if (imdbId != null) builder.setImdbId(imdbId);
         }
 
-        MediaIdentifier mediaIdentifier = builder.build();
-
-        // # Start the async detection. 'this' (MainActivity) is the callback.
-        smartSkipManager.detectSkipSegmentsAsync(mediaIdentifier, this);
+        return builder.build();
     }
 
     // =========================================================================
@@ -507,12 +630,11 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
     public void onPlaybackStateChanged(int playbackState) {
         if (playbackState == Player.STATE_READY) {
             Log.i(TAG, "Player is READY.");
-            // # Player is ready, load settings
-            loadPreferencesAndApply();
             // # Start the progress bar update loop
-            timeUpdateHandler.post(timeUpdateRunnable);
-            // # Start the skip detection process
-            startSkipDetection();
+            startProgressUpdates();
+            // # Load settings and start the skip detection process, once per media item:
+            // # READY repeats after every seek and rebuffer
+            startSkipDetectionIfAwaiting();
 
         } else if (playbackState == Player.STATE_ENDED) {
             Log.i(TAG, "Player has ENDED.");
@@ -526,6 +648,43 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
         }
     }
 
+    @Override
+    public void onMediaItemTransition(MediaItem mediaItem, int reason) {
+        // # The first item is set up by handleIntent and STATE_READY
+        if (mediaItem == null || reason == Player.MEDIA_ITEM_TRANSITION_REASON_PLAYLIST_CHANGED) return;
+
+        Log.i(TAG, "Moved to queue item " + (player.getCurrentMediaItemIndex() + 1));
+        // # Per-episode state starts over; the preload is re-armed for this episode's credits
+        detectionGeneration++;
+        skipMarkers.clearAll();
+        autoSkipEngine.reset();
+        nextEpisodePreloaded = false;
+        detectedMarkersApplied = false;
+        player.setPreloadConfiguration(ExoPlayer.PreloadConfiguration.DEFAULT);
+        hideSkipButtons();
+        rescheduleSkipBoundaries();
+
+        // # A preloaded item plays without leaving STATE_READY, so detection is started from here
+        awaitingDetection = true;
+        startSkipDetectionIfAwaiting();
+    }
+
+    @Override
+    public void onTimelineChanged(Timeline timeline, int reason) {
+        // # The new queue item's duration may only be known once its timeline arrives
+        startSkipDetectionIfAwaiting();
+    }
+
+    /**
+     * Starts detection for a new media item (the launched one or a queue item moved to),
+     * once its duration is known. Does nothing if it already ran for this item.
+     */
+    private void startSkipDetectionIfAwaiting() {
+        if (!awaitingDetection || player == null || player.getDuration() <= 0) return;
+        loadPreferencesAndApply();
+        startSkipDetection();
+    }
+
     @Override
     public void onPlayerError(PlaybackException error) {
         // # Shows an alert dialog on playback error
@@ -554,28 +713,108 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
             Toast.makeText(this, "Skip markers found via " + result.getSource().getDisplayName(), Toast.LENGTH_SHORT).show();
 
             // # Clear manual markers and apply the new, better ones
-            skipMarkers.clearAll();
-            for (SkipSegment segment : result.getSegments()) {
-                if (segment.type == SkipSegmentType.INTRO) {
-                    skipMarkers.setIntro(segment.startSeconds, segment.endSeconds);
-                } else if (segment.type == SkipSegmentType.RECAP) {
-                    skipMarkers.setRecap(segment.startSeconds, segment.endSeconds);
-                } else if (segment.type == SkipSegmentType.CREDITS) {
-                    skipMarkers.setCredits(segment.startSeconds, segment.endSeconds);
-                } else if (segment.type == SkipSegmentType.NEXT_EPISODE) {
-                    skipMarkers.setNextEpisodeStart(segment.startSeconds);
-                }
-            }
+            applySkipSegments(result);
         } else {
             // # On failure, we just keep the manual preferences that were already loaded
             Log.w(TAG, "Skip detection failed: " + result.getErrorMessage() + ". Using manual preferences.");
             Toast.makeText(this, "Skip detection failed. Using manual settings.", Toast.LENGTH_LONG).show();
         }
 
-        // # Do an initial check to show buttons if we're already in a segment
-        updateSkipButtonVisibility();
-        // # Check for auto-skip
-        performAutoSkip();
+        // # From now on, playback reaching a segment start auto-skips it
+        autoSkipEngine.arm();
+        // # Show buttons (and auto-skip) if we're already in a segment
+        rescheduleSkipBoundaries();
+    }
+
+    /**
+     * Called by SmartSkipManager with the first usable result while detection is still running.
+     * This runs on the MAIN THREAD. Buttons can show immediately; auto-skip waits for the final result.
+     */
+    @Override
+    public void onProvisionalResult(SkipDetectionResult result) {
+        Log.i(TAG, "Provisional skip markers from: " + result.getSource().getDisplayName());
+        applySkipSegments(result);
+        rescheduleSkipBoundaries();
+    }
+
+    /**
+     * Called by SmartSkipManager when a higher-tier result replaces the provisional one.
+     * This runs on the MAIN THREAD.
+     */
+    @Override
+    public void onResultUpgraded(SkipDetectionResult result) {
+        Log.i(TAG, "Skip markers upgraded by: " + result.getSource().getDisplayName());
+        applySkipSegments(result);
+        rescheduleSkipBoundaries();
+    }
+
+    /**
+     * Called by SmartSkipManager after onDetectionComplete when the segment edges were
+     * snapped to scene boundaries. This runs on the MAIN THREAD.
+     */
+    @Override
+    public void onSegmentsRefined(SkipDetectionResult result) {
+        Log.i(TAG, "Skip markers refined to scene boundaries");
+        applySkipSegments(result);
+        rescheduleSkipBoundaries();
+    }
+
+    /**
+     * Forwards detection callbacks to the activity unless a newer detection (the next queue
+     * item) has started since; refinement in particular can arrive well after the transition.
+     */
+    private final class CurrentItemCallback implements SkipDetectionCallback {
+        private final int generation;
+
+        CurrentItemCallback(int generation) {
+            this.generation = generation;
+        }
+
+        private boolean isCurrent() {
+            return generation == detectionGeneration;
+        }
+
+        @Override
+        public void onDetectionComplete(SkipDetectionResult result) {
+            if (isCurrent()) MainActivity.this.onDetectionComplete(result);
+        }
+
+        @Override
+        public void onDetectionFailed(String errorMessage) {
+            if (isCurrent()) MainActivity.this.onDetectionFailed(errorMessage);
+        }
+
+        @Override
+        public void onProvisionalResult(SkipDetectionResult result) {
+            if (isCurrent()) MainActivity.this.onProvisionalResult(result);
+        }
+
+        @Override
+        public void onResultUpgraded(SkipDetectionResult result) {
+            if (isCurrent()) MainActivity.this.onResultUpgraded(result);
+        }
+
+        @Override
+        public void onSegmentsRefined(SkipDetectionResult result) {
+            if (isCurrent()) MainActivity.this.onSegmentsRefined(result);
+        }
+    }
+
+    /**
+     * Replaces the active skip markers with the segments of a detection result.
+     * Interacts with: SkipMarkers.java
+     */
+    private void applySkipSegments(SkipDetectionResult result) {
+        detectedMarkersApplied = true;
+        skipMarkers.clearAll();
+        for (SkipSegment segment : result.getSegments()) {
+            if (segment.type == SkipSegmentType.NEXT_EPISODE) {
+                skipMarkers.setNextEpisodeStart(segment.startSeconds);
+            } else if (segment.type != SkipSegmentType.UNKNOWN) {
+                // # Every segment is kept: several recaps, credits plus a post-credits scene, ...
+                skipMarkers.add(segment.type, segment.startSeconds, segment.endSeconds);
+            }
+        }
     }
 
     /**
@@ -587,8 +826,8 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
         // # On critical failure, just use manual preferences
         Log.e(TAG, "Critical skip detection failure: " + errorMessage);
         Toast.makeText(this, "Skip detection error. Using manual settings.", Toast.LENGTH_LONG).show();
+        autoSkipEngine.arm();
         loadPreferencesAndApply();
-        updateSkipButtonVisibility();
     }
 
     // =========================================================================
@@ -614,16 +853,85 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
         }
     }
 
+    /**
+     * Re-registers every segment edge with the SkipBoundaryScheduler after the markers change.
+     * The scheduler immediately reports the current position, refreshing the buttons.
+     * Interacts with: SkipBoundaryScheduler.java, SkipMarkers.java
+     */
+    private void rescheduleSkipBoundaries() {
+        if (skipBoundaryScheduler == null || skipMarkers == null) return;
+        int[] boundaries = skipMarkers.getBoundarySeconds();
+        // # Also wake up shortly before the end, to preload the next episode without credits markers
+        long durationSec = player.getDuration() / 1000;
+        if (player.hasNextMediaItem() && durationSec > NEXT_EPISODE_PRELOAD_LEAD_SECONDS) {
+            boundaries = Arrays.copyOf(boundaries, boundaries.length + 1);
+            boundaries[boundaries.length - 1] = (int) (durationSec - NEXT_EPISODE_PRELOAD_LEAD_SECONDS);
+        }
+        skipBoundaryScheduler.schedule(boundaries);
+    }
+
+    /**
+     * Called by SkipBoundaryScheduler (main thread) when playback reaches a segment edge,
+     * after a seek, and after the markers change.
+     * @param positionMs The edge or landing position. Used instead of getCurrentPosition(),
+     *                   which can still report a few ms before the edge.
+     * @param reason One of SkipBoundaryScheduler.REASON_*.
+     */
+    private void onSkipBoundary(long positionMs, int reason) {
+        updateSkipButtonVisibility(positionMs);
+        preloadNextEpisodeIfDue(positionMs);
+        performAutoSkip(positionMs, reason);
+    }
+
+    /**
+     * Once the current episode reaches its credits (or the last minute), lets Media3 buffer the
+     * start of the next queue item and resolves its skip segments and chapters in the background,
+     * so "Next Episode" starts instantly with its skip buttons ready.
+     * Interacts with: SmartSkipManager.prefetchQueuedEpisode
+     */
+    private void preloadNextEpisodeIfDue(long positionMs) {
+        if (nextEpisodePreloaded || player == null || !player.hasNextMediaItem()) return;
+
+        long positionSec = positionMs / 1000;
+        long durationMs = player.getDuration();
+        boolean nearEnd = skipMarkers.isInCredits(positionSec) || skipMarkers.isAtNextEpisode(positionSec)
+            || (durationMs > 0 && positionMs >= durationMs - NEXT_EPISODE_PRELOAD_LEAD_SECONDS * 1000L);
+        if (!nearEnd) return;
+
+        nextEpisodePreloaded = true;
+        player.setPreloadConfiguration(new ExoPlayer.PreloadConfiguration(NEXT_EPISODE_PRELOAD_US));
+
+        MediaItem next = player.getMediaItemAt(player.getCurrentMediaItemIndex() + 1);
+        Uri nextUri = next.localConfiguration != null ? next.localConfiguration.uri : null;
+        Log.i(TAG, "Preloading next episode: " + nextUri);
+        // # Runtime is unknown until it plays; the cache key does not depend on it
+        smartSkipManager.prefetchQueuedEpisode(buildMediaIdentifier(nextUri, next.mediaMetadata, 0));
+    }
+
+    /**
+     * Seeks to a skip target. A target at the end of the media moves on to the next queue item
+     * instead (if there is one), which the preload has already buffered.
+     */
+    private void seekOrAdvance(long seekToMs) {
+        long durationMs = player.getDuration();
+        if (durationMs > 0 && seekToMs >= durationMs && player.hasNextMediaItem()) {
+            player.seekToNextMediaItem();
+        } else {
+            player.seekTo(seekToMs);
+        }
+    }
+
     /**
      * Manages visibility and focus of all skip buttons.
      * Implements priority (Intro > Recap > Credits) (Feature P1).
      * Implements focus-fix (Feature P2/Focus).
-     * This is called every second by the timeUpdateRunnable.
+     * This is called by onSkipBoundary whenever the skip state can change.
+     * @param positionMs The playback position to evaluate.
      */
-    private void updateSkipButtonVisibility() {
+    private void updateSkipButtonVisibility(long positionMs) {
         if (player == null || skipMarkers == null) return;
 
-        long currentPositionSec = player.getCurrentPosition() / 1000;
+        long currentPositionSec = positionMs / 1000;
 
         // # Check which segments are active
         boolean inIntro = skipMarkers.isInIntro(currentPositionSec);
@@ -687,25 +995,28 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
 
         long seekToMs = -1;
         String toastMessage = "";
+        // # The segment of this type the button was shown for (there can be several per type)
+        int index = skipMarkers.findActive(player.getCurrentPosition() / 1000, SkipMarkers.maskOf(type));
 
         switch (type) {
             case INTRO:
-                // # Use getIntro().end to get the TimeRange object
-                seekToMs = skipMarkers.getIntro().end * 1000L;
+                if (index < 0) return;
+                seekToMs = AutoSkipEngine.seekTargetMs(skipMarkers, index, player.getDuration());
                 toastMessage = "Skipping Intro";
                 break;
             case RECAP:
-                // # Use getRecap().end to get the TimeRange object
-                seekToMs = skipMarkers.getRecap().end * 1000L;
+                if (index < 0) return;
+                seekToMs = AutoSkipEngine.seekTargetMs(skipMarkers, index, player.getDuration());
                 toastMessage = "Skipping Recap";
                 break;
             case CREDITS:
-                // # For Credits, skip to the end of the video
-                seekToMs = player.getDuration(); 
+                // # To the end of the credits: the end of the video, or a post-credits scene
+                if (index < 0) return;
+                seekToMs = AutoSkipEngine.seekTargetMs(skipMarkers, index, player.getDuration());
                 toastMessage = "Skipping Credits";
                 break;
             case NEXT_EPISODE:
-                // # For Next Episode, seek to the end to trigger STATE_ENDED
+                // # Moves on to the next queue item; without a queue, the end triggers STATE_ENDED
                 seekToMs = player.getDuration();
                 toastMessage = "Loading Next Episode..."; // # Placeholder
                 break;
@@ -714,7 +1025,7 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
         }
 
         if (seekToMs >= 0) {
-            player.seekTo(seekToMs);
+            seekOrAdvance(seekToMs);
             if (!toastMessage.isEmpty()) {
                 Toast.makeText(this, toastMessage, Toast.LENGTH_SHORT).show();
             }
@@ -724,35 +1035,38 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
     }
 
     /**
-     * Checks preferences and automatically seeks if an auto-skip is due.
+     * Asks the AutoSkipEngine whether the boundary event enters a segment that should be
+     * skipped, and seeks to the exact end of it if so.
+     * Interacts with: AutoSkipEngine.java
+     * @param positionMs The playback position to evaluate.
+     * @param reason One of SkipBoundaryScheduler.REASON_*.
      */
-    private void performAutoSkip() {
+    private void performAutoSkip(long positionMs, int reason) {
         if (player == null || skipMarkers == null) return;
 
-        long currentPositionSec = player.getCurrentPosition() / 1000;
-
-        // # Check Auto-Skip Intro
-        if (preferencesHelper.isAutoSkipIntro() && skipMarkers.isInIntro(currentPositionSec)) {
-            Log.i(TAG, "Auto-skipping Intro");
-            Toast.makeText(this, "Auto-skipping Intro", Toast.LENGTH_SHORT).show();
-            performSkip(SkipSegmentType.INTRO);
-            return; // # Only perform one auto-skip per check
-        }
-
-        // # Check Auto-Skip Recap
-        if (preferencesHelper.isAutoSkipRecap() && skipMarkers.isInRecap(currentPositionSec)) {
-            Log.i(TAG, "Auto-skipping Recap");
-            Toast.makeText(this, "Auto-skipping Recap", Toast.LENGTH_SHORT).show();
-            performSkip(SkipSegmentType.RECAP);
-            return;
-        }
+        AutoSkipEngine.Decision decision =
+            autoSkipEngine.onBoundary(skipMarkers, positionMs, player.getDuration(), reason);
+        if (decision == null) return;
 
-        // # Check Auto-Skip Credits
-        if (preferencesHelper.isAutoSkipCredits() && skipMarkers.isInCredits(currentPositionSec)) {
-            Log.i(TAG, "Auto-skipping Credits");
-            Toast.makeText(this, "Auto-skipping Credits", Toast.LENGTH_SHORT).show();
-            performSkip(SkipSegmentType.CREDITS);
+        String toastMessage;
+        switch (decision.type) {
+            case INTRO:
+                toastMessage = "Auto-skipping Intro";
+                break;
+            case RECAP:
+                toastMessage = "Auto-skipping Recap";
+                break;
+            case CREDITS:
+                toastMessage = "Auto-skipping Credits";
+                break;
+            default:
+                toastMessage = "Loading Next Episode...";
+                break;
         }
+        Log.i(TAG, toastMessage + " (to " + decision.seekToMs + " ms)");
+        Toast.makeText(this, toastMessage, Toast.LENGTH_SHORT).show();
+        seekOrAdvance(decision.seekToMs);
+        hideSkipButtons();
     }
 
     // =========================================================================
@@ -802,6 +1116,9 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
             customControls.setVisibility(View.VISIBLE);
             // # Request focus on the play button for D-pad control
             btnPlayPause.requestFocus();
+            // # Refresh the times right away, then once a second while visible
+            updateProgress();
+            startProgressUpdates();
         }
         resetControlsTimeout();
     }
@@ -811,6 +1128,7 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
      */
     private void hideControls() {
         customControls.setVisibility(View.GONE);
+        timeUpdateHandler.removeCallbacks(timeUpdateRunnable);
     }
 
     /**
@@ -849,8 +1167,18 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
     // TIME & PROGRESS BAR UPDATES
     // =========================================================================
 
+    /**
+     * (Re)starts the once-a-second progress loop. It stops by itself when the controls hide.
+     */
+    private void startProgressUpdates() {
+        timeUpdateHandler.removeCallbacks(timeUpdateRunnable);
+        timeUpdateHandler.post(timeUpdateRunnable);
+    }
+
     /**
      * Updates all time-related UI elements.
+     * Allocation-free: text is formatted into reused char arrays (TimeTextFormatter), and a
+     * TextView is only touched when the second (or minute) it shows has changed.
      */
     private void updateProgress() {
         if (player == null || player.getDuration() <= 0) {
@@ -861,20 +1189,34 @@ public class MainActivity extends AppCompatActivity implements Player.Listener,
         long currentPositionMs = player.getCurrentPosition();
         long remainingMs = durationMs - currentPositionMs;
 
-        // # Update Progress Bar (max is 1000)
+        // # Update Progress Bar (max is 1000; setProgress ignores unchanged values)
         int progress = (int) ((currentPositionMs * 1000) / durationMs);
         progressBar.setProgress(progress);
 
-        // # Update time text views using the UTC-based duration formatter
-        tvCurrentTime.setText(durationFormat.format(new Date(currentPositionMs)));
-        tvTotalTime.setText(" / " + durationFormat.format(new Date(durationMs)));
-        tvRemainingTime.setText(durationFormat.format(new Date(remainingMs)));
+        long durationSec = durationMs / 1000;
+        if (durationSec != shownDurationSec) {
+            shownDurationSec = durationSec;
+            int length = TimeTextFormatter.formatDuration(" / ", durationSec, totalTimeChars);
+            tvTotalTime.setText(totalTimeChars, 0, length);
+        }
 
-        // # Update Finish At time using the system's local time zone
-        tvFinishTime.setText(finishTimeFormat.format(new Date(System.currentTimeMillis() + remainingMs)));
+        long positionSec = currentPositionMs / 1000;
+        if (positionSec != shownPositionSec) {
+            shownPositionSec = positionSec;
+            int length = TimeTextFormatter.formatDuration("", positionSec, currentTimeChars);
+            tvCurrentTime.setText(currentTimeChars, 0, length);
+            length = TimeTextFormatter.formatDuration("", remainingMs / 1000, remainingTimeChars);
+            tvRemainingTime.setText(remainingTimeChars, 0, length);
+        }
 
-        // # Update the skip buttons visibility
-        updateSkipButtonVisibility();
+        // # Update Finish At time using the system's local time zone
+        long finishMs = System.currentTimeMillis() + remainingMs;
+        long finishMinute = finishMs / 60000;
+        if (finishMinute != shownFinishMinute) {
+            shownFinishMinute = finishMinute;
+            int length = timeTextFormatter.formatClock(finishMs, finishTimeChars);
+            tvFinishTime.setText(finishTimeChars, 0, length);
+        }
     }
 
     // =========================================================================
@@ -7,6 +7,9 @@ import android.content.SharedPreferences;
 // AndroidX/Preference for getting the default preference file
 import androidx.preference.PreferenceManager;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * PreferencesHelper: A utility class to encapsulate all reading and writing
  * to the application's SharedPreferences. This makes the code in MainActivity.java
@@ -103,6 +106,45 @@ public class PreferencesHelper {
         return prefs.getBoolean("auto_skip_credits", false);
     }
 
+    public boolean isAutoSkipNextEpisode() {
+        return prefs.getBoolean("auto_skip_next_episode", false);
+    }
+
+    /**
+     * Whether segment edges from online sources and heuristics are snapped to nearby silences.
+     */
+    public boolean isRefineSegmentEdges() {
+        return prefs.getBoolean("refine_segment_edges", true);
+    }
+
+    /**
+     * How long a "no data" answer from a skip source is remembered before asking again.
+     * 0 disables negative caching.
+     */
+    public int getNegativeCacheTtlHours() {
+        return parseIntSafe(prefs.getString("negative_cache_ttl_hours", "12"), 12);
+    }
+
+    /**
+     * Additional Intro-Skipper mirror URLs, in the order entered. Empty when none are set.
+     */
+    public List<String> getIntroSkipperMirrors() {
+        List<String> mirrors = new ArrayList<>();
+        for (String url : prefs.getString("intro_skipper_mirrors", "").split(",")) {
+            if (!url.trim().isEmpty()) {
+                mirrors.add(url.trim());
+            }
+        }
+        return mirrors;
+    }
+
+    /**
+     * Whether skip detection logs per-strategy timings and latency percentiles to logcat.
+     */
+    public boolean isLogDetectionMetrics() {
+        return prefs.getBoolean("log_detection_metrics", false);
+    }
+
     // --- DELAY SETTINGS (in milliseconds) ---
 
     public int getAudioDelayMs() {
@@ -0,0 +1,117 @@
+package com.tvplayer.app;
+
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.media3.common.Player;
+import androidx.media3.exoplayer.ExoPlayer;
+import androidx.media3.exoplayer.PlayerMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SkipBoundaryScheduler
+ * FUNCTION: Wakes the UI exactly when playback crosses a skip segment edge, instead of polling
+ *           the position every second. Each edge is registered with the player as a PlayerMessage,
+ *           which the playback thread delivers as soon as the renderers reach that position.
+ *           Seeks jump over messages without delivering them, so the listener is also called
+ *           after every seek with the new position.
+ * INTERACTS WITH: MainActivity.java (re-schedules whenever SkipMarkers change, and on every
+ *                 queue transition), SkipMarkers.java (getBoundarySeconds).
+ * QUEUES: Messages are bound to the media item that was playing when they were scheduled, so
+ *         edges of one episode never fire in the next.
+ * THREADING: All calls and callbacks happen on the main thread.
+ */
+public class SkipBoundaryScheduler implements Player.Listener {
+
+    private static final String TAG = "SkipBoundaryScheduler";
+
+    // # Why the listener is being called
+    public static final int REASON_PLAYBACK = 0;        // # Playback ran into the edge
+    public static final int REASON_SEEK = 1;            // # The user (or a skip) moved the position
+    public static final int REASON_MARKERS_CHANGED = 2; // # New edges were scheduled
+
+    /**
+     * Receives the position at which the skip state may have changed.
+     */
+    public interface BoundaryListener {
+        /**
+         * @param positionMs The edge that was reached, or the position after a seek.
+         * @param reason One of the REASON_ constants.
+         */
+        void onSkipBoundary(long positionMs, int reason);
+    }
+
+    private final ExoPlayer player;
+    private final BoundaryListener listener;
+    private final List<PlayerMessage> scheduledMessages = new ArrayList<>();
+
+    // # One shared target: the payload carries the edge position in ms
+    private final PlayerMessage.Target boundaryTarget = new PlayerMessage.Target() {
+        @Override
+        public void handleMessage(int messageType, Object payload) {
+            listener.onSkipBoundary((Long) payload, REASON_PLAYBACK);
+        }
+    };
+
+    public SkipBoundaryScheduler(ExoPlayer player, BoundaryListener listener) {
+        this.player = player;
+        this.listener = listener;
+        player.addListener(this);
+    }
+
+    /**
+     * Replaces all scheduled edges with new ones and reports the current position once,
+     * so the UI reflects the new markers immediately.
+     * @param boundarySeconds Edge positions in seconds (negative values are ignored).
+     */
+    public void schedule(int[] boundarySeconds) {
+        cancelAll();
+        for (int seconds : boundarySeconds) {
+            if (seconds < 0) {
+                continue;
+            }
+            long positionMs = seconds * 1000L;
+            // # Kept after delivery so the edge fires again when the user seeks back before it
+            PlayerMessage message = player.createMessage(boundaryTarget)
+                .setPosition(positionMs)
+                .setPayload(positionMs)
+                .setLooper(Looper.getMainLooper())
+                .setDeleteAfterDelivery(false)
+                .send();
+            scheduledMessages.add(message);
+        }
+        Log.d(TAG, "Scheduled " + scheduledMessages.size() + " skip boundaries");
+        listener.onSkipBoundary(player.getCurrentPosition(), REASON_MARKERS_CHANGED);
+    }
+
+    /**
+     * Cancels every scheduled edge (e.g. before new media is loaded).
+     */
+    public void cancelAll() {
+        for (PlayerMessage message : scheduledMessages) {
+            message.cancel();
+        }
+        scheduledMessages.clear();
+    }
+
+    /**
+     * Cancels everything and detaches from the player. Call before releasing the player.
+     */
+    public void release() {
+        cancelAll();
+        player.removeListener(this);
+    }
+
+    @Override
+    public void onPositionDiscontinuity(Player.PositionInfo oldPosition, Player.PositionInfo newPosition,
+                                        int reason) {
+        // # Seeks skip over messages, so re-evaluate at the landing position
+        if (reason == Player.DISCONTINUITY_REASON_SEEK
+                || reason == Player.DISCONTINUITY_REASON_SEEK_ADJUSTMENT
+                || reason == Player.DISCONTINUITY_REASON_SKIP) {
+            listener.onSkipBoundary(newPosition.positionMs, REASON_SEEK);
+        }
+    }
+}
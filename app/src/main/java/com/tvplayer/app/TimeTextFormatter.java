@@ -0,0 +1,93 @@
+package com.tvplayer.app;
+
+import java.text.DateFormatSymbols;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * TimeTextFormatter
+ * FUNCTION: Formats playback times ("01:23:45") and wall-clock times ("9:41 PM") straight into
+ *           caller-owned char arrays, for TextView.setText(char[], int, int). Unlike
+ *           SimpleDateFormat it allocates nothing per call, so the progress display creates
+ *           no garbage on the UI thread while playing.
+ * INTERACTS WITH: MainActivity.java (updateProgress).
+ * NOTE: TextView keeps a reference to the array passed to setText(char[], ...), so every
+ *       TextView needs its own array, only rewritten right before its own setText call.
+ */
+public final class TimeTextFormatter {
+
+    // # Enough for "-" + a prefix + "HHH:mm:ss" or "hh:mm" + a long AM/PM marker
+    public static final int MAX_LENGTH = 32;
+
+    private final String[] amPmStrings;
+
+    public TimeTextFormatter(Locale locale) {
+        this.amPmStrings = DateFormatSymbols.getInstance(locale).getAmPmStrings();
+    }
+
+    /**
+     * Writes a duration as HH:mm:ss (hours keep growing past 24).
+     * @param prefix Written first, e.g. " / " (may be empty).
+     * @return The number of chars written.
+     */
+    public static int formatDuration(String prefix, long totalSeconds, char[] out) {
+        int n = prefix.length();
+        prefix.getChars(0, n, out, 0);
+        if (totalSeconds < 0) {
+            out[n++] = '-';
+            totalSeconds = -totalSeconds;
+        }
+        long hours = totalSeconds / 3600;
+        if (hours >= 100) {
+            n = writeNumber(hours, out, n);
+        } else {
+            n = writeTwoDigits((int) hours, out, n);
+        }
+        out[n++] = ':';
+        n = writeTwoDigits((int) (totalSeconds / 60 % 60), out, n);
+        out[n++] = ':';
+        return writeTwoDigits((int) (totalSeconds % 60), out, n);
+    }
+
+    /**
+     * Writes a wall-clock time as h:mm followed by the locale's AM/PM marker.
+     * @param epochMs The time, in the device's current time zone.
+     * @return The number of chars written.
+     */
+    public int formatClock(long epochMs, char[] out) {
+        // # getDefault() copies the zone, but callers only format the clock once a minute
+        long localMs = epochMs + TimeZone.getDefault().getOffset(epochMs);
+        int minuteOfDay = (int) ((localMs / 60000) % 1440);
+        if (minuteOfDay < 0) {
+            minuteOfDay += 1440; // # Before 1970, only on a badly set clock
+        }
+        int hour = minuteOfDay / 60;
+        int hour12 = hour % 12 == 0 ? 12 : hour % 12;
+
+        int n = writeNumber(hour12, out, 0);
+        out[n++] = ':';
+        n = writeTwoDigits(minuteOfDay % 60, out, n);
+        out[n++] = ' ';
+        String marker = amPmStrings[hour < 12 ? 0 : 1];
+        marker.getChars(0, marker.length(), out, n);
+        return n + marker.length();
+    }
+
+    private static int writeTwoDigits(int value, char[] out, int n) {
+        out[n++] = (char) ('0' + value / 10);
+        out[n++] = (char) ('0' + value % 10);
+        return n;
+    }
+
+    private static int writeNumber(long value, char[] out, int n) {
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10) {
+            digits++;
+        }
+        for (int i = n + digits - 1; i >= n; i--) {
+            out[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return n + digits;
+    }
+}
@@ -0,0 +1,33 @@
+package com.tvplayer.app.skipdetection;
+
+import android.util.Log;
+
+import com.tvplayer.app.skipdetection.platform.Logger;
+
+/**
+ * AndroidLogger
+ * FUNCTION: Routes the skip-detection core's logging (platform.Log) to logcat.
+ * INTERACTS WITH: SmartSkipManager.java (installs it), platform/Log.java (core).
+ */
+public final class AndroidLogger implements Logger {
+
+    private static final AndroidLogger INSTANCE = new AndroidLogger();
+
+    private AndroidLogger() {
+    }
+
+    /**
+     * Makes the core log to logcat. Safe to call more than once.
+     */
+    public static void install() {
+        com.tvplayer.app.skipdetection.platform.Log.setLogger(INSTANCE);
+    }
+
+    @Override
+    public void log(int priority, String tag, String message, Throwable error) {
+        if (error != null) {
+            message = message + '\n' + Log.getStackTraceString(error);
+        }
+        Log.println(priority, tag, message);
+    }
+}
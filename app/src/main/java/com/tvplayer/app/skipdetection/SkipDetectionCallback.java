@@ -1,8 +0,0 @@
-package com.tvplayer.app.skipdetection;
-
-public interface SkipDetectionCallback {
-
-    void onDetectionComplete(SkipDetectionResult result);
-
-    void onDetectionFailed(String errorMessage);
-}
\ No newline at end of file
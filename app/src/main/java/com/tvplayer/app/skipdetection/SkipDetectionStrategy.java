@@ -1,12 +0,0 @@
-package com.tvplayer.app.skipdetection;
-
-public interface SkipDetectionStrategy {
-
-    SkipDetectionResult detect(MediaIdentifier mediaIdentifier);
-
-    String getStrategyName();
-
-    boolean isAvailable();
-
-    int getPriority();
-}
\ No newline at end of file
@@ -1,81 +1,130 @@
 package com.tvplayer.app.skipdetection;
 
 import android.content.Context;
+import android.net.Uri;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.Process;
 import android.util.Log;
 
 import androidx.media3.common.Player;
 
+import com.tvplayer.app.HttpClientProvider;
 import com.tvplayer.app.PreferencesHelper;
+import com.tvplayer.app.skipdetection.audio.BoundaryRefiner;
+import com.tvplayer.app.skipdetection.cache.LatencyPrefsStore;
+import com.tvplayer.app.skipdetection.cache.SkipCacheStore;
+import com.tvplayer.app.skipdetection.health.Mirror;
+import com.tvplayer.app.skipdetection.metrics.AdaptiveTimeouts;
+import com.tvplayer.app.skipdetection.metrics.DetectionMetrics;
+import com.tvplayer.app.skipdetection.platform.ExecutorTaskScheduler;
+import com.tvplayer.app.skipdetection.platform.TaskScheduler;
 // # Import the new audio strategy
 import com.tvplayer.app.skipdetection.strategies.AudioFingerprintStrategy; 
 import com.tvplayer.app.skipdetection.strategies.CacheStrategy;
 import com.tvplayer.app.skipdetection.strategies.ChapterStrategy;
 import com.tvplayer.app.skipdetection.strategies.IntroHaterStrategy;
 import com.tvplayer.app.skipdetection.strategies.IntroSkipperStrategy;
+import com.tvplayer.app.skipdetection.strategies.ManifestMarkerStrategy;
 import com.tvplayer.app.skipdetection.strategies.ManualPreferenceStrategy;
 import com.tvplayer.app.skipdetection.strategies.MetadataHeuristicStrategy;
 
 // # FIX: Added this import to resolve the 'cannot find symbol: variable DetectionSource' error
 import com.tvplayer.app.skipdetection.SkipDetectionResult.DetectionSource;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * SmartSkipManager
  * FUNCTION: Coordinates all skip detection strategies using a tiered priority system.
  *           Cache is checked first, then all strategies run concurrently, and the
  *           best result is selected based on TIER (priority) first, then confidence.
- * INTERACTS WITH: All *Strategy.java files, MainActivity.java, PreferencesHelper.java.
+ *           The selection itself runs in SkipDetectionEngine (skipdetection-core); this class
+ *           is its Android side: it builds the strategies, supplies threads, the SQLite cache,
+ *           logcat logging and boundary refinement, and binds the player.
+ * INTERACTS WITH: All *Strategy.java files, SkipDetectionEngine.java, MainActivity.java,
+ *                 PreferencesHelper.java.
  * 
  * PRIORITY TIERS (Reliability Levels):
  *   - Tier 600: Cache (checked synchronously before other strategies)
- *   - Tier 500: Chapter Markers & Metadata Heuristics (most reliable)
+ *   - Tier 500: Chapter Markers & HLS/DASH Manifest Markers (most reliable)
  *   - Tier 400: Community APIs (IntroSkipper, IntroHater) (moderately reliable)
- *   - Tier 300: Audio Fingerprinting (when implemented)
+ *   - Tier 300: Audio Fingerprinting (on-device, works offline)
+ *   - Tier 200: Metadata Heuristics (fixed guesses from the runtime)
  *   - Tier 100: Manual User Preferences (final failsafe)
  * 
  * SELECTION LOGIC:
  *   1. Higher tier (priority) always wins over lower tier, regardless of confidence
  *   2. Within same tier, highest confidence wins
  *   3. Manual preferences only surface when all higher tiers fail
+ *   4. Once no outstanding strategy has a higher tier than the current winner,
+ *      detection finalizes immediately and the remaining strategies are cancelled
+ *   5. Winners from crowd data or fixed guesses are published at once, then their edges are
+ *      snapped to nearby silences (BoundaryRefiner) before the result is cached
  * 
  * FIXED: Tiered priority system ensures reliable strategies are preferred over
  *        manual fallbacks, and metadata strategies have time to populate.
  * 
  * PERSONALIZATION:
- * - DETECTION_TIMEOUT_MS: Max wait time for strategies (default 10 seconds).
+ * - Timeouts: every strategy run gets its own deadline, learned from its recent answers
+ *   (p99 x TIMEOUT_P99_FACTOR, clamped to MIN/MAX_STRATEGY_TIMEOUT_MS, DEFAULT_STRATEGY_TIMEOUT_MS
+ *   until there is enough history) and kept across restarts (LatencyPrefsStore). The result is
+ *   published as soon as the last strategy answers or passes its deadline; MAX_STRATEGY_TIMEOUT_MS
+ *   also caps the whole detection.
  * - METADATA_WAIT_MS: Additional wait for chapter metadata to populate (default 2 seconds).
  * - EXECUTOR_THREADS: Number of concurrent strategy executions.
+ * - "Log Detection Timings" (settings): logs a per-strategy timeline of every detection and,
+ *   on shutdown, latency percentiles per strategy and per source (getDetectionMetrics()).
  */
 public class SmartSkipManager {
 
     private static final String TAG = "SmartSkipManager";
-    // # Max time (10 seconds) to wait for all strategies to finish.
-    private static final int DETECTION_TIMEOUT_MS = 10000;
+    // # Learned per-strategy timeouts (see AdaptiveTimeouts)
+    private static final long DEFAULT_STRATEGY_TIMEOUT_MS = 8000;
+    private static final long MIN_STRATEGY_TIMEOUT_MS = 1500;
+    private static final long MAX_STRATEGY_TIMEOUT_MS = 10000;
+    private static final double TIMEOUT_P99_FACTOR = 2.0;
     // # Additional wait time for metadata-driven strategies (e.g., chapters) to populate
     private static final int METADATA_WAIT_MS = 2000;
     // # Number of strategies to run at the same time.
     private static final int EXECUTOR_THREADS = 4;
+    // # Sources whose edges are not read from the media itself and are often a few seconds off.
+    // # Chapters and the audio scan are exact already; manual settings are the user's own choice.
+    private static final EnumSet<DetectionSource> REFINABLE_SOURCES = EnumSet.of(
+        DetectionSource.INTRO_SKIPPER_API, DetectionSource.INTROHATER_API, DetectionSource.METADATA_HEURISTIC);
+
+    private final Context appContext;
 
     private final PreferencesHelper prefsHelper;
-    private final ExecutorService executorService; 
-    private final Handler mainHandler;
+    private final ExecutorService executorService;
+    // # Strategy workers, detection timeouts and main-thread callbacks for the engine
+    private final TaskScheduler scheduler;
     private final CacheStrategy cacheStrategy;
+    // # Per-strategy deadlines shared by the engine and the network strategies
+    private final AdaptiveTimeouts adaptiveTimeouts;
     private final List<SkipDetectionStrategy> strategies;
+    // # Tier selection, early finalize and timeout (skipdetection-core)
+    private final SkipDetectionEngine engine;
 
     // # Special reference to ChapterStrategy so we can rebind the player
     private final ChapterStrategy chapterStrategy;
+    // # Reads HLS/DASH manifests from the player, so it needs rebinding too
+    private final ManifestMarkerStrategy manifestMarkerStrategy;
+
+    // # Community APIs, kept for their endpoint health (circuit breakers)
+    private final IntroHaterStrategy introHaterStrategy;
+    private final IntroSkipperStrategy introSkipperStrategy;
+
+    // # Resolves upcoming episodes of the season in the background
+    private final SeasonPrefetcher seasonPrefetcher;
 
     /**
      * Constructor
@@ -83,18 +132,25 @@ public class SmartSkipManager {
      * FIX: No longer takes a Player object to fix the startup build error.
      */
     public SmartSkipManager(Context context, PreferencesHelper prefsHelper) {
+        AndroidLogger.install();
+        this.appContext = context.getApplicationContext();
         this.prefsHelper = prefsHelper;
         this.executorService = Executors.newFixedThreadPool(EXECUTOR_THREADS);
-        this.mainHandler = new Handler(Looper.getMainLooper());
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        this.scheduler = new ExecutorTaskScheduler(executorService,
+            Executors.newSingleThreadScheduledExecutor(), mainHandler::post);
 
-        // # Initialize CacheStrategy (which is run separately)
-        this.cacheStrategy = new CacheStrategy(context);
+        // # Initialize CacheStrategy (which is run separately) over the SQLite store
+        this.cacheStrategy = new CacheStrategy(new SkipCacheStore(context));
+        this.adaptiveTimeouts = new AdaptiveTimeouts(new LatencyPrefsStore(context), DEFAULT_STRATEGY_TIMEOUT_MS,
+            MIN_STRATEGY_TIMEOUT_MS, MAX_STRATEGY_TIMEOUT_MS, TIMEOUT_P99_FACTOR);
 
         // # Initialize all detection strategies
         this.strategies = new ArrayList<>();
 
         // # Create the ChapterStrategy instance (it's player-less for now)
-        this.chapterStrategy = new ChapterStrategy();
+        this.chapterStrategy = new ChapterStrategy(context);
+        this.manifestMarkerStrategy = new ManifestMarkerStrategy();
 
         // # Add all strategies to the list
         // # NOTE: All strategies run CONCURRENTLY, not sequentially
@@ -104,16 +160,38 @@ public class SmartSkipManager {
         // # Tier 100: Manual User Preferences (lowest tier - final failsafe)
         this.strategies.add(new ManualPreferenceStrategy(prefsHelper));
         
-        // # Tier 300: Audio Fingerprinting (currently not implemented)
-        this.strategies.add(new AudioFingerprintStrategy()); 
+        // # Tier 300: Audio Fingerprinting (on-device theme music + cross-episode matching)
+        AudioFingerprintStrategy audioFingerprintStrategy = new AudioFingerprintStrategy(context);
+        this.strategies.add(audioFingerprintStrategy);
         
         // # Tier 400: Community APIs (moderately reliable)
-        this.strategies.add(new IntroHaterStrategy());
-        this.strategies.add(new IntroSkipperStrategy());
+        // # These only need IDs + season/episode, so they can also resolve upcoming episodes
+        // # Socket timeouts at the ceiling; each call is cut shorter by its learned timeout
+        int socketTimeoutSeconds = (int) (MAX_STRATEGY_TIMEOUT_MS / 1000);
+        // # Each one stops calling its endpoint while it is down (CircuitBreaker)
+        this.introHaterStrategy = new IntroHaterStrategy(
+            HttpClientProvider.newCachingClient(socketTimeoutSeconds), null, adaptiveTimeouts);
+        // # Intro-Skipper lookups are hedged across the user's mirrors and the public one
+        List<String> introSkipperMirrors = new ArrayList<>(prefsHelper.getIntroSkipperMirrors());
+        introSkipperMirrors.add(IntroSkipperStrategy.PUBLIC_MIRROR_URL);
+        this.introSkipperStrategy = new IntroSkipperStrategy(
+            HttpClientProvider.newCachingClient(socketTimeoutSeconds), introSkipperMirrors, adaptiveTimeouts);
+        this.strategies.add(introHaterStrategy);
+        this.strategies.add(introSkipperStrategy);
+        this.seasonPrefetcher = new SeasonPrefetcher(cacheStrategy,
+            Arrays.<SkipDetectionStrategy>asList(introHaterStrategy, introSkipperStrategy),
+            newBackgroundExecutor("SeasonPrefetcher"));
         
         // # Tier 500: Chapter Markers & Metadata (highest tier - most reliable)
         this.strategies.add(new MetadataHeuristicStrategy(prefsHelper));
         this.strategies.add(this.chapterStrategy); // # Add the instance we saved
+        this.strategies.add(this.manifestMarkerStrategy);
+
+        // # Local reads: a warm (preloaded) answer says nothing about a cold read of the file,
+        // # so these run until the detection timeout instead of a learned deadline
+        adaptiveTimeouts.exempt(chapterStrategy.getStrategyName());
+        adaptiveTimeouts.exempt(manifestMarkerStrategy.getStrategyName());
+        adaptiveTimeouts.exempt(audioFingerprintStrategy.getStrategyName());
 
         // # Sort strategies by priority (highest number first) for logging
         // # IMPORTANT: This sort order is just for display/logging
@@ -126,11 +204,27 @@ public class SmartSkipManager {
             SkipDetectionStrategy s = this.strategies.get(i);
             Log.i(TAG, String.format("  #%d: %s (Priority=%d)", i + 1, s.getStrategyName(), s.getPriority()));
         }
+
+        this.engine = new SkipDetectionEngine(cacheStrategy, strategies, scheduler, MAX_STRATEGY_TIMEOUT_MS,
+            new AndroidHooks(), adaptiveTimeouts);
+        engine.getMetrics().setTraceListener(trace -> Log.i(TAG, "Detection timeline: " + trace));
+    }
+
+    // # One background-priority thread, so prefetching never competes with playback or live detection
+    private static ExecutorService newBackgroundExecutor(String name) {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, name);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
     }
 
     /**
      * rebindPlayer
-     * FUNCTION: Binds the player to strategies that need it (like ChapterStrategy).
+     * FUNCTION: Binds the player to strategies that need it (ChapterStrategy, ManifestMarkerStrategy).
      * This is called from MainActivity once the player is in the STATE_READY.
      * @param player The prepared Media3 Player instance.
      */
@@ -139,174 +233,110 @@ public class SmartSkipManager {
         if (chapterStrategy != null) {
             chapterStrategy.rebindToPlayer(player);
         }
+        manifestMarkerStrategy.rebindToPlayer(player);
+    }
+
+    /**
+     * preloadChapters
+     * FUNCTION: Starts reading the container chapters (MKV/MP4) of the media in the background.
+     * Call as soon as the media is handed to the player; detection then finds them ready.
+     * @param mediaUri The URI being played.
+     */
+    public void preloadChapters(String mediaUri) {
+        chapterStrategy.preloadContainerChapters(mediaUri, executorService);
     }
 
     /**
      * detectSkipSegmentsAsync
-     * FUNCTION: Starts the detection process on a background thread.
+     * FUNCTION: Starts the detection process on a background thread (see SkipDetectionEngine).
+     * Interim and final results arrive on the main thread.
      * @param mediaIdentifier Input data for the strategies.
      * @param callback The interface to return the result to (MainActivity).
      */
     public void detectSkipSegmentsAsync(MediaIdentifier mediaIdentifier, SkipDetectionCallback callback) {
-        // # Run the entire detection logic on a background thread
-        executorService.submit(() -> {
-            SkipDetectionResult result = detectSkipSegmentsSync(mediaIdentifier);
-
-            // # Post the final result back to the main UI thread
-            mainHandler.post(() -> {
-                if (result.isSuccess()) {
-                    callback.onDetectionComplete(result);
-                } else {
-                    callback.onDetectionFailed(result.getErrorMessage());
-                }
-            });
-        });
+        // # Follows the setting from the next detection on
+        engine.getMetrics().setEnabled(prefsHelper.isLogDetectionMetrics());
+        engine.detectAsync(mediaIdentifier, callback);
     }
 
     /**
-     * detectSkipSegmentsSync
-     * FUNCTION: The core, synchronous (blocking) detection logic.
-     * This runs on the background thread.
+     * getDetectionMetrics
+     * FUNCTION: Latency histograms and recent timelines of live detections (prefetching is not
+     * included). Only filled while "Log Detection Timings" is on.
      */
-    private SkipDetectionResult detectSkipSegmentsSync(MediaIdentifier mediaIdentifier) {
+    public DetectionMetrics getDetectionMetrics() {
+        return engine.getMetrics();
+    }
 
-        // # 1. Check Cache First
-        SkipDetectionResult cachedResult = cacheStrategy.detect(mediaIdentifier);
-        if (cachedResult.isSuccess()) {
-            Log.i(TAG, "Cache hit: Returning result from " + cachedResult.getSource().getDisplayName());
-            return cachedResult;
-        }
-        Log.i(TAG, "Cache miss. Starting fresh detection.");
-
-        // # Clear any old chapter data before starting
-        chapterStrategy.clearCapturedChapters();
-
-        // # Variables to hold the best result and its strategy priority
-        final AtomicReference<SkipDetectionResult> bestResult = new AtomicReference<>(null);
-        final AtomicReference<Integer> bestPriority = new AtomicReference<>(0);
-        final List<Future<?>> futures = new ArrayList<>();
-
-        // # 2. Run all strategies concurrently
-        for (SkipDetectionStrategy strategy : strategies) {
-            if (!strategy.isAvailable()) {
-                Log.d(TAG, "Skipping unavailable strategy: " + strategy.getStrategyName());
-                continue; 
-            }
-
-            // # Submit each strategy to be run on the thread pool
-            Future<?> future = executorService.submit(() -> {
-                try {
-                    Log.d(TAG, "Starting detection: " + strategy.getStrategyName());
-                    SkipDetectionResult result = strategy.detect(mediaIdentifier);
-
-                    if (result.isSuccess()) {
-                        int strategyPriority = strategy.getPriority();
-                        Log.i(TAG, "Success from " + strategy.getStrategyName() + 
-                              " (Tier: " + strategyPriority + ", Conf: " + result.getConfidence() + ")");
-
-                        // # Critical Section: Only one thread can update the best result
-                        synchronized (bestResult) {
-                            SkipDetectionResult current = bestResult.get();
-                            Integer currentPriority = bestPriority.get();
-                            
-                            // # TIERED SELECTION LOGIC:
-                            // # 1. If no result yet, use this one
-                            // # 2. If new strategy has HIGHER tier (priority), it wins regardless of confidence
-                            // # 3. If same tier, higher confidence wins
-                            boolean shouldReplace = false;
-                            
-                            if (current == null) {
-                                shouldReplace = true;
-                            } else if (strategyPriority > currentPriority) {
-                                // # Higher tier always wins
-                                shouldReplace = true;
-                                Log.i(TAG, "Higher tier wins: " + strategy.getStrategyName() + 
-                                      " (Tier " + strategyPriority + ") beats (Tier " + currentPriority + ")");
-                            } else if (strategyPriority == currentPriority && 
-                                      result.getConfidence() > current.getConfidence()) {
-                                // # Same tier, higher confidence wins
-                                shouldReplace = true;
-                                Log.i(TAG, "Same tier, higher confidence wins: " + strategy.getStrategyName());
-                            }
-                            
-                            if (shouldReplace) {
-                                bestResult.set(result);
-                                bestPriority.set(strategyPriority);
-                                Log.i(TAG, "New best result set by " + strategy.getStrategyName());
-                            }
-                        }
-                    } else {
-                         Log.d(TAG, "Failed: " + strategy.getStrategyName() + " (" + result.getErrorMessage() + ")");
-                    }
-                } catch (Exception e) {
-                    Log.e(TAG, "Error in strategy " + strategy.getStrategyName(), e);
-                }
-            });
-
-            futures.add(future);
+    // # Platform steps of a detection; all run on engine worker threads
+    private final class AndroidHooks implements SkipDetectionEngine.Hooks {
+        @Override
+        public long getNegativeCacheTtlMs() {
+            return negativeCacheTtlMs();
         }
 
-        // # 3. Wait for all threads to complete or timeout
-        long startTime = System.currentTimeMillis();
-        boolean allDone = false;
-        while (!allDone && (System.currentTimeMillis() - startTime) < DETECTION_TIMEOUT_MS) {
-            allDone = true;
-            for (Future<?> future : futures) {
-                if (!future.isDone()) {
-                    allDone = false;
-                    break;
-                }
-            }
-            if (!allDone) {
-                try {
-                    Thread.sleep(100); // # Wait 100ms before checking again
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
+        @Override
+        public void onFreshDetection(MediaIdentifier mediaIdentifier) {
+            // # Clear any old chapter data before starting
+            chapterStrategy.clearCapturedChapters();
         }
 
-        // # 4. Cancel any remaining running threads (if timeout was hit)
-        if (!allDone) {
-            Log.w(TAG, "Detection timed out. Cancelling remaining strategies.");
-            for (Future<?> future : futures) {
-                if (!future.isDone()) {
-                    future.cancel(true); // # Interrupt the running thread
-                }
-            }
+        @Override
+        public boolean shouldRefine(MediaIdentifier mediaIdentifier, SkipDetectionResult result) {
+            return REFINABLE_SOURCES.contains(result.getSource())
+                && mediaIdentifier.getMediaUri() != null
+                && prefsHelper.isRefineSegmentEdges();
         }
 
-        // # 5. Final Result Determination with Tiered Priority System
-        // # FIX: Select winner based on TIER (priority) first, then confidence
-        SkipDetectionResult finalResult = selectBestResultByTier(bestResult.get());
+        @Override
+        public SkipDetectionResult refine(MediaIdentifier mediaIdentifier, SkipDetectionResult result)
+                throws IOException {
+            return BoundaryRefiner.refine(appContext, Uri.parse(mediaIdentifier.getMediaUri()),
+                result, mediaIdentifier.getRuntimeSeconds());
+        }
+    }
 
-        // # If no strategy succeeded, create a 'failed' result
-        if (finalResult == null) {
-            Log.w(TAG, "No strategy returned a successful result.");
-            // # FIX: This line now compiles due to the new import
-            finalResult = SkipDetectionResult.failed(DetectionSource.NONE, "No skip segments found by any strategy.");
+    /**
+     * getEndpointHealth
+     * FUNCTION: Circuit breaker state of each community API (per mirror for Intro-Skipper, with
+     *           its latency percentiles), e.g. for logs or a debug screen.
+     */
+    public String getEndpointHealth() {
+        StringBuilder sb = new StringBuilder(introHaterStrategy.getCircuitBreaker().toString());
+        for (Mirror mirror : introSkipperStrategy.getMirrors()) {
+            sb.append("; ").append(mirror);
         }
+        return sb.toString();
+    }
 
-        // # 6. Cache the best result (even if it's a 'failed' result)
-        cacheStrategy.cacheResult(mediaIdentifier, finalResult);
+    private long negativeCacheTtlMs() {
+        return prefsHelper.getNegativeCacheTtlHours() * 60L * 60 * 1000;
+    }
 
-        return finalResult;
+    /**
+     * prefetchUpcomingEpisodes
+     * FUNCTION: Resolves and caches skip segments for the next episodes of the same season
+     * in the background, so the next episode starts with a cache hit.
+     * @param mediaIdentifier The episode that just started playing.
+     */
+    public void prefetchUpcomingEpisodes(MediaIdentifier mediaIdentifier) {
+        seasonPrefetcher.prefetchAfter(mediaIdentifier, negativeCacheTtlMs());
     }
 
     /**
-     * selectBestResultByTier
-     * FUNCTION: Pass-through method - tier selection now happens in concurrent section.
-     * FIX: The tiered selection logic has been moved to the concurrent execution loop
-     *      where each result is compared by tier first, then confidence.
-     * 
-     * @param currentBest The result selected by tier-aware logic
-     * @return The final result (already tier-selected)
+     * prefetchQueuedEpisode
+     * FUNCTION: Gets the next item of the play queue ready before it starts: reads its container
+     * chapters and resolves its skip segments into the cache, so its skip buttons are there from
+     * the first frame. Call near the end of the current episode (the current detection is done).
+     * The prefetched segments are only provisional: when the item plays, ChapterStrategy still
+     * runs on the preloaded chapters and its tier-500 result replaces them.
+     * @param nextEpisode The queued item, identified the same way it will be when it plays.
      */
-    private SkipDetectionResult selectBestResultByTier(SkipDetectionResult currentBest) {
-        // # The tier-based selection now happens in the concurrent section above,
-        // # so this method just passes through the already-selected best result.
-        return currentBest;
+    public void prefetchQueuedEpisode(MediaIdentifier nextEpisode) {
+        if (nextEpisode.getMediaUri() != null) {
+            preloadChapters(nextEpisode.getMediaUri());
+        }
+        seasonPrefetcher.prefetchEpisode(nextEpisode, negativeCacheTtlMs());
     }
 
     // # Public methods for cache management from Settings
@@ -320,6 +350,13 @@ public class SmartSkipManager {
 
     // # Clean shutdown of the thread pool
     public void shutdown() {
-        executorService.shutdownNow();
+        DetectionMetrics metrics = engine.getMetrics();
+        if (metrics.isEnabled()) {
+            Log.i(TAG, metrics.dump());
+            Log.i(TAG, "Strategy timeouts: " + adaptiveTimeouts);
+            Log.i(TAG, "Endpoint health: " + getEndpointHealth());
+        }
+        scheduler.shutdown();
+        seasonPrefetcher.shutdown();
     }
 }
\ No newline at end of file
@@ -0,0 +1,242 @@
+package com.tvplayer.app.skipdetection.audio;
+
+import android.content.Context;
+import android.net.Uri;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegment;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * BoundaryRefiner
+ * FUNCTION: Moves segment edges that come from crowd data or fixed guesses onto the nearest
+ *           real scene boundary: a short silence in the audio. Only a few seconds around each
+ *           edge are decoded (PcmDecoder.decodeWindows), never the whole file.
+ * INTERACTS WITH: SmartSkipManager.java (refines the final result), PcmDecoder.java.
+ * SNAPPING: Start edges move to the first whole second at or after the silence begins, end edges
+ *           (the seek target) to the last whole second at or before it ends. Rounding to whole
+ *           seconds can only leave a little of the skipped segment, never cut episode content.
+ *           Edges with no silence nearby stay where they are.
+ * PERSONALIZATION:
+ * - SEARCH_SECONDS: how far from the reported edge a boundary may be.
+ * - MIN_SILENCE_SECONDS / MAX_SILENCE_RMS: what counts as a scene-change silence.
+ */
+public final class BoundaryRefiner {
+
+    private static final double SEARCH_SECONDS = 3.0;
+    private static final double FRAME_SECONDS = 0.02;
+    private static final double MIN_SILENCE_SECONDS = 0.15;
+    // # Silence is below both about -40 dBFS and a tenth of the surrounding median loudness
+    private static final float MAX_SILENCE_RMS = 0.01f;
+    private static final float SILENCE_RATIO = 0.1f;
+
+    private BoundaryRefiner() {
+    }
+
+    /**
+     * @param runtimeSeconds Media duration, or 0 if unknown (edges at the very end are not probed).
+     * @return A result with snapped edges, or the same instance if nothing moved.
+     * @throws IOException If the media cannot be read.
+     */
+    public static SkipDetectionResult refine(Context context, Uri uri, SkipDetectionResult result,
+                                             long runtimeSeconds) throws IOException {
+        List<SkipSegment> segments = result.getSegments();
+
+        // # Distinct edge positions worth probing (0 and the end of the media are exact already)
+        int[] edges = new int[segments.size() * 2];
+        int edgeCount = 0;
+        for (SkipSegment segment : segments) {
+            if (segment.startSeconds > 0) {
+                edges[edgeCount++] = segment.startSeconds;
+            }
+            if (runtimeSeconds <= 0 || segment.endSeconds < runtimeSeconds - 1) {
+                edges[edgeCount++] = segment.endSeconds;
+            }
+        }
+        if (edgeCount == 0) {
+            return result;
+        }
+        Arrays.sort(edges, 0, edgeCount);
+
+        // # One window per edge; overlapping windows are merged so each is decoded once
+        long[] startsUs = new long[edgeCount];
+        long[] endsUs = new long[edgeCount];
+        int windowCount = 0;
+        for (int i = 0; i < edgeCount; i++) {
+            long from = Math.max(0, (long) ((edges[i] - SEARCH_SECONDS) * 1_000_000));
+            long to = (long) ((edges[i] + SEARCH_SECONDS) * 1_000_000);
+            if (windowCount > 0 && from <= endsUs[windowCount - 1]) {
+                endsUs[windowCount - 1] = to;
+            } else {
+                startsUs[windowCount] = from;
+                endsUs[windowCount] = to;
+                windowCount++;
+            }
+        }
+        startsUs = Arrays.copyOf(startsUs, windowCount);
+        endsUs = Arrays.copyOf(endsUs, windowCount);
+
+        LoudnessSink loudness = new LoudnessSink(startsUs, endsUs);
+        PcmDecoder.decodeWindows(context, uri, startsUs, endsUs, loudness);
+
+        boolean changed = false;
+        List<SkipSegment> refined = new ArrayList<>(segments.size());
+        for (SkipSegment segment : segments) {
+            int start = segment.startSeconds > 0
+                ? loudness.snap(segment.startSeconds, true) : segment.startSeconds;
+            int end = runtimeSeconds <= 0 || segment.endSeconds < runtimeSeconds - 1
+                ? loudness.snap(segment.endSeconds, false) : segment.endSeconds;
+            if (end <= start) {
+                start = segment.startSeconds;
+                end = segment.endSeconds;
+            }
+            changed |= start != segment.startSeconds || end != segment.endSeconds;
+            refined.add(new SkipSegment(segment.type, start, end));
+        }
+
+        if (!changed) {
+            return result;
+        }
+        return SkipDetectionResult.success(result.getSource(), result.getConfidence(),
+            refined.toArray(new SkipSegment[0]));
+    }
+
+    /**
+     * LoudnessSink: Mono RMS in FRAME_SECONDS steps for each (disjoint) window.
+     */
+    private static final class LoudnessSink implements PcmSink {
+        private final long[] startsUs;
+        private final long[] endsUs;
+        private final double[][] sumSquares;
+        private final int[][] counts;
+
+        private int sampleRate;
+        private int channelCount;
+        private long bufferTimeUs;
+
+        LoudnessSink(long[] startsUs, long[] endsUs) {
+            this.startsUs = startsUs;
+            this.endsUs = endsUs;
+            this.sumSquares = new double[startsUs.length][];
+            this.counts = new int[startsUs.length][];
+            for (int w = 0; w < startsUs.length; w++) {
+                int frames = (int) Math.ceil((endsUs[w] - startsUs[w]) / 1e6 / FRAME_SECONDS) + 1;
+                sumSquares[w] = new double[frames];
+                counts[w] = new int[frames];
+            }
+        }
+
+        @Override
+        public void onFormat(int sampleRate, int channelCount) {
+            this.sampleRate = sampleRate;
+            this.channelCount = Math.max(1, channelCount);
+        }
+
+        @Override
+        public void onBufferTime(long presentationTimeUs) {
+            bufferTimeUs = presentationTimeUs;
+        }
+
+        @Override
+        public void onSamples(short[] interleaved, int count) {
+            int w = windowAt(bufferTimeUs);
+            if (w < 0 || sampleRate <= 0) {
+                return;
+            }
+            double[] sums = sumSquares[w];
+            int[] frameCounts = counts[w];
+            double startSeconds = (bufferTimeUs - startsUs[w]) / 1e6;
+            int frames = count / channelCount;
+            for (int n = 0; n < frames; n++) {
+                int frame = (int) ((startSeconds + (double) n / sampleRate) / FRAME_SECONDS);
+                if (frame >= sums.length) {
+                    break;
+                }
+                int mixed = 0;
+                for (int c = 0; c < channelCount; c++) {
+                    mixed += interleaved[n * channelCount + c];
+                }
+                double sample = mixed / (channelCount * 32768.0);
+                sums[frame] += sample * sample;
+                frameCounts[frame]++;
+            }
+        }
+
+        /**
+         * Snaps an edge to the silence closest to it, or returns it unchanged.
+         * @param isStart True for a segment start (round into the segment, i.e. up; ends round down).
+         */
+        int snap(int edgeSeconds, boolean isStart) {
+            int w = windowAt((long) edgeSeconds * 1_000_000);
+            if (w < 0) {
+                return edgeSeconds;
+            }
+            float[] rms = rms(w);
+            float threshold = Math.min(MAX_SILENCE_RMS, SILENCE_RATIO * median(rms));
+            int minFrames = (int) Math.round(MIN_SILENCE_SECONDS / FRAME_SECONDS);
+            double windowStart = startsUs[w] / 1e6;
+            double lowest = edgeSeconds - SEARCH_SECONDS;
+            double highest = edgeSeconds + SEARCH_SECONDS;
+
+            double bestDistance = Double.MAX_VALUE;
+            int best = edgeSeconds;
+            int runStart = -1;
+            for (int i = 0; i <= rms.length; i++) {
+                boolean silent = i < rms.length && rms[i] >= 0 && rms[i] < threshold;
+                if (silent && runStart < 0) {
+                    runStart = i;
+                } else if (!silent && runStart >= 0) {
+                    double from = windowStart + runStart * FRAME_SECONDS;
+                    double to = windowStart + i * FRAME_SECONDS;
+                    int snapped = isStart ? (int) Math.ceil(from) : (int) Math.floor(to);
+                    double distance = Math.abs((from + to) / 2 - edgeSeconds);
+                    if (i - runStart >= minFrames && snapped >= lowest && snapped <= highest
+                            && distance < bestDistance) {
+                        bestDistance = distance;
+                        best = snapped;
+                    }
+                    runStart = -1;
+                }
+            }
+            return best;
+        }
+
+        // # RMS per frame; -1 where nothing was decoded (e.g. past the end of the media)
+        private float[] rms(int w) {
+            float[] rms = new float[sumSquares[w].length];
+            for (int i = 0; i < rms.length; i++) {
+                int n = counts[w][i];
+                rms[i] = n == 0 ? -1f : (float) Math.sqrt(sumSquares[w][i] / n);
+            }
+            return rms;
+        }
+
+        private int windowAt(long timeUs) {
+            for (int w = 0; w < startsUs.length; w++) {
+                if (timeUs >= startsUs[w] && timeUs <= endsUs[w]) {
+                    return w;
+                }
+            }
+            return -1;
+        }
+
+        private static float median(float[] values) {
+            float[] decoded = new float[values.length];
+            int n = 0;
+            for (float value : values) {
+                if (value >= 0) {
+                    decoded[n++] = value;
+                }
+            }
+            if (n == 0) {
+                return 0f;
+            }
+            Arrays.sort(decoded, 0, n);
+            return decoded[n / 2];
+        }
+    }
+}
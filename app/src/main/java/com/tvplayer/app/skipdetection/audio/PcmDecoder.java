@@ -0,0 +1,158 @@
+package com.tvplayer.app.skipdetection.audio;
+
+import android.content.Context;
+import android.media.MediaCodec;
+import android.media.MediaExtractor;
+import android.media.MediaFormat;
+import android.net.Uri;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+/**
+ * PcmDecoder
+ * FUNCTION: Decodes a time window of the first audio track of a media file to 16-bit PCM
+ *           using the platform MediaExtractor + MediaCodec, and streams the samples to a sink.
+ *           Nothing is buffered beyond one codec output buffer, so memory stays flat no matter
+ *           how long the window is.
+ * INTERACTS WITH: PcmSink.java (skipdetection-core), AudioFeatureExtractor.java (the usual sink),
+ *                 AudioFingerprintStrategy.java, BoundaryRefiner.java (short windows around edges).
+ * NOTE: Decoding stops promptly when the calling thread is interrupted (detection timeout).
+ */
+public final class PcmDecoder {
+
+    private static final long CODEC_TIMEOUT_US = 10_000;
+
+    private PcmDecoder() {
+    }
+
+    /**
+     * Decodes audio between startUs and endUs (media time) into the sink.
+     * @throws IOException If the media has no audio track or cannot be read.
+     * @throws InterruptedIOException If the calling thread is interrupted.
+     */
+    public static void decode(Context context, Uri uri, long startUs, long endUs, PcmSink sink)
+            throws IOException {
+        decodeWindows(context, uri, new long[] {startUs}, new long[] {endUs}, sink);
+    }
+
+    /**
+     * Decodes several short windows with one extractor and codec (the codec is flushed between
+     * windows), so probing a handful of positions costs a few seeks instead of a full decode.
+     * Use PcmSink.onBufferTime to tell the windows apart.
+     * @param startsUs Window starts in media time, ascending.
+     * @param endsUs Window ends, same length as startsUs.
+     */
+    public static void decodeWindows(Context context, Uri uri, long[] startsUs, long[] endsUs, PcmSink sink)
+            throws IOException {
+        MediaExtractor extractor = new MediaExtractor();
+        MediaCodec codec = null;
+        try {
+            extractor.setDataSource(context, uri, null);
+
+            int track = findAudioTrack(extractor);
+            if (track < 0) {
+                throw new IOException("No audio track");
+            }
+            extractor.selectTrack(track);
+            MediaFormat inputFormat = extractor.getTrackFormat(track);
+
+            codec = MediaCodec.createDecoderByType(inputFormat.getString(MediaFormat.KEY_MIME));
+            codec.configure(inputFormat, null, null, 0);
+            codec.start();
+
+            // # Until the codec reports its output format, assume it matches the input
+            sink.onFormat(inputFormat.getInteger(MediaFormat.KEY_SAMPLE_RATE),
+                inputFormat.getInteger(MediaFormat.KEY_CHANNEL_COUNT));
+
+            for (int w = 0; w < startsUs.length; w++) {
+                if (w > 0) {
+                    codec.flush();
+                }
+                if (startsUs[w] > 0 || w > 0) {
+                    extractor.seekTo(startsUs[w], MediaExtractor.SEEK_TO_PREVIOUS_SYNC);
+                }
+                decodeRange(extractor, codec, startsUs[w], endsUs[w], sink);
+            }
+        } finally {
+            if (codec != null) {
+                try {
+                    codec.stop();
+                } catch (IllegalStateException e) {
+                    // # Codec never started or already stopped
+                }
+                codec.release();
+            }
+            extractor.release();
+        }
+    }
+
+    // # Feeds the codec from the extractor's position until endUs, then drains it
+    private static void decodeRange(MediaExtractor extractor, MediaCodec codec, long startUs, long endUs,
+                                    PcmSink sink) throws IOException {
+        MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+        short[] samples = new short[0];
+        boolean inputDone = false;
+        boolean outputDone = false;
+
+        while (!outputDone) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Audio decode cancelled");
+            }
+
+            if (!inputDone) {
+                int inIndex = codec.dequeueInputBuffer(CODEC_TIMEOUT_US);
+                if (inIndex >= 0) {
+                    ByteBuffer input = codec.getInputBuffer(inIndex);
+                    int size = extractor.readSampleData(input, 0);
+                    long sampleTimeUs = extractor.getSampleTime();
+                    if (size < 0 || sampleTimeUs > endUs) {
+                        codec.queueInputBuffer(inIndex, 0, 0, 0, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                        inputDone = true;
+                    } else {
+                        codec.queueInputBuffer(inIndex, 0, size, sampleTimeUs, 0);
+                        extractor.advance();
+                    }
+                }
+            }
+
+            int outIndex = codec.dequeueOutputBuffer(info, CODEC_TIMEOUT_US);
+            if (outIndex == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                MediaFormat outputFormat = codec.getOutputFormat();
+                sink.onFormat(outputFormat.getInteger(MediaFormat.KEY_SAMPLE_RATE),
+                    outputFormat.getInteger(MediaFormat.KEY_CHANNEL_COUNT));
+            } else if (outIndex >= 0) {
+                if (info.size > 0 && info.presentationTimeUs >= startUs) {
+                    ByteBuffer output = codec.getOutputBuffer(outIndex);
+                    output.position(info.offset);
+                    output.limit(info.offset + info.size);
+                    ShortBuffer pcm = output.order(ByteOrder.nativeOrder()).asShortBuffer();
+                    int count = pcm.remaining();
+                    if (samples.length < count) {
+                        samples = new short[count];
+                    }
+                    pcm.get(samples, 0, count);
+                    sink.onBufferTime(info.presentationTimeUs);
+                    sink.onSamples(samples, count);
+                }
+                codec.releaseOutputBuffer(outIndex, false);
+                if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) {
+                    outputDone = true;
+                }
+            }
+        }
+    }
+
+    private static int findAudioTrack(MediaExtractor extractor) {
+        for (int i = 0; i < extractor.getTrackCount(); i++) {
+            String mime = extractor.getTrackFormat(i).getString(MediaFormat.KEY_MIME);
+            if (mime != null && mime.startsWith("audio/")) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
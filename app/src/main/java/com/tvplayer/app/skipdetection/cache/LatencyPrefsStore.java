@@ -0,0 +1,62 @@
+package com.tvplayer.app.skipdetection.cache;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.tvplayer.app.skipdetection.platform.LatencyStore;
+
+/**
+ * LatencyPrefsStore
+ * FUNCTION: Keeps the recent latencies of each skip detection strategy in SharedPreferences,
+ *           one comma-separated entry per strategy name (at most AdaptiveTimeouts.WINDOW_SIZE
+ *           numbers, so a few hundred bytes each).
+ * INTERACTS WITH: AdaptiveTimeouts.java (through LatencyStore), SmartSkipManager.java (creates it).
+ */
+public class LatencyPrefsStore implements LatencyStore {
+
+    private static final String PREFS_NAME = "SkipDetectionLatency";
+
+    private final SharedPreferences prefs;
+
+    public LatencyPrefsStore(Context context) {
+        this.prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    @Override
+    public long[] load(String strategyName) {
+        String saved = prefs.getString(strategyName, null);
+        if (saved == null || saved.isEmpty()) {
+            return new long[0];
+        }
+        String[] parts = saved.split(",");
+        long[] latencies = new long[parts.length];
+        int count = 0;
+        for (String part : parts) {
+            try {
+                latencies[count++] = Long.parseLong(part);
+            } catch (NumberFormatException e) {
+                // # Skip a damaged entry rather than losing the rest
+                count--;
+            }
+        }
+        if (count == latencies.length) {
+            return latencies;
+        }
+        long[] trimmed = new long[count];
+        System.arraycopy(latencies, 0, trimmed, 0, count);
+        return trimmed;
+    }
+
+    @Override
+    public void save(String strategyName, long[] latenciesMs) {
+        StringBuilder sb = new StringBuilder(latenciesMs.length * 5);
+        for (int i = 0; i < latenciesMs.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(latenciesMs[i]);
+        }
+        // # apply(): written to disk in the background
+        prefs.edit().putString(strategyName, sb.toString()).apply();
+    }
+}
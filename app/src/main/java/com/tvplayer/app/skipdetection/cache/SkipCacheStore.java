@@ -0,0 +1,222 @@
+package com.tvplayer.app.skipdetection.cache;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.tvplayer.app.skipdetection.platform.KeyValueStore;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SkipCacheStore
+ * FUNCTION: SQLite-backed store for cached skip segments, keyed by MediaIdentifier.getCacheKey().
+ *           Point reads use the primary key index and every write touches a single row, so cost
+ *           no longer grows with the number of cached episodes.
+ * INTERACTS WITH: CacheStrategy.java (its only user, through KeyValueStore), CachedSkipData.java,
+ *                 SkipSegmentCodec.java.
+ * MIGRATION: The first time the database is opened, entries from the legacy "SkipDetectionCache"
+ *            SharedPreferences file are copied in and the old file is cleared.
+ */
+public class SkipCacheStore extends SQLiteOpenHelper implements KeyValueStore {
+
+    private static final String TAG = "SkipCacheStore";
+    private static final String DATABASE_NAME = "skip_cache.db";
+    // # v2: negative_cache table, v3: priority and provisional columns
+    private static final int DATABASE_VERSION = 3;
+
+    // # Legacy storage that this store replaces
+    private static final String LEGACY_PREFS_NAME = "SkipDetectionCache";
+
+    private static final String TABLE = "skip_cache";
+    private static final String COL_KEY = "cache_key";
+    private static final String COL_SEGMENTS = "segments";
+    private static final String COL_TIMESTAMP = "timestamp";
+    private static final String COL_SOURCE = "source";
+    private static final String COL_CONFIDENCE = "confidence";
+    private static final String COL_PRIORITY = "priority";
+    private static final String COL_PROVISIONAL = "provisional";
+
+    private static final String[] ENTRY_COLUMNS = {COL_SEGMENTS, COL_TIMESTAMP, COL_SOURCE, COL_CONFIDENCE,
+        COL_PRIORITY, COL_PROVISIONAL};
+
+    // # Negative entries: "this strategy had no data for this key" at a point in time
+    private static final String NEGATIVE_TABLE = "negative_cache";
+    private static final String COL_STRATEGY = "strategy";
+
+    private final Context appContext;
+
+    public SkipCacheStore(Context context) {
+        super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+        this.appContext = context.getApplicationContext();
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE + " ("
+            + COL_KEY + " TEXT PRIMARY KEY NOT NULL, "
+            + COL_SEGMENTS + " TEXT NOT NULL, "
+            + COL_TIMESTAMP + " INTEGER NOT NULL, "
+            + COL_SOURCE + " TEXT, "
+            + COL_CONFIDENCE + " REAL NOT NULL, "
+            + COL_PRIORITY + " INTEGER NOT NULL DEFAULT 0, "
+            + COL_PROVISIONAL + " INTEGER NOT NULL DEFAULT 0)");
+        createNegativeTable(db);
+
+        // # Runs once, inside the creation transaction
+        migrateLegacyPreferences(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            createNegativeTable(db);
+        }
+        if (oldVersion < 3) {
+            // # Existing rows keep priority 0 (unknown) and count as final
+            db.execSQL("ALTER TABLE " + TABLE + " ADD COLUMN " + COL_PRIORITY + " INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE " + TABLE + " ADD COLUMN " + COL_PROVISIONAL + " INTEGER NOT NULL DEFAULT 0");
+        }
+    }
+
+    private static void createNegativeTable(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + NEGATIVE_TABLE + " ("
+            + COL_KEY + " TEXT NOT NULL, "
+            + COL_STRATEGY + " TEXT NOT NULL, "
+            + COL_TIMESTAMP + " INTEGER NOT NULL, "
+            + "PRIMARY KEY (" + COL_KEY + ", " + COL_STRATEGY + "))");
+    }
+
+    /**
+     * Reads a single entry by key.
+     * @return The entry, or null if nothing is cached for this key.
+     */
+    @Override
+    public CachedSkipData get(String cacheKey) {
+        try (Cursor cursor = getReadableDatabase().query(TABLE, ENTRY_COLUMNS,
+                COL_KEY + " = ?", new String[]{cacheKey}, null, null, null, "1")) {
+            if (!cursor.moveToFirst()) {
+                return null;
+            }
+            CachedSkipData data = new CachedSkipData();
+            data.segments = SkipSegmentCodec.decode(cursor.getString(0));
+            data.timestamp = cursor.getLong(1);
+            data.source = cursor.getString(2);
+            data.confidence = cursor.getFloat(3);
+            data.priority = cursor.getInt(4);
+            data.provisional = cursor.getInt(5) != 0;
+            return data;
+        }
+    }
+
+    /**
+     * Inserts or replaces a single entry.
+     */
+    @Override
+    public void put(String cacheKey, CachedSkipData data) {
+        getWritableDatabase().insertWithOnConflict(TABLE, null, toValues(cacheKey, data),
+            SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    @Override
+    public void remove(String cacheKey) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.delete(TABLE, COL_KEY + " = ?", new String[]{cacheKey});
+        db.delete(NEGATIVE_TABLE, COL_KEY + " = ?", new String[]{cacheKey});
+    }
+
+    @Override
+    public void clear() {
+        SQLiteDatabase db = getWritableDatabase();
+        db.delete(TABLE, null, null);
+        db.delete(NEGATIVE_TABLE, null, null);
+    }
+
+    /**
+     * Records that a strategy had no data for this key at the given time.
+     */
+    @Override
+    public void putNegative(String cacheKey, String strategyName, long timestamp) {
+        ContentValues values = new ContentValues(3);
+        values.put(COL_KEY, cacheKey);
+        values.put(COL_STRATEGY, strategyName);
+        values.put(COL_TIMESTAMP, timestamp);
+        getWritableDatabase().insertWithOnConflict(NEGATIVE_TABLE, null, values,
+            SQLiteDatabase.CONFLICT_REPLACE);
+    }
+
+    /**
+     * Names of strategies with a negative entry for this key recorded at or after notBefore.
+     * A single indexed query covers all strategies of one detection.
+     */
+    @Override
+    public Set<String> getNegativeStrategies(String cacheKey, long notBefore) {
+        Set<String> strategies = new HashSet<>();
+        try (Cursor cursor = getReadableDatabase().query(NEGATIVE_TABLE, new String[]{COL_STRATEGY},
+                COL_KEY + " = ? AND " + COL_TIMESTAMP + " >= ?",
+                new String[]{cacheKey, String.valueOf(notBefore)}, null, null, null)) {
+            while (cursor.moveToNext()) {
+                strategies.add(cursor.getString(0));
+            }
+        }
+        return strategies;
+    }
+
+    @Override
+    public void pruneNegatives(long notBefore) {
+        getWritableDatabase().delete(NEGATIVE_TABLE, COL_TIMESTAMP + " < ?",
+            new String[]{String.valueOf(notBefore)});
+    }
+
+    private static ContentValues toValues(String cacheKey, CachedSkipData data) {
+        ContentValues values = new ContentValues(7);
+        values.put(COL_KEY, cacheKey);
+        values.put(COL_SEGMENTS, SkipSegmentCodec.encode(data.segments));
+        values.put(COL_TIMESTAMP, data.timestamp);
+        values.put(COL_SOURCE, data.source);
+        values.put(COL_CONFIDENCE, data.confidence);
+        values.put(COL_PRIORITY, data.priority);
+        values.put(COL_PROVISIONAL, data.provisional ? 1 : 0);
+        return values;
+    }
+
+    /**
+     * Copies every entry of the legacy Gson/SharedPreferences cache into the new table,
+     * then clears the legacy file. Unreadable entries are dropped.
+     */
+    private void migrateLegacyPreferences(SQLiteDatabase db) {
+        SharedPreferences legacy = appContext.getSharedPreferences(LEGACY_PREFS_NAME, Context.MODE_PRIVATE);
+        Map<String, ?> entries = legacy.getAll();
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        Gson gson = new Gson();
+        int migrated = 0;
+        for (Map.Entry<String, ?> entry : entries.entrySet()) {
+            if (!(entry.getValue() instanceof String)) {
+                continue;
+            }
+            try {
+                CachedSkipData data = gson.fromJson((String) entry.getValue(), CachedSkipData.class);
+                if (data != null && data.segments != null && !data.segments.isEmpty()) {
+                    db.insertWithOnConflict(TABLE, null, toValues(entry.getKey(), data),
+                        SQLiteDatabase.CONFLICT_REPLACE);
+                    migrated++;
+                }
+            } catch (Exception e) {
+                Log.w(TAG, "Dropping unreadable legacy cache entry: " + entry.getKey());
+            }
+        }
+
+        legacy.edit().clear().apply();
+        Log.i(TAG, "Migrated " + migrated + " of " + entries.size() + " legacy cache entries.");
+    }
+}
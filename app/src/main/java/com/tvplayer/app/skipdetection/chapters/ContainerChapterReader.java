@@ -0,0 +1,36 @@
+package com.tvplayer.app.skipdetection.chapters;
+
+import android.content.Context;
+import android.net.Uri;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * ContainerChapterReader
+ * FUNCTION: Entry point for reading chapters straight from the media container, before or
+ *           independently of playback. Opens a ranged source for the URI and hands it to the
+ *           core ContainerChapterParser.
+ * INTERACTS WITH: ChapterStrategy.java (caller), ContainerChapterParser.java (core),
+ *                 HttpRangedSource.java / LocalRangedSource.java (chosen by URI scheme).
+ */
+public final class ContainerChapterReader {
+
+    private ContainerChapterReader() {
+    }
+
+    /**
+     * @return The container's chapters in file order (empty if it has none),
+     *         or null if the format is neither Matroska nor MP4.
+     * @throws IOException If the media cannot be read or its headers are corrupt.
+     */
+    public static List<ContainerChapter> read(Context context, Uri uri) throws IOException {
+        String scheme = uri.getScheme();
+        boolean remote = "http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme);
+        try (RangedSource source = remote
+                ? new HttpRangedSource(uri.toString())
+                : new LocalRangedSource(context, uri)) {
+            return ContainerChapterParser.parse(source);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.tvplayer.app.skipdetection.chapters;
+
+import com.tvplayer.app.HttpClientProvider;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * HttpRangedSource
+ * FUNCTION: RangedSource over HTTP(S) using "Range: bytes=a-b" requests on the shared client.
+ *           Servers that ignore Range (plain 200) are rejected instead of being downloaded.
+ * INTERACTS WITH: ContainerChapterReader.java (opens it for http/https URIs),
+ *                 HttpClientProvider.java (connection pool shared with playback-side calls).
+ */
+final class HttpRangedSource implements RangedSource {
+
+    private static final int TIMEOUT_SECONDS = 8;
+
+    private final OkHttpClient client;
+    private final String url;
+    private long length = -1;
+
+    HttpRangedSource(String url) {
+        this.client = HttpClientProvider.newClient(TIMEOUT_SECONDS);
+        this.url = url;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public int read(long position, byte[] buffer, int offset, int length) throws IOException {
+        Request request = new Request.Builder()
+            .url(url)
+            .header("Range", "bytes=" + position + "-" + (position + length - 1))
+            // # Byte offsets must refer to the stored file, not a compressed transfer
+            .header("Accept-Encoding", "identity")
+            .build();
+
+        try (Response response = client.newCall(request).execute()) {
+            if (response.code() == 416) {
+                return -1; // # Range starts past the end
+            }
+            if (response.code() != 206) {
+                throw new IOException("Range requests not supported (HTTP " + response.code() + ")");
+            }
+            parseTotalLength(response.header("Content-Range"));
+
+            ResponseBody body = response.body();
+            if (body == null) {
+                return -1;
+            }
+            InputStream in = body.byteStream();
+            int total = 0;
+            while (total < length) {
+                int read = in.read(buffer, offset + total, length - total);
+                if (read < 0) {
+                    break;
+                }
+                total += read;
+            }
+            return total == 0 ? -1 : total;
+        }
+    }
+
+    // # "bytes 0-65535/734003200" -> 734003200
+    private void parseTotalLength(String contentRange) {
+        if (length >= 0 || contentRange == null) {
+            return;
+        }
+        int slash = contentRange.lastIndexOf('/');
+        if (slash >= 0 && slash + 1 < contentRange.length() && contentRange.charAt(slash + 1) != '*') {
+            try {
+                length = Long.parseLong(contentRange.substring(slash + 1).trim());
+            } catch (NumberFormatException e) {
+                // # Unknown total; readers then only walk forward
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        // # Every read is a self-contained request
+    }
+}
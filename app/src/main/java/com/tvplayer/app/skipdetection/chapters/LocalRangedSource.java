@@ -0,0 +1,52 @@
+package com.tvplayer.app.skipdetection.chapters;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * LocalRangedSource
+ * FUNCTION: RangedSource over a file or content:// URI, using positional channel reads.
+ * INTERACTS WITH: ContainerChapterReader.java (opens it for non-HTTP URIs).
+ */
+final class LocalRangedSource implements RangedSource {
+
+    private final ParcelFileDescriptor descriptor;
+    private final FileInputStream stream;
+    private final FileChannel channel;
+
+    LocalRangedSource(Context context, Uri uri) throws IOException {
+        ParcelFileDescriptor fd = context.getContentResolver().openFileDescriptor(uri, "r");
+        if (fd == null) {
+            throw new FileNotFoundException("Cannot open " + uri);
+        }
+        this.descriptor = fd;
+        this.stream = new FileInputStream(fd.getFileDescriptor());
+        this.channel = stream.getChannel();
+    }
+
+    @Override
+    public long length() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public int read(long position, byte[] buffer, int offset, int length) throws IOException {
+        return channel.read(ByteBuffer.wrap(buffer, offset, length), position);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            stream.close();
+        } finally {
+            descriptor.close();
+        }
+    }
+}
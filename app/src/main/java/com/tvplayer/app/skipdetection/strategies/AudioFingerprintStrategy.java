@@ -1,46 +1,168 @@
 package com.tvplayer.app.skipdetection.strategies;
 
+import android.content.Context;
+import android.net.Uri;
 import android.util.Log;
 
 import com.tvplayer.app.skipdetection.MediaIdentifier;
 import com.tvplayer.app.skipdetection.SkipDetectionResult;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegment;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
 import com.tvplayer.app.skipdetection.SkipDetectionResult.DetectionSource;
 import com.tvplayer.app.skipdetection.SkipDetectionStrategy;
+import com.tvplayer.app.skipdetection.audio.AudioFeatureExtractor;
+import com.tvplayer.app.skipdetection.audio.AudioFeatures;
+import com.tvplayer.app.skipdetection.audio.PcmDecoder;
+import com.tvplayer.app.skipdetection.audio.ShowFingerprintIndex;
+import com.tvplayer.app.skipdetection.audio.ThemeMusicDetector;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
 
 /**
- * AudioFingerprintStrategy (Placeholder)
- * FUNCTION: This is a placeholder for a future strategy that would scan the audio
- * track to detect intros/recaps (e.g., by detecting silence or repeated theme music).
- * INTERACTS WITH: SmartSkipManager.java (which includes it in the priority list).
- * PERSONALIZATION: This file is non-functional. The 'detect' method returns 'failed'
- * until a real audio analysis library is implemented.
+ * AudioFingerprintStrategy
+ * FUNCTION: Scans the audio of the opening minutes on the device to find the theme music.
+ *           Decodes audio with MediaExtractor/MediaCodec (PcmDecoder), reduces it to compact
+ *           chroma/spectral features (AudioFeatureExtractor) and picks the sustained music
+ *           region with an intro-like length (ThemeMusicDetector). Needs no network.
+ *           For TV episodes the sub-fingerprints are also kept in a per-show index; once other
+ *           episodes of the show have been analysed, the audio they share with this one (the
+ *           theme) is the intro, which is far more reliable than the single-episode guess.
+ *           Local files and content:// URIs only: a remote stream cannot deliver five minutes of
+ *           audio within the detection timeout, and would compete with playback for bandwidth.
+ * INTERACTS WITH: SmartSkipManager.java (which includes it in the priority list),
+ *                 MediaIdentifier.getMediaUri() (the file or stream to analyse),
+ *                 ShowFingerprintIndex.java (cross-episode matching).
+ * PERSONALIZATION:
+ * - ANALYSIS_WINDOW_SECONDS: how much of the opening is decoded.
+ * - MIN/MAX_INTRO_SECONDS: accepted theme length.
  */
 public class AudioFingerprintStrategy implements SkipDetectionStrategy {
 
     private static final String TAG = "AudioFingerprintStrategy";
+    // # Intros almost always start within the first few minutes
+    private static final int ANALYSIS_WINDOW_SECONDS = 5 * 60;
+    private static final int MIN_INTRO_SECONDS = 15;
+    private static final int MAX_INTRO_SECONDS = 120;
+
+    private static final String INDEX_DIRECTORY = "fingerprints";
+
+    private final Context context;
+    private final File indexDirectory;
+    // # Binge sessions stay on one show; keep its index loaded between episodes
+    private final Object indexLock = new Object();
+    private String loadedShow;
+    private ShowFingerprintIndex loadedIndex;
 
-    public AudioFingerprintStrategy() {
-        // # Initialization for audio analysis components would go here.
+    public AudioFingerprintStrategy(Context context) {
+        this.context = context.getApplicationContext();
+        this.indexDirectory = new File(this.context.getNoBackupFilesDir(), INDEX_DIRECTORY);
     }
 
     /**
-     * Core detection logic (Placeholder).
-     * This is where audio processing would happen.
+     * Core detection logic: decode, extract features, detect the theme region.
+     * Runs on a detection thread; an interrupt (timeout/cancel) stops decoding promptly.
      */
     @Override
     public SkipDetectionResult detect(MediaIdentifier mediaIdentifier) {
+        String mediaUri = mediaIdentifier.getMediaUri();
+        if (mediaUri == null || mediaUri.isEmpty()) {
+            return SkipDetectionResult.failed(DetectionSource.AUDIO_FINGERPRINT, "No media URI to analyse.");
+        }
+        Uri uri = Uri.parse(mediaUri);
+        if (!isLocal(uri)) {
+            return SkipDetectionResult.failed(DetectionSource.AUDIO_FINGERPRINT,
+                "Audio is only analysed for local files.");
+        }
 
-        Log.d(TAG, "Audio fingerprint detection is a placeholder and not yet implemented.");
+        // # Never scan past the first half of the runtime (that would be credits territory)
+        long windowSeconds = ANALYSIS_WINDOW_SECONDS;
+        if (mediaIdentifier.getRuntimeSeconds() > 0) {
+            windowSeconds = Math.min(windowSeconds, mediaIdentifier.getRuntimeSeconds() / 2);
+        }
 
-        // # This strategy will always fail until it is implemented.
-        return SkipDetectionResult.failed(DetectionSource.AUDIO_FINGERPRINT, "Audio analysis not implemented.");
+        try {
+            long startMs = System.currentTimeMillis();
+            AudioFeatureExtractor extractor = new AudioFeatureExtractor();
+            PcmDecoder.decode(context, uri, 0, windowSeconds * 1_000_000L, extractor);
+            AudioFeatures features = extractor.getFeatures();
+            Log.d(TAG, "Analysed " + features.frameCount + " frames in "
+                + (System.currentTimeMillis() - startMs) + " ms");
 
-        /* // Example of a successful return structure if it were implemented:
-        if (foundIntro) {
-             SkipSegment intro = new SkipSegment(SkipSegmentType.INTRO, 50, 120);
-             return SkipDetectionResult.success(DetectionSource.AUDIO_FINGERPRINT, 0.60f, intro);
+            SkipDetectionResult shared = matchAcrossEpisodes(mediaIdentifier, features);
+            if (shared != null) {
+                return shared;
+            }
+
+            ThemeMusicDetector.Detection detection =
+                ThemeMusicDetector.detect(features, MIN_INTRO_SECONDS, MAX_INTRO_SECONDS);
+            if (detection == null) {
+                // # The full window was analysed; re-running it would give the same answer
+                return SkipDetectionResult.noData(DetectionSource.AUDIO_FINGERPRINT, "No theme music found.");
+            }
+
+            SkipSegment intro = new SkipSegment(SkipSegmentType.INTRO,
+                (int) Math.round(detection.startSeconds), (int) Math.round(detection.endSeconds));
+            Log.d(TAG, "Theme music at " + intro.startSeconds + "s - " + intro.endSeconds + "s");
+            return SkipDetectionResult.success(DetectionSource.AUDIO_FINGERPRINT, detection.confidence, intro);
+
+        } catch (InterruptedIOException e) {
+            return SkipDetectionResult.failed(DetectionSource.AUDIO_FINGERPRINT, "Audio analysis cancelled.");
+        } catch (Exception e) {
+            Log.e(TAG, "Audio analysis failed", e);
+            return SkipDetectionResult.failed(DetectionSource.AUDIO_FINGERPRINT, "Audio analysis failed: " + e.getMessage());
         }
-        */
+    }
+
+    /**
+     * Matches this episode against the show's other indexed episodes, then adds it to the index.
+     * @return A result for the shared region, or null if not a TV episode or nothing matched.
+     */
+    private SkipDetectionResult matchAcrossEpisodes(MediaIdentifier mediaIdentifier, AudioFeatures features) {
+        Integer season = mediaIdentifier.getSeasonNumber();
+        Integer episode = mediaIdentifier.getEpisodeNumber();
+        String showName = mediaIdentifier.getShowName();
+        if (!mediaIdentifier.isTvShow() || showName == null || season == null || episode == null) {
+            return null;
+        }
+
+        synchronized (indexLock) {
+            if (loadedIndex == null || !showName.equals(loadedShow)) {
+                loadedIndex = ShowFingerprintIndex.open(indexDirectory, showName);
+                loadedShow = showName;
+            }
+
+            long startMs = System.currentTimeMillis();
+            ShowFingerprintIndex.Match match =
+                loadedIndex.match(season, episode, features, MIN_INTRO_SECONDS, MAX_INTRO_SECONDS);
+            Log.d(TAG, "Matched against " + loadedIndex.getEpisodeCount() + " indexed episodes in "
+                + (System.currentTimeMillis() - startMs) + " ms");
+
+            loadedIndex.put(season, episode, features);
+            try {
+                loadedIndex.save();
+            } catch (IOException e) {
+                Log.w(TAG, "Could not save fingerprint index for " + showName, e);
+            }
+
+            if (match == null) {
+                return null;
+            }
+            // # More agreeing episodes, more trust
+            float confidence = 0.75f + 0.05f * Math.min(3, match.supportingEpisodes - 1);
+            SkipSegment intro = new SkipSegment(SkipSegmentType.INTRO,
+                (int) Math.round(match.startSeconds), (int) Math.round(match.endSeconds));
+            Log.d(TAG, "Shared theme at " + intro.startSeconds + "s - " + intro.endSeconds + "s ("
+                + match.supportingEpisodes + " episodes agree)");
+            return SkipDetectionResult.success(DetectionSource.AUDIO_FINGERPRINT, confidence, intro);
+        }
+    }
+
+    // # A plain path, file:// or content:// (local storage or a document provider)
+    private static boolean isLocal(Uri uri) {
+        String scheme = uri.getScheme();
+        return scheme == null || "file".equalsIgnoreCase(scheme) || "content".equalsIgnoreCase(scheme);
     }
 
     @Override
@@ -50,9 +172,7 @@ public class AudioFingerprintStrategy implements SkipDetectionStrategy {
 
     @Override
     public boolean isAvailable() {
-        // # Set to true so it appears in the priority list, even though it will fail.
-        // # Set to false to disable it entirely.
-        return true; 
+        return true;
     }
 
     @Override
@@ -60,4 +180,4 @@ public class AudioFingerprintStrategy implements SkipDetectionStrategy {
         // # FIX: Set to 300 for P1 Priority (Category 4: Audio Scanning).
         return 300;
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package com.tvplayer.app.skipdetection.strategies;
 
+import android.content.Context;
+import android.net.Uri;
 import android.util.Log;
 
 import androidx.media3.common.Metadata;
@@ -13,32 +15,50 @@ import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegment;
 import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
 import com.tvplayer.app.skipdetection.SkipDetectionResult.DetectionSource;
 import com.tvplayer.app.skipdetection.SkipDetectionStrategy;
+import com.tvplayer.app.skipdetection.chapters.ContainerChapter;
+import com.tvplayer.app.skipdetection.chapters.ContainerChapterReader;
+import com.tvplayer.app.skipdetection.chapters.SkipTitleClassifier;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * ChapterStrategy
- * FUNCTION: Detects skip segments by listening for embedded Chapter markers (e.g., ID3 tags)
- * in the media stream. This is a very reliable, high-priority source.
- * INTERACTS WITH: SmartSkipManager.java (which calls it), Player (Media3) (which it listens to).
- * PERSONALIZATION: The 'title.toLowerCase().contains(...)' logic can be expanded
- * to support more chapter names (e.g., "opening", "ending", "previously on").
+ * FUNCTION: Detects skip segments from named chapters. Two sources:
+ *   - Container chapters (Matroska Chapters, MP4 chpl / QuickTime chapter track), read directly
+ *     from the file header with ranged reads. Preloaded as soon as the media URI is known, so
+ *     they are usually ready before playback starts. This is the primary source.
+ *   - ID3 ChapterFrame entries delivered by the player via onMetadata (MP3 / HLS ID3 streams).
+ * This is a very reliable, high-priority source.
+ * INTERACTS WITH: SmartSkipManager.java (which calls it), Player (Media3) (which it listens to),
+ *                 ContainerChapterReader.java (container parsing).
+ * PERSONALIZATION: SkipTitleClassifier maps chapter names (e.g., "Opening", "End Credits",
+ * "Previously on") to segment types.
  */
 public class ChapterStrategy implements SkipDetectionStrategy {
 
     private static final String TAG = "ChapterStrategy";
+
+    private final Context context;
     private Player player;
     private final List<ChapterData> capturedChapters = new CopyOnWriteArrayList<>();
     private Player.Listener metadataListener;
 
+    // # Container chapters being read for containerUri
+    private volatile String containerUri;
+    private volatile Future<List<ContainerChapter>> containerChapters;
+
     /**
-     * FIX: Constructor is now empty. The player is provided later via rebindToPlayer
+     * FIX: The player is provided later via rebindToPlayer
      * to avoid the circular dependency / startup order bug.
      */
-    public ChapterStrategy() {
+    public ChapterStrategy(Context context) {
         // # Player is not available at construction time
+        this.context = context.getApplicationContext();
     }
 
     /**
@@ -64,6 +84,18 @@ public class ChapterStrategy implements SkipDetectionStrategy {
         }
     }
 
+    /**
+     * Starts reading the container chapters of a media URI in the background.
+     * Called as soon as the media is set on the player, so the header reads overlap buffering.
+     */
+    public void preloadContainerChapters(String mediaUri, ExecutorService executor) {
+        if (mediaUri == null || mediaUri.equals(containerUri)) {
+            return;
+        }
+        containerUri = mediaUri;
+        containerChapters = executor.submit(() -> readContainerChapters(mediaUri));
+    }
+
     /**
      * Sets up the Media3 player listener to capture metadata events.
      */
@@ -79,19 +111,16 @@ public class ChapterStrategy implements SkipDetectionStrategy {
                     if (entry instanceof ChapterFrame) {
                         ChapterFrame chapter = (ChapterFrame) entry;
                         // # The 'id' field often contains the chapter title
-                        String title = chapter.id; 
+                        String title = chapter.id;
 
                         // # Times are in milliseconds, convert to seconds
                         int startSec = (int) (chapter.startTimeMs / 1000);
                         int endSec = (int) (chapter.endTimeMs / 1000);
 
-                        // # Heuristic to determine segment type from the title (e.g., 'Intro', 'Opening')
-                        if (title.toLowerCase().contains("intro") || title.toLowerCase().contains("opening")) {
-                            capturedChapters.add(new ChapterData(SkipSegmentType.INTRO.name(), startSec, endSec));
-                        } else if (title.toLowerCase().contains("recap")) {
-                            capturedChapters.add(new ChapterData(SkipSegmentType.RECAP.name(), startSec, endSec));
-                        } else if (title.toLowerCase().contains("credits") || title.toLowerCase().contains("outro")) {
-                            capturedChapters.add(new ChapterData(SkipSegmentType.CREDITS.name(), startSec, endSec));
+                        // # Determine segment type from the title (e.g., 'Intro', 'Opening')
+                        SkipSegmentType type = SkipTitleClassifier.classify(title);
+                        if (type != null) {
+                            capturedChapters.add(new ChapterData(type.name(), startSec, endSec));
                         }
 
                         Log.d(TAG, "Captured Chapter: " + title + " [" + startSec + "s to " + endSec + "s]");
@@ -110,16 +139,26 @@ public class ChapterStrategy implements SkipDetectionStrategy {
     }
 
     /**
-     * Core detection logic: Reads the chapters captured by the listener.
+     * Core detection logic: Container chapters first, then the chapters captured by the listener.
      * This is called by SmartSkipManager on a background thread.
      */
     @Override
     public SkipDetectionResult detect(MediaIdentifier mediaIdentifier) {
-        if (!isAvailable()) {
-            return SkipDetectionResult.failed(DetectionSource.CHAPTER_MARKERS, "Player is not available or bound");
-        }
-
         try {
+            List<ContainerChapter> chapters = containerChaptersFor(mediaIdentifier.getMediaUri());
+            if (chapters != null && !chapters.isEmpty()) {
+                List<SkipSegment> segments = toSegments(chapters, mediaIdentifier.getRuntimeSeconds());
+                if (!segments.isEmpty()) {
+                    Log.d(TAG, "Container chapters gave " + segments.size() + " segments");
+                    // # Named chapters written by the release group are the most precise source we have
+                    return SkipDetectionResult.success(
+                        DetectionSource.CHAPTER_MARKERS,
+                        0.95f,
+                        segments.toArray(new SkipSegment[0])
+                    );
+                }
+            }
+
             List<SkipSegment> segments = new ArrayList<>();
 
             // # Loop through the stored chapter data
@@ -134,7 +173,12 @@ public class ChapterStrategy implements SkipDetectionStrategy {
             }
 
             if (segments.isEmpty()) {
-                return SkipDetectionResult.failed(DetectionSource.CHAPTER_MARKERS, 
+                if (chapters != null) {
+                    // # The container was read and has no skippable chapters; that will not change
+                    return SkipDetectionResult.noData(DetectionSource.CHAPTER_MARKERS,
+                        "Container has no intro/credits chapters.");
+                }
+                return SkipDetectionResult.failed(DetectionSource.CHAPTER_MARKERS,
                     "No matching chapter segments found.");
             }
 
@@ -146,12 +190,79 @@ public class ChapterStrategy implements SkipDetectionStrategy {
                 segments.toArray(new SkipSegment[0])
             );
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return SkipDetectionResult.failed(DetectionSource.CHAPTER_MARKERS, "Chapter read cancelled");
         } catch (Exception e) {
             Log.e(TAG, "Error detecting chapters", e);
             return SkipDetectionResult.failed(DetectionSource.CHAPTER_MARKERS, "Error reading chapters: " + e.getMessage());
         }
     }
 
+    /**
+     * Uses the preloaded chapters for this URI if there are any, otherwise reads them now.
+     * @return The container chapters, or null if the format has none or could not be read.
+     */
+    private List<ContainerChapter> containerChaptersFor(String mediaUri) throws InterruptedException {
+        if (mediaUri == null) {
+            return null;
+        }
+        Future<List<ContainerChapter>> preload = containerChapters;
+        if (preload != null && mediaUri.equals(containerUri)) {
+            try {
+                return preload.get();
+            } catch (ExecutionException e) {
+                return null;
+            }
+        }
+        return readContainerChapters(mediaUri);
+    }
+
+    private List<ContainerChapter> readContainerChapters(String mediaUri) {
+        long startMs = System.currentTimeMillis();
+        try {
+            List<ContainerChapter> chapters = ContainerChapterReader.read(context, Uri.parse(mediaUri));
+            Log.d(TAG, "Read " + (chapters != null ? chapters.size() : 0) + " container chapters in "
+                + (System.currentTimeMillis() - startMs) + " ms");
+            return chapters;
+        } catch (Exception e) {
+            Log.w(TAG, "Container chapters unavailable: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Maps named chapters to segments. A chapter without an end runs to the next chapter
+     * (or the end of the media); adjacent chapters of the same type are merged.
+     */
+    private static List<SkipSegment> toSegments(List<ContainerChapter> chapters, long runtimeSeconds) {
+        List<SkipSegment> segments = new ArrayList<>();
+        for (int i = 0; i < chapters.size(); i++) {
+            ContainerChapter chapter = chapters.get(i);
+            SkipSegmentType type = SkipTitleClassifier.classify(chapter.title);
+            if (type == null) {
+                continue;
+            }
+            long endMs = chapter.endMs;
+            if (endMs == ContainerChapter.UNKNOWN_END) {
+                endMs = i + 1 < chapters.size() ? chapters.get(i + 1).startMs : runtimeSeconds * 1000;
+            }
+            int start = (int) (chapter.startMs / 1000);
+            int end = (int) (endMs / 1000);
+            if (end <= start) {
+                continue;
+            }
+
+            SkipSegment previous = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (previous != null && previous.type == type && previous.endSeconds >= start) {
+                segments.set(segments.size() - 1, new SkipSegment(type, previous.startSeconds, Math.max(end, previous.endSeconds)));
+            } else {
+                segments.add(new SkipSegment(type, start, end));
+            }
+        }
+        return segments;
+    }
+
     /**
      * Clears the list of captured chapters, usually called before loading a new media item.
      */
@@ -161,13 +272,13 @@ public class ChapterStrategy implements SkipDetectionStrategy {
 
     @Override
     public String getStrategyName() {
-        return "Chapter Markers (ID3/EMSG Metadata)";
+        return "Chapter Markers (Container/ID3)";
     }
 
     @Override
     public boolean isAvailable() {
-        // # Strategy is available if a player is bound and the listener is set up.
-        return player != null && metadataListener != null;
+        // # Container chapters need no player; ID3 chapters arrive once one is bound
+        return true;
     }
 
     @Override
@@ -188,4 +299,4 @@ public class ChapterStrategy implements SkipDetectionStrategy {
             this.endSec = endSec;
         }
     }
-}
\ No newline at end of file
+}
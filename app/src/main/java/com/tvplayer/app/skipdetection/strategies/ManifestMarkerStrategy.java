@@ -0,0 +1,157 @@
+package com.tvplayer.app.skipdetection.strategies;
+
+import android.util.Log;
+
+import androidx.media3.common.C;
+import androidx.media3.common.Player;
+import androidx.media3.common.Timeline;
+import androidx.media3.exoplayer.dash.manifest.DashManifest;
+import androidx.media3.exoplayer.dash.manifest.EventStream;
+import androidx.media3.exoplayer.dash.manifest.Period;
+import androidx.media3.exoplayer.hls.HlsManifest;
+import androidx.media3.exoplayer.hls.playlist.HlsMediaPlaylist;
+import androidx.media3.extractor.metadata.emsg.EventMessage;
+
+import com.tvplayer.app.skipdetection.MediaIdentifier;
+import com.tvplayer.app.skipdetection.SkipDetectionResult;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.DetectionSource;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegment;
+import com.tvplayer.app.skipdetection.SkipDetectionStrategy;
+import com.tvplayer.app.skipdetection.manifest.ManifestMarkerParser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ManifestMarkerStrategy
+ * FUNCTION: Reads skip segments that streaming sources declare in their manifest, with no extra
+ *           network call: HLS EXT-X-DATERANGE tags and DASH EventStream events. The manifest is
+ *           captured on the player thread whenever the timeline changes; detect() only reads it.
+ * INTERACTS WITH: SmartSkipManager.java (rebinds the player, includes it in Tier 500),
+ *                 ManifestMarkerParser.java (which fields name a segment, media-time mapping).
+ * TIMING: DATERANGE dates are wall-clock; they are mapped to media time through the playlist's
+ *         EXT-X-PROGRAM-DATE-TIME. Playlists without it cannot be mapped and are ignored.
+ */
+public class ManifestMarkerStrategy implements SkipDetectionStrategy {
+
+    private static final String TAG = "ManifestMarkerStrategy";
+
+    private Player player;
+    private Player.Listener timelineListener;
+
+    // # Written on the player thread, read by detect() on a worker thread
+    private volatile List<SkipSegment> manifestSegments = Collections.emptyList();
+    private volatile boolean manifestSeen;
+
+    /**
+     * Binds to the active player and captures whatever manifest it already has.
+     * Must be called on the player's application thread.
+     */
+    public void rebindToPlayer(Player player) {
+        if (this.player != null && this.timelineListener != null) {
+            try {
+                this.player.removeListener(this.timelineListener);
+            } catch (Exception e) {
+                Log.w(TAG, "Failed to remove old listener, player may be released.");
+            }
+        }
+
+        this.player = player;
+        this.manifestSegments = Collections.emptyList();
+        this.manifestSeen = false;
+        if (player == null) {
+            return;
+        }
+
+        // # Live and event playlists add DATERANGEs on refresh, so re-read on every timeline update
+        this.timelineListener = new Player.Listener() {
+            @Override
+            public void onTimelineChanged(Timeline timeline, int reason) {
+                capture(ManifestMarkerStrategy.this.player.getCurrentManifest());
+            }
+        };
+        player.addListener(timelineListener);
+        capture(player.getCurrentManifest());
+    }
+
+    private void capture(Object manifest) {
+        List<SkipSegment> segments;
+        if (manifest instanceof HlsManifest) {
+            HlsMediaPlaylist playlist = ((HlsManifest) manifest).mediaPlaylist;
+            segments = playlist != null ? parseDateRanges(playlist) : Collections.<SkipSegment>emptyList();
+        } else if (manifest instanceof DashManifest) {
+            segments = parseEventStreams((DashManifest) manifest);
+        } else {
+            return; // # Progressive media: nothing to capture
+        }
+        manifestSeen = true;
+        manifestSegments = segments;
+        if (!segments.isEmpty()) {
+            Log.d(TAG, "Captured " + segments.size() + " skip segments from the manifest");
+        }
+    }
+
+    @Override
+    public SkipDetectionResult detect(MediaIdentifier mediaIdentifier) {
+        List<SkipSegment> segments = manifestSegments;
+        if (!segments.isEmpty()) {
+            // # Declared by the content provider itself
+            return SkipDetectionResult.success(DetectionSource.MANIFEST_MARKERS, 0.95f,
+                segments.toArray(new SkipSegment[0]));
+        }
+        if (manifestSeen) {
+            return SkipDetectionResult.noData(DetectionSource.MANIFEST_MARKERS,
+                "Manifest declares no skip segments.");
+        }
+        return SkipDetectionResult.failed(DetectionSource.MANIFEST_MARKERS, "Not a streaming manifest.");
+    }
+
+    // # EXT-X-DATERANGE -> segments, relative to the playlist start
+    static List<SkipSegment> parseDateRanges(HlsMediaPlaylist playlist) {
+        if (playlist.tags == null || !playlist.hasProgramDateTime) {
+            return Collections.emptyList();
+        }
+        return ManifestMarkerParser.parseDateRanges(playlist.tags, playlist.startTimeUs / 1000);
+    }
+
+    // # DASH EventStream events -> segments, relative to the first period
+    static List<SkipSegment> parseEventStreams(DashManifest manifest) {
+        if (manifest.getPeriodCount() == 0) {
+            return Collections.emptyList();
+        }
+        List<ManifestMarkerParser.DashEvent> events = new ArrayList<>();
+        for (int p = 0; p < manifest.getPeriodCount(); p++) {
+            Period period = manifest.getPeriod(p);
+            if (period.eventStreams == null) {
+                continue;
+            }
+            for (EventStream stream : period.eventStreams) {
+                for (int i = 0; i < stream.events.length; i++) {
+                    EventMessage event = stream.events[i];
+                    long durationMs = event.durationMs == C.TIME_UNSET ? -1 : event.durationMs;
+                    events.add(new ManifestMarkerParser.DashEvent(period.startMs, stream.value, event.value,
+                        stream.presentationTimesUs[i], durationMs, event.messageData));
+                }
+            }
+        }
+        return ManifestMarkerParser.parseEvents(events, manifest.getPeriod(0).startMs);
+    }
+
+    @Override
+    public String getStrategyName() {
+        return "Stream Manifest Markers (HLS/DASH)";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        // # Needs the player to have loaded a manifest
+        return player != null;
+    }
+
+    @Override
+    public int getPriority() {
+        // # Tier 500: authored by the content provider, as precise as chapters
+        return 500;
+    }
+}
@@ -4,6 +4,7 @@ import android.util.Log;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import com.tvplayer.app.HttpClientProvider;
 import com.tvplayer.app.PreferencesHelper;
 import com.tvplayer.app.skipdetection.MediaIdentifier;
 import com.tvplayer.app.skipdetection.SkipDetectionResult;
@@ -14,7 +15,6 @@ import com.tvplayer.app.skipdetection.SkipDetectionStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -32,6 +32,8 @@ public class MetadataHeuristicStrategy implements SkipDetectionStrategy {
 
     private static final String TAG = "MetadataHeuristicStrategy";
     private static final int TIMEOUT_SECONDS = 8;
+    // # Returned by fetchRuntimeFromTrakt when Trakt answered but has no runtime for this media
+    private static final long RUNTIME_NOT_LISTED = -1;
 
     // # Base URL for Trakt API lookup (used to get runtime for heuristics).
     private static final String TRAKT_API_URL = "https://api.trakt.tv"; 
@@ -42,12 +44,8 @@ public class MetadataHeuristicStrategy implements SkipDetectionStrategy {
 
     public MetadataHeuristicStrategy(PreferencesHelper prefsHelper) {
         this.prefsHelper = prefsHelper;
-        // # HTTP client setup with a reasonable timeout for network requests.
-        this.httpClient = new OkHttpClient.Builder()
-            .connectTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
-            .readTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
-            .writeTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
-            .build();
+        // # HTTP client derived from the shared client with a reasonable timeout for network requests.
+        this.httpClient = HttpClientProvider.newClient(TIMEOUT_SECONDS);
         this.gson = new Gson();
     }
 
@@ -63,6 +61,11 @@ public class MetadataHeuristicStrategy implements SkipDetectionStrategy {
             runtimeSeconds = fetchRuntimeFromTrakt(mediaIdentifier, isTvShow);
         }
 
+        // # Trakt has nothing for this media; worth remembering so we don't ask again soon.
+        if (runtimeSeconds == RUNTIME_NOT_LISTED) {
+            return SkipDetectionResult.noData(DetectionSource.METADATA_HEURISTIC, "Trakt has no runtime for this media.");
+        }
+
         // # If runtime is still not valid, the strategy cannot proceed.
         if (runtimeSeconds <= 0) {
             return SkipDetectionResult.failed(DetectionSource.METADATA_HEURISTIC, "No valid runtime found or fetched.");
@@ -86,6 +89,7 @@ public class MetadataHeuristicStrategy implements SkipDetectionStrategy {
     }
 
     // # Helper to fetch media runtime from the Trakt API.
+    // # Returns 0 on errors and RUNTIME_NOT_LISTED when Trakt answered without a runtime.
     private long fetchRuntimeFromTrakt(MediaIdentifier mediaIdentifier, boolean isTvShow) {
         String traktApiKey = prefsHelper.getTraktApiKey();
         if (traktApiKey.isEmpty()) {
@@ -122,9 +126,12 @@ public class MetadataHeuristicStrategy implements SkipDetectionStrategy {
                 JsonObject jsonObject = gson.fromJson(json, JsonObject.class);
 
                 // # Trakt runtime is usually returned in minutes, convert to seconds.
-                if (jsonObject.has("runtime")) {
+                if (jsonObject.has("runtime") && !jsonObject.get("runtime").isJsonNull()) {
                     return jsonObject.get("runtime").getAsLong() * 60; 
                 }
+                return RUNTIME_NOT_LISTED;
+            } else if (response.code() == 404) {
+                return RUNTIME_NOT_LISTED;
             }
         } catch (Exception e) {
             Log.e(TAG, "Error fetching from Trakt", e);
@@ -172,7 +179,8 @@ public class MetadataHeuristicStrategy implements SkipDetectionStrategy {
 
     @Override
     public int getPriority() {
-        // # FIX: Set to 500 for P1 Priority (Category 1: Chapter/Metadata).
-        return 500;
+        // # Fixed guesses rank below crowd data and the audio scan, so a prefetched
+        // # community entry is never replaced by them (see SeasonPrefetcher)
+        return 200;
     }
 }
\ No newline at end of file
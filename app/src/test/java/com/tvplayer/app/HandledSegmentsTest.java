@@ -0,0 +1,45 @@
+package com.tvplayer.app;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HandledSegmentsTest {
+
+    @Test
+    public void refinedEdgesStillCountAsTheSameSegment() {
+        HandledSegments handled = new HandledSegments();
+        assertTrue(handled.add(SkipSegmentType.INTRO, 30, 120));
+
+        // # Boundary refinement moved the start by two seconds
+        assertFalse(handled.add(SkipSegmentType.INTRO, 28, 119));
+        assertTrue(handled.contains(SkipSegmentType.INTRO, 32, 121));
+    }
+
+    @Test
+    public void otherTypesAndDisjointSegmentsAreNew() {
+        HandledSegments handled = new HandledSegments();
+        handled.add(SkipSegmentType.RECAP, 0, 30);
+
+        assertTrue(handled.add(SkipSegmentType.INTRO, 10, 90));
+        // # A second recap after the intro; touching is not overlapping
+        assertTrue(handled.add(SkipSegmentType.RECAP, 90, 120));
+        assertFalse(handled.contains(SkipSegmentType.CREDITS, 0, 120));
+    }
+
+    @Test
+    public void openEndedAndEmptySegmentsOverlap() {
+        HandledSegments handled = new HandledSegments();
+        handled.add(SkipSegmentType.NEXT_EPISODE, 1300, Integer.MAX_VALUE);
+        assertTrue(handled.contains(SkipSegmentType.NEXT_EPISODE, 1310, Integer.MAX_VALUE));
+
+        handled.add(SkipSegmentType.CREDITS, 2000, 2000);
+        assertTrue(handled.contains(SkipSegmentType.CREDITS, 1990, 2001));
+
+        handled.clear();
+        assertFalse(handled.contains(SkipSegmentType.NEXT_EPISODE, 1310, Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,51 @@
+package com.tvplayer.app;
+
+import com.tvplayer.app.skipdetection.platform.Log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MediaMetadataParserBenchmark
+ * FUNCTION: File name parsing done for every item that starts playing (and for the preloaded
+ *           next queue item). One file name per naming convention; the last one matches no
+ *           pattern, so all three regexes run and fail.
+ * INTERACTS WITH: MediaMetadataParser.java.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MediaMetadataParserBenchmark {
+
+    @Param({
+        "The.Expanse.S02E05.1080p.WEB-DL.mkv",
+        "the_expanse_2x05.mp4",
+        "The Expanse Season 2 Episode 5.avi",
+        "Some.Movie.2019.1080p.BluRay.mkv"
+    })
+    public String fileName;
+
+    @Setup
+    public void setUp() {
+        Log.setLogger((priority, tag, message, error) -> { });
+    }
+
+    @Benchmark
+    public MediaMetadataParser.ParsedMetadata parseFromPath() {
+        return MediaMetadataParser.parseFromPath(fileName);
+    }
+}
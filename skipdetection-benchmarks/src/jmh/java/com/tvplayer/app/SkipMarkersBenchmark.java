@@ -0,0 +1,97 @@
+package com.tvplayer.app;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SkipMarkersBenchmark
+ * FUNCTION: Position lookups made on every skip boundary, seek and button refresh.
+ *           Positions walk through a 24-minute episode so every branch (inside a segment,
+ *           between segments, in the Next Episode window) is hit.
+ * INTERACTS WITH: SkipMarkers.java.
+ * PARAMS: segments = 4 is a typical episode (intro, recap, credits, post-credits);
+ *         64 is a dense index (e.g. every ad break of a recording marked as a segment).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SkipMarkersBenchmark {
+
+    private static final int EPISODE_SECONDS = 1440;
+    private static final SkipSegmentType[] TYPES = {
+        SkipSegmentType.INTRO, SkipSegmentType.RECAP, SkipSegmentType.CREDITS
+    };
+
+    @Param({"4", "64"})
+    public int segments;
+
+    private SkipMarkers markers;
+    private int position;
+
+    @Setup
+    public void setUp() {
+        markers = new SkipMarkers();
+        if (segments == 4) {
+            markers.add(SkipSegmentType.RECAP, 0, 45);
+            markers.add(SkipSegmentType.INTRO, 45, 130);
+            markers.add(SkipSegmentType.CREDITS, 1310, 1400);
+            markers.add(SkipSegmentType.CREDITS, 1410, 1440);
+        } else {
+            int length = EPISODE_SECONDS / segments;
+            for (int i = 0; i < segments; i++) {
+                // # Overlapping neighbours, so the backward scan has work to do
+                markers.add(TYPES[i % TYPES.length], i * length, i * length + length + length / 2);
+            }
+        }
+        markers.setNextEpisodeStart(1380);
+    }
+
+    // # 7 is coprime to the episode length: every second is visited
+    private long nextPosition() {
+        position = (position + 7) % EPISODE_SECONDS;
+        return position;
+    }
+
+    @Benchmark
+    public int findActive() {
+        return markers.findActive(nextPosition(), SkipMarkers.ALL_TYPES);
+    }
+
+    @Benchmark
+    public int findNext() {
+        return markers.findNext(nextPosition(), SkipMarkers.ALL_TYPES);
+    }
+
+    // # What a skip button refresh asks: all four visibility checks at one position
+    @Benchmark
+    public int buttonVisibility() {
+        long seconds = nextPosition();
+        int visible = 0;
+        if (markers.isInIntro(seconds)) visible |= 1;
+        if (markers.isInRecap(seconds)) visible |= 2;
+        if (markers.isInCredits(seconds)) visible |= 4;
+        if (markers.isAtNextEpisode(seconds)) visible |= 8;
+        return visible;
+    }
+
+    @Benchmark
+    public int[] getBoundarySeconds() {
+        return markers.getBoundarySeconds();
+    }
+}
@@ -0,0 +1,161 @@
+package com.tvplayer.app.skipdetection;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult.DetectionSource;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegment;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+import com.tvplayer.app.skipdetection.cache.InMemoryKeyValueStore;
+import com.tvplayer.app.skipdetection.platform.ExecutorTaskScheduler;
+import com.tvplayer.app.skipdetection.platform.Log;
+import com.tvplayer.app.skipdetection.strategies.CacheStrategy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DetectionEngineBenchmark
+ * FUNCTION: One full detectAsync() round trip, from the call to the final callback, with
+ *           strategies that answer instantly. What is left is the engine's own overhead:
+ *           thread hand-offs, session bookkeeping, tier comparison and cache writes.
+ *   - cacheHit: the result is cached, so no strategy runs (re-opening an episode).
+ *   - freshDetection: all five strategies fan out, the highest tier wins and is cached.
+ *     The cache entry is dropped again after each call so every call is a miss.
+ * INTERACTS WITH: SkipDetectionEngine.java, CacheStrategy.java, ExecutorTaskScheduler.java.
+ * NOTE: Callbacks run on the worker that posts them instead of a main looper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DetectionEngineBenchmark {
+
+    private static final long TIMEOUT_MS = 10_000;
+
+    private final MediaIdentifier cachedEpisode = new MediaIdentifier.Builder()
+        .setShowName("The Expanse")
+        .setSeasonNumber(2)
+        .setEpisodeNumber(4)
+        .build();
+
+    private final MediaIdentifier freshEpisode = new MediaIdentifier.Builder()
+        .setShowName("The Expanse")
+        .setSeasonNumber(2)
+        .setEpisodeNumber(5)
+        .build();
+
+    private ExecutorTaskScheduler scheduler;
+    private CacheStrategy cache;
+    private SkipDetectionEngine engine;
+
+    // # Answers immediately with a fixed result
+    private static final class StubStrategy implements SkipDetectionStrategy {
+        private final String name;
+        private final int priority;
+        private final SkipDetectionResult result;
+
+        StubStrategy(String name, int priority, SkipDetectionResult result) {
+            this.name = name;
+            this.priority = priority;
+            this.result = result;
+        }
+
+        @Override
+        public SkipDetectionResult detect(MediaIdentifier mediaIdentifier) {
+            return result;
+        }
+
+        @Override
+        public String getStrategyName() {
+            return name;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+    }
+
+    // # Releases the benchmark thread on the final callback
+    private static final class LatchCallback implements SkipDetectionCallback {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile SkipDetectionResult result;
+
+        @Override
+        public void onDetectionComplete(SkipDetectionResult result) {
+            this.result = result;
+            done.countDown();
+        }
+
+        @Override
+        public void onDetectionFailed(String errorMessage) {
+            done.countDown();
+        }
+    }
+
+    private static SkipDetectionResult success(DetectionSource source, float confidence, int introEnd) {
+        return SkipDetectionResult.success(source, confidence,
+            new SkipSegment(SkipSegmentType.INTRO, 45, introEnd),
+            new SkipSegment(SkipSegmentType.CREDITS, 1310, 1440));
+    }
+
+    @Setup
+    public void setUp() {
+        Log.setLogger((priority, tag, message, error) -> { });
+        scheduler = ExecutorTaskScheduler.create(4, Runnable::run);
+        cache = new CacheStrategy(new InMemoryKeyValueStore());
+        // # Same tiers as the app's roster
+        engine = new SkipDetectionEngine(cache, Arrays.<SkipDetectionStrategy>asList(
+            new StubStrategy("manual", 100, success(DetectionSource.MANUAL_PREFERENCE, 1.0f, 128)),
+            new StubStrategy("audio", 300, success(DetectionSource.AUDIO_FINGERPRINT, 0.6f, 131)),
+            new StubStrategy("introSkipper", 400, success(DetectionSource.INTRO_SKIPPER_API, 0.75f, 130)),
+            new StubStrategy("introHater", 400, success(DetectionSource.INTROHATER_API, 0.7f, 129)),
+            new StubStrategy("chapters", 500, success(DetectionSource.CHAPTER_MARKERS, 0.9f, 130))),
+            scheduler, TIMEOUT_MS, new SkipDetectionEngine.Hooks() { });
+        cache.cacheResult(cachedEpisode, success(DetectionSource.CHAPTER_MARKERS, 0.9f, 130));
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    private SkipDetectionResult detect(MediaIdentifier mediaIdentifier) throws InterruptedException {
+        LatchCallback callback = new LatchCallback();
+        engine.detectAsync(mediaIdentifier, callback);
+        if (!callback.done.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("Detection did not finish");
+        }
+        return callback.result;
+    }
+
+    @Benchmark
+    public SkipDetectionResult cacheHit() throws InterruptedException {
+        return detect(cachedEpisode);
+    }
+
+    @Benchmark
+    public SkipDetectionResult freshDetection() throws InterruptedException {
+        SkipDetectionResult result = detect(freshEpisode);
+        cache.invalidateCache(freshEpisode);
+        return result;
+    }
+}
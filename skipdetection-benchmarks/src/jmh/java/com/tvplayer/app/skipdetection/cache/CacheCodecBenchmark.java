@@ -0,0 +1,141 @@
+package com.tvplayer.app.skipdetection.cache;
+
+import com.tvplayer.app.skipdetection.MediaIdentifier;
+import com.tvplayer.app.skipdetection.SkipDetectionResult;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.DetectionSource;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegment;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+import com.tvplayer.app.skipdetection.platform.Log;
+import com.tvplayer.app.skipdetection.strategies.CacheStrategy;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CacheCodecBenchmark
+ * FUNCTION: The cache path taken before any other strategy runs.
+ *   - encode/decode: SkipSegmentCodec on a typical three-segment episode.
+ *   - memoryHit: CacheStrategy.detect() answered by the memory tier (the resume case).
+ *   - storeHit: detect() with a memory tier too small to keep anything, so every call reads the
+ *     store, decodes the row and rebuilds the result (the first playback after a restart).
+ *   - cacheResult: writing a fresh winner through both tiers.
+ * INTERACTS WITH: SkipSegmentCodec.java, CacheStrategy.java, MemoryLruCache.java.
+ * NOTE: EncodedStore keeps rows as encoded strings like SkipCacheStore's SQLite table, so the
+ *       codec cost is part of storeHit and cacheResult without needing Android.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheCodecBenchmark {
+
+    private final MediaIdentifier episode = new MediaIdentifier.Builder()
+        .setShowName("The Expanse")
+        .setSeasonNumber(2)
+        .setEpisodeNumber(5)
+        .build();
+
+    private final SkipDetectionResult result = SkipDetectionResult.success(DetectionSource.INTRO_SKIPPER_API, 0.75f,
+        new SkipSegment(SkipSegmentType.RECAP, 0, 45),
+        new SkipSegment(SkipSegmentType.INTRO, 45, 130),
+        new SkipSegment(SkipSegmentType.CREDITS, 1310, 1440));
+
+    private List<SkipSegment> segments;
+    private String encoded;
+    private CacheStrategy memoryCache;
+    private CacheStrategy storeOnlyCache;
+    private CacheStrategy writeCache;
+
+    // # Row layout of SkipCacheStore: segments as one encoded column
+    private static final class EncodedStore extends InMemoryKeyValueStore {
+        private static final class Row {
+            String segments;
+            long timestamp;
+            String source;
+            float confidence;
+        }
+
+        private final Map<String, Row> rows = new HashMap<>();
+
+        @Override
+        public synchronized CachedSkipData get(String cacheKey) {
+            Row row = rows.get(cacheKey);
+            if (row == null) {
+                return null;
+            }
+            CachedSkipData data = new CachedSkipData();
+            data.segments = SkipSegmentCodec.decode(row.segments);
+            data.timestamp = row.timestamp;
+            data.source = row.source;
+            data.confidence = row.confidence;
+            return data;
+        }
+
+        @Override
+        public synchronized void put(String cacheKey, CachedSkipData data) {
+            Row row = new Row();
+            row.segments = SkipSegmentCodec.encode(data.segments);
+            row.timestamp = data.timestamp;
+            row.source = data.source;
+            row.confidence = data.confidence;
+            rows.put(cacheKey, row);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        Log.setLogger((priority, tag, message, error) -> { });
+        segments = Arrays.asList(result.getSegments().toArray(new SkipSegment[0]));
+        encoded = SkipSegmentCodec.encode(segments);
+
+        memoryCache = new CacheStrategy(new EncodedStore());
+        memoryCache.cacheResult(episode, result);
+
+        // # One byte: every entry is evicted as soon as it is put
+        storeOnlyCache = new CacheStrategy(new EncodedStore(), 1);
+        storeOnlyCache.cacheResult(episode, result);
+
+        writeCache = new CacheStrategy(new EncodedStore());
+    }
+
+    @Benchmark
+    public String encode() {
+        return SkipSegmentCodec.encode(segments);
+    }
+
+    @Benchmark
+    public List<SkipSegment> decode() {
+        return SkipSegmentCodec.decode(encoded);
+    }
+
+    @Benchmark
+    public SkipDetectionResult memoryHit() {
+        return memoryCache.detect(episode);
+    }
+
+    @Benchmark
+    public SkipDetectionResult storeHit() {
+        return storeOnlyCache.detect(episode);
+    }
+
+    @Benchmark
+    public void cacheResult() {
+        writeCache.cacheResult(episode, result);
+    }
+}
@@ -0,0 +1,70 @@
+package com.tvplayer.app.skipdetection.strategies;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegment;
+import com.tvplayer.app.skipdetection.platform.Log;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * ApiResponseParseBenchmark
+ * FUNCTION: JSON parsing of the two community API responses, measured without the network.
+ *           Payloads are shaped like real answers: recap, intro and credits, plus one entry
+ *           of an unknown type that the parsers have to read and drop.
+ * INTERACTS WITH: IntroSkipperStrategy.java, IntroHaterStrategy.java (parseResponse).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiResponseParseBenchmark {
+
+    private static final String INTRO_SKIPPER_JSON = "{\"itemId\":\"tt1234567:2:5\",\"skipSegments\":["
+        + "{\"skipType\":\"Recap\",\"showSkipPromptAt\":0.0,\"hideSkipPromptAt\":45.52,\"valid\":true},"
+        + "{\"skipType\":\"Introduction\",\"showSkipPromptAt\":45.52,\"hideSkipPromptAt\":130.13,\"valid\":true},"
+        + "{\"skipType\":\"Preview\",\"showSkipPromptAt\":1400.0,\"hideSkipPromptAt\":1420.0,\"valid\":true},"
+        + "{\"skipType\":\"Credits\",\"showSkipPromptAt\":1310.87,\"hideSkipPromptAt\":1440.0,\"valid\":true}]}";
+
+    private static final String INTRO_HATER_JSON = "{\"tmdbId\":\"63639\",\"season\":2,\"episode\":5,\"segments\":["
+        + "{\"type\":\"recap\",\"start\":0,\"end\":45,\"votes\":12},"
+        + "{\"type\":\"intro\",\"start\":45,\"end\":130,\"votes\":57},"
+        + "{\"type\":\"preview\",\"start\":1400,\"end\":1420,\"votes\":3},"
+        + "{\"type\":\"credits\",\"start\":1310,\"end\":1440,\"votes\":21}]}";
+
+    private IntroSkipperStrategy introSkipper;
+    private IntroHaterStrategy introHater;
+
+    @Setup
+    public void setUp() {
+        Log.setLogger((priority, tag, message, error) -> { });
+        // # Never used for requests; the constructors just need a client
+        OkHttpClient client = new OkHttpClient();
+        introSkipper = new IntroSkipperStrategy(client);
+        introHater = new IntroHaterStrategy(client);
+    }
+
+    @Benchmark
+    public List<SkipSegment> introSkipper() {
+        return introSkipper.parseResponse(INTRO_SKIPPER_JSON);
+    }
+
+    @Benchmark
+    public List<SkipSegment> introHater() {
+        return introHater.parseResponse(INTRO_HATER_JSON);
+    }
+}
@@ -0,0 +1,127 @@
+package com.tvplayer.app;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.CacheControl;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * HttpCaching
+ * FUNCTION: The disk-cache policy behind HttpClientProvider.newCachingClient(). Fresh responses
+ *           are served locally, stale ones are revalidated with ETag/If-None-Match (a 304 instead
+ *           of a full payload), responses without caching headers get a default max-age, and
+ *           while offline any cached copy is served regardless of age.
+ *           Kept free of Android types so the policy can be tested against MockWebServer;
+ *           the app supplies connectivity through Connectivity.
+ * INTERACTS WITH: HttpClientProvider.java (installs it on the caching client).
+ * PERSONALIZATION:
+ * - DEFAULT_MAX_AGE_SECONDS: freshness applied when a server sends no caching headers.
+ * - MAX_STALE_OFFLINE_DAYS: oldest cached response still served while offline.
+ */
+public final class HttpCaching {
+
+    // # Skip segments rarely change once submitted
+    static final int DEFAULT_MAX_AGE_SECONDS = 6 * 60 * 60;
+    static final int MAX_STALE_OFFLINE_DAYS = 30;
+
+    /**
+     * Connectivity: Reports whether the device currently has a network.
+     */
+    public interface Connectivity {
+        boolean isOnline();
+    }
+
+    private HttpCaching() {
+    }
+
+    /**
+     * Adds the cache and its interceptors to the builder.
+     * @param cache Disk cache the responses are stored in.
+     * @param connectivity Checked before every GET; offline requests never touch the network.
+     */
+    public static OkHttpClient.Builder install(OkHttpClient.Builder builder, Cache cache,
+                                               Connectivity connectivity) {
+        return builder
+            .cache(cache)
+            .addInterceptor(new OfflineCacheInterceptor(connectivity))
+            .addNetworkInterceptor(new DefaultMaxAgeInterceptor());
+    }
+
+    // # Serve any cached copy, however old, without touching the network
+    private static Request forceStale(Request request) {
+        return request.newBuilder()
+            .cacheControl(new CacheControl.Builder()
+                .onlyIfCached()
+                .maxStale(MAX_STALE_OFFLINE_DAYS, TimeUnit.DAYS)
+                .build())
+            .build();
+    }
+
+    /**
+     * OfflineCacheInterceptor: When offline, answers from the cache immediately instead of
+     * waiting for a connect timeout. When a request fails with an I/O error, falls back
+     * to a stale cached copy if there is one.
+     */
+    private static final class OfflineCacheInterceptor implements Interceptor {
+        private final Connectivity connectivity;
+
+        OfflineCacheInterceptor(Connectivity connectivity) {
+            this.connectivity = connectivity;
+        }
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            if (!"GET".equals(request.method())) {
+                return chain.proceed(request);
+            }
+
+            if (!connectivity.isOnline()) {
+                return chain.proceed(forceStale(request));
+            }
+
+            try {
+                return chain.proceed(request);
+            } catch (IOException e) {
+                Response cached = chain.proceed(forceStale(request));
+                // # 504 means the cache had nothing to offer
+                if (cached.code() == 504) {
+                    cached.close();
+                    throw e;
+                }
+                return cached;
+            }
+        }
+    }
+
+    /**
+     * DefaultMaxAgeInterceptor: Gives successful responses that carry no freshness information
+     * a default max-age so they can be stored. ETag/Last-Modified headers are kept, so once
+     * the entry goes stale OkHttp revalidates it with a conditional request.
+     */
+    private static final class DefaultMaxAgeInterceptor implements Interceptor {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Response response = chain.proceed(chain.request());
+            if (!response.isSuccessful() || !"GET".equals(chain.request().method())) {
+                return response;
+            }
+
+            CacheControl cacheControl = response.cacheControl();
+            if (cacheControl.noStore() || cacheControl.maxAgeSeconds() >= 0
+                    || response.header("Expires") != null) {
+                return response; // # The server decided; respect it
+            }
+
+            return response.newBuilder()
+                .removeHeader("Pragma")
+                .header("Cache-Control", "public, max-age=" + DEFAULT_MAX_AGE_SECONDS)
+                .build();
+        }
+    }
+}
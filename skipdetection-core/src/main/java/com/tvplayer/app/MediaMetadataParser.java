@@ -1,7 +1,6 @@
 package com.tvplayer.app;
 
-import android.net.Uri;
-import android.util.Log;
+import com.tvplayer.app.skipdetection.platform.Log;
 
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -10,7 +9,8 @@ import java.util.regex.Pattern;
  * MediaMetadataParser
  * FUNCTION: Utility class to extract TV show metadata (season, episode, show name)
  *           from video filenames and URIs.
- * INTERACTS WITH: MainActivity.java (uses it to parse URIs)
+ * INTERACTS WITH: MainActivity.java (passes the URI's last path segment).
+ * Pure Java (skipdetection-core), so it can be benchmarked on a plain JVM.
  * FIXED: Implemented comprehensive regex patterns to parse S01E01, 1x01,
  *        and other common TV show filename formats.
  */
@@ -64,25 +64,16 @@ public class MediaMetadataParser {
     }
 
     /**
-     * parseFromUri
-     * FUNCTION: Extracts metadata from a video URI by analyzing the filename/path.
-     * @param uri The video URI (from intent or player)
+     * parseFromPath
+     * FUNCTION: Extracts metadata from a video's filename/path.
+     * @param path The file name (a URI's last path segment), or the full path or URI if it has none
      * @return ParsedMetadata object with extracted information
      */
-    public static ParsedMetadata parseFromUri(Uri uri) {
+    public static ParsedMetadata parseFromPath(String path) {
         ParsedMetadata metadata = new ParsedMetadata();
 
-        if (uri == null) {
-            return metadata;
-        }
-
-        // # Get the filename from URI
-        String path = uri.getLastPathSegment();
         if (path == null) {
-            path = uri.getPath();
-        }
-        if (path == null) {
-            path = uri.toString();
+            return metadata;
         }
 
         Log.d(TAG, "Parsing metadata from: " + path);
@@ -132,17 +123,4 @@ public class MediaMetadataParser {
 
         return metadata;
     }
-
-    /**
-     * parseFromString
-     * FUNCTION: Convenience method to parse from a String instead of Uri.
-     * @param path The file path or name
-     * @return ParsedMetadata object
-     */
-    public static ParsedMetadata parseFromString(String path) {
-        if (path == null || path.isEmpty()) {
-            return new ParsedMetadata();
-        }
-        return parseFromUri(Uri.parse(path));
-    }
 }
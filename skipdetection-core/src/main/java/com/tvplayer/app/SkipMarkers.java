@@ -0,0 +1,245 @@
+package com.tvplayer.app;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+
+import java.util.Arrays;
+
+/**
+ * SkipMarkers
+ * FUNCTION: Holds the active, in-use skip segments and the Next Episode marker.
+ *           Segments are kept in an interval index: parallel primitive arrays (start, end, type)
+ *           sorted by start, so any number of segments per type is supported (several recaps,
+ *           a mid-episode eyecatch, credits followed by a post-credits scene) and lookups by
+ *           position are binary searches. Pure Java (skipdetection-core), so the lookups can be
+ *           benchmarked on a plain JVM.
+ * INTERACTS WITH: MainActivity.java (which sets/gets data from this class),
+ *                 AutoSkipEngine.java, SkipBoundaryScheduler.java (getBoundarySeconds).
+ * QUERIES:
+ * - findActive: the highest-priority segment containing a position, O(log n + overlaps).
+ *   A running maximum of the end times lets the backward scan stop as soon as no earlier
+ *   segment can still reach the position.
+ * - findNext: the first segment starting after a position, O(log n).
+ * PERSONALIZATION: The 'NEXT_EPISODE_WINDOW_SECONDS' for the Next Episode button can be
+ * changed to show the button earlier or later.
+ */
+public class SkipMarkers {
+
+    // # Type masks for findActive
+    public static final int ALL_TYPES = ~0;
+
+    // # Defines a 15-second window around the marker time to display the Next Episode button.
+    private static final int NEXT_EPISODE_WINDOW_SECONDS = 15;
+    private static final SkipSegmentType[] TYPES = SkipSegmentType.values();
+
+    // --- Interval Index (sorted by start, then end) ---
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private byte[] types = new byte[8];
+    // # maxEnds[i] = max(ends[0..i]); rebuilt on every change (changes are rare, queries are not)
+    private int[] maxEnds = new int[8];
+    private int count;
+
+    private int nextEpisodeStart;
+
+    /**
+     * Constructor: Initializes all markers to an empty (cleared) state.
+     */
+    public SkipMarkers() {
+        clearAll();
+    }
+
+    /**
+     * Returns the findActive mask bit for a segment type.
+     */
+    public static int maskOf(SkipSegmentType type) {
+        return 1 << type.ordinal();
+    }
+
+    /**
+     * Clears all segment markers. Called when new media is loaded.
+     */
+    public void clearAll() {
+        this.count = 0;
+        this.nextEpisodeStart = -1;
+    }
+
+    // --- Setter Methods (Called by MainActivity) ---
+
+    /**
+     * Adds one segment, keeping the index sorted. Invalid ranges are ignored.
+     * @param start Start in seconds (inclusive).
+     * @param end End in seconds (exclusive).
+     */
+    public void add(SkipSegmentType type, int start, int end) {
+        if (start < 0 || end <= start) {
+            return;
+        }
+        if (count == starts.length) {
+            int capacity = count * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            types = Arrays.copyOf(types, capacity);
+            maxEnds = Arrays.copyOf(maxEnds, capacity);
+        }
+        // # Insertion point: after every segment that sorts before or equal to this one
+        int i = count;
+        while (i > 0 && (starts[i - 1] > start || (starts[i - 1] == start && ends[i - 1] > end))) {
+            starts[i] = starts[i - 1];
+            ends[i] = ends[i - 1];
+            types[i] = types[i - 1];
+            i--;
+        }
+        starts[i] = start;
+        ends[i] = end;
+        types[i] = (byte) type.ordinal();
+        count++;
+        rebuildMaxEnds(i);
+    }
+
+    /**
+     * Removes every segment of one type.
+     */
+    public void removeType(SkipSegmentType type) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (types[i] != type.ordinal()) {
+                starts[kept] = starts[i];
+                ends[kept] = ends[i];
+                types[kept] = types[i];
+                kept++;
+            }
+        }
+        count = kept;
+        rebuildMaxEnds(0);
+    }
+
+    public void setNextEpisodeStart(int start) {
+        this.nextEpisodeStart = start;
+    }
+
+    private void rebuildMaxEnds(int from) {
+        for (int i = from; i < count; i++) {
+            maxEnds[i] = i == 0 ? ends[0] : Math.max(maxEnds[i - 1], ends[i]);
+        }
+    }
+
+    // --- Index Accessors ---
+
+    public int size() { return count; }
+
+    public int getStart(int index) { return starts[index]; }
+
+    public int getEnd(int index) { return ends[index]; }
+
+    public SkipSegmentType getType(int index) { return TYPES[types[index]]; }
+
+    public int getNextEpisodeStart() { return nextEpisodeStart; }
+
+    // --- Queries ---
+
+    /**
+     * Finds the segment containing a position. If several overlap, the type that comes first in
+     * SkipSegmentType wins (Intro > Recap > Credits), then the one that started last.
+     * @param positionSeconds The current video time in seconds.
+     * @param typeMask Allowed types (maskOf(...) bits, or ALL_TYPES).
+     * @return The segment index, or -1.
+     */
+    public int findActive(long positionSeconds, int typeMask) {
+        int best = -1;
+        for (int i = lastStartingAtOrBefore(positionSeconds); i >= 0 && maxEnds[i] > positionSeconds; i--) {
+            if (ends[i] > positionSeconds && (typeMask & (1 << types[i])) != 0
+                    && (best < 0 || types[i] < types[best])) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the first segment that starts after a position.
+     * @param typeMask Allowed types (maskOf(...) bits, or ALL_TYPES).
+     * @return The segment index, or -1.
+     */
+    public int findNext(long positionSeconds, int typeMask) {
+        for (int i = lastStartingAtOrBefore(positionSeconds) + 1; i < count; i++) {
+            if ((typeMask & (1 << types[i])) != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // # Binary search: index of the last segment with start <= position, or -1
+    private int lastStartingAtOrBefore(long positionSeconds) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] <= positionSeconds) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * Every position at which a button's visibility or auto-skip can change: segment starts
+     * and ends, the Next Episode marker and the edges of its window. Used by SkipBoundaryScheduler.
+     * @return Sorted, distinct edge positions in seconds; unset markers are left out.
+     */
+    public int[] getBoundarySeconds() {
+        int[] boundaries = new int[count * 2 + 3];
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            boundaries[n++] = starts[i];
+            boundaries[n++] = ends[i];
+        }
+        if (nextEpisodeStart > 0) {
+            boundaries[n++] = Math.max(0, nextEpisodeStart - NEXT_EPISODE_WINDOW_SECONDS);
+            // # The marker itself is where auto-skip to the next episode fires
+            boundaries[n++] = nextEpisodeStart;
+            boundaries[n++] = nextEpisodeStart + NEXT_EPISODE_WINDOW_SECONDS;
+        }
+        Arrays.sort(boundaries, 0, n);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (distinct == 0 || boundaries[distinct - 1] != boundaries[i]) {
+                boundaries[distinct++] = boundaries[i];
+            }
+        }
+        return Arrays.copyOf(boundaries, distinct);
+    }
+
+    // --- Logic Methods (For controlling button visibility in MainActivity) ---
+
+    /**
+     * Determines if the player is currently inside an Intro segment.
+     * @param positionSeconds The current video time in seconds.
+     * @return true if the button should be shown.
+     */
+    public boolean isInIntro(long positionSeconds) {
+        return findActive(positionSeconds, maskOf(SkipSegmentType.INTRO)) >= 0;
+    }
+
+    public boolean isInRecap(long positionSeconds) {
+        return findActive(positionSeconds, maskOf(SkipSegmentType.RECAP)) >= 0;
+    }
+
+    public boolean isInCredits(long positionSeconds) {
+        return findActive(positionSeconds, maskOf(SkipSegmentType.CREDITS)) >= 0;
+    }
+
+    /**
+     * Determines if the Next Episode button should be displayed.
+     * @param positionSeconds The current video time in seconds.
+     * @return true if the button should be shown.
+     */
+    public boolean isAtNextEpisode(long positionSeconds) {
+        // # Show the button if the marker is set and we are within the display window
+        return nextEpisodeStart > 0 &&
+               positionSeconds >= (nextEpisodeStart - NEXT_EPISODE_WINDOW_SECONDS) &&
+               positionSeconds < (nextEpisodeStart + NEXT_EPISODE_WINDOW_SECONDS); // # Show for a bit after too
+    }
+}
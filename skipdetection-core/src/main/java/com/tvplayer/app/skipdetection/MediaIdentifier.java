@@ -10,6 +10,8 @@ public class MediaIdentifier {
     private final String tmdbId;
     private final String traktId;
     private final String tvdbId;
+    // # Playable URI of the media itself, for on-device analysis (audio, chapters)
+    private final String mediaUri;
 
     private MediaIdentifier(Builder builder) {
         this.title = builder.title;
@@ -21,6 +23,7 @@ public class MediaIdentifier {
         this.tmdbId = builder.tmdbId;
         this.traktId = builder.traktId;
         this.tvdbId = builder.tvdbId;
+        this.mediaUri = builder.mediaUri;
     }
 
     public String getTitle() {
@@ -59,6 +62,10 @@ public class MediaIdentifier {
         return tvdbId;
     }
 
+    public String getMediaUri() {
+        return mediaUri;
+    }
+
     public boolean isTvShow() {
         return seasonNumber != null && episodeNumber != null;
     }
@@ -80,6 +87,24 @@ public class MediaIdentifier {
         private String tmdbId;
         private String traktId;
         private String tvdbId;
+        private String mediaUri;
+
+        public Builder() {
+        }
+
+        // # Copies every field of an existing identifier (e.g. to derive the next episode)
+        public Builder(MediaIdentifier source) {
+            this.title = source.title;
+            this.showName = source.showName;
+            this.seasonNumber = source.seasonNumber;
+            this.episodeNumber = source.episodeNumber;
+            this.runtimeSeconds = source.runtimeSeconds;
+            this.imdbId = source.imdbId;
+            this.tmdbId = source.tmdbId;
+            this.traktId = source.traktId;
+            this.tvdbId = source.tvdbId;
+            this.mediaUri = source.mediaUri;
+        }
 
         public Builder setTitle(String title) {
             this.title = title;
@@ -126,6 +151,11 @@ public class MediaIdentifier {
             return this;
         }
 
+        public Builder setMediaUri(String mediaUri) {
+            this.mediaUri = mediaUri;
+            return this;
+        }
+
         public MediaIdentifier build() {
             return new MediaIdentifier(this);
         }
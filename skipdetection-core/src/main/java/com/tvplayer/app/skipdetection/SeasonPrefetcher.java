@@ -0,0 +1,136 @@
+package com.tvplayer.app.skipdetection;
+
+import com.tvplayer.app.skipdetection.platform.Log;
+import com.tvplayer.app.skipdetection.strategies.CacheStrategy;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * SeasonPrefetcher
+ * FUNCTION: When an episode starts, resolves skip segments for the next few episodes of the
+ *           same season in the background and stores them in the cache as provisional entries,
+ *           so the next episode has skip buttons from its first frame. Only the community APIs
+ *           run here, so live detection still consults the container and stream markers and
+ *           refines the edges, then replaces the entry (see SkipDetectionEngine).
+ * INTERACTS WITH: SmartSkipManager.java (owns it), CacheStrategy.java (reads/writes results),
+ *                 the community API strategies (the only ones that work without the media itself).
+ * PERSONALIZATION:
+ * - PREFETCH_EPISODE_COUNT: how many upcoming episodes to resolve.
+ * Meant to run on one background-priority thread (supplied by the caller), one request at a time,
+ * so it never competes with the detection of the episode that is actually playing.
+ */
+public class SeasonPrefetcher {
+
+    private static final String TAG = "SeasonPrefetcher";
+    private static final int PREFETCH_EPISODE_COUNT = 3;
+
+    private final CacheStrategy cacheStrategy;
+    // # Strategies that only need IDs + season/episode (no player, no runtime)
+    private final List<SkipDetectionStrategy> strategies;
+    private final ExecutorService executor;
+    // # Cache keys already queued this session, so repeated STATE_READY events don't re-queue them
+    private final Set<String> queuedKeys = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    /**
+     * @param executor Runs the prefetches; owned by this prefetcher from now on (see shutdown).
+     */
+    public SeasonPrefetcher(CacheStrategy cacheStrategy, List<SkipDetectionStrategy> strategies,
+                            ExecutorService executor) {
+        this.cacheStrategy = cacheStrategy;
+        this.strategies = strategies;
+        this.executor = executor;
+    }
+
+    /**
+     * Queues the episodes after the given one for background resolution.
+     * @param current The episode that just started playing.
+     * @param negativeTtlMs Negative cache lifetime (see CacheStrategy).
+     */
+    public void prefetchAfter(MediaIdentifier current, long negativeTtlMs) {
+        // # Without a show name the cache key would not identify the episode
+        if (!current.isTvShow() || current.getShowName() == null) {
+            return;
+        }
+
+        for (int i = 1; i <= PREFETCH_EPISODE_COUNT; i++) {
+            MediaIdentifier next = new MediaIdentifier.Builder(current)
+                .setEpisodeNumber(current.getEpisodeNumber() + i)
+                .setTitle(null)
+                // # The next episode's runtime and file are unknown until it plays
+                .setRuntimeSeconds(0)
+                .setMediaUri(null)
+                .build();
+
+            if (!queuedKeys.add(next.getCacheKey())) {
+                continue;
+            }
+            executor.submit(() -> prefetch(next, negativeTtlMs));
+        }
+    }
+
+    /**
+     * Queues one specific episode (e.g. the next item of the play queue) for background resolution.
+     * @param episode The episode, identified the same way it will be when it plays.
+     * @param negativeTtlMs Negative cache lifetime (see CacheStrategy).
+     */
+    public void prefetchEpisode(MediaIdentifier episode, long negativeTtlMs) {
+        if (!queuedKeys.add(episode.getCacheKey())) {
+            return;
+        }
+        executor.submit(() -> prefetch(episode, negativeTtlMs));
+    }
+
+    private void prefetch(MediaIdentifier episode, long negativeTtlMs) {
+        CacheStrategy.StaleEntry cached = cacheStrategy.lookupStale(episode);
+        if (cached != null && !cached.expired) {
+            return; // # Already cached (or prefetched) and fresh
+        }
+
+        Set<String> knownEmpty = cacheStrategy.getNegativelyCachedStrategies(episode, negativeTtlMs);
+        SkipDetectionResult best = null;
+        int bestPriority = Integer.MIN_VALUE;
+
+        for (SkipDetectionStrategy strategy : strategies) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            if (!strategy.isAvailable() || knownEmpty.contains(strategy.getStrategyName())) {
+                continue;
+            }
+
+            SkipDetectionResult result;
+            try {
+                result = strategy.detect(episode);
+            } catch (Exception e) {
+                Log.w(TAG, "Prefetch failed in " + strategy.getStrategyName(), e);
+                continue;
+            }
+
+            if (result.isSuccess()) {
+                // # Same tiered selection as live detection: tier first, then confidence
+                int priority = strategy.getPriority();
+                if (best == null || priority > bestPriority
+                        || (priority == bestPriority && result.getConfidence() > best.getConfidence())) {
+                    best = result;
+                    bestPriority = priority;
+                }
+            } else if (result.isNoData()) {
+                cacheStrategy.cacheNegativeResult(episode, strategy, negativeTtlMs);
+            }
+        }
+
+        if (best != null) {
+            // # Keeps its source and tier, so live detection ranks it like its own answer
+            cacheStrategy.cacheProvisionalResult(episode, best, bestPriority);
+            Log.i(TAG, "Prefetched " + episode.getCacheKey() + " from " + best.getSource().getDisplayName());
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
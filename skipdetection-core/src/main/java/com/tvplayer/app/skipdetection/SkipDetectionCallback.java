@@ -0,0 +1,22 @@
+package com.tvplayer.app.skipdetection;
+
+public interface SkipDetectionCallback {
+
+    void onDetectionComplete(SkipDetectionResult result);
+
+    void onDetectionFailed(String errorMessage);
+
+    // # Streaming updates. Both run on the main thread before onDetectionComplete.
+
+    // # First usable result (e.g. manual preferences or a stale cache entry).
+    default void onProvisionalResult(SkipDetectionResult result) {
+    }
+
+    // # A better result replaced the provisional one while detection continues.
+    default void onResultUpgraded(SkipDetectionResult result) {
+    }
+
+    // # After onDetectionComplete: the same segments with edges snapped to real boundaries.
+    default void onSegmentsRefined(SkipDetectionResult result) {
+    }
+}
@@ -0,0 +1,588 @@
+package com.tvplayer.app.skipdetection;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult.DetectionSource;
+import com.tvplayer.app.skipdetection.metrics.AdaptiveTimeouts;
+import com.tvplayer.app.skipdetection.metrics.DetectionMetrics;
+import com.tvplayer.app.skipdetection.metrics.DetectionTrace.Completion;
+import com.tvplayer.app.skipdetection.platform.Log;
+import com.tvplayer.app.skipdetection.platform.TaskScheduler;
+import com.tvplayer.app.skipdetection.strategies.CacheStrategy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * SkipDetectionEngine
+ * FUNCTION: Runs one detection per call using a tiered priority system. Cache is checked first,
+ *           then all strategies run concurrently, and the best result is selected based on
+ *           TIER (priority) first, then confidence. Platform-free: threads come from a
+ *           TaskScheduler and the platform-specific steps (negative cache TTL, boundary
+ *           refinement) from Hooks.
+ * INTERACTS WITH: SmartSkipManager.java (app adapter that owns it), CacheStrategy.java,
+ *                 SkipDetectionStrategy implementations, TaskScheduler.java.
+ *
+ * SELECTION LOGIC:
+ *   1. Higher tier (priority) always wins over lower tier, regardless of confidence
+ *   2. Within same tier, highest confidence wins
+ *   3. Manual preferences only surface when all higher tiers fail
+ *   4. Once no outstanding strategy has a higher tier than the current winner,
+ *      detection finalizes immediately and the remaining strategies are cancelled
+ *   4b. With AdaptiveTimeouts, each strategy run has its own deadline learned from its past
+ *      answers; one that passes it is cancelled and counts as finished without a result,
+ *      so a slow or dead backend only delays detection by its own (short) timeout.
+ *      Strategies exempted from learning run until the detection timeout.
+ *   5. Winners the Hooks ask to refine are published at once, then refined on a worker
+ *      before the result is cached
+ *   6. An expired or provisional (prefetched ahead of playback) cache entry is shown at once and
+ *      competes at the tier it was found at; a fresh result of the same or a higher tier replaces
+ *      it, except that manual preferences never replace a detected entry. A provisional entry
+ *      that still wins is refined and cached like a fresh result; an expired one is left as it is
+ *
+ * METRICS: getMetrics() records per-strategy timelines and latency histograms once enabled.
+ */
+public class SkipDetectionEngine {
+
+    private static final String TAG = "SkipDetectionEngine";
+
+    /**
+     * Hooks
+     * FUNCTION: Platform-specific steps of a detection. Every method runs on a worker thread.
+     */
+    public interface Hooks {
+        // # Negative cache lifetime; 0 or less disables negative caching
+        default long getNegativeCacheTtlMs() {
+            return 0;
+        }
+
+        // # Called on a cache miss, right before the strategies are collected
+        default void onFreshDetection(MediaIdentifier mediaIdentifier) {
+        }
+
+        default boolean shouldRefine(MediaIdentifier mediaIdentifier, SkipDetectionResult result) {
+            return false;
+        }
+
+        // # Returns the same instance if nothing moved
+        default SkipDetectionResult refine(MediaIdentifier mediaIdentifier, SkipDetectionResult result)
+                throws IOException {
+            return result;
+        }
+    }
+
+    private final CacheStrategy cacheStrategy;
+    private final List<SkipDetectionStrategy> strategies;
+    private final TaskScheduler scheduler;
+    private final long timeoutMs;
+    private final Hooks hooks;
+    // # Per-strategy deadlines; null to rely on timeoutMs alone
+    private final AdaptiveTimeouts adaptiveTimeouts;
+    // # Disabled until the owner turns it on
+    private final DetectionMetrics metrics = new DetectionMetrics();
+
+    /**
+     * @param strategies All strategies except the cache, in any order.
+     * @param timeoutMs Max wait for strategies; only matters when one hangs.
+     */
+    public SkipDetectionEngine(CacheStrategy cacheStrategy, List<SkipDetectionStrategy> strategies,
+                               TaskScheduler scheduler, long timeoutMs, Hooks hooks) {
+        this(cacheStrategy, strategies, scheduler, timeoutMs, hooks, null);
+    }
+
+    /**
+     * @param timeoutMs Max wait for the whole detection; a safety net behind the per-strategy deadlines.
+     * @param adaptiveTimeouts Deadline of each strategy run; it also learns from every answer.
+     */
+    public SkipDetectionEngine(CacheStrategy cacheStrategy, List<SkipDetectionStrategy> strategies,
+                               TaskScheduler scheduler, long timeoutMs, Hooks hooks,
+                               AdaptiveTimeouts adaptiveTimeouts) {
+        this.cacheStrategy = cacheStrategy;
+        this.strategies = strategies;
+        this.scheduler = scheduler;
+        this.timeoutMs = timeoutMs;
+        this.hooks = hooks;
+        this.adaptiveTimeouts = adaptiveTimeouts;
+    }
+
+    public DetectionMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * detectAsync
+     * FUNCTION: Starts the detection process on a worker thread.
+     * The result is published the moment the last strategy finishes (or the
+     * timeout fires), without any thread sitting in a wait loop.
+     * Before that, the first usable result is pushed via onProvisionalResult and
+     * every better one via onResultUpgraded, so skip buttons can appear early.
+     * All callbacks are delivered through TaskScheduler.postCallback.
+     * @param mediaIdentifier Input data for the strategies.
+     * @param callback The interface to return the result to.
+     */
+    public void detectAsync(MediaIdentifier mediaIdentifier, SkipDetectionCallback callback) {
+        // # Started here so the wait for a worker counts towards the time to result
+        DetectionMetrics.Recorder trace = metrics.startTrace(mediaIdentifier);
+
+        // # Run the cache lookup and the strategy fan-out on a worker thread
+        scheduler.submit(() -> startDetection(mediaIdentifier, trace, new DetectionListener() {
+            @Override
+            public void onInterimResult(SkipDetectionResult result, boolean first) {
+                // # Post interim results in order; they always precede the final post
+                scheduler.postCallback(() -> {
+                    if (first) {
+                        callback.onProvisionalResult(result);
+                    } else {
+                        callback.onResultUpgraded(result);
+                    }
+                });
+            }
+
+            @Override
+            public void onResult(SkipDetectionResult result) {
+                scheduler.postCallback(() -> {
+                    if (result.isSuccess()) {
+                        callback.onDetectionComplete(result);
+                    } else {
+                        callback.onDetectionFailed(result.getErrorMessage());
+                    }
+                });
+            }
+
+            @Override
+            public void onRefinedResult(SkipDetectionResult result) {
+                scheduler.postCallback(() -> callback.onSegmentsRefined(result));
+            }
+        }));
+    }
+
+    /**
+     * startDetection
+     * FUNCTION: The core detection logic. Checks the cache, then submits every
+     * available strategy and returns immediately. Each strategy reports back to
+     * a DetectionSession, which publishes the final result to the listener as
+     * soon as the last strategy completes or the timeout fires.
+     * This runs on a worker thread.
+     * @param trace Metrics recorder, or null while metrics are disabled.
+     */
+    private void startDetection(MediaIdentifier mediaIdentifier, DetectionMetrics.Recorder trace,
+                                DetectionListener listener) {
+
+        // # 1. Check Cache First
+        SkipDetectionResult cachedResult = cacheStrategy.detect(mediaIdentifier);
+        if (cachedResult.isSuccess()) {
+            Log.i(TAG, "Cache hit: Returning result from " + cachedResult.getSource().getDisplayName());
+            if (trace != null) {
+                trace.finish(cachedResult, Completion.CACHE_HIT);
+            }
+            listener.onResult(cachedResult);
+            return;
+        }
+        Log.i(TAG, "Cache miss. Starting fresh detection.");
+        Log.d(TAG, "Memory cache: " + cacheStrategy.getMemoryCacheStats());
+
+        hooks.onFreshDetection(mediaIdentifier);
+
+        // # 2. Collect the strategies that can run for this media
+        Set<String> knownEmpty = cacheStrategy.getNegativelyCachedStrategies(mediaIdentifier,
+            hooks.getNegativeCacheTtlMs());
+        List<SkipDetectionStrategy> runnable = new ArrayList<>();
+        for (SkipDetectionStrategy strategy : strategies) {
+            if (!strategy.isAvailable()) {
+                Log.d(TAG, "Skipping unavailable strategy: " + strategy.getStrategyName());
+                continue;
+            }
+            if (knownEmpty.contains(strategy.getStrategyName())) {
+                Log.d(TAG, "Skipping strategy with no data (negative cache): " + strategy.getStrategyName());
+                continue;
+            }
+            runnable.add(strategy);
+        }
+
+        DetectionSession session = new DetectionSession(mediaIdentifier, trace, listener, runnable);
+
+        // # An expired or provisional cache entry is shown immediately and kept as a fallback
+        CacheStrategy.StaleEntry staleEntry = cacheStrategy.lookupStale(mediaIdentifier);
+        if (staleEntry != null) {
+            Log.i(TAG, "Using " + (staleEntry.provisional ? "prefetched" : "stale") +
+                  " cache entry as provisional result.");
+            session.offerStale(staleEntry);
+        }
+
+        if (runnable.isEmpty()) {
+            session.finish(Completion.ALL_FINISHED);
+            return;
+        }
+
+        // # 3. Arm the timeout. It only fires if strategies are still outstanding.
+        session.timeoutFuture = scheduler.schedule(() -> {
+            Log.w(TAG, "Detection timed out. Cancelling remaining strategies.");
+            session.finish(Completion.TIMED_OUT);
+        }, timeoutMs);
+
+        // # 4. Run all strategies concurrently; each one reports its own completion
+        for (SkipDetectionStrategy strategy : runnable) {
+            Future<?> future = scheduler.submit(() -> {
+                SkipDetectionResult result = null;
+                long startMs = System.currentTimeMillis();
+                Future<?> deadline = null;
+                try {
+                    Log.d(TAG, "Starting detection: " + strategy.getStrategyName());
+                    if (trace != null) {
+                        trace.strategyStarted(strategy.getStrategyName());
+                    }
+                    // # Counted from the start of the run, not from the time it was queued
+                    if (adaptiveTimeouts != null && !adaptiveTimeouts.isExempt(strategy.getStrategyName())) {
+                        deadline = scheduler.schedule(() -> session.onStrategyDeadline(strategy),
+                            adaptiveTimeouts.getTimeoutMs(strategy.getStrategyName()));
+                    }
+                    result = strategy.detect(mediaIdentifier);
+                } catch (Exception e) {
+                    Log.e(TAG, "Error in strategy " + strategy.getStrategyName(), e);
+                } finally {
+                    if (deadline != null) {
+                        deadline.cancel(false);
+                    }
+                    session.onStrategyComplete(strategy, result, System.currentTimeMillis() - startMs);
+                }
+            });
+            session.track(strategy, future);
+        }
+    }
+
+    /**
+     * DetectionListener
+     * FUNCTION: Receives interim results and the single final result of a DetectionSession.
+     */
+    private interface DetectionListener {
+        // # 'first' is true for the first interim result of the session
+        void onInterimResult(SkipDetectionResult result, boolean first);
+
+        void onResult(SkipDetectionResult result);
+
+        // # The final result again, with edges snapped to boundaries in the media
+        void onRefinedResult(SkipDetectionResult result);
+    }
+
+    /**
+     * DetectionSession
+     * FUNCTION: Tracks one detection run. Strategies report into it as they finish;
+     * the session finalizes exactly once, whichever happens first of:
+     *   - every strategy has finished,
+     *   - no outstanding strategy has a tier high enough to beat the current winner
+     *     (the stragglers are cancelled), or
+     *   - the timeout fires.
+     */
+    private class DetectionSession {
+        private final MediaIdentifier mediaIdentifier;
+        // # Null while metrics are disabled
+        private final DetectionMetrics.Recorder trace;
+        private final DetectionListener listener;
+        // # Strategies that have not reported yet (guarded by 'this')
+        private final List<SkipDetectionStrategy> pending;
+        private final AtomicBoolean finished = new AtomicBoolean(false);
+        private final Map<SkipDetectionStrategy, Future<?>> futures = new ConcurrentHashMap<>();
+        private volatile boolean cancelRequested;
+        private volatile Future<?> timeoutFuture;
+
+        // # Best result so far and its strategy priority (guarded by 'this')
+        private SkipDetectionResult bestResult;
+        private int bestPriority;
+        // # Stale or provisional cache entry: shown first, kept unless a fresh result beats its
+        // # tier (guarded by 'this')
+        private SkipDetectionResult staleResult;
+        private int stalePriority;
+        private DetectionSource staleSource;
+        private boolean staleProvisional;
+        private boolean interimPublished;
+
+        DetectionSession(MediaIdentifier mediaIdentifier, DetectionMetrics.Recorder trace,
+                         DetectionListener listener, List<SkipDetectionStrategy> strategies) {
+            this.mediaIdentifier = mediaIdentifier;
+            this.trace = trace;
+            this.listener = listener;
+            this.pending = new ArrayList<>(strategies);
+            if (trace != null) {
+                for (SkipDetectionStrategy strategy : strategies) {
+                    trace.strategyQueued(strategy.getStrategyName());
+                }
+            }
+        }
+
+        /**
+         * Called on the strategy's worker thread once it returns (result may be null on error).
+         * @param elapsedMs Run time of the strategy.
+         */
+        void onStrategyComplete(SkipDetectionStrategy strategy, SkipDetectionResult result, long elapsedMs) {
+            if (trace != null) {
+                trace.strategyFinished(strategy.getStrategyName(), result);
+            }
+
+            // # Remember definitive "no data" answers so the next playback skips this call
+            if (result != null && result.isNoData()) {
+                cacheStrategy.cacheNegativeResult(mediaIdentifier, strategy, hooks.getNegativeCacheTtlMs());
+            }
+
+            boolean allDone;
+            boolean decided;
+
+            synchronized (this) {
+                if (!pending.remove(strategy)) {
+                    // # Written off at its deadline; the answer is too late to count
+                    return;
+                }
+
+                boolean improved = false;
+                if (result != null && result.isSuccess()) {
+                    improved = offer(strategy, result);
+                } else if (result != null) {
+                    Log.d(TAG, "Failed: " + strategy.getStrategyName() + " (" + result.getErrorMessage() + ")");
+                }
+
+                allDone = pending.isEmpty();
+                // # A strictly lower tier can never replace the winner, so stop waiting for it
+                decided = !allDone && isDecided();
+                if (decided) {
+                    Log.i(TAG, "Tier " + winningPriority() + " result cannot be beaten by remaining strategies. " +
+                          "Finalizing early.");
+                } else if (improved && !allDone && beatsStale()) {
+                    // # Still waiting on strategies that could beat it, so show it now
+                    publishInterim(bestResult);
+                }
+            }
+
+            // # Only real answers teach the timeout (see AdaptiveTimeouts)
+            if (adaptiveTimeouts != null && !adaptiveTimeouts.isExempt(strategy.getStrategyName())
+                    && result != null && (result.isSuccess() || result.isNoData())) {
+                adaptiveTimeouts.recordLatency(strategy.getStrategyName(), elapsedMs);
+            }
+
+            if (allDone) {
+                // # The last strategy to finish publishes the result immediately
+                finish(Completion.ALL_FINISHED);
+            } else if (decided) {
+                finish(Completion.DECIDED_EARLY);
+            }
+        }
+
+        /**
+         * Called by the timer when a strategy run passes its deadline: the strategy is interrupted
+         * and the session carries on as if it had finished without a result.
+         */
+        void onStrategyDeadline(SkipDetectionStrategy strategy) {
+            boolean allDone;
+            boolean decided;
+
+            synchronized (this) {
+                if (finished.get() || !pending.remove(strategy)) {
+                    return;
+                }
+                Log.w(TAG, "Deadline passed: " + strategy.getStrategyName() + " (" +
+                      adaptiveTimeouts.getTimeoutMs(strategy.getStrategyName()) + " ms). Cancelling it.");
+                allDone = pending.isEmpty();
+                decided = !allDone && isDecided();
+            }
+
+            // # Traced before the interrupt, so the run shows up as timed out rather than failed
+            if (trace != null) {
+                trace.strategyTimedOut(strategy.getStrategyName());
+            }
+            adaptiveTimeouts.recordTimeout(strategy.getStrategyName());
+            Future<?> future = futures.get(strategy);
+            if (future != null) {
+                future.cancel(true);
+            }
+
+            if (allDone) {
+                finish(Completion.ALL_FINISHED);
+            } else if (decided) {
+                finish(Completion.DECIDED_EARLY);
+            }
+        }
+
+        /**
+         * Registers a submitted strategy. A strategy can finish the session before the rest are
+         * even submitted, so one registered after an early finish is cancelled right away.
+         */
+        void track(SkipDetectionStrategy strategy, Future<?> future) {
+            futures.put(strategy, future);
+            if (cancelRequested) {
+                future.cancel(true);
+            }
+        }
+
+        synchronized void offerStale(CacheStrategy.StaleEntry entry) {
+            staleResult = entry.result;
+            staleSource = entry.source;
+            staleProvisional = entry.provisional;
+            // # Entries written before tiers were stored rank at 0, below every strategy
+            stalePriority = entry.priority;
+            publishInterim(entry.result);
+        }
+
+        // # Whether bestResult replaces the stale entry: same or higher tier, and a manual
+        // # preference only replaces another manual preference (caller holds 'this')
+        private boolean beatsStale() {
+            if (bestResult == null || staleResult == null) {
+                return bestResult != null;
+            }
+            if (bestResult.getSource() == DetectionSource.MANUAL_PREFERENCE
+                    && staleSource != DetectionSource.MANUAL_PREFERENCE) {
+                return false;
+            }
+            return bestPriority >= stalePriority;
+        }
+
+        // # Tier of whichever result would be final right now (caller holds 'this')
+        private int winningPriority() {
+            return beatsStale() ? bestPriority : stalePriority;
+        }
+
+        // # No outstanding strategy can beat the current winner (caller holds 'this')
+        private boolean isDecided() {
+            return (bestResult != null || staleResult != null) && winningPriority() > highestPendingPriority();
+        }
+
+        // # Pushes an interim result unless the session has already been finalized (caller holds 'this')
+        private void publishInterim(SkipDetectionResult result) {
+            if (finished.get()) {
+                return;
+            }
+            listener.onInterimResult(result, !interimPublished);
+            interimPublished = true;
+        }
+
+        // # Highest tier among strategies that have not reported yet (caller holds 'this')
+        private int highestPendingPriority() {
+            int highest = Integer.MIN_VALUE;
+            for (SkipDetectionStrategy strategy : pending) {
+                highest = Math.max(highest, strategy.getPriority());
+            }
+            return highest;
+        }
+
+        /**
+         * TIERED SELECTION LOGIC:
+         * 1. If no result yet, use this one
+         * 2. If new strategy has HIGHER tier (priority), it wins regardless of confidence
+         * 3. If same tier, higher confidence wins
+         */
+        private boolean offer(SkipDetectionStrategy strategy, SkipDetectionResult result) {
+            int strategyPriority = strategy.getPriority();
+            Log.i(TAG, "Success from " + strategy.getStrategyName() +
+                  " (Tier: " + strategyPriority + ", Conf: " + result.getConfidence() + ")");
+
+            boolean shouldReplace = false;
+
+            if (bestResult == null) {
+                shouldReplace = true;
+            } else if (strategyPriority > bestPriority) {
+                // # Higher tier always wins
+                shouldReplace = true;
+                Log.i(TAG, "Higher tier wins: " + strategy.getStrategyName() +
+                      " (Tier " + strategyPriority + ") beats (Tier " + bestPriority + ")");
+            } else if (strategyPriority == bestPriority &&
+                      result.getConfidence() > bestResult.getConfidence()) {
+                // # Same tier, higher confidence wins
+                shouldReplace = true;
+                Log.i(TAG, "Same tier, higher confidence wins: " + strategy.getStrategyName());
+            }
+
+            if (shouldReplace) {
+                bestResult = result;
+                bestPriority = strategyPriority;
+                Log.i(TAG, "New best result set by " + strategy.getStrategyName());
+            }
+            return shouldReplace;
+        }
+
+        /**
+         * Finalizes the session exactly once: cancels leftovers, caches and publishes the winner.
+         * @param completion Why the session ends; on a timeout or an early decision the
+         *                   strategies that are still running are interrupted.
+         */
+        void finish(Completion completion) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+
+            Future<?> timeout = timeoutFuture;
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+
+            SkipDetectionResult finalResult;
+            boolean fromStale;
+            int finalPriority;
+            synchronized (this) {
+                fromStale = staleResult != null && !beatsStale();
+                finalResult = fromStale ? staleResult : bestResult;
+                finalPriority = winningPriority();
+            }
+
+            // # If no strategy succeeded, create a 'failed' result
+            if (finalResult == null) {
+                Log.w(TAG, "No strategy returned a successful result.");
+                finalResult = SkipDetectionResult.failed(DetectionSource.NONE, "No skip segments found by any strategy.");
+            }
+
+            // # Before the interrupts, so interrupted strategies are traced as cancelled, not failed
+            if (trace != null) {
+                trace.finish(finalResult, completion);
+            }
+
+            // # Cancel any remaining running threads to free their sockets and pool slots
+            if (completion == Completion.TIMED_OUT || completion == Completion.DECIDED_EARLY) {
+                cancelRequested = true;
+                for (Future<?> future : futures.values()) {
+                    if (!future.isDone()) {
+                        future.cancel(true); // # Interrupt the running thread
+                    }
+                }
+            }
+
+            if (fromStale && (!staleProvisional || completion == Completion.TIMED_OUT)) {
+                // # An expired entry nothing could replace, or a provisional one not every strategy
+                // # could check: shown as it is and left for the next playback to replace
+                listener.onResult(finalResult);
+                return;
+            }
+
+            if (finalResult.isSuccess() && hooks.shouldRefine(mediaIdentifier, finalResult)) {
+                // # Publish now; the refined edges follow within milliseconds and are what gets cached
+                listener.onResult(finalResult);
+                SkipDetectionResult published = finalResult;
+                scheduler.submit(() -> refineAndCache(published, finalPriority));
+                return;
+            }
+
+            // # Cache the best result (failed results are ignored by the cache). A provisional
+            // # entry that won becomes final, since every strategy has had its say now
+            cacheStrategy.cacheResult(mediaIdentifier, finalResult, finalPriority);
+
+            listener.onResult(finalResult);
+        }
+
+        // # Runs on a worker; falls back to caching the unrefined result on any error
+        private void refineAndCache(SkipDetectionResult result, int priority) {
+            SkipDetectionResult refined = result;
+            long startMs = System.currentTimeMillis();
+            try {
+                refined = hooks.refine(mediaIdentifier, result);
+                Log.d(TAG, "Boundary refinement took " + (System.currentTimeMillis() - startMs) + " ms"
+                    + (refined != result ? " (edges moved)" : ""));
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "Boundary refinement failed: " + e.getMessage());
+            }
+
+            cacheStrategy.cacheResult(mediaIdentifier, refined, priority);
+            if (refined != result) {
+                listener.onRefinedResult(refined);
+            }
+        }
+    }
+}
@@ -35,6 +35,7 @@ public class SkipDetectionResult {
         MANUAL_PREFERENCE("Manual Settings"),
         CACHE("Cache"),
         CHAPTER_MARKERS("Chapter Markers"),
+        MANIFEST_MARKERS("Stream Markers"),
         METADATA_HEURISTIC("Metadata Heuristics"),
         INTROHATER_API("IntroHater API"),
         INTRO_SKIPPER_API("Intro-Skipper API"),
@@ -81,12 +82,14 @@ public class SkipDetectionResult {
     private final String errorMessage;
     private final List<SkipSegment> segments;
     private final float confidence; // Confidence score (0.0 to 1.0)
+    private final boolean noData; // Source answered but has nothing for this media
 
     // --- Constructors ---
 
     // # Private constructor, use static factory methods
-    private SkipDetectionResult(boolean success, DetectionSource source, float confidence, List<SkipSegment> segments, String errorMessage) {
+    private SkipDetectionResult(boolean success, DetectionSource source, float confidence, List<SkipSegment> segments, String errorMessage, boolean noData) {
         this.success = success;
+        this.noData = noData;
         this.source = source;
         this.confidence = confidence;
         this.segments = segments != null ? Collections.unmodifiableList(segments) : Collections.emptyList();
@@ -110,14 +113,22 @@ public class SkipDetectionResult {
         if (segmentList.isEmpty()) {
             return failed(source, "Success reported but no valid segments provided.");
         }
-        return new SkipDetectionResult(true, source, confidence, segmentList, null);
+        return new SkipDetectionResult(true, source, confidence, segmentList, null, false);
     }
 
     /**
      * Creates a failed result.
      */
     public static SkipDetectionResult failed(DetectionSource source, String errorMessage) {
-        return new SkipDetectionResult(false, source, 0f, null, errorMessage);
+        return new SkipDetectionResult(false, source, 0f, null, errorMessage, false);
+    }
+
+    /**
+     * Creates a failed result for a source that answered but has no data for this media.
+     * Unlike a network error, this answer is worth remembering (negative caching).
+     */
+    public static SkipDetectionResult noData(DetectionSource source, String errorMessage) {
+        return new SkipDetectionResult(false, source, 0f, null, errorMessage, true);
     }
 
     // --- Public Getters ---
@@ -138,6 +149,10 @@ public class SkipDetectionResult {
         return confidence;
     }
 
+    public boolean isNoData() {
+        return noData;
+    }
+
     public List<SkipSegment> getSegments() {
         return segments;
     }
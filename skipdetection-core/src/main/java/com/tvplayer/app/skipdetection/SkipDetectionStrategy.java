@@ -0,0 +1,19 @@
+package com.tvplayer.app.skipdetection;
+
+public interface SkipDetectionStrategy {
+
+    SkipDetectionResult detect(MediaIdentifier mediaIdentifier);
+
+    String getStrategyName();
+
+    boolean isAvailable();
+
+    int getPriority();
+
+    // # Whether detect() reads the runtime or the media URI. Strategies that look media up by
+    // # IDs only share their "no data" answers (see CacheStrategy.negativeKey) with lookups made
+    // # before the episode played, such as SeasonPrefetcher's
+    default boolean readsMediaInputs() {
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,238 @@
+package com.tvplayer.app.skipdetection.audio;
+
+import java.util.Arrays;
+
+/**
+ * AudioFeatureExtractor
+ * FUNCTION: Turns a PCM stream into AudioFeatures (chroma, loudness and sub-fingerprints).
+ *           Audio is downmixed to mono and decimated to ~11 kHz, then analysed in
+ *           FFT_SIZE-sample Hann-windowed frames with 50% overlap (~46 ms hop).
+ * INTERACTS WITH: PcmDecoder.java (app, feeds it as a PcmSink), AudioFeatures.java (its output).
+ * SUB-FINGERPRINT: 28 bits per frame. Bits 0-15 mark log-spaced bands (300 Hz - 5 kHz) louder than
+ *           the average of their neighbours; bits 16-27 mark pitch classes above the mean chroma.
+ *           Both compare energies within a frame, so the hash ignores volume.
+ */
+public final class AudioFeatureExtractor implements PcmSink {
+
+    private static final int TARGET_SAMPLE_RATE = 11025;
+    private static final int FFT_SIZE = 1024;
+    private static final int HOP_SIZE = FFT_SIZE / 2;
+    private static final int BANDS = 18; // # 16 inner bands -> 16 peak bits
+    private static final double BAND_MIN_HZ = 300;
+    private static final double BAND_MAX_HZ = 5000;
+    private static final double CHROMA_MIN_HZ = 55;
+    private static final double CHROMA_MAX_HZ = 2000;
+    private static final int INITIAL_FRAME_CAPACITY = 4096;
+
+    // # Format state
+    private int channelCount;
+    private int decimation;
+    private double effectiveRate;
+
+    // # Decimation accumulator
+    private float decimationSum;
+    private int decimationCount;
+
+    // # Sliding analysis buffer
+    private final float[] buffer = new float[FFT_SIZE];
+    private int bufferFill;
+
+    // # Lookup tables (built on first format)
+    private final float[] window = new float[FFT_SIZE];
+    private final double[] cosTable = new double[FFT_SIZE / 2];
+    private final double[] sinTable = new double[FFT_SIZE / 2];
+    private final int[] bitReverse = new int[FFT_SIZE];
+    private int[] binPitchClass;
+    private int[] bandEdges;
+
+    // # Scratch
+    private final double[] re = new double[FFT_SIZE];
+    private final double[] im = new double[FFT_SIZE];
+    private final double[] bandEnergy = new double[BANDS];
+
+    // # Output (grown as needed)
+    private float[] chroma = new float[INITIAL_FRAME_CAPACITY * AudioFeatures.CHROMA_BINS];
+    private float[] rms = new float[INITIAL_FRAME_CAPACITY];
+    private int[] subFingerprints = new int[INITIAL_FRAME_CAPACITY];
+    private int frameCount;
+
+    public AudioFeatureExtractor() {
+        for (int i = 0; i < FFT_SIZE; i++) {
+            window[i] = (float) (0.5 - 0.5 * Math.cos(2 * Math.PI * i / (FFT_SIZE - 1)));
+        }
+        for (int i = 0; i < FFT_SIZE / 2; i++) {
+            cosTable[i] = Math.cos(2 * Math.PI * i / FFT_SIZE);
+            sinTable[i] = Math.sin(2 * Math.PI * i / FFT_SIZE);
+        }
+        int bits = Integer.numberOfTrailingZeros(FFT_SIZE);
+        for (int i = 0; i < FFT_SIZE; i++) {
+            bitReverse[i] = Integer.reverse(i) >>> (32 - bits);
+        }
+    }
+
+    @Override
+    public void onFormat(int sampleRate, int channelCount) {
+        this.channelCount = Math.max(1, channelCount);
+        if (binPitchClass != null) {
+            return; // # Keep the first rate so frame timing stays consistent
+        }
+
+        this.decimation = Math.max(1, (int) Math.round((double) sampleRate / TARGET_SAMPLE_RATE));
+        this.effectiveRate = (double) sampleRate / decimation;
+
+        int bins = FFT_SIZE / 2 + 1;
+        binPitchClass = new int[bins];
+        for (int k = 0; k < bins; k++) {
+            double hz = k * effectiveRate / FFT_SIZE;
+            if (k == 0 || hz < CHROMA_MIN_HZ || hz > CHROMA_MAX_HZ) {
+                binPitchClass[k] = -1;
+            } else {
+                // # Pitch class with C = 0 (A4 = 440 Hz is class 9)
+                int semitone = (int) Math.round(12 * Math.log(hz / 440.0) / Math.log(2)) + 9;
+                binPitchClass[k] = ((semitone % 12) + 12) % 12;
+            }
+        }
+
+        double maxHz = Math.min(BAND_MAX_HZ, effectiveRate * 0.45);
+        bandEdges = new int[BANDS + 1];
+        for (int b = 0; b <= BANDS; b++) {
+            double hz = BAND_MIN_HZ * Math.pow(maxHz / BAND_MIN_HZ, (double) b / BANDS);
+            bandEdges[b] = Math.max(1, Math.min(bins - 1, (int) Math.round(hz * FFT_SIZE / effectiveRate)));
+        }
+    }
+
+    @Override
+    public void onSamples(short[] interleaved, int count) {
+        int channels = channelCount;
+        for (int i = 0; i + channels <= count; i += channels) {
+            int mixed = 0;
+            for (int c = 0; c < channels; c++) {
+                mixed += interleaved[i + c];
+            }
+            decimationSum += (float) mixed / channels;
+            if (++decimationCount == decimation) {
+                push(decimationSum / (decimation * 32768f));
+                decimationSum = 0;
+                decimationCount = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the features collected so far (trimmed copies).
+     */
+    public AudioFeatures getFeatures() {
+        return new AudioFeatures(
+            frameCount,
+            effectiveRate > 0 ? HOP_SIZE / effectiveRate : 0,
+            Arrays.copyOf(chroma, frameCount * AudioFeatures.CHROMA_BINS),
+            Arrays.copyOf(rms, frameCount),
+            Arrays.copyOf(subFingerprints, frameCount));
+    }
+
+    private void push(float sample) {
+        buffer[bufferFill++] = sample;
+        if (bufferFill == FFT_SIZE) {
+            processFrame();
+            System.arraycopy(buffer, HOP_SIZE, buffer, 0, FFT_SIZE - HOP_SIZE);
+            bufferFill = FFT_SIZE - HOP_SIZE;
+        }
+    }
+
+    private void processFrame() {
+        ensureCapacity(frameCount + 1);
+
+        // # Loudness on the raw frame, spectrum on the windowed frame
+        double sumSquares = 0;
+        for (int i = 0; i < FFT_SIZE; i++) {
+            float s = buffer[i];
+            sumSquares += s * s;
+            re[i] = s * window[i];
+            im[i] = 0;
+        }
+        rms[frameCount] = (float) Math.sqrt(sumSquares / FFT_SIZE);
+        fft();
+
+        // # Chroma: fold the power spectrum onto 12 pitch classes, then normalize to unit sum
+        int chromaOffset = frameCount * AudioFeatures.CHROMA_BINS;
+        double chromaTotal = 0;
+        for (int k = 1; k < binPitchClass.length; k++) {
+            int pc = binPitchClass[k];
+            if (pc >= 0) {
+                double power = re[k] * re[k] + im[k] * im[k];
+                chroma[chromaOffset + pc] += (float) power;
+                chromaTotal += power;
+            }
+        }
+        if (chromaTotal > 1e-12) {
+            for (int c = 0; c < AudioFeatures.CHROMA_BINS; c++) {
+                chroma[chromaOffset + c] /= (float) chromaTotal;
+            }
+        }
+
+        // # Log band energies
+        for (int b = 0; b < BANDS; b++) {
+            double energy = 0;
+            for (int k = bandEdges[b]; k < bandEdges[b + 1]; k++) {
+                energy += re[k] * re[k] + im[k] * im[k];
+            }
+            bandEnergy[b] = Math.log(energy + 1e-12);
+        }
+
+        // # Sub-fingerprint from the spectral shape: band peaks and active pitch classes
+        int hash = 0;
+        for (int b = 1; b < BANDS - 1; b++) {
+            if (2 * bandEnergy[b] > bandEnergy[b - 1] + bandEnergy[b + 1]) {
+                hash |= 1 << (b - 1);
+            }
+        }
+        float chromaMean = 1f / AudioFeatures.CHROMA_BINS;
+        for (int c = 0; c < AudioFeatures.CHROMA_BINS; c++) {
+            if (chroma[chromaOffset + c] > chromaMean) {
+                hash |= 1 << (BANDS - 2 + c);
+            }
+        }
+        subFingerprints[frameCount] = hash;
+
+        frameCount++;
+    }
+
+    // # In-place iterative radix-2 FFT over re/im
+    private void fft() {
+        for (int i = 0; i < FFT_SIZE; i++) {
+            int j = bitReverse[i];
+            if (j > i) {
+                double t = re[i]; re[i] = re[j]; re[j] = t;
+                t = im[i]; im[i] = im[j]; im[j] = t;
+            }
+        }
+        for (int size = 2; size <= FFT_SIZE; size <<= 1) {
+            int half = size >> 1;
+            int step = FFT_SIZE / size;
+            for (int start = 0; start < FFT_SIZE; start += size) {
+                for (int k = 0; k < half; k++) {
+                    double wr = cosTable[k * step];
+                    double wi = -sinTable[k * step];
+                    int a = start + k;
+                    int b = a + half;
+                    double tr = re[b] * wr - im[b] * wi;
+                    double ti = re[b] * wi + im[b] * wr;
+                    re[b] = re[a] - tr;
+                    im[b] = im[a] - ti;
+                    re[a] += tr;
+                    im[a] += ti;
+                }
+            }
+        }
+    }
+
+    private void ensureCapacity(int frames) {
+        if (frames <= rms.length) {
+            return;
+        }
+        int capacity = Math.max(frames, rms.length * 2);
+        chroma = Arrays.copyOf(chroma, capacity * AudioFeatures.CHROMA_BINS);
+        rms = Arrays.copyOf(rms, capacity);
+        subFingerprints = Arrays.copyOf(subFingerprints, capacity);
+    }
+}
@@ -0,0 +1,38 @@
+package com.tvplayer.app.skipdetection.audio;
+
+/**
+ * AudioFeatures
+ * FUNCTION: Compact per-frame description of a decoded audio window.
+ *   - chroma: 12 pitch-class energies per frame (normalized), stored frame-major.
+ *   - rms: loudness per frame (0..1 full scale).
+ *   - subFingerprints: one 28-bit hash per frame, robust to volume and small timing changes.
+ * Frames are FRAME_HOP_SECONDS apart (see AudioFeatureExtractor).
+ * INTERACTS WITH: AudioFeatureExtractor.java (creates it), ThemeMusicDetector.java (reads it).
+ */
+public final class AudioFeatures {
+
+    public static final int CHROMA_BINS = 12;
+
+    public final int frameCount;
+    public final double frameHopSeconds;
+    public final float[] chroma;
+    public final float[] rms;
+    public final int[] subFingerprints;
+
+    public AudioFeatures(int frameCount, double frameHopSeconds, float[] chroma, float[] rms,
+                         int[] subFingerprints) {
+        this.frameCount = frameCount;
+        this.frameHopSeconds = frameHopSeconds;
+        this.chroma = chroma;
+        this.rms = rms;
+        this.subFingerprints = subFingerprints;
+    }
+
+    public int secondsToFrame(double seconds) {
+        return (int) Math.round(seconds / frameHopSeconds);
+    }
+
+    public double frameToSeconds(int frame) {
+        return frame * frameHopSeconds;
+    }
+}
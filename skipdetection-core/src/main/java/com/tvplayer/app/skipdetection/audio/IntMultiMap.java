@@ -0,0 +1,77 @@
+package com.tvplayer.app.skipdetection.audio;
+
+import java.util.Arrays;
+
+/**
+ * IntMultiMap
+ * FUNCTION: Primitive int -> int[] multimap (open addressing + chained value lists) used to
+ *           look up every query frame carrying a given sub-fingerprint. No boxing, two small
+ *           arrays per map, so building one over a few thousand frames costs microseconds.
+ * INTERACTS WITH: ShowFingerprintIndex.java (builds one over the query episode).
+ */
+final class IntMultiMap {
+
+    private static final int EMPTY = -1;
+
+    private final int[] keys;
+    private final int[] heads;   // # First value slot per key slot, or EMPTY
+    private final int[] counts;  // # Values per key slot
+    private final int[] values;
+    private final int[] next;    // # Next value slot with the same key, or EMPTY
+    private final int mask;
+    private int size;
+
+    IntMultiMap(int expectedValues) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedValues * 2 - 1)) << 1;
+        keys = new int[capacity];
+        heads = new int[capacity];
+        Arrays.fill(heads, EMPTY);
+        counts = new int[capacity];
+        mask = capacity - 1;
+        values = new int[Math.max(1, expectedValues)];
+        next = new int[values.length];
+    }
+
+    void put(int key, int value) {
+        int slot = slotFor(key);
+        keys[slot] = key;
+        values[size] = value;
+        next[size] = heads[slot];
+        heads[slot] = size;
+        counts[slot]++;
+        size++;
+    }
+
+    /**
+     * Returns the first value slot for the key (iterate with valueAt/nextSlot), or -1 if absent.
+     */
+    int firstSlot(int key) {
+        return heads[slotFor(key)];
+    }
+
+    int count(int key) {
+        return counts[slotFor(key)];
+    }
+
+    int valueAt(int valueSlot) {
+        return values[valueSlot];
+    }
+
+    int nextSlot(int valueSlot) {
+        return next[valueSlot];
+    }
+
+    // # Linear probing; stops at the key's slot or the first unused one
+    private int slotFor(int key) {
+        int slot = mix(key) & mask;
+        while (heads[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
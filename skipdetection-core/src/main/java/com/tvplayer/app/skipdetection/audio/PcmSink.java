@@ -0,0 +1,20 @@
+package com.tvplayer.app.skipdetection.audio;
+
+/**
+ * PcmSink
+ * FUNCTION: Receives decoded audio. Kept free of Android types so the analysis on the other end
+ *           (AudioFeatureExtractor) can be fed synthetic PCM on a plain JVM.
+ * INTERACTS WITH: PcmDecoder.java (app, the producer), AudioFeatureExtractor.java,
+ *                 BoundaryRefiner.java (app).
+ */
+public interface PcmSink {
+    // # Called once before the first samples (and again if the codec changes format)
+    void onFormat(int sampleRate, int channelCount);
+
+    // # Interleaved 16-bit samples; only the first 'count' entries are valid
+    void onSamples(short[] interleaved, int count);
+
+    // # Media time of the first sample of the next onSamples call
+    default void onBufferTime(long presentationTimeUs) {
+    }
+}
@@ -0,0 +1,420 @@
+package com.tvplayer.app.skipdetection.audio;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * ShowFingerprintIndex
+ * FUNCTION: Persistent store of the opening sub-fingerprints of every analysed episode of one show,
+ *           and the matcher that finds the audio a new episode shares with them (the theme).
+ *           All fingerprints live in one packed int[]; per-episode metadata in parallel arrays.
+ * INTERACTS WITH: AudioFingerprintStrategy.java (opens, matches, adds, saves),
+ *                 AudioFeatures.java (sub-fingerprints and frame hop).
+ * MATCHING:
+ *   1. Offset voting: every reference frame whose vote key (the stable chroma bits plus a few
+ *      band bits of its hash) occurs in the query votes for the alignment
+ *      (query frame - reference frame). The theme shows up as one dominant offset.
+ *   2. Verification: at that offset, frames whose smoothed bit distance is well below the
+ *      random level (14 of 28 bits) are "shared"; the longest shared run is kept.
+ *   3. Consensus: runs from all matching episodes are stacked on the query timeline and the
+ *      longest region covered by at least half of them becomes the intro.
+ *   Only episodes decoded with the same frame hop (sample rate family) are compared. Episodes of
+ *   the same season are tried first and the scan stops once MAX_MATCHED_EPISODES agree.
+ * STORAGE: One file per show, replaced atomically (written to a ".new" sibling, synced, renamed).
+ * PERSONALIZATION:
+ * - MAX_EPISODES: oldest entries are evicted beyond this.
+ * - MATCH_BITS: mean bit errors per frame still counted as the same audio.
+ */
+public final class ShowFingerprintIndex {
+
+    private static final int MAGIC = 0x53465049; // # "SFPI"
+    private static final int VERSION = 1;
+    private static final int MAX_EPISODES = 400;
+    private static final int MIN_VOTES = 12;
+    // # Chroma bits (16-27) survive re-encodes far better than band bits; 4 band bits keep keys selective
+    private static final int VOTE_KEY_MASK = 0xFFF000F;
+    // # Keys this common (silence, sustained notes) carry no alignment information
+    private static final int MAX_FRAMES_PER_KEY = 64;
+    private static final double SMOOTH_SECONDS = 1.0;
+    private static final double MAX_GAP_SECONDS = 1.5;
+    private static final float MATCH_BITS = 7.5f;
+    private static final double HOP_TOLERANCE = 0.005;
+    // # Enough agreeing episodes to trust the consensus; stops the scan early on large shows
+    private static final int MAX_MATCHED_EPISODES = 8;
+
+    /**
+     * Match: A region of the query episode shared with previously indexed episodes.
+     */
+    public static final class Match {
+        public final double startSeconds;
+        public final double endSeconds;
+        public final int supportingEpisodes;
+
+        Match(double startSeconds, double endSeconds, int supportingEpisodes) {
+            this.startSeconds = startSeconds;
+            this.endSeconds = endSeconds;
+            this.supportingEpisodes = supportingEpisodes;
+        }
+    }
+
+    private final File file;
+    private int count;
+    private int[] seasons = new int[8];
+    private int[] episodes = new int[8];
+    private float[] hops = new float[8];
+    private int[] starts = new int[8];
+    private int[] lengths = new int[8];
+    private int[] prints = new int[0];
+
+    private ShowFingerprintIndex(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens (or creates empty) the index of a show inside the given directory.
+     */
+    public static ShowFingerprintIndex open(File directory, String showName) {
+        ShowFingerprintIndex index = new ShowFingerprintIndex(new File(directory, fileNameFor(showName)));
+        index.load();
+        return index;
+    }
+
+    public int getEpisodeCount() {
+        return count;
+    }
+
+    /**
+     * Adds (or replaces) the fingerprints of an episode. Call save() to persist.
+     */
+    public void put(int season, int episode, AudioFeatures features) {
+        remove(season, episode);
+        if (count == MAX_EPISODES) {
+            removeAt(0); // # Oldest first
+        }
+        ensureCapacity(count + 1);
+        seasons[count] = season;
+        episodes[count] = episode;
+        hops[count] = (float) features.frameHopSeconds;
+        starts[count] = prints.length;
+        lengths[count] = features.frameCount;
+        prints = Arrays.copyOf(prints, prints.length + features.frameCount);
+        System.arraycopy(features.subFingerprints, 0, prints, starts[count], features.frameCount);
+        count++;
+    }
+
+    /**
+     * Finds the region of the query shared with the indexed episodes (other than itself).
+     * @return The consensus region within [minSeconds, maxSeconds] length, or null.
+     */
+    public Match match(int season, int episode, AudioFeatures query, double minSeconds, double maxSeconds) {
+        int queryLength = query.frameCount;
+        if (count == 0 || queryLength == 0) {
+            return null;
+        }
+        double hop = query.frameHopSeconds;
+        int smooth = Math.max(1, (int) Math.round(SMOOTH_SECONDS / hop));
+        int maxGap = (int) Math.round(MAX_GAP_SECONDS / hop);
+        int minFrames = (int) Math.round(minSeconds / hop);
+        int maxFrames = (int) Math.round(maxSeconds / hop);
+
+        IntMultiMap queryFrames = new IntMultiMap(queryLength);
+        for (int i = 0; i < queryLength; i++) {
+            queryFrames.put(query.subFingerprints[i] & VOTE_KEY_MASK, i);
+        }
+
+        int[] searchOrder = searchOrder(season);
+        int[] coverage = new int[queryLength + 1];
+        int[] votes = new int[0];
+        float[] distance = new float[queryLength];
+        int matchedEpisodes = 0;
+
+        for (int n = 0; n < count && matchedEpisodes < MAX_MATCHED_EPISODES; n++) {
+            int e = searchOrder[n];
+            if ((seasons[e] == season && episodes[e] == episode)
+                    || Math.abs(hops[e] - hop) > hop * HOP_TOLERANCE) {
+                continue;
+            }
+            int refStart = starts[e];
+            int refLength = lengths[e];
+
+            // # 1. Vote for offset = queryFrame - refFrame (shifted by refLength to be >= 0)
+            int span = queryLength + refLength;
+            if (votes.length < span) {
+                votes = new int[span];
+            } else {
+                Arrays.fill(votes, 0, span, 0);
+            }
+            for (int j = 0; j < refLength; j++) {
+                int key = prints[refStart + j] & VOTE_KEY_MASK;
+                if (queryFrames.count(key) > MAX_FRAMES_PER_KEY) {
+                    continue;
+                }
+                for (int slot = queryFrames.firstSlot(key); slot >= 0;
+                        slot = queryFrames.nextSlot(slot)) {
+                    votes[queryFrames.valueAt(slot) - j + refLength]++;
+                }
+            }
+            int bestOffset = -1;
+            int bestVotes = 0;
+            for (int d = 1; d + 1 < span; d++) {
+                // # Neighbouring offsets count too: the two encodes rarely share frame phase
+                int v = votes[d - 1] + votes[d] + votes[d + 1];
+                if (v > bestVotes) {
+                    bestVotes = v;
+                    bestOffset = d;
+                }
+            }
+            if (bestVotes < MIN_VOTES) {
+                continue;
+            }
+            int offset = bestOffset - refLength;
+
+            // # 2. Verify frame by frame at the winning offset (best of +-1 frame)
+            int from = Math.max(0, offset);
+            int to = Math.min(queryLength, refLength + offset);
+            if (to - from < minFrames) {
+                continue;
+            }
+            for (int i = from; i < to; i++) {
+                int best = Integer.MAX_VALUE;
+                for (int k = -1; k <= 1; k++) {
+                    int j = i - offset + k;
+                    if (j >= 0 && j < refLength) {
+                        best = Math.min(best, Integer.bitCount(query.subFingerprints[i] ^ prints[refStart + j]));
+                    }
+                }
+                distance[i] = best;
+            }
+            smoothInPlace(distance, from, to, smooth);
+
+            int[] run = longestRun(distance, from, to, maxGap);
+            if (run == null || run[1] - run[0] < minFrames) {
+                continue;
+            }
+            // # 3. Stack the shared run onto the query timeline (difference array)
+            coverage[run[0]]++;
+            coverage[run[1]]--;
+            matchedEpisodes++;
+        }
+
+        if (matchedEpisodes == 0) {
+            return null;
+        }
+
+        int required = (matchedEpisodes + 1) / 2;
+        int bestStart = -1;
+        int bestEnd = -1;
+        int runStart = -1;
+        int depth = 0;
+        for (int i = 0; i <= queryLength; i++) {
+            depth += i < queryLength ? coverage[i] : 0;
+            boolean covered = i < queryLength && depth >= required;
+            if (covered && runStart < 0) {
+                runStart = i;
+            } else if (!covered && runStart >= 0) {
+                int length = i - runStart;
+                if (length >= minFrames && length <= maxFrames && length > bestEnd - bestStart) {
+                    bestStart = runStart;
+                    bestEnd = i;
+                }
+                runStart = -1;
+            }
+        }
+        if (bestStart < 0) {
+            return null;
+        }
+        return new Match(query.frameToSeconds(bestStart), query.frameToSeconds(bestEnd), matchedEpisodes);
+    }
+
+    /**
+     * Writes the index atomically. Safe to call after every put().
+     */
+    public void save() throws IOException {
+        int words = 3 + count * 4 + prints.length;
+        ByteBuffer buffer = ByteBuffer.allocate(words * 4);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(count);
+        for (int e = 0; e < count; e++) {
+            buffer.putInt(seasons[e]).putInt(episodes[e]).putFloat(hops[e]).putInt(lengths[e]);
+            for (int j = 0; j < lengths[e]; j++) {
+                buffer.putInt(prints[starts[e] + j]);
+            }
+        }
+
+        File directory = file.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        // # A crash mid-write leaves only the ".new" file behind; the old index stays intact
+        File pending = new File(file.getPath() + ".new");
+        try (FileOutputStream out = new FileOutputStream(pending)) {
+            out.write(buffer.array(), 0, buffer.position());
+            out.getFD().sync();
+        } catch (IOException e) {
+            pending.delete();
+            throw e;
+        }
+        if (!pending.renameTo(file)) {
+            pending.delete();
+            throw new IOException("Cannot replace " + file);
+        }
+    }
+
+    // # A missing or unreadable file just means an empty index
+    private void load() {
+        byte[] bytes;
+        try {
+            bytes = readFully(new FileInputStream(file));
+        } catch (IOException e) {
+            return;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return;
+            }
+            int stored = buffer.getInt();
+            ensureCapacity(stored);
+            // # Packed prints take whatever is left after the headers
+            prints = new int[(buffer.remaining() / 4) - stored * 4];
+            int offset = 0;
+            for (int e = 0; e < stored; e++) {
+                seasons[e] = buffer.getInt();
+                episodes[e] = buffer.getInt();
+                hops[e] = buffer.getFloat();
+                lengths[e] = buffer.getInt();
+                starts[e] = offset;
+                buffer.asIntBuffer().get(prints, offset, lengths[e]);
+                buffer.position(buffer.position() + lengths[e] * 4);
+                offset += lengths[e];
+            }
+            count = stored;
+        } catch (RuntimeException e) {
+            // # Truncated/corrupt file: start over rather than fail detection
+            count = 0;
+            prints = new int[0];
+        }
+    }
+
+    // # Same season first (themes change between seasons), newest first within each group
+    private int[] searchOrder(int season) {
+        int[] order = new int[count];
+        int n = 0;
+        for (int e = count - 1; e >= 0; e--) {
+            if (seasons[e] == season) {
+                order[n++] = e;
+            }
+        }
+        for (int e = count - 1; e >= 0; e--) {
+            if (seasons[e] != season) {
+                order[n++] = e;
+            }
+        }
+        return order;
+    }
+
+    private void remove(int season, int episode) {
+        for (int e = 0; e < count; e++) {
+            if (seasons[e] == season && episodes[e] == episode) {
+                removeAt(e);
+                return;
+            }
+        }
+    }
+
+    private void removeAt(int index) {
+        int removedStart = starts[index];
+        int removedLength = lengths[index];
+        System.arraycopy(prints, removedStart + removedLength, prints, removedStart,
+            prints.length - removedStart - removedLength);
+        prints = Arrays.copyOf(prints, prints.length - removedLength);
+        for (int e = index + 1; e < count; e++) {
+            seasons[e - 1] = seasons[e];
+            episodes[e - 1] = episodes[e];
+            hops[e - 1] = hops[e];
+            lengths[e - 1] = lengths[e];
+            starts[e - 1] = starts[e] > removedStart ? starts[e] - removedLength : starts[e];
+        }
+        count--;
+    }
+
+    private void ensureCapacity(int episodesNeeded) {
+        if (episodesNeeded <= seasons.length) {
+            return;
+        }
+        int capacity = Math.max(episodesNeeded, seasons.length * 2);
+        seasons = Arrays.copyOf(seasons, capacity);
+        episodes = Arrays.copyOf(episodes, capacity);
+        hops = Arrays.copyOf(hops, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+    }
+
+    // # Centered moving average over [from, to), in place via a prefix sum
+    private static void smoothInPlace(float[] values, int from, int to, int window) {
+        int half = window / 2;
+        double[] prefix = new double[to - from + 1];
+        for (int i = from; i < to; i++) {
+            prefix[i - from + 1] = prefix[i - from] + values[i];
+        }
+        for (int i = from; i < to; i++) {
+            int a = Math.max(from, i - half) - from;
+            int b = Math.min(to, i + half + 1) - from;
+            values[i] = (float) ((prefix[b] - prefix[a]) / (b - a));
+        }
+    }
+
+    // # Longest [start, end) run with distance <= MATCH_BITS, bridging short gaps
+    private static int[] longestRun(float[] distance, int from, int to, int maxGap) {
+        int bestStart = -1;
+        int bestEnd = -1;
+        int runStart = -1;
+        int lastMatch = -1;
+        for (int i = from; i <= to; i++) {
+            boolean match = i < to && distance[i] <= MATCH_BITS;
+            if (match) {
+                if (runStart < 0) {
+                    runStart = i;
+                }
+                lastMatch = i;
+            } else if (runStart >= 0 && (i == to || i - lastMatch > maxGap)) {
+                if (lastMatch + 1 - runStart > bestEnd - bestStart) {
+                    bestStart = runStart;
+                    bestEnd = lastMatch + 1;
+                }
+                runStart = -1;
+            }
+        }
+        return bestStart < 0 ? null : new int[] {bestStart, bestEnd};
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            byte[] data = new byte[Math.max(1024, input.available())];
+            int length = 0;
+            int read;
+            while ((read = input.read(data, length, data.length - length)) != -1) {
+                length += read;
+                if (length == data.length) {
+                    data = Arrays.copyOf(data, data.length * 2);
+                }
+            }
+            return Arrays.copyOf(data, length);
+        }
+    }
+
+    // # Readable prefix plus a hash so different titles never share a file
+    private static String fileNameFor(String showName) {
+        String normalized = showName.trim().toLowerCase(Locale.ROOT);
+        String readable = normalized.replaceAll("[^a-z0-9]+", "_");
+        if (readable.length() > 40) {
+            readable = readable.substring(0, 40);
+        }
+        return readable + "_" + Integer.toHexString(normalized.hashCode()) + ".fpi";
+    }
+}
@@ -0,0 +1,196 @@
+package com.tvplayer.app.skipdetection.audio;
+
+import java.util.Arrays;
+
+/**
+ * ThemeMusicDetector
+ * FUNCTION: Finds the theme-music region in the opening minutes of a single episode.
+ *           Music keeps a stable harmonic profile (chroma) over seconds and has few silent gaps;
+ *           dialogue changes pitch constantly and pauses between lines. Each frame gets a
+ *           "musicness" score = chroma stability x voiced ratio over a sliding window, and the
+ *           strongest sustained run with an intro-like length wins.
+ * INTERACTS WITH: AudioFeatures.java (input), AudioFingerprintStrategy.java (caller).
+ * PERSONALIZATION:
+ * - WINDOW_SECONDS / LAG_SECONDS: smoothing window and chroma comparison distance.
+ * - MIN_SCORE: absolute floor for a frame to count as music.
+ * - MAX_GAP_SECONDS: short dips (e.g. a drum break) that do not end a run.
+ */
+public final class ThemeMusicDetector {
+
+    private static final double WINDOW_SECONDS = 3.0;
+    private static final double LAG_SECONDS = 0.5;
+    private static final double MAX_GAP_SECONDS = 1.5;
+    private static final double EDGE_SNAP_SECONDS = 1.0;
+    private static final float MIN_SCORE = 0.55f;
+    private static final float THRESHOLD_PERCENTILE = 0.7f;
+    // # Frames quieter than this fraction of the median loudness count as silence
+    private static final float SILENCE_RATIO = 0.15f;
+
+    /**
+     * Detection: The detected region in seconds, with a confidence in 0..1.
+     */
+    public static final class Detection {
+        public final double startSeconds;
+        public final double endSeconds;
+        public final float confidence;
+
+        Detection(double startSeconds, double endSeconds, float confidence) {
+            this.startSeconds = startSeconds;
+            this.endSeconds = endSeconds;
+            this.confidence = confidence;
+        }
+    }
+
+    private ThemeMusicDetector() {
+    }
+
+    /**
+     * @param minSeconds Shortest run accepted as a theme.
+     * @param maxSeconds Longest run accepted as a theme.
+     * @return The best region, or null if nothing music-like of a plausible length was found.
+     */
+    public static Detection detect(AudioFeatures features, double minSeconds, double maxSeconds) {
+        int n = features.frameCount;
+        if (n == 0 || features.frameHopSeconds <= 0) {
+            return null;
+        }
+
+        float silence = Math.max(1e-4f, percentile(features.rms, n, 0.5f) * SILENCE_RATIO);
+        float[] score = musicScores(features, silence);
+
+        float threshold = Math.max(MIN_SCORE, percentile(score, n, THRESHOLD_PERCENTILE));
+        int maxGap = features.secondsToFrame(MAX_GAP_SECONDS);
+        int minFrames = features.secondsToFrame(minSeconds);
+        int maxFrames = features.secondsToFrame(maxSeconds);
+
+        int bestStart = -1;
+        int bestEnd = -1;
+        double bestRank = 0;
+        double bestMean = 0;
+
+        int runStart = -1;
+        int lastAbove = -1;
+        double runSum = 0;
+        for (int i = 0; i <= n; i++) {
+            boolean above = i < n && score[i] >= threshold;
+            if (above) {
+                if (runStart < 0) {
+                    runStart = i;
+                    runSum = 0;
+                }
+                runSum += score[i];
+                lastAbove = i;
+                continue;
+            }
+            // # Close the run once the gap is too long (or at the end of the data)
+            if (runStart >= 0 && (i == n || i - lastAbove > maxGap)) {
+                int length = lastAbove - runStart + 1;
+                if (length >= minFrames && length <= maxFrames) {
+                    double mean = runSum / length;
+                    double rank = mean * Math.sqrt(length);
+                    if (rank > bestRank) {
+                        bestRank = rank;
+                        bestMean = mean;
+                        bestStart = runStart;
+                        bestEnd = lastAbove + 1;
+                    }
+                }
+                runStart = -1;
+            }
+        }
+
+        if (bestStart < 0) {
+            return null;
+        }
+
+        // # Theme edges usually sit on a quiet moment; snap to the quietest nearby frame
+        int snap = features.secondsToFrame(EDGE_SNAP_SECONDS);
+        bestStart = quietestFrame(features.rms, n, bestStart - snap, bestStart + snap, bestStart);
+        bestEnd = quietestFrame(features.rms, n, bestEnd - snap, bestEnd + snap, bestEnd);
+
+        float confidence = (float) Math.min(0.7, 0.3 + 0.4 * bestMean);
+        return new Detection(features.frameToSeconds(bestStart), features.frameToSeconds(bestEnd), confidence);
+    }
+
+    // # Per-frame musicness: windowed mean of chroma stability times windowed voiced ratio
+    private static float[] musicScores(AudioFeatures features, float silence) {
+        int n = features.frameCount;
+        int lag = Math.max(1, features.secondsToFrame(LAG_SECONDS));
+        int half = Math.max(1, features.secondsToFrame(WINDOW_SECONDS) / 2);
+
+        // # Prefix sums so each window average is O(1)
+        double[] stabilitySum = new double[n + 1];
+        int[] voicedSum = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            boolean voiced = features.rms[i] > silence;
+            double stability = 0;
+            if (voiced && i + lag < n && features.rms[i + lag] > silence) {
+                stability = correlation(features.chroma, i, i + lag);
+            }
+            stabilitySum[i + 1] = stabilitySum[i] + stability;
+            voicedSum[i + 1] = voicedSum[i] + (voiced ? 1 : 0);
+        }
+
+        float[] score = new float[n];
+        for (int i = 0; i < n; i++) {
+            int from = Math.max(0, i - half);
+            int to = Math.min(n, i + half + 1);
+            int count = to - from;
+            double meanStability = (stabilitySum[to] - stabilitySum[from]) / count;
+            double voicedRatio = (double) (voicedSum[to] - voicedSum[from]) / count;
+            score[i] = (float) (meanStability * voicedRatio);
+        }
+        return score;
+    }
+
+    // # Pearson correlation of two chroma vectors, floored at 0. Centering matters: flat
+    // # (noise-like) chroma would otherwise look perfectly "stable".
+    private static double correlation(float[] chroma, int frameA, int frameB) {
+        int a = frameA * AudioFeatures.CHROMA_BINS;
+        int b = frameB * AudioFeatures.CHROMA_BINS;
+        double meanA = 0;
+        double meanB = 0;
+        for (int c = 0; c < AudioFeatures.CHROMA_BINS; c++) {
+            meanA += chroma[a + c];
+            meanB += chroma[b + c];
+        }
+        meanA /= AudioFeatures.CHROMA_BINS;
+        meanB /= AudioFeatures.CHROMA_BINS;
+
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int c = 0; c < AudioFeatures.CHROMA_BINS; c++) {
+            double da = chroma[a + c] - meanA;
+            double db = chroma[b + c] - meanB;
+            dot += da * db;
+            normA += da * da;
+            normB += db * db;
+        }
+        if (normA <= 1e-12 || normB <= 1e-12) {
+            return 0;
+        }
+        return Math.max(0, dot / Math.sqrt(normA * normB));
+    }
+
+    private static int quietestFrame(float[] rms, int n, int from, int to, int fallback) {
+        from = Math.max(0, from);
+        to = Math.min(n - 1, to);
+        int best = Math.min(Math.max(fallback, 0), n);
+        float bestRms = best < n ? rms[best] : Float.MAX_VALUE;
+        for (int i = from; i <= to; i++) {
+            if (rms[i] < bestRms) {
+                bestRms = rms[i];
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static float percentile(float[] values, int count, float fraction) {
+        float[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        int index = Math.min(count - 1, Math.max(0, (int) (fraction * (count - 1))));
+        return sorted[index];
+    }
+}
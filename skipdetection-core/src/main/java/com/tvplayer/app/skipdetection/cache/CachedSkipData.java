@@ -0,0 +1,23 @@
+package com.tvplayer.app.skipdetection.cache;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegment;
+
+import java.util.List;
+
+/**
+ * CachedSkipData
+ * FUNCTION: One cached detection result as stored on disk.
+ * INTERACTS WITH: KeyValueStore implementations (read/write it), CacheStrategy.java (converts it to a result).
+ * NOTE: Field names match the legacy Gson JSON so old SharedPreferences entries can be migrated.
+ */
+public class CachedSkipData {
+    public List<SkipSegment> segments;
+    public long timestamp;
+    public String source;
+    public float confidence;
+    // # Tier (strategy priority) of the source; 0 when unknown (entries written before it was stored)
+    public int priority;
+    // # Resolved ahead of playback from a subset of the strategies (SeasonPrefetcher). Shown at
+    // # once, but live detection still runs and overwrites it
+    public boolean provisional;
+}
@@ -0,0 +1,86 @@
+package com.tvplayer.app.skipdetection.cache;
+
+import com.tvplayer.app.skipdetection.platform.KeyValueStore;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * InMemoryKeyValueStore
+ * FUNCTION: KeyValueStore that keeps everything in maps; nothing survives the process.
+ *           Used by JVM tests and benchmarks in place of the SQLite store. Thread-safe.
+ * INTERACTS WITH: CacheStrategy.java.
+ */
+public class InMemoryKeyValueStore implements KeyValueStore {
+
+    private final Map<String, CachedSkipData> entries = new HashMap<>();
+    // # cacheKey -> (strategy name -> timestamp)
+    private final Map<String, Map<String, Long>> negatives = new HashMap<>();
+
+    @Override
+    public synchronized CachedSkipData get(String cacheKey) {
+        return entries.get(cacheKey);
+    }
+
+    @Override
+    public synchronized void put(String cacheKey, CachedSkipData data) {
+        entries.put(cacheKey, data);
+    }
+
+    @Override
+    public synchronized void remove(String cacheKey) {
+        entries.remove(cacheKey);
+        negatives.remove(cacheKey);
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        negatives.clear();
+    }
+
+    @Override
+    public synchronized void putNegative(String cacheKey, String strategyName, long timestamp) {
+        Map<String, Long> byStrategy = negatives.get(cacheKey);
+        if (byStrategy == null) {
+            byStrategy = new HashMap<>();
+            negatives.put(cacheKey, byStrategy);
+        }
+        byStrategy.put(strategyName, timestamp);
+    }
+
+    @Override
+    public synchronized Set<String> getNegativeStrategies(String cacheKey, long notBefore) {
+        Set<String> strategies = new HashSet<>();
+        Map<String, Long> byStrategy = negatives.get(cacheKey);
+        if (byStrategy == null) {
+            return strategies;
+        }
+        for (Map.Entry<String, Long> entry : byStrategy.entrySet()) {
+            if (entry.getValue() >= notBefore) {
+                strategies.add(entry.getKey());
+            }
+        }
+        return strategies;
+    }
+
+    @Override
+    public synchronized void pruneNegatives(long notBefore) {
+        Iterator<Map<String, Long>> byKey = negatives.values().iterator();
+        while (byKey.hasNext()) {
+            Map<String, Long> byStrategy = byKey.next();
+            Iterator<Long> timestamps = byStrategy.values().iterator();
+            while (timestamps.hasNext()) {
+                if (timestamps.next() < notBefore) {
+                    timestamps.remove();
+                }
+            }
+            if (byStrategy.isEmpty()) {
+                byKey.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.tvplayer.app.skipdetection.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * MemoryLruCache
+ * FUNCTION: Size-bounded LRU map with hit/miss/eviction counters, the plain-Java equivalent of
+ *           android.util.LruCache. Entries are weighed by sizeOf(); the least recently used ones
+ *           are evicted once the total exceeds maxSize. Thread-safe.
+ * INTERACTS WITH: CacheStrategy.java (memory tier).
+ */
+public abstract class MemoryLruCache<K, V> {
+
+    // # Access order: iteration starts at the least recently used entry
+    private final LinkedHashMap<K, V> map = new LinkedHashMap<>(16, 0.75f, true);
+    private final int maxSize;
+    private int size;
+    private int hitCount;
+    private int missCount;
+    private int evictionCount;
+
+    protected MemoryLruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * The weight of one entry, in the same unit as maxSize.
+     */
+    protected abstract int sizeOf(K key, V value);
+
+    public synchronized V get(K key) {
+        V value = map.get(key);
+        if (value != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        V previous = map.put(key, value);
+        size += sizeOf(key, value);
+        if (previous != null) {
+            size -= sizeOf(key, previous);
+        }
+        trimToSize();
+    }
+
+    public synchronized void remove(K key) {
+        V previous = map.remove(key);
+        if (previous != null) {
+            size -= sizeOf(key, previous);
+        }
+    }
+
+    public synchronized void evictAll() {
+        map.clear();
+        size = 0;
+    }
+
+    private void trimToSize() {
+        Iterator<Map.Entry<K, V>> eldest = map.entrySet().iterator();
+        while (size > maxSize && eldest.hasNext()) {
+            Map.Entry<K, V> entry = eldest.next();
+            size -= sizeOf(entry.getKey(), entry.getValue());
+            eldest.remove();
+            evictionCount++;
+        }
+    }
+
+    public synchronized int size() { return size; }
+
+    public int maxSize() { return maxSize; }
+
+    public synchronized int hitCount() { return hitCount; }
+
+    public synchronized int missCount() { return missCount; }
+
+    public synchronized int evictionCount() { return evictionCount; }
+}
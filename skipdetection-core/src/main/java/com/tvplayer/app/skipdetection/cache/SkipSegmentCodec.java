@@ -0,0 +1,73 @@
+package com.tvplayer.app.skipdetection.cache;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegment;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SkipSegmentCodec
+ * FUNCTION: Compact text encoding for a list of skip segments, e.g. "INTRO:0-90;CREDITS:1260-1440".
+ * Replaces the Gson JSON blob so cache reads need no reflection.
+ * INTERACTS WITH: SkipCacheStore.java (app)
+ */
+public final class SkipSegmentCodec {
+
+    private static final char SEGMENT_SEPARATOR = ';';
+    private static final char TYPE_SEPARATOR = ':';
+    private static final char RANGE_SEPARATOR = '-';
+
+    private SkipSegmentCodec() {
+    }
+
+    public static String encode(List<SkipSegment> segments) {
+        StringBuilder sb = new StringBuilder(segments.size() * 20);
+        for (int i = 0; i < segments.size(); i++) {
+            SkipSegment segment = segments.get(i);
+            if (i > 0) {
+                sb.append(SEGMENT_SEPARATOR);
+            }
+            sb.append(segment.type.name())
+              .append(TYPE_SEPARATOR)
+              .append(segment.startSeconds)
+              .append(RANGE_SEPARATOR)
+              .append(segment.endSeconds);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Decodes the output of encode(). Malformed entries are skipped.
+     */
+    public static List<SkipSegment> decode(String encoded) {
+        List<SkipSegment> segments = new ArrayList<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return segments;
+        }
+
+        int pos = 0;
+        int length = encoded.length();
+        while (pos < length) {
+            int end = encoded.indexOf(SEGMENT_SEPARATOR, pos);
+            if (end < 0) {
+                end = length;
+            }
+
+            int typeEnd = encoded.indexOf(TYPE_SEPARATOR, pos);
+            int rangeSplit = typeEnd < 0 ? -1 : encoded.indexOf(RANGE_SEPARATOR, typeEnd + 1);
+            if (typeEnd > pos && rangeSplit > typeEnd && rangeSplit < end) {
+                try {
+                    SkipSegmentType type = SkipSegmentType.valueOf(encoded.substring(pos, typeEnd));
+                    int start = Integer.parseInt(encoded.substring(typeEnd + 1, rangeSplit));
+                    int stop = Integer.parseInt(encoded.substring(rangeSplit + 1, end));
+                    segments.add(new SkipSegment(type, start, stop));
+                } catch (IllegalArgumentException e) {
+                    // # Unknown type or bad number: drop this segment only
+                }
+            }
+            pos = end + 1;
+        }
+        return segments;
+    }
+}
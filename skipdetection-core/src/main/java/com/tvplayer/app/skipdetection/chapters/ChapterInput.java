@@ -0,0 +1,127 @@
+package com.tvplayer.app.skipdetection.chapters;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ChapterInput
+ * FUNCTION: Big-endian cursor over a RangedSource with a small block cache.
+ *           Container parsers hop between element headers; each hop lands in a cached
+ *           BLOCK_SIZE block, so a header walk over a remote file costs a few range requests.
+ * INTERACTS WITH: MatroskaChapterReader.java, Mp4ChapterReader.java.
+ * PERSONALIZATION:
+ * - BLOCK_SIZE / CACHED_BLOCKS: request granularity and how many blocks are kept.
+ * - MAX_READ_BYTES: guard against corrupt sizes; no parser needs more than this in total.
+ */
+final class ChapterInput {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final int CACHED_BLOCKS = 8;
+    private static final long MAX_READ_BYTES = 4L * 1024 * 1024;
+
+    private final RangedSource source;
+    private final long[] blockIndexes = new long[CACHED_BLOCKS];
+    private final byte[][] blocks = new byte[CACHED_BLOCKS][];
+    private final int[] blockLengths = new int[CACHED_BLOCKS];
+    private int nextVictim;
+    private long bytesFetched;
+    private long position;
+
+    ChapterInput(RangedSource source) {
+        this.source = source;
+        for (int i = 0; i < CACHED_BLOCKS; i++) {
+            blockIndexes[i] = -1;
+        }
+    }
+
+    long getPosition() {
+        return position;
+    }
+
+    void seek(long position) {
+        this.position = position;
+    }
+
+    void skip(long bytes) {
+        position += bytes;
+    }
+
+    // # Total size, or -1 if the source does not know it (yet)
+    long length() throws IOException {
+        return source.length();
+    }
+
+    int readUnsignedByte() throws IOException {
+        long index = position / BLOCK_SIZE;
+        int slot = block(index);
+        int offset = (int) (position - index * BLOCK_SIZE);
+        if (offset >= blockLengths[slot]) {
+            throw new EOFException("End of media at " + position);
+        }
+        position++;
+        return blocks[slot][offset] & 0xFF;
+    }
+
+    long readUnsigned(int bytes) throws IOException {
+        long value = 0;
+        for (int i = 0; i < bytes; i++) {
+            value = (value << 8) | readUnsignedByte();
+        }
+        return value;
+    }
+
+    int readInt() throws IOException {
+        return (int) readUnsigned(4);
+    }
+
+    long readLong() throws IOException {
+        return readUnsigned(8);
+    }
+
+    byte[] readBytes(int count) throws IOException {
+        byte[] bytes = new byte[count];
+        for (int i = 0; i < count; i++) {
+            bytes[i] = (byte) readUnsignedByte();
+        }
+        return bytes;
+    }
+
+    String readUtf8(int count) throws IOException {
+        return new String(readBytes(count), StandardCharsets.UTF_8);
+    }
+
+    // # Returns the cache slot holding the block, fetching it if needed
+    private int block(long index) throws IOException {
+        for (int i = 0; i < CACHED_BLOCKS; i++) {
+            if (blockIndexes[i] == index) {
+                return i;
+            }
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException("Chapter read cancelled");
+        }
+        if (bytesFetched >= MAX_READ_BYTES) {
+            throw new IOException("Read budget exceeded; container layout looks corrupt");
+        }
+
+        int slot = nextVictim;
+        nextVictim = (nextVictim + 1) % CACHED_BLOCKS;
+        if (blocks[slot] == null) {
+            blocks[slot] = new byte[BLOCK_SIZE];
+        }
+        int filled = 0;
+        while (filled < BLOCK_SIZE) {
+            int read = source.read(index * BLOCK_SIZE + filled, blocks[slot], filled, BLOCK_SIZE - filled);
+            if (read <= 0) {
+                break;
+            }
+            filled += read;
+        }
+        bytesFetched += BLOCK_SIZE;
+        blockIndexes[slot] = index;
+        blockLengths[slot] = filled;
+        return slot;
+    }
+}
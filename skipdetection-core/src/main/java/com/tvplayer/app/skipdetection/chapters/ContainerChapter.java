@@ -0,0 +1,23 @@
+package com.tvplayer.app.skipdetection.chapters;
+
+/**
+ * ContainerChapter
+ * FUNCTION: One chapter as stored in the media container (Matroska or MP4).
+ * INTERACTS WITH: MatroskaChapterReader.java, Mp4ChapterReader.java (create it),
+ *                 ChapterStrategy.java (maps titles to skip segments).
+ */
+public final class ContainerChapter {
+
+    // # Marks an end time the container did not store
+    public static final long UNKNOWN_END = -1;
+
+    public final String title;
+    public final long startMs;
+    public final long endMs;
+
+    public ContainerChapter(String title, long startMs, long endMs) {
+        this.title = title;
+        this.startMs = startMs;
+        this.endMs = endMs;
+    }
+}
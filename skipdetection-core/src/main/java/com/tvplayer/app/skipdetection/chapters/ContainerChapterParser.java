@@ -0,0 +1,36 @@
+package com.tvplayer.app.skipdetection.chapters;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * ContainerChapterParser
+ * FUNCTION: Reads the chapters of a Matroska or MP4 container from any RangedSource. Sniffs the
+ *           first bytes and hands over to the Matroska or MP4 reader; both only touch container
+ *           headers through ranged reads.
+ * INTERACTS WITH: ContainerChapterReader.java (app; opens the source for a URI),
+ *                 MatroskaChapterReader.java, Mp4ChapterReader.java.
+ */
+public final class ContainerChapterParser {
+
+    private ContainerChapterParser() {
+    }
+
+    /**
+     * @return The container's chapters in file order (empty if it has none),
+     *         or null if the format is neither Matroska nor MP4.
+     * @throws IOException If the source cannot be read or its headers are corrupt.
+     */
+    public static List<ContainerChapter> parse(RangedSource source) throws IOException {
+        ChapterInput input = new ChapterInput(source);
+        byte[] head = input.readBytes(8);
+        if ((((head[0] & 0xFF) << 24) | ((head[1] & 0xFF) << 16) | ((head[2] & 0xFF) << 8) | (head[3] & 0xFF))
+                == MatroskaChapterReader.ID_EBML) {
+            return new MatroskaChapterReader(input).read();
+        }
+        if (Mp4ChapterReader.looksLikeMp4(head)) {
+            return new Mp4ChapterReader(input).read();
+        }
+        return null;
+    }
+}
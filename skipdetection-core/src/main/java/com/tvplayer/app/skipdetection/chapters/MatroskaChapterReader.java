@@ -0,0 +1,284 @@
+package com.tvplayer.app.skipdetection.chapters;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MatroskaChapterReader
+ * FUNCTION: Reads the Chapters element of a Matroska/WebM file by walking EBML element headers.
+ *           Top-level elements are skipped by size until Chapters is found; if the clusters come
+ *           first, the SeekHead entry for Chapters is followed instead. Media data is never read.
+ * INTERACTS WITH: ContainerChapterParser.java (dispatches here), ChapterInput.java.
+ * FORMAT: https://www.matroska.org/technical/elements.html (IDs below keep their marker bits).
+ *         Chapter times are in nanoseconds regardless of TimestampScale.
+ * SAFETY: Sizes come from the file. Every child must end inside its parent, integers are at most
+ *         8 bytes and titles are cut at MAX_TITLE_BYTES, so a corrupt file fails with an
+ *         IOException instead of a huge allocation.
+ */
+final class MatroskaChapterReader {
+
+    static final int ID_EBML = 0x1A45DFA3;
+    private static final int ID_SEGMENT = 0x18538067;
+    private static final int ID_SEEK_HEAD = 0x114D9B74;
+    private static final int ID_SEEK = 0x4DBB;
+    private static final int ID_SEEK_ID = 0x53AB;
+    private static final int ID_SEEK_POSITION = 0x53AC;
+    private static final int ID_CLUSTER = 0x1F43B675;
+    private static final int ID_CHAPTERS = 0x1043A770;
+    private static final int ID_EDITION_ENTRY = 0x45B9;
+    private static final int ID_EDITION_FLAG_DEFAULT = 0x45DB;
+    private static final int ID_CHAPTER_ATOM = 0xB6;
+    private static final int ID_CHAPTER_TIME_START = 0x91;
+    private static final int ID_CHAPTER_TIME_END = 0x92;
+    private static final int ID_CHAPTER_FLAG_HIDDEN = 0x98;
+    private static final int ID_CHAPTER_FLAG_ENABLED = 0x4598;
+    private static final int ID_CHAPTER_DISPLAY = 0x80;
+    private static final int ID_CHAP_STRING = 0x85;
+
+    private static final long UNKNOWN_SIZE = -1;
+    // # Chapter lists are tiny; anything bigger is corrupt
+    private static final long MAX_CHAPTERS_BYTES = 1024 * 1024;
+    private static final int MAX_TITLE_BYTES = 512;
+    private static final int MAX_UNSIGNED_BYTES = 8;
+
+    private final ChapterInput input;
+
+    MatroskaChapterReader(ChapterInput input) {
+        this.input = input;
+    }
+
+    /**
+     * @return The chapters of the default edition (empty if the file has none).
+     */
+    List<ContainerChapter> read() throws IOException {
+        input.seek(0);
+        if (readId() != ID_EBML) {
+            throw new IOException("Not a Matroska file");
+        }
+        long headerSize = readSize();
+        if (headerSize == UNKNOWN_SIZE) {
+            throw new IOException("EBML header without a size");
+        }
+        input.skip(headerSize);
+
+        if (readId() != ID_SEGMENT) {
+            throw new IOException("Matroska segment not found");
+        }
+        long segmentSize = readSize();
+        long segmentStart = input.getPosition();
+        long segmentEnd = segmentSize == UNKNOWN_SIZE ? Long.MAX_VALUE : segmentStart + segmentSize;
+
+        long seekHeadChapters = -1;
+        while (input.getPosition() < segmentEnd) {
+            int id = readId();
+            long size = readSize();
+            long dataStart = input.getPosition();
+            if (size != UNKNOWN_SIZE && size > segmentEnd - dataStart) {
+                throw new IOException("Element at " + dataStart + " overruns the segment");
+            }
+
+            if (id == ID_CHAPTERS) {
+                return readChapters(dataStart, size);
+            } else if (id == ID_SEEK_HEAD && size != UNKNOWN_SIZE) {
+                long position = findChaptersInSeekHead(dataStart, dataStart + size);
+                if (position >= 0) {
+                    seekHeadChapters = segmentStart + position;
+                }
+            } else if (id == ID_CLUSTER || size == UNKNOWN_SIZE) {
+                break; // # Media data from here on; only the SeekHead can tell where Chapters are
+            }
+            input.seek(dataStart + size);
+        }
+
+        if (seekHeadChapters < 0) {
+            return new ArrayList<>();
+        }
+        input.seek(seekHeadChapters);
+        if (readId() != ID_CHAPTERS) {
+            return new ArrayList<>();
+        }
+        long size = readSize();
+        return readChapters(input.getPosition(), size);
+    }
+
+    // # Relative position of Chapters inside the segment, or -1
+    private long findChaptersInSeekHead(long start, long end) throws IOException {
+        input.seek(start);
+        while (input.getPosition() < end) {
+            int id = readId();
+            long size = readChildSize(end);
+            long seekEnd = input.getPosition() + size;
+            if (id == ID_SEEK) {
+                long seekId = -1;
+                long seekPosition = -1;
+                while (input.getPosition() < seekEnd) {
+                    int childId = readId();
+                    long childSize = readChildSize(seekEnd);
+                    if (childId == ID_SEEK_ID) {
+                        seekId = readUnsigned(childSize);
+                    } else if (childId == ID_SEEK_POSITION) {
+                        seekPosition = readUnsigned(childSize);
+                    } else {
+                        input.skip(childSize);
+                    }
+                }
+                if (seekId == ID_CHAPTERS) {
+                    return seekPosition;
+                }
+            }
+            input.seek(seekEnd);
+        }
+        return -1;
+    }
+
+    private List<ContainerChapter> readChapters(long start, long size) throws IOException {
+        if (size == UNKNOWN_SIZE || size > MAX_CHAPTERS_BYTES) {
+            throw new IOException("Implausible Chapters size " + size);
+        }
+        long end = start + size;
+        List<ContainerChapter> firstEdition = null;
+
+        input.seek(start);
+        while (input.getPosition() < end) {
+            int id = readId();
+            long editionSize = readChildSize(end);
+            long editionEnd = input.getPosition() + editionSize;
+            if (id == ID_EDITION_ENTRY) {
+                boolean[] isDefault = new boolean[1];
+                List<ContainerChapter> chapters = readEdition(editionEnd, isDefault);
+                if (isDefault[0]) {
+                    return chapters;
+                }
+                if (firstEdition == null) {
+                    firstEdition = chapters;
+                }
+            }
+            input.seek(editionEnd);
+        }
+        return firstEdition != null ? firstEdition : new ArrayList<>();
+    }
+
+    private List<ContainerChapter> readEdition(long end, boolean[] isDefault) throws IOException {
+        List<ContainerChapter> chapters = new ArrayList<>();
+        while (input.getPosition() < end) {
+            int id = readId();
+            long size = readChildSize(end);
+            long elementEnd = input.getPosition() + size;
+            if (id == ID_EDITION_FLAG_DEFAULT) {
+                isDefault[0] = readUnsigned(size) != 0;
+            } else if (id == ID_CHAPTER_ATOM) {
+                ContainerChapter chapter = readAtom(elementEnd);
+                if (chapter != null) {
+                    chapters.add(chapter);
+                }
+            }
+            input.seek(elementEnd);
+        }
+        return chapters;
+    }
+
+    // # Top-level atoms only; nested sub-chapters add nothing for skipping
+    private ContainerChapter readAtom(long end) throws IOException {
+        long startNs = -1;
+        long endNs = -1;
+        boolean hidden = false;
+        boolean enabled = true;
+        String title = null;
+
+        while (input.getPosition() < end) {
+            int id = readId();
+            long size = readChildSize(end);
+            long elementEnd = input.getPosition() + size;
+            switch (id) {
+                case ID_CHAPTER_TIME_START:
+                    startNs = readUnsigned(size);
+                    break;
+                case ID_CHAPTER_TIME_END:
+                    endNs = readUnsigned(size);
+                    break;
+                case ID_CHAPTER_FLAG_HIDDEN:
+                    hidden = readUnsigned(size) != 0;
+                    break;
+                case ID_CHAPTER_FLAG_ENABLED:
+                    enabled = readUnsigned(size) != 0;
+                    break;
+                case ID_CHAPTER_DISPLAY:
+                    if (title == null) {
+                        title = readDisplayString(elementEnd);
+                    }
+                    break;
+                default:
+                    break;
+            }
+            input.seek(elementEnd);
+        }
+
+        if (startNs < 0 || hidden || !enabled) {
+            return null;
+        }
+        return new ContainerChapter(title != null ? title : "",
+            startNs / 1_000_000, endNs >= 0 ? endNs / 1_000_000 : ContainerChapter.UNKNOWN_END);
+    }
+
+    private String readDisplayString(long end) throws IOException {
+        while (input.getPosition() < end) {
+            int id = readId();
+            long size = readChildSize(end);
+            if (id == ID_CHAP_STRING) {
+                // # The caller seeks past whatever is left of an over-long title
+                return input.readUtf8((int) Math.min(size, MAX_TITLE_BYTES)).trim();
+            }
+            input.skip(size);
+        }
+        return null;
+    }
+
+    // # Data size of a child element, which must end by its parent's end
+    private long readChildSize(long parentEnd) throws IOException {
+        long size = readSize();
+        if (size == UNKNOWN_SIZE || size > parentEnd - input.getPosition()) {
+            throw new IOException("Element at " + input.getPosition() + " overruns its parent");
+        }
+        return size;
+    }
+
+    // # EBML unsigned integer: 0-8 bytes, big-endian
+    private long readUnsigned(long size) throws IOException {
+        if (size > MAX_UNSIGNED_BYTES) {
+            throw new IOException("Invalid EBML integer size " + size + " at " + input.getPosition());
+        }
+        return input.readUnsigned((int) size);
+    }
+
+    // # EBML element ID: 1-4 bytes, length given by the leading zero bits, marker bit kept
+    private int readId() throws IOException {
+        int first = input.readUnsignedByte();
+        int length = Integer.numberOfLeadingZeros(first) - 23;
+        if (length < 1 || length > 4) {
+            throw new IOException("Invalid EBML ID at " + (input.getPosition() - 1));
+        }
+        int id = first;
+        for (int i = 1; i < length; i++) {
+            id = (id << 8) | input.readUnsignedByte();
+        }
+        return id;
+    }
+
+    // # EBML data size: 1-8 bytes, marker bit removed; all ones means "unknown"
+    private long readSize() throws IOException {
+        int first = input.readUnsignedByte();
+        int length = Integer.numberOfLeadingZeros(first) - 23;
+        if (length < 1 || length > 8) {
+            throw new IOException("Invalid EBML size at " + (input.getPosition() - 1));
+        }
+        long value = first & (0xFF >> length);
+        boolean allOnes = value == (0xFF >> length);
+        for (int i = 1; i < length; i++) {
+            int next = input.readUnsignedByte();
+            allOnes &= next == 0xFF;
+            value = (value << 8) | next;
+        }
+        return allOnes ? UNKNOWN_SIZE : value;
+    }
+}
@@ -0,0 +1,326 @@
+package com.tvplayer.app.skipdetection.chapters;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mp4ChapterReader
+ * FUNCTION: Reads chapters from an MP4/MOV file by walking box headers inside 'moov'
+ *           (which may sit at the end of the file). Two layouts are supported:
+ *   - Nero chapters: moov/udta/chpl (start times in 100 ns units, titles inline).
+ *   - QuickTime chapter track: a text track referenced by another track's tref/chap; titles are
+ *     its samples, located through stsz/stsc/stco and timed through stts/mdhd.
+ *   Only the few bytes of each chapter title are read from the media data.
+ * INTERACTS WITH: ContainerChapterParser.java (dispatches here), ChapterInput.java.
+ */
+final class Mp4ChapterReader {
+
+    private static final int TYPE_MOOV = type("moov");
+    private static final int TYPE_UDTA = type("udta");
+    private static final int TYPE_CHPL = type("chpl");
+    private static final int TYPE_TRAK = type("trak");
+    private static final int TYPE_TKHD = type("tkhd");
+    private static final int TYPE_TREF = type("tref");
+    private static final int TYPE_CHAP = type("chap");
+    private static final int TYPE_MDIA = type("mdia");
+    private static final int TYPE_MDHD = type("mdhd");
+    private static final int TYPE_MINF = type("minf");
+    private static final int TYPE_STBL = type("stbl");
+    private static final int TYPE_STTS = type("stts");
+    private static final int TYPE_STSC = type("stsc");
+    private static final int TYPE_STSZ = type("stsz");
+    private static final int TYPE_STCO = type("stco");
+    private static final int TYPE_CO64 = type("co64");
+
+    private static final long NERO_TIMESCALE = 10_000_000L;
+    // # Chapter tracks hold a handful of samples; a huge table means we picked the wrong track
+    private static final int MAX_CHAPTER_SAMPLES = 1000;
+    private static final int MAX_TITLE_BYTES = 512;
+
+    private final ChapterInput input;
+
+    Mp4ChapterReader(ChapterInput input) {
+        this.input = input;
+    }
+
+    static boolean looksLikeMp4(byte[] head) {
+        if (head.length < 8) {
+            return false;
+        }
+        int boxType = ((head[4] & 0xFF) << 24) | ((head[5] & 0xFF) << 16) | ((head[6] & 0xFF) << 8) | (head[7] & 0xFF);
+        return boxType == type("ftyp") || boxType == TYPE_MOOV || boxType == type("free")
+            || boxType == type("mdat") || boxType == type("wide") || boxType == type("skip");
+    }
+
+    List<ContainerChapter> read() throws IOException {
+        long[] moov = findChild(0, input.length() > 0 ? input.length() : Long.MAX_VALUE, TYPE_MOOV);
+        if (moov == null) {
+            throw new IOException("MP4 'moov' box not found");
+        }
+
+        // # Nero chapters, if present, are the simplest and most common
+        long[] udta = findChild(moov[0], moov[1], TYPE_UDTA);
+        if (udta != null) {
+            long[] chpl = findChild(udta[0], udta[1], TYPE_CHPL);
+            if (chpl != null) {
+                List<ContainerChapter> chapters = readNeroChapters(chpl[0]);
+                if (!chapters.isEmpty()) {
+                    return chapters;
+                }
+            }
+        }
+        return readChapterTrack(moov[0], moov[1]);
+    }
+
+    private List<ContainerChapter> readNeroChapters(long start) throws IOException {
+        input.seek(start);
+        int version = input.readUnsignedByte();
+        input.skip(3); // # flags
+        if (version > 0) {
+            input.skip(4); // # reserved
+        }
+        int count = input.readUnsignedByte();
+        List<ContainerChapter> chapters = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long start100ns = input.readLong();
+            int titleLength = input.readUnsignedByte();
+            String title = input.readUtf8(titleLength).trim();
+            chapters.add(new ContainerChapter(title, start100ns * 1000 / NERO_TIMESCALE, ContainerChapter.UNKNOWN_END));
+        }
+        return chapters;
+    }
+
+    private List<ContainerChapter> readChapterTrack(long moovStart, long moovEnd) throws IOException {
+        // # Pass 1: which track IDs are referenced as chapter tracks, and where each trak is
+        List<long[]> traks = new ArrayList<>();
+        List<Integer> trackIds = new ArrayList<>();
+        List<Integer> chapterTrackIds = new ArrayList<>();
+        long position = moovStart;
+        while (position < moovEnd) {
+            long[] box = readBoxHeader(position, moovEnd);
+            if (box == null) {
+                break;
+            }
+            if (box[2] == TYPE_TRAK) {
+                traks.add(box);
+                trackIds.add(readTrackId(box[0], box[1]));
+                long[] tref = findChild(box[0], box[1], TYPE_TREF);
+                if (tref != null) {
+                    long[] chap = findChild(tref[0], tref[1], TYPE_CHAP);
+                    if (chap != null) {
+                        input.seek(chap[0]);
+                        for (long p = chap[0]; p + 4 <= chap[1]; p += 4) {
+                            chapterTrackIds.add(input.readInt());
+                        }
+                    }
+                }
+            }
+            position = box[1];
+        }
+
+        // # Pass 2: read the first referenced track
+        for (int i = 0; i < traks.size(); i++) {
+            if (chapterTrackIds.contains(trackIds.get(i))) {
+                return readTextTrack(traks.get(i)[0], traks.get(i)[1]);
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    private int readTrackId(long trakStart, long trakEnd) throws IOException {
+        long[] tkhd = findChild(trakStart, trakEnd, TYPE_TKHD);
+        if (tkhd == null) {
+            return -1;
+        }
+        input.seek(tkhd[0]);
+        int version = input.readUnsignedByte();
+        input.skip(3 + (version == 1 ? 16 : 8)); // # flags, creation and modification times
+        return input.readInt();
+    }
+
+    private List<ContainerChapter> readTextTrack(long trakStart, long trakEnd) throws IOException {
+        List<ContainerChapter> chapters = new ArrayList<>();
+        long[] mdia = findChild(trakStart, trakEnd, TYPE_MDIA);
+        long[] mdhd = mdia != null ? findChild(mdia[0], mdia[1], TYPE_MDHD) : null;
+        long[] minf = mdia != null ? findChild(mdia[0], mdia[1], TYPE_MINF) : null;
+        long[] stbl = minf != null ? findChild(minf[0], minf[1], TYPE_STBL) : null;
+        if (mdhd == null || stbl == null) {
+            return chapters;
+        }
+
+        input.seek(mdhd[0]);
+        int version = input.readUnsignedByte();
+        input.skip(3 + (version == 1 ? 16 : 8));
+        long timescale = input.readUnsigned(4);
+        if (timescale <= 0) {
+            return chapters;
+        }
+
+        long[] sampleTimes = readSampleTimes(stbl);
+        long[] sampleOffsets = readSampleOffsets(stbl);
+        if (sampleTimes == null || sampleOffsets == null) {
+            return chapters;
+        }
+
+        int count = Math.min(sampleTimes.length, sampleOffsets.length);
+        for (int i = 0; i < count; i++) {
+            // # Text sample: 16-bit length, then the UTF-8 (or UTF-16 with BOM) title
+            input.seek(sampleOffsets[i]);
+            int length = Math.min(MAX_TITLE_BYTES, (int) input.readUnsigned(2));
+            String title = decodeTitle(input.readBytes(length));
+            long startMs = sampleTimes[i] * 1000 / timescale;
+            long endMs = i + 1 < sampleTimes.length
+                ? sampleTimes[i + 1] * 1000 / timescale : ContainerChapter.UNKNOWN_END;
+            chapters.add(new ContainerChapter(title, startMs, endMs));
+        }
+        return chapters;
+    }
+
+    // # Start time of every sample from stts (run-length coded durations)
+    private long[] readSampleTimes(long[] stbl) throws IOException {
+        long[] stts = findChild(stbl[0], stbl[1], TYPE_STTS);
+        if (stts == null) {
+            return null;
+        }
+        input.seek(stts[0] + 4);
+        int entries = input.readInt();
+        List<Long> times = new ArrayList<>();
+        long time = 0;
+        for (int e = 0; e < entries && times.size() < MAX_CHAPTER_SAMPLES; e++) {
+            long sampleCount = input.readUnsigned(4);
+            long delta = input.readUnsigned(4);
+            for (long s = 0; s < sampleCount && times.size() < MAX_CHAPTER_SAMPLES; s++) {
+                times.add(time);
+                time += delta;
+            }
+        }
+        long[] result = new long[times.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = times.get(i);
+        }
+        return result;
+    }
+
+    // # File offset of every sample: chunk offsets (stco/co64) + chunk layout (stsc) + sizes (stsz)
+    private long[] readSampleOffsets(long[] stbl) throws IOException {
+        long[] stsz = findChild(stbl[0], stbl[1], TYPE_STSZ);
+        long[] stsc = findChild(stbl[0], stbl[1], TYPE_STSC);
+        long[] stco = findChild(stbl[0], stbl[1], TYPE_STCO);
+        boolean wideOffsets = false;
+        if (stco == null) {
+            stco = findChild(stbl[0], stbl[1], TYPE_CO64);
+            wideOffsets = true;
+        }
+        if (stsz == null || stsc == null || stco == null) {
+            return null;
+        }
+
+        input.seek(stsz[0] + 4);
+        int fixedSize = input.readInt();
+        int sampleCount = input.readInt();
+        if (sampleCount < 0 || sampleCount > MAX_CHAPTER_SAMPLES) {
+            return null;
+        }
+        int[] sizes = new int[sampleCount];
+        for (int i = 0; i < sampleCount; i++) {
+            sizes[i] = fixedSize != 0 ? fixedSize : input.readInt();
+        }
+
+        input.seek(stco[0] + 4);
+        int chunkCount = input.readInt();
+        if (chunkCount < 0 || chunkCount > MAX_CHAPTER_SAMPLES) {
+            return null;
+        }
+        long[] chunkOffsets = new long[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            chunkOffsets[i] = wideOffsets ? input.readLong() : input.readUnsigned(4);
+        }
+
+        input.seek(stsc[0] + 4);
+        int stscEntries = input.readInt();
+        if (stscEntries < 0 || stscEntries > MAX_CHAPTER_SAMPLES) {
+            return null;
+        }
+        int[] firstChunk = new int[stscEntries];
+        int[] samplesPerChunk = new int[stscEntries];
+        for (int i = 0; i < stscEntries; i++) {
+            firstChunk[i] = input.readInt();
+            samplesPerChunk[i] = input.readInt();
+            input.skip(4); // # sample description index
+        }
+
+        long[] offsets = new long[sampleCount];
+        int sample = 0;
+        for (int chunk = 0; chunk < chunkCount && sample < sampleCount; chunk++) {
+            int perChunk = 1;
+            for (int e = 0; e < stscEntries; e++) {
+                if (firstChunk[e] - 1 <= chunk) {
+                    perChunk = samplesPerChunk[e];
+                }
+            }
+            long offset = chunkOffsets[chunk];
+            for (int s = 0; s < perChunk && sample < sampleCount; s++) {
+                offsets[sample] = offset;
+                offset += sizes[sample];
+                sample++;
+            }
+        }
+        return sample == sampleCount ? offsets : Arrays.copyOf(offsets, sample);
+    }
+
+    private static String decodeTitle(byte[] bytes) {
+        if (bytes.length >= 2 && (bytes[0] & 0xFF) == 0xFE && (bytes[1] & 0xFF) == 0xFF) {
+            return new String(bytes, StandardCharsets.UTF_16).trim();
+        }
+        return new String(bytes, StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * Finds the first direct child box of the given type within [start, end).
+     * @return {dataStart, boxEnd, type}, or null.
+     */
+    private long[] findChild(long start, long end, int wantedType) throws IOException {
+        long position = start;
+        while (position < end) {
+            long[] box = readBoxHeader(position, end);
+            if (box == null) {
+                return null;
+            }
+            if (box[2] == wantedType) {
+                return box;
+            }
+            position = box[1];
+        }
+        return null;
+    }
+
+    // # {dataStart, boxEnd, type}, or null at the end of the parent / data
+    private long[] readBoxHeader(long position, long parentEnd) throws IOException {
+        long length = input.length();
+        if (position + 8 > parentEnd || (length > 0 && position + 8 > length)) {
+            return null;
+        }
+        input.seek(position);
+        long size = input.readUnsigned(4);
+        int boxType = input.readInt();
+        long headerSize = 8;
+        if (size == 1) {
+            size = input.readLong();
+            headerSize = 16;
+        } else if (size == 0) {
+            // # Box runs to the end of its parent (or the file)
+            size = (parentEnd == Long.MAX_VALUE ? (length > 0 ? length : Long.MAX_VALUE / 2) : parentEnd) - position;
+        }
+        if (size < headerSize) {
+            throw new IOException("Invalid MP4 box size at " + position);
+        }
+        return new long[] {position + headerSize, position + size, boxType};
+    }
+
+    private static int type(String fourCc) {
+        return (fourCc.charAt(0) << 24) | (fourCc.charAt(1) << 16) | (fourCc.charAt(2) << 8) | fourCc.charAt(3);
+    }
+}
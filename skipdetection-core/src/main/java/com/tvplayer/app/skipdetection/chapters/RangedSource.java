@@ -0,0 +1,23 @@
+package com.tvplayer.app.skipdetection.chapters;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * RangedSource
+ * FUNCTION: Random-access reads from a media file, local or remote.
+ *           Container headers are read with a handful of small reads instead of a download.
+ * INTERACTS WITH: HttpRangedSource.java, LocalRangedSource.java (app implementations),
+ *                 ChapterInput.java (buffers reads on top of it).
+ */
+public interface RangedSource extends Closeable {
+
+    // # Total size in bytes, or -1 if unknown
+    long length() throws IOException;
+
+    /**
+     * Reads up to 'length' bytes at 'position'.
+     * @return Bytes read, or -1 at the end of the data.
+     */
+    int read(long position, byte[] buffer, int offset, int length) throws IOException;
+}
@@ -0,0 +1,83 @@
+package com.tvplayer.app.skipdetection.chapters;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * SkipTitleClassifier
+ * FUNCTION: Maps a chapter or marker name (e.g. "Opening", "End Credits", "Previously on") to the
+ *           segment type it describes. Regular scene titles must not match, since a match becomes
+ *           a tier-500 segment that auto-skip may jump over: only words that always name a skip
+ *           segment count on their own, ambiguous ones only in a phrase ("end credits", not "end"),
+ *           and the anime shorthands OP / ED / Ending only as the whole title ("OP", "ED 2").
+ * INTERACTS WITH: ChapterStrategy.java (chapter titles), ManifestMarkerParser.java (marker classes).
+ * PERSONALIZATION: Extend the word and phrase lists below; checked in the order recap, intro,
+ *                  credits, preview, so "Opening Credits" is an intro.
+ */
+public final class SkipTitleClassifier {
+
+    // # Whole words that name the segment anywhere in a title
+    private static final String[] RECAP_WORDS = {"recap"};
+    private static final String[] INTRO_WORDS = {"intro", "opening"};
+    private static final String[] CREDITS_WORDS = {"credits", "outro"};
+    private static final String[] PREVIEW_WORDS = {"preview"};
+
+    // # Word sequences that only name the segment together
+    private static final String[] RECAP_PHRASES = {"previously on"};
+    private static final String[] INTRO_PHRASES = {"opening credits", "opening titles", "opening theme",
+        "main titles", "main title", "title sequence"};
+    private static final String[] CREDITS_PHRASES = {"end credits", "end titles", "closing credits"};
+    private static final String[] PREVIEW_PHRASES = {"next episode", "next time on"};
+
+    // # Whole-title forms, optionally numbered ("OP2", "Ending 1")
+    private static final Pattern RECAP_TITLE = Pattern.compile("previously");
+    private static final Pattern INTRO_TITLE = Pattern.compile("op ?\\d*");
+    private static final Pattern CREDITS_TITLE = Pattern.compile("(ed|ending) ?\\d*");
+
+    private SkipTitleClassifier() {
+    }
+
+    /**
+     * @return The segment type the title describes, or null for regular content.
+     */
+    public static SkipSegmentType classify(String title) {
+        if (title == null) {
+            return null;
+        }
+        // # Lower-case words separated by single spaces, e.g. "end credits"
+        String normalized = title.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        String padded = " " + normalized + " ";
+
+        if (RECAP_TITLE.matcher(normalized).matches() || containsAny(padded, RECAP_WORDS)
+                || containsAny(padded, RECAP_PHRASES)) {
+            return SkipSegmentType.RECAP;
+        }
+        if (INTRO_TITLE.matcher(normalized).matches() || containsAny(padded, INTRO_WORDS)
+                || containsAny(padded, INTRO_PHRASES)) {
+            return SkipSegmentType.INTRO;
+        }
+        if (CREDITS_TITLE.matcher(normalized).matches() || containsAny(padded, CREDITS_WORDS)
+                || containsAny(padded, CREDITS_PHRASES)) {
+            return SkipSegmentType.CREDITS;
+        }
+        if (containsAny(padded, PREVIEW_WORDS) || containsAny(padded, PREVIEW_PHRASES)) {
+            return SkipSegmentType.NEXT_EPISODE;
+        }
+        return null;
+    }
+
+    // # 'padded' has a space on both ends, so " end credits " only matches whole words
+    private static boolean containsAny(String padded, String[] terms) {
+        for (String term : terms) {
+            if (padded.contains(" " + term + " ")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,207 @@
+package com.tvplayer.app.skipdetection.health;
+
+import com.tvplayer.app.skipdetection.platform.Log;
+
+import java.util.Random;
+
+/**
+ * CircuitBreaker
+ * FUNCTION: Health of one remote endpoint, so a backend that is down stops costing a connect
+ *           timeout on every playback.
+ *   - CLOSED: requests go through. The outcomes of the last WINDOW_SIZE requests are kept; once
+ *     at least MIN_REQUESTS are known and more than FAILURE_RATE of them failed, the breaker opens.
+ *   - OPEN: no requests until the probe interval has passed. The interval starts at
+ *     baseProbeIntervalMs, doubles after every failed probe up to maxProbeIntervalMs, and is
+ *     jittered by +-JITTER so many clients do not probe a recovering server in lockstep.
+ *   - HALF_OPEN: exactly one probe request is let through. Success closes the breaker,
+ *     failure opens it again with the longer interval.
+ * INTERACTS WITH: IntroSkipperStrategy.java / IntroHaterStrategy.java (isAvailable() and every call).
+ * USAGE: isAvailable() is a side-effect-free check for strategy selection; tryAcquire() must be
+ *        called right before the request and exactly one of recordSuccess(), recordFailure() or
+ *        release() after it.
+ * THREADING: Thread-safe.
+ */
+public class CircuitBreaker {
+
+    private static final String TAG = "CircuitBreaker";
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public static final int WINDOW_SIZE = 10;
+    public static final int MIN_REQUESTS = 3;
+    public static final double FAILURE_RATE = 0.5;
+    public static final double JITTER = 0.2;
+
+    public static final long DEFAULT_BASE_PROBE_INTERVAL_MS = 30_000;
+    public static final long DEFAULT_MAX_PROBE_INTERVAL_MS = 10 * 60_000;
+
+    // # A probe that never reports back (e.g. its thread died) stops blocking new probes after this
+    private static final long PROBE_LEASE_MS = 60_000;
+
+    private final String name;
+    private final long baseProbeIntervalMs;
+    private final long maxProbeIntervalMs;
+    private final Random random;
+
+    // # All guarded by 'this'
+    private State state = State.CLOSED;
+    // # Ring of recent outcomes in CLOSED state: true = failed
+    private final boolean[] outcomes = new boolean[WINDOW_SIZE];
+    private int outcomeCount;
+    private int nextOutcome;
+    private long probeIntervalMs;
+    private long openUntilMs;
+    private long probeStartedMs = -1;
+
+    public CircuitBreaker(String name) {
+        this(name, DEFAULT_BASE_PROBE_INTERVAL_MS, DEFAULT_MAX_PROBE_INTERVAL_MS, new Random());
+    }
+
+    public CircuitBreaker(String name, long baseProbeIntervalMs, long maxProbeIntervalMs, Random random) {
+        this.name = name;
+        this.baseProbeIntervalMs = baseProbeIntervalMs;
+        this.maxProbeIntervalMs = maxProbeIntervalMs;
+        this.random = random;
+        this.probeIntervalMs = baseProbeIntervalMs;
+    }
+
+    // # Time source; overridden in tests
+    protected long nowMs() {
+        return System.currentTimeMillis();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Whether a request would be let through now. Does not claim the probe.
+     */
+    public synchronized boolean isAvailable() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                return nowMs() >= openUntilMs;
+            default:
+                return probeExpired();
+        }
+    }
+
+    /**
+     * Claims permission for one request. In HALF_OPEN only the first caller gets it.
+     * @return false if the request must not be made.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && nowMs() >= openUntilMs) {
+            state = State.HALF_OPEN;
+            probeStartedMs = -1;
+            Log.i(TAG, name + ": probing");
+        }
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                return false;
+            default:
+                if (probeStartedMs >= 0 && !probeExpired()) {
+                    return false;
+                }
+                probeStartedMs = nowMs();
+                return true;
+        }
+    }
+
+    // # The endpoint answered (any response that is not a server-side error)
+    public synchronized void recordSuccess() {
+        if (state == State.HALF_OPEN) {
+            Log.i(TAG, name + ": probe succeeded, closing");
+            state = State.CLOSED;
+            probeIntervalMs = baseProbeIntervalMs;
+            probeStartedMs = -1;
+            clearOutcomes();
+            return;
+        }
+        addOutcome(false);
+    }
+
+    // # Connect/read failure, call timeout at the maximum deadline, 5xx or 429
+    public synchronized void recordFailure() {
+        if (state == State.HALF_OPEN) {
+            probeIntervalMs = Math.min(maxProbeIntervalMs, probeIntervalMs * 2);
+            open("probe failed");
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+        addOutcome(true);
+        int failures = 0;
+        for (int i = 0; i < outcomeCount; i++) {
+            if (outcomes[i]) {
+                failures++;
+            }
+        }
+        if (outcomeCount >= MIN_REQUESTS && failures > FAILURE_RATE * outcomeCount) {
+            open(failures + "/" + outcomeCount + " recent requests failed");
+        }
+    }
+
+    // # The request was abandoned by us (e.g. the detection was cancelled); says nothing about health
+    public synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            probeStartedMs = -1;
+        }
+    }
+
+    // # e.g. "IntroHater: OPEN, probe in 24s" or "IntroHater: CLOSED, 1/7 failed"
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder(name).append(": ").append(state);
+        if (state == State.OPEN) {
+            sb.append(", probe in ").append(Math.max(0, openUntilMs - nowMs()) / 1000).append('s');
+        } else if (state == State.CLOSED) {
+            int failures = 0;
+            for (int i = 0; i < outcomeCount; i++) {
+                if (outcomes[i]) {
+                    failures++;
+                }
+            }
+            sb.append(", ").append(failures).append('/').append(outcomeCount).append(" failed");
+        }
+        return sb.toString();
+    }
+
+    // # Caller holds 'this'
+    private void open(String reason) {
+        state = State.OPEN;
+        probeStartedMs = -1;
+        clearOutcomes();
+        double jitter = 1.0 + JITTER * (2 * random.nextDouble() - 1);
+        long intervalMs = (long) (probeIntervalMs * jitter);
+        openUntilMs = nowMs() + intervalMs;
+        Log.w(TAG, name + ": opening (" + reason + "), next probe in " + intervalMs / 1000 + "s");
+    }
+
+    // # Caller holds 'this'
+    private boolean probeExpired() {
+        return probeStartedMs < 0 || nowMs() - probeStartedMs >= PROBE_LEASE_MS;
+    }
+
+    // # Caller holds 'this'
+    private void addOutcome(boolean failed) {
+        outcomes[nextOutcome] = failed;
+        nextOutcome = (nextOutcome + 1) % WINDOW_SIZE;
+        outcomeCount = Math.min(outcomeCount + 1, WINDOW_SIZE);
+    }
+
+    // # Caller holds 'this'
+    private void clearOutcomes() {
+        outcomeCount = 0;
+        nextOutcome = 0;
+    }
+}
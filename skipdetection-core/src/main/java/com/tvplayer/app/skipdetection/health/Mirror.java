@@ -0,0 +1,63 @@
+package com.tvplayer.app.skipdetection.health;
+
+import com.tvplayer.app.skipdetection.metrics.LatencyWindow;
+
+/**
+ * Mirror
+ * FUNCTION: One copy of a community API: its base URL, its own CircuitBreaker and its recent
+ *           answer latencies. Strategies with several mirrors use the latencies to decide which
+ *           one to ask first and how long to wait before asking another.
+ * INTERACTS WITH: IntroSkipperStrategy.java (owner), CircuitBreaker.java, LatencyWindow.java.
+ * THREADING: Thread-safe.
+ */
+public class Mirror {
+
+    public static final int WINDOW_SIZE = 50;
+    // # Fewer answers than this and the percentiles are treated as unknown
+    public static final int MIN_SAMPLES = 5;
+
+    private final String baseUrl;
+    private final CircuitBreaker circuitBreaker;
+    private final LatencyWindow latencies = new LatencyWindow(WINDOW_SIZE);
+
+    public Mirror(String name, String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.circuitBreaker = new CircuitBreaker(name + " [" + baseUrl + "]");
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    // # Only for answers that came over the network; failures and cache hits say nothing
+    // # about how fast the mirror answers
+    public void recordLatency(long latencyMs) {
+        latencies.add(latencyMs);
+    }
+
+    public boolean hasLatencyHistory() {
+        return latencies.size() >= MIN_SAMPLES;
+    }
+
+    /**
+     * Latency percentile in ms, e.g. 0.95 for p95, or -1 while there is too little history.
+     */
+    public long getPercentileMs(double quantile) {
+        return hasLatencyHistory() ? latencies.getPercentile(quantile) : -1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(circuitBreaker.toString());
+        if (hasLatencyHistory()) {
+            sb.append(", p50=").append(latencies.getPercentile(0.5))
+                .append("ms p95=").append(latencies.getPercentile(0.95))
+                .append("ms (n=").append(latencies.size()).append(')');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,209 @@
+package com.tvplayer.app.skipdetection.manifest;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegment;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+import com.tvplayer.app.skipdetection.chapters.SkipTitleClassifier;
+import com.tvplayer.app.skipdetection.platform.Log;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ManifestMarkerParser
+ * FUNCTION: Turns the skip markers a streaming manifest declares into segments on the media
+ *           timeline: HLS EXT-X-DATERANGE tags and DASH EventStream events. Only fields meant to
+ *           name a segment are classified (DATERANGE CLASS and SKIP_ATTRIBUTES, the event stream
+ *           and event values); IDs, URIs and other X- attributes are ignored, so an ad break
+ *           whose asset URL happens to contain "/op/" is not mistaken for an intro.
+ * INTERACTS WITH: ManifestMarkerStrategy.java (app; extracts the tags and events from Media3's
+ *                 manifests), SkipTitleClassifier.java.
+ * PERSONALIZATION: Add attribute names to SKIP_ATTRIBUTES to read another provider's convention.
+ */
+public final class ManifestMarkerParser {
+
+    private static final String TAG = "ManifestMarkerParser";
+    public static final String DATERANGE_TAG = "#EXT-X-DATERANGE:";
+
+    // # DATERANGE attributes besides CLASS whose value names the segment
+    private static final String[] SKIP_ATTRIBUTES = {"X-SKIP-TYPE", "X-SEGMENT-TYPE", "X-MARKER-TYPE"};
+    // # NAME="quoted" or NAME=bare (numbers, hex, enumerated strings)
+    private static final Pattern ATTRIBUTE = Pattern.compile("([A-Z0-9-]+)=(\"[^\"]*\"|[^,]*)");
+    // # xs:dateTime, e.g. 2024-05-01T20:00:05.250Z or 2024-05-01T22:00:05+02:00
+    private static final Pattern XS_DATE_TIME = Pattern.compile(
+        "(\\d\\d\\d\\d)-(\\d\\d)-(\\d\\d)[Tt](\\d\\d):(\\d\\d):(\\d\\d)([.,](\\d+))?([Zz]|([+-])(\\d?\\d):?(\\d\\d))?");
+    // # Longer payloads are binary (e.g. SCTE-35) and say nothing about the segment type
+    private static final int MAX_MESSAGE_TEXT_BYTES = 256;
+    private static final long UNSET = Long.MIN_VALUE;
+
+    private ManifestMarkerParser() {
+    }
+
+    /**
+     * DashEvent
+     * FUNCTION: One DASH EventStream event, flattened with what is needed to place it.
+     */
+    public static final class DashEvent {
+        public final long periodStartMs;
+        // # @value of the EventStream and of the Event
+        public final String streamValue;
+        public final String eventValue;
+        // # Relative to the period start
+        public final long presentationTimeUs;
+        // # Negative when the event has no duration
+        public final long durationMs;
+        public final byte[] messageData;
+
+        public DashEvent(long periodStartMs, String streamValue, String eventValue, long presentationTimeUs,
+                         long durationMs, byte[] messageData) {
+            this.periodStartMs = periodStartMs;
+            this.streamValue = streamValue;
+            this.eventValue = eventValue;
+            this.presentationTimeUs = presentationTimeUs;
+            this.durationMs = durationMs;
+            this.messageData = messageData;
+        }
+    }
+
+    /**
+     * EXT-X-DATERANGE tags -> segments relative to the playlist start.
+     * @param tags The playlist's tags; anything but DATERANGE is ignored.
+     * @param playlistStartMs Wall-clock time of the first segment (EXT-X-PROGRAM-DATE-TIME).
+     */
+    public static List<SkipSegment> parseDateRanges(List<String> tags, long playlistStartMs) {
+        List<SkipSegment> segments = new ArrayList<>();
+        for (String tag : tags) {
+            if (!tag.startsWith(DATERANGE_TAG)) {
+                continue;
+            }
+            Map<String, String> attributes = parseAttributes(tag.substring(DATERANGE_TAG.length()));
+            SkipSegmentType type = classifyDateRange(attributes);
+            String startDate = attributes.get("START-DATE");
+            if (type == null || startDate == null) {
+                continue;
+            }
+            try {
+                long startMs = parseXsDateTime(startDate) - playlistStartMs;
+                addSegment(segments, type, startMs, endMs(attributes, startMs, playlistStartMs));
+            } catch (IllegalArgumentException e) {
+                // # Malformed date or duration: skip this tag only
+                Log.w(TAG, "Ignoring malformed DATERANGE: " + tag);
+            }
+        }
+        return segments;
+    }
+
+    private static long endMs(Map<String, String> attributes, long startMs, long playlistStartMs) {
+        String endDate = attributes.get("END-DATE");
+        if (endDate != null) {
+            return parseXsDateTime(endDate) - playlistStartMs;
+        }
+        String duration = attributes.containsKey("DURATION")
+            ? attributes.get("DURATION") : attributes.get("PLANNED-DURATION");
+        if (duration != null) {
+            return startMs + (long) (Double.parseDouble(duration) * 1000);
+        }
+        return UNSET;
+    }
+
+    // # CLASS first, then the allow-listed attributes
+    static SkipSegmentType classifyDateRange(Map<String, String> attributes) {
+        SkipSegmentType type = SkipTitleClassifier.classify(attributes.get("CLASS"));
+        if (type != null) {
+            return type;
+        }
+        for (String name : SKIP_ATTRIBUTES) {
+            type = SkipTitleClassifier.classify(attributes.get(name));
+            if (type != null) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    public static Map<String, String> parseAttributes(String list) {
+        Map<String, String> attributes = new HashMap<>();
+        Matcher matcher = ATTRIBUTE.matcher(list);
+        while (matcher.find()) {
+            String value = matcher.group(2);
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            attributes.put(matcher.group(1), value);
+        }
+        return attributes;
+    }
+
+    /**
+     * DASH events -> segments relative to the first period.
+     * @param firstPeriodStartMs Start of the manifest's first period.
+     */
+    public static List<SkipSegment> parseEvents(List<DashEvent> events, long firstPeriodStartMs) {
+        List<SkipSegment> segments = new ArrayList<>();
+        for (DashEvent event : events) {
+            SkipSegmentType type = SkipTitleClassifier.classify(
+                event.streamValue + " " + event.eventValue + " " + messageText(event.messageData));
+            if (type == null || event.durationMs < 0) {
+                continue;
+            }
+            long startMs = event.periodStartMs - firstPeriodStartMs + event.presentationTimeUs / 1000;
+            addSegment(segments, type, startMs, startMs + event.durationMs);
+        }
+        return segments;
+    }
+
+    // # Short plain text only; a URL (e.g. an ad's VAST link) is not a description
+    private static String messageText(byte[] data) {
+        if (data == null || data.length == 0 || data.length > MAX_MESSAGE_TEXT_BYTES) {
+            return "";
+        }
+        String text = new String(data, StandardCharsets.UTF_8);
+        return text.indexOf('/') >= 0 ? "" : text;
+    }
+
+    private static void addSegment(List<SkipSegment> segments, SkipSegmentType type, long startMs, long endMs) {
+        if (endMs == UNSET || startMs < 0 || endMs <= startMs) {
+            return;
+        }
+        SkipSegment segment = new SkipSegment(type, (int) (startMs / 1000), (int) (endMs / 1000));
+        if (segment.isValid()) {
+            segments.add(segment);
+        }
+    }
+
+    /**
+     * @return Milliseconds since the epoch.
+     * @throws IllegalArgumentException If the value is not an xs:dateTime.
+     */
+    static long parseXsDateTime(String value) {
+        Matcher matcher = XS_DATE_TIME.matcher(value);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid date/time: " + value);
+        }
+        int offsetMinutes = 0;
+        if (matcher.group(9) != null && !matcher.group(9).equalsIgnoreCase("Z")) {
+            offsetMinutes = Integer.parseInt(matcher.group(11)) * 60 + Integer.parseInt(matcher.group(12));
+            if ("-".equals(matcher.group(10))) {
+                offsetMinutes = -offsetMinutes;
+            }
+        }
+
+        Calendar calendar = new GregorianCalendar(TimeZone.getTimeZone("GMT"));
+        calendar.clear();
+        calendar.set(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)) - 1,
+            Integer.parseInt(matcher.group(3)), Integer.parseInt(matcher.group(4)),
+            Integer.parseInt(matcher.group(5)), Integer.parseInt(matcher.group(6)));
+        long timeMs = calendar.getTimeInMillis();
+        if (matcher.group(8) != null) {
+            timeMs += Math.round(Double.parseDouble("0." + matcher.group(8)) * 1000);
+        }
+        return timeMs - offsetMinutes * 60_000L;
+    }
+}
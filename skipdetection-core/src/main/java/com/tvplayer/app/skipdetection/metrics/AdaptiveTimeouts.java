@@ -0,0 +1,162 @@
+package com.tvplayer.app.skipdetection.metrics;
+
+import com.tvplayer.app.skipdetection.platform.LatencyStore;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * AdaptiveTimeouts
+ * FUNCTION: Learns a timeout per strategy from its own recent answers:
+ *           p99 of the last WINDOW_SIZE latencies x factor, clamped to [minMs, maxMs].
+ *           Until a strategy has MIN_SAMPLES answers it gets defaultMs.
+ *           Real answers (a result or a definitive "no data") are samples. A run that hits its
+ *           deadline is a censored sample at the deadline: the answer would have taken at least
+ *           that long, so the next timeout widens by the factor instead of staying put forever.
+ *           Failures are not samples; a dead endpoint is the circuit breaker's job.
+ *           Exempt strategies (local reads such as chapters, whose warm answers say nothing
+ *           about a cold read) get no learned deadline and are bounded by the detection timeout.
+ * INTERACTS WITH: SkipDetectionEngine.java (arms a deadline per strategy run and reports answers),
+ *                 IntroSkipperStrategy.java / IntroHaterStrategy.java (bound each HTTP call),
+ *                 LatencyStore.java (persistence).
+ * THREADING: Thread-safe. A strategy's history is loaded from the store on first use.
+ */
+public class AdaptiveTimeouts {
+
+    // # Answers kept per strategy; with 50, p99 is the slowest recent answer
+    public static final int WINDOW_SIZE = 50;
+    // # Fewer answers than this say too little about the tail
+    public static final int MIN_SAMPLES = 5;
+    private static final double QUANTILE = 0.99;
+
+    private final LatencyStore store;
+    private final long defaultMs;
+    private final long minMs;
+    private final long maxMs;
+    private final double factor;
+
+    // # Guarded by 'this'
+    private final Map<String, Window> windows = new HashMap<>();
+    private final Set<String> exempt = new HashSet<>();
+
+    /**
+     * @param store Persistence, or null to keep the history in memory only.
+     * @param defaultMs Timeout of a strategy without enough history.
+     * @param factor Headroom over the observed p99, e.g. 2.0.
+     */
+    public AdaptiveTimeouts(LatencyStore store, long defaultMs, long minMs, long maxMs, double factor) {
+        if (minMs > maxMs || defaultMs < minMs || defaultMs > maxMs || factor < 1.0) {
+            throw new IllegalArgumentException("Need minMs <= defaultMs <= maxMs and factor >= 1");
+        }
+        this.store = store;
+        this.defaultMs = defaultMs;
+        this.minMs = minMs;
+        this.maxMs = maxMs;
+        this.factor = factor;
+    }
+
+    // # Upper bound of every timeout handed out
+    public long getMaxTimeoutMs() {
+        return maxMs;
+    }
+
+    public synchronized long getTimeoutMs(String strategyName) {
+        return window(strategyName).timeoutMs;
+    }
+
+    /**
+     * Takes the strategy out of learning: it gets no deadline of its own and its answers are not recorded.
+     */
+    public synchronized void exempt(String strategyName) {
+        exempt.add(strategyName);
+    }
+
+    public synchronized boolean isExempt(String strategyName) {
+        return exempt.contains(strategyName);
+    }
+
+    /**
+     * Adds one answer of the strategy and updates its timeout.
+     */
+    public void recordLatency(String strategyName, long latencyMs) {
+        addSample(strategyName, latencyMs, false);
+    }
+
+    /**
+     * Counts a run that hit its deadline and adds the deadline as a (censored) sample,
+     * which widens the next timeout by the factor until the clamp at maxMs.
+     */
+    public void recordTimeout(String strategyName) {
+        long deadlineMs;
+        synchronized (this) {
+            deadlineMs = window(strategyName).timeoutMs;
+        }
+        addSample(strategyName, deadlineMs, true);
+    }
+
+    private void addSample(String strategyName, long latencyMs, boolean timedOut) {
+        long[] snapshot;
+        synchronized (this) {
+            Window window = window(strategyName);
+            if (timedOut) {
+                window.timeouts++;
+            }
+            window.latencies.add(latencyMs);
+            window.timeoutMs = computeTimeout(window);
+            snapshot = store != null ? window.latencies.toArray() : null;
+        }
+        if (snapshot != null) {
+            store.save(strategyName, snapshot);
+        }
+    }
+
+    // # e.g. "IntroHater Community API=1840ms (n=50, 2 timeouts)"
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Window> entry : windows.entrySet()) {
+            Window window = entry.getValue();
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(entry.getKey()).append('=').append(window.timeoutMs).append("ms (n=").append(window.latencies.size())
+              .append(", ").append(window.timeouts).append(" timeouts)");
+        }
+        return sb.toString();
+    }
+
+    // # Caller holds 'this'
+    private Window window(String strategyName) {
+        Window window = windows.get(strategyName);
+        if (window == null) {
+            window = new Window();
+            if (store != null) {
+                long[] saved = store.load(strategyName);
+                // # The newest WINDOW_SIZE entries, in case the size was reduced
+                for (int i = Math.max(0, saved.length - WINDOW_SIZE); i < saved.length; i++) {
+                    window.latencies.add(saved[i]);
+                }
+            }
+            window.timeoutMs = computeTimeout(window);
+            windows.put(strategyName, window);
+        }
+        return window;
+    }
+
+    private long computeTimeout(Window window) {
+        if (window.latencies.size() < MIN_SAMPLES) {
+            return defaultMs;
+        }
+        long timeout = (long) Math.ceil(window.latencies.getPercentile(QUANTILE) * factor);
+        return Math.max(minMs, Math.min(maxMs, timeout));
+    }
+
+    // # History and current timeout of one strategy
+    private static final class Window {
+        final LatencyWindow latencies = new LatencyWindow(WINDOW_SIZE);
+        int timeouts;
+        long timeoutMs;
+    }
+}
@@ -0,0 +1,310 @@
+package com.tvplayer.app.skipdetection.metrics;
+
+import com.tvplayer.app.skipdetection.MediaIdentifier;
+import com.tvplayer.app.skipdetection.SkipDetectionResult;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.DetectionSource;
+import com.tvplayer.app.skipdetection.metrics.DetectionTrace.Completion;
+import com.tvplayer.app.skipdetection.metrics.DetectionTrace.Outcome;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DetectionMetrics
+ * FUNCTION: Optional instrumentation of SkipDetectionEngine. While enabled, every detection
+ *           produces a DetectionTrace, and the traces are aggregated into:
+ *   - per strategy: a run-time histogram plus a count of every Outcome,
+ *   - per DetectionSource of the published result: a time-to-result histogram,
+ *   - the last RECENT_TRACE_COUNT traces.
+ *           While disabled (the default), startTrace() returns null after one volatile read and
+ *           the engine records nothing, so this can stay in release builds.
+ * INTERACTS WITH: SkipDetectionEngine.java (records through a Recorder), SmartSkipManager.java
+ *                 (enables it from the settings and logs the dump).
+ * THREADING: Thread-safe. Queries return copies.
+ */
+public class DetectionMetrics {
+
+    private static final int RECENT_TRACE_COUNT = 20;
+
+    /**
+     * Receives each finished trace, on the worker thread that finished the detection.
+     */
+    public interface TraceListener {
+        void onTrace(DetectionTrace trace);
+    }
+
+    /**
+     * StrategyStats
+     * FUNCTION: Aggregates of one strategy. Only strategies that returned (any Outcome up to
+     *           ERROR) add to the latency histogram; cancelled and timed-out runs are only counted.
+     */
+    public static class StrategyStats {
+        private final String strategyName;
+        private DetectionSource source;
+        private final LatencyHistogram latency;
+        private final long[] outcomeCounts;
+
+        StrategyStats(String strategyName) {
+            this(strategyName, null, new LatencyHistogram(), new long[Outcome.values().length]);
+        }
+
+        private StrategyStats(String strategyName, DetectionSource source, LatencyHistogram latency,
+                              long[] outcomeCounts) {
+            this.strategyName = strategyName;
+            this.source = source;
+            this.latency = latency;
+            this.outcomeCounts = outcomeCounts;
+        }
+
+        public String getStrategyName() { return strategyName; }
+
+        // # Last source this strategy answered with; null until it returns a result
+        public DetectionSource getSource() { return source; }
+
+        public LatencyHistogram getLatency() { return latency; }
+
+        public long getCount(Outcome outcome) { return outcomeCounts[outcome.ordinal()]; }
+
+        StrategyStats copy() {
+            return new StrategyStats(strategyName, source, latency.copy(), outcomeCounts.clone());
+        }
+    }
+
+    private volatile boolean enabled;
+    private volatile TraceListener traceListener;
+
+    // # All guarded by 'this'
+    private final Map<String, StrategyStats> strategyStats = new LinkedHashMap<>();
+    private final Map<DetectionSource, LatencyHistogram> timeToResult = new EnumMap<>(DetectionSource.class);
+    private final ArrayDeque<DetectionTrace> recentTraces = new ArrayDeque<>(RECENT_TRACE_COUNT);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // # Detections already running keep recording (or not) as they started
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setTraceListener(TraceListener traceListener) {
+        this.traceListener = traceListener;
+    }
+
+    /**
+     * Starts the trace of one detection.
+     * @return null while disabled; the caller skips all recording in that case.
+     */
+    public Recorder startTrace(MediaIdentifier mediaIdentifier) {
+        if (!enabled) {
+            return null;
+        }
+        return new Recorder(mediaIdentifier.getCacheKey());
+    }
+
+    // --- Queries ---
+
+    public synchronized List<StrategyStats> getStrategyStats() {
+        List<StrategyStats> copies = new ArrayList<>(strategyStats.size());
+        for (StrategyStats stats : strategyStats.values()) {
+            copies.add(stats.copy());
+        }
+        return copies;
+    }
+
+    /**
+     * Time from detectAsync to the result, for detections that published a result of this source
+     * (NONE for failed detections). Empty if there were none.
+     */
+    public synchronized LatencyHistogram getTimeToResult(DetectionSource source) {
+        LatencyHistogram histogram = timeToResult.get(source);
+        return histogram != null ? histogram.copy() : new LatencyHistogram();
+    }
+
+    // # Oldest first
+    public synchronized List<DetectionTrace> getRecentTraces() {
+        return new ArrayList<>(recentTraces);
+    }
+
+    public synchronized void reset() {
+        strategyStats.clear();
+        timeToResult.clear();
+        recentTraces.clear();
+    }
+
+    /**
+     * Human-readable report of everything recorded so far, for logs and bug reports.
+     */
+    public synchronized String dump() {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append("Skip detection metrics").append(enabled ? "" : " (disabled)");
+        sb.append("\nStrategies:");
+        for (StrategyStats stats : strategyStats.values()) {
+            sb.append("\n  ").append(stats.strategyName);
+            if (stats.source != null) {
+                sb.append(" [").append(stats.source).append(']');
+            }
+            sb.append(": ").append(stats.latency);
+            for (Outcome outcome : Outcome.values()) {
+                long count = stats.getCount(outcome);
+                if (count > 0) {
+                    sb.append(' ').append(outcome.name().toLowerCase()).append('=').append(count);
+                }
+            }
+        }
+        sb.append("\nTime to result:");
+        for (Map.Entry<DetectionSource, LatencyHistogram> entry : timeToResult.entrySet()) {
+            sb.append("\n  ").append(entry.getKey()).append(": ").append(entry.getValue());
+        }
+        sb.append("\nRecent detections:");
+        for (DetectionTrace trace : recentTraces) {
+            sb.append("\n  ").append(trace);
+        }
+        return sb.toString();
+    }
+
+    private void commit(DetectionTrace trace) {
+        synchronized (this) {
+            for (DetectionTrace.Span span : trace.getSpans()) {
+                StrategyStats stats = strategyStats.get(span.strategyName);
+                if (stats == null) {
+                    stats = new StrategyStats(span.strategyName);
+                    strategyStats.put(span.strategyName, stats);
+                }
+                stats.outcomeCounts[span.outcome.ordinal()]++;
+                if (span.source != null) {
+                    stats.source = span.source;
+                }
+                if (span.outcome != Outcome.CANCELLED && span.outcome != Outcome.TIMED_OUT) {
+                    stats.latency.record(span.getDurationMicros());
+                }
+            }
+
+            LatencyHistogram histogram = timeToResult.get(trace.getResultSource());
+            if (histogram == null) {
+                histogram = new LatencyHistogram();
+                timeToResult.put(trace.getResultSource(), histogram);
+            }
+            histogram.record(trace.getTimeToResultMicros());
+
+            if (recentTraces.size() == RECENT_TRACE_COUNT) {
+                recentTraces.removeFirst();
+            }
+            recentTraces.addLast(trace);
+        }
+
+        TraceListener listener = traceListener;
+        if (listener != null) {
+            listener.onTrace(trace);
+        }
+    }
+
+    /**
+     * Recorder
+     * FUNCTION: Collects the timeline of one detection. Strategies report from their own worker
+     *           threads; finish() closes every span still open and commits the trace. Anything
+     *           reported after finish() (a cancelled strategy returning late) is ignored.
+     */
+    public final class Recorder {
+        private final String mediaKey;
+        private final long startedAtMs = System.currentTimeMillis();
+        private final long startNanos = System.nanoTime();
+
+        // # Guarded by 'this'; in registration order
+        private final Map<String, OpenSpan> spans = new LinkedHashMap<>();
+        private boolean finished;
+
+        private Recorder(String mediaKey) {
+            this.mediaKey = mediaKey;
+        }
+
+        private long elapsedMicros() {
+            return (System.nanoTime() - startNanos) / 1000;
+        }
+
+        // # Announces a strategy before it is submitted, so one that never starts still shows up
+        public synchronized void strategyQueued(String strategyName) {
+            if (!finished && !spans.containsKey(strategyName)) {
+                spans.put(strategyName, new OpenSpan());
+            }
+        }
+
+        public synchronized void strategyStarted(String strategyName) {
+            if (finished) {
+                return;
+            }
+            OpenSpan span = spans.get(strategyName);
+            if (span == null) {
+                span = new OpenSpan();
+                spans.put(strategyName, span);
+            }
+            span.startMicros = elapsedMicros();
+        }
+
+        /**
+         * @param result What the strategy returned, or null if it threw.
+         */
+        public synchronized void strategyFinished(String strategyName, SkipDetectionResult result) {
+            OpenSpan span = spans.get(strategyName);
+            if (finished || span == null || span.outcome != null) {
+                return;
+            }
+            span.endMicros = elapsedMicros();
+            if (result == null) {
+                span.outcome = Outcome.ERROR;
+            } else {
+                span.source = result.getSource();
+                span.outcome = result.isSuccess() ? Outcome.SUCCESS
+                    : result.isNoData() ? Outcome.NO_DATA : Outcome.FAILED;
+            }
+        }
+
+        // # The strategy's own deadline passed; whatever it returns later is ignored
+        public synchronized void strategyTimedOut(String strategyName) {
+            OpenSpan span = spans.get(strategyName);
+            if (finished || span == null || span.outcome != null) {
+                return;
+            }
+            span.endMicros = elapsedMicros();
+            span.outcome = Outcome.TIMED_OUT;
+        }
+
+        /**
+         * Ends the trace once the result is about to be published.
+         */
+        public void finish(SkipDetectionResult result, Completion completion) {
+            DetectionTrace trace;
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                long now = elapsedMicros();
+                Outcome unfinished = completion == Completion.TIMED_OUT ? Outcome.TIMED_OUT : Outcome.CANCELLED;
+
+                List<DetectionTrace.Span> closed = new ArrayList<>(spans.size());
+                for (Map.Entry<String, OpenSpan> entry : spans.entrySet()) {
+                    OpenSpan span = entry.getValue();
+                    boolean open = span.outcome == null;
+                    closed.add(new DetectionTrace.Span(entry.getKey(), span.source, span.startMicros,
+                        open ? now : span.endMicros, open ? unfinished : span.outcome));
+                }
+                DetectionSource source = result.isSuccess() ? result.getSource() : DetectionSource.NONE;
+                trace = new DetectionTrace(mediaKey, startedAtMs, completion, source, now, closed);
+            }
+            commit(trace);
+        }
+    }
+
+    // # Mutable span state inside a Recorder (guarded by the Recorder)
+    private static final class OpenSpan {
+        long startMicros = -1;
+        long endMicros;
+        DetectionSource source;
+        Outcome outcome;
+    }
+}
@@ -0,0 +1,114 @@
+package com.tvplayer.app.skipdetection.metrics;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult.DetectionSource;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * DetectionTrace
+ * FUNCTION: Timeline of one detection: when each strategy started and ended (relative to the
+ *           detectAsync call), how it ended, and how long the caller waited for the result.
+ * INTERACTS WITH: DetectionMetrics.java (builds and keeps the most recent ones).
+ */
+public class DetectionTrace {
+
+    // # How the detection ended
+    public enum Completion {
+        CACHE_HIT,      // # Answered from the cache; no strategy ran
+        ALL_FINISHED,   // # Every strategy reported back
+        DECIDED_EARLY,  // # The winner could not be beaten; stragglers were cancelled
+        TIMED_OUT       // # The engine timeout fired; stragglers were cancelled
+    }
+
+    // # How one strategy ended
+    public enum Outcome {
+        SUCCESS,
+        NO_DATA,        // # Definitive "nothing for this episode"
+        FAILED,         // # Returned a failed result (HTTP error, missing IDs, ...)
+        ERROR,          // # Threw
+        CANCELLED,      // # Still running (or queued) when the detection was decided early
+        TIMED_OUT       // # Passed its own deadline, or still running when the engine timeout fired
+    }
+
+    /**
+     * One strategy's part in the detection. Times are microseconds since the detectAsync call.
+     */
+    public static class Span {
+        public final String strategyName;
+        // # Source of the returned result; null if the strategy never returned one
+        public final DetectionSource source;
+        // # -1 if the strategy was cancelled before a worker picked it up
+        public final long startMicros;
+        public final long endMicros;
+        public final Outcome outcome;
+
+        Span(String strategyName, DetectionSource source, long startMicros, long endMicros, Outcome outcome) {
+            this.strategyName = strategyName;
+            this.source = source;
+            this.startMicros = startMicros;
+            this.endMicros = endMicros;
+            this.outcome = outcome;
+        }
+
+        public boolean wasStarted() {
+            return startMicros >= 0;
+        }
+
+        public long getDurationMicros() {
+            return wasStarted() ? endMicros - startMicros : 0;
+        }
+    }
+
+    private final String mediaKey;
+    private final long startedAtMs;
+    private final Completion completion;
+    private final DetectionSource resultSource;
+    private final long timeToResultMicros;
+    private final List<Span> spans;
+
+    DetectionTrace(String mediaKey, long startedAtMs, Completion completion, DetectionSource resultSource,
+                   long timeToResultMicros, List<Span> spans) {
+        this.mediaKey = mediaKey;
+        this.startedAtMs = startedAtMs;
+        this.completion = completion;
+        this.resultSource = resultSource;
+        this.timeToResultMicros = timeToResultMicros;
+        this.spans = Collections.unmodifiableList(spans);
+    }
+
+    // # MediaIdentifier.getCacheKey() of the detected media
+    public String getMediaKey() { return mediaKey; }
+
+    // # Wall clock time of the detectAsync call
+    public long getStartedAtMs() { return startedAtMs; }
+
+    public Completion getCompletion() { return completion; }
+
+    // # Source of the published result; NONE when detection failed
+    public DetectionSource getResultSource() { return resultSource; }
+
+    // # From the detectAsync call until the result was handed to the callback
+    public long getTimeToResultMicros() { return timeToResultMicros; }
+
+    public List<Span> getSpans() { return spans; }
+
+    // # e.g. "show:2:5 -> CHAPTER_MARKERS in 412.3ms (DECIDED_EARLY)" plus one line per strategy
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(64 + spans.size() * 64);
+        sb.append(mediaKey).append(" -> ").append(resultSource)
+          .append(" in ").append(LatencyHistogram.formatMillis(timeToResultMicros))
+          .append(" (").append(completion).append(')');
+        for (Span span : spans) {
+            sb.append("\n    ").append(span.strategyName).append(": ").append(span.outcome);
+            if (span.wasStarted()) {
+                sb.append(' ').append(LatencyHistogram.formatMillis(span.startMicros))
+                  .append(" .. ").append(LatencyHistogram.formatMillis(span.endMicros));
+            } else {
+                sb.append(" (never started)");
+            }
+        }
+        return sb.toString();
+    }
+}
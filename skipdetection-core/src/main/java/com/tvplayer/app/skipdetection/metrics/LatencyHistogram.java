@@ -0,0 +1,119 @@
+package com.tvplayer.app.skipdetection.metrics;
+
+import java.util.Arrays;
+
+/**
+ * LatencyHistogram
+ * FUNCTION: Fixed-size latency histogram with logarithmic buckets (10 per decade, so every
+ *           percentile is within ~25% of the true value) from 10 us to 100 s. Recording is a
+ *           bucket search and an increment; memory never grows with the number of samples.
+ * INTERACTS WITH: DetectionMetrics.java (one per strategy and one per winning DetectionSource).
+ * THREADING: Thread-safe. Query methods see a consistent state.
+ */
+public class LatencyHistogram {
+
+    // # Renard R10 steps: ten roughly equal ratios per decade
+    private static final int[] DECADE_STEPS = {100, 125, 160, 200, 250, 315, 400, 500, 630, 800};
+    private static final long MIN_MICROS = 10;
+    private static final int DECADES = 7;
+
+    // # Upper bound (inclusive) of each bucket in microseconds; one overflow bucket follows the last bound
+    private static final long[] BOUNDS = buildBounds();
+
+    private final long[] counts = new long[BOUNDS.length + 1];
+    private long count;
+    private long sumMicros;
+    private long maxMicros;
+
+    private static long[] buildBounds() {
+        long[] bounds = new long[DECADES * DECADE_STEPS.length];
+        long scale = MIN_MICROS;
+        int index = 0;
+        for (int decade = 0; decade < DECADES; decade++) {
+            for (int step : DECADE_STEPS) {
+                bounds[index++] = scale * step / 100;
+            }
+            scale *= 10;
+        }
+        return bounds;
+    }
+
+    public synchronized void record(long micros) {
+        if (micros < 0) {
+            micros = 0;
+        }
+        int bucket = Arrays.binarySearch(BOUNDS, micros);
+        if (bucket < 0) {
+            bucket = -bucket - 1;
+        }
+        counts[bucket]++;
+        count++;
+        sumMicros += micros;
+        maxMicros = Math.max(maxMicros, micros);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getMaxMicros() {
+        return maxMicros;
+    }
+
+    public synchronized long getMeanMicros() {
+        return count == 0 ? 0 : sumMicros / count;
+    }
+
+    /**
+     * @param quantile Between 0 and 1, e.g. 0.99 for p99.
+     * @return The upper bound of the bucket holding that quantile (never above the largest
+     *         sample), or 0 when nothing was recorded.
+     */
+    public synchronized long getPercentileMicros(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i < BOUNDS.length ? Math.min(BOUNDS[i], maxMicros) : maxMicros;
+            }
+        }
+        return maxMicros;
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sumMicros = 0;
+        maxMicros = 0;
+    }
+
+    /**
+     * A copy that is safe to query while this one keeps recording.
+     */
+    public synchronized LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+        copy.count = count;
+        copy.sumMicros = sumMicros;
+        copy.maxMicros = maxMicros;
+        return copy;
+    }
+
+    // # e.g. "n=42 p50=120.0ms p95=315.0ms p99=400.0ms max=388.1ms"
+    @Override
+    public synchronized String toString() {
+        return "n=" + count
+            + " p50=" + formatMillis(getPercentileMicros(0.50))
+            + " p95=" + formatMillis(getPercentileMicros(0.95))
+            + " p99=" + formatMillis(getPercentileMicros(0.99))
+            + " max=" + formatMillis(maxMicros);
+    }
+
+    static String formatMillis(long micros) {
+        return (micros / 1000) + "." + (micros % 1000) / 100 + "ms";
+    }
+}
@@ -0,0 +1,55 @@
+package com.tvplayer.app.skipdetection.metrics;
+
+import java.util.Arrays;
+
+/**
+ * LatencyWindow
+ * FUNCTION: The last N latencies of something, with exact percentiles over them. Meant for small
+ *           windows (tens of samples) where sorting a copy per query is cheaper than keeping
+ *           a histogram up to date.
+ * INTERACTS WITH: AdaptiveTimeouts.java (per strategy), Mirror.java (per mirror).
+ * THREADING: Thread-safe.
+ */
+public class LatencyWindow {
+
+    private final long[] samples;
+    private int count;
+    private int next;
+
+    public LatencyWindow(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public synchronized void add(long latencyMs) {
+        samples[next] = Math.max(0, latencyMs);
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    // # Oldest first
+    public synchronized long[] toArray() {
+        long[] copy = new long[count];
+        int start = count < samples.length ? 0 : next;
+        for (int i = 0; i < count; i++) {
+            copy[i] = samples[(start + i) % samples.length];
+        }
+        return copy;
+    }
+
+    /**
+     * Nearest-rank percentile, e.g. 0.95 for p95. 0 when empty.
+     */
+    public synchronized long getPercentile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = toArray();
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,58 @@
+package com.tvplayer.app.skipdetection.platform;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExecutorTaskScheduler
+ * FUNCTION: TaskScheduler over java.util.concurrent executors. The callback thread is supplied
+ *           by the platform (e.g. a main-thread Handler's post method on Android).
+ * INTERACTS WITH: SmartSkipManager.java (app), SkipDetectionEngine.java.
+ */
+public class ExecutorTaskScheduler implements TaskScheduler {
+
+    private final ExecutorService workers;
+    private final ScheduledExecutorService timer;
+    private final Executor callbackExecutor;
+
+    public ExecutorTaskScheduler(ExecutorService workers, ScheduledExecutorService timer,
+                                 Executor callbackExecutor) {
+        this.workers = workers;
+        this.timer = timer;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * A fixed worker pool and a single timer thread.
+     * @param workerThreads Number of strategies that may run at the same time.
+     */
+    public static ExecutorTaskScheduler create(int workerThreads, Executor callbackExecutor) {
+        return new ExecutorTaskScheduler(Executors.newFixedThreadPool(workerThreads),
+            Executors.newSingleThreadScheduledExecutor(), callbackExecutor);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return workers.submit(task);
+    }
+
+    @Override
+    public Future<?> schedule(Runnable task, long delayMs) {
+        return timer.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void postCallback(Runnable task) {
+        callbackExecutor.execute(task);
+    }
+
+    @Override
+    public void shutdown() {
+        workers.shutdownNow();
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,48 @@
+package com.tvplayer.app.skipdetection.platform;
+
+import com.tvplayer.app.skipdetection.cache.CachedSkipData;
+
+import java.util.Set;
+
+/**
+ * KeyValueStore
+ * FUNCTION: Persistent storage behind CacheStrategy, keyed by MediaIdentifier.getCacheKey().
+ *           Holds one CachedSkipData per key plus per-strategy "no data" timestamps.
+ *           Called from background threads only; implementations must be thread-safe.
+ * INTERACTS WITH: CacheStrategy.java (its only user), SkipCacheStore.java (SQLite, app),
+ *                 InMemoryKeyValueStore.java (tests, benchmarks).
+ */
+public interface KeyValueStore {
+
+    /**
+     * @return The entry, or null if nothing is stored for this key.
+     */
+    CachedSkipData get(String cacheKey);
+
+    /**
+     * Inserts or replaces the entry for this key.
+     */
+    void put(String cacheKey, CachedSkipData data);
+
+    /**
+     * Removes the entry and the negative entries of this key.
+     */
+    void remove(String cacheKey);
+
+    void clear();
+
+    /**
+     * Records that a strategy had no data for this key at the given time.
+     */
+    void putNegative(String cacheKey, String strategyName, long timestamp);
+
+    /**
+     * Names of strategies with a negative entry for this key recorded at or after notBefore.
+     */
+    Set<String> getNegativeStrategies(String cacheKey, long notBefore);
+
+    /**
+     * Deletes the negative entries of all keys recorded before notBefore.
+     */
+    void pruneNegatives(long notBefore);
+}
@@ -0,0 +1,20 @@
+package com.tvplayer.app.skipdetection.platform;
+
+/**
+ * LatencyStore
+ * FUNCTION: Persists the recent latencies of each strategy, so learned timeouts survive a restart.
+ *           Called from background threads only; implementations must be thread-safe.
+ * INTERACTS WITH: AdaptiveTimeouts.java (its only user), LatencyPrefsStore.java (SharedPreferences, app).
+ */
+public interface LatencyStore {
+
+    /**
+     * @return The saved latencies in ms, oldest first; empty if none were saved.
+     */
+    long[] load(String strategyName);
+
+    /**
+     * Replaces the saved latencies of this strategy.
+     */
+    void save(String strategyName, long[] latenciesMs);
+}
@@ -0,0 +1,58 @@
+package com.tvplayer.app.skipdetection.platform;
+
+/**
+ * Log
+ * FUNCTION: Static logging facade with the same shape as android.util.Log, so core classes log
+ *           exactly as before without depending on Android. Output goes to the installed Logger.
+ * INTERACTS WITH: Logger.java, every class of the skip-detection core.
+ * DEFAULT: Warnings and errors go to stderr until setLogger() is called.
+ */
+public final class Log {
+
+    private static final Logger STDERR = (priority, tag, message, error) -> {
+        if (priority < Logger.WARN) {
+            return;
+        }
+        System.err.println(tag + ": " + message);
+        if (error != null) {
+            error.printStackTrace();
+        }
+    };
+
+    private static volatile Logger logger = STDERR;
+
+    private Log() {
+    }
+
+    /**
+     * Replaces the log destination for the whole process.
+     * @param newLogger The destination, or null to restore the stderr default.
+     */
+    public static void setLogger(Logger newLogger) {
+        logger = newLogger != null ? newLogger : STDERR;
+    }
+
+    public static void d(String tag, String message) {
+        logger.log(Logger.DEBUG, tag, message, null);
+    }
+
+    public static void i(String tag, String message) {
+        logger.log(Logger.INFO, tag, message, null);
+    }
+
+    public static void w(String tag, String message) {
+        logger.log(Logger.WARN, tag, message, null);
+    }
+
+    public static void w(String tag, String message, Throwable error) {
+        logger.log(Logger.WARN, tag, message, error);
+    }
+
+    public static void e(String tag, String message) {
+        logger.log(Logger.ERROR, tag, message, null);
+    }
+
+    public static void e(String tag, String message, Throwable error) {
+        logger.log(Logger.ERROR, tag, message, error);
+    }
+}
@@ -0,0 +1,22 @@
+package com.tvplayer.app.skipdetection.platform;
+
+/**
+ * Logger
+ * FUNCTION: Destination for the core's log output. The Android app routes it to logcat
+ *           (AndroidLogger); plain JVM callers (tests, benchmarks) keep the stderr default.
+ * INTERACTS WITH: Log.java (the facade every core class logs through).
+ */
+public interface Logger {
+
+    // # Same values as android.util.Log priorities
+    int DEBUG = 3;
+    int INFO = 4;
+    int WARN = 5;
+    int ERROR = 6;
+
+    /**
+     * @param priority One of DEBUG, INFO, WARN, ERROR.
+     * @param error May be null.
+     */
+    void log(int priority, String tag, String message, Throwable error);
+}
@@ -0,0 +1,34 @@
+package com.tvplayer.app.skipdetection.platform;
+
+import java.util.concurrent.Future;
+
+/**
+ * TaskScheduler
+ * FUNCTION: The threads the detection engine runs on: a worker pool for strategies, a timer for
+ *           detection timeouts, and the thread callbacks are delivered on (the main thread on
+ *           Android, the calling thread in tests).
+ * INTERACTS WITH: SkipDetectionEngine.java (its only user), ExecutorTaskScheduler.java (the
+ *                 standard implementation).
+ */
+public interface TaskScheduler {
+
+    /**
+     * Runs a task on the worker pool. Cancelling the Future interrupts it.
+     */
+    Future<?> submit(Runnable task);
+
+    /**
+     * Runs a task on a timer thread after delayMs.
+     */
+    Future<?> schedule(Runnable task, long delayMs);
+
+    /**
+     * Delivers a callback. Callbacks posted from one thread keep their order.
+     */
+    void postCallback(Runnable task);
+
+    /**
+     * Stops all threads; running tasks are interrupted.
+     */
+    void shutdown();
+}
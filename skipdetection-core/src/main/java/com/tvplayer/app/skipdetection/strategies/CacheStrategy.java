@@ -0,0 +1,372 @@
+package com.tvplayer.app.skipdetection.strategies;
+
+import com.tvplayer.app.skipdetection.MediaIdentifier;
+import com.tvplayer.app.skipdetection.SkipDetectionResult;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegment;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.DetectionSource;
+import com.tvplayer.app.skipdetection.SkipDetectionStrategy;
+import com.tvplayer.app.skipdetection.cache.CachedSkipData;
+import com.tvplayer.app.skipdetection.cache.MemoryLruCache;
+import com.tvplayer.app.skipdetection.platform.KeyValueStore;
+import com.tvplayer.app.skipdetection.platform.Log;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * CacheStrategy
+ * FUNCTION: Two-level cache of previously detected skip segments.
+ *   - Memory: size-bounded LRU of decoded results, so re-opening or resuming an episode
+ *     never touches disk or parses anything on the detection thread.
+ *   - Disk: a KeyValueStore (SkipCacheStore/SQLite in the app), consulted on a memory miss and
+ *     used to refill memory.
+ *   - Negative entries: per-strategy "no data" answers with a short TTL, so sources that
+ *     have nothing for an episode are not asked again on every playback. They only apply to
+ *     the same lookup inputs (see negativeKey) and expired ones are pruned on every write.
+ *   - Provisional entries: resolved ahead of playback by SeasonPrefetcher. They never count as
+ *     a hit; lookupStale() hands them to live detection, which shows them at once and replaces
+ *     them with its own result.
+ * INTERACTS WITH: SkipDetectionEngine.java (checked before all other strategies), KeyValueStore.java.
+ * PERSONALIZATION: DEFAULT_MEMORY_CACHE_BYTES bounds the memory tier; pass a different size to the
+ * constructor to tune it. getMemoryCacheStats() reports hits, misses and evictions.
+ */
+public class CacheStrategy implements SkipDetectionStrategy {
+
+    private static final String TAG = "CacheStrategy";
+    private static final long CACHE_EXPIRY_MS = 30L * 24 * 60 * 60 * 1000;
+    // # Expired entries are still good enough to show provisionally while detection runs
+    private static final float STALE_CONFIDENCE = 0.5f;
+
+    // # Default memory budget (~256 KB holds a few thousand typical entries)
+    public static final int DEFAULT_MEMORY_CACHE_BYTES = 256 * 1024;
+    // # Rough per-entry footprint used to size the LRU
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+    private static final int SEGMENT_BYTES = 32;
+
+    // # Persistent store; only touched on background threads
+    private final KeyValueStore store;
+    // # Decoded results in front of the store
+    private final MemoryLruCache<String, MemoryEntry> memoryCache;
+
+    public CacheStrategy(KeyValueStore store) {
+        this(store, DEFAULT_MEMORY_CACHE_BYTES);
+    }
+
+    public CacheStrategy(KeyValueStore store, int maxMemoryBytes) {
+        this.store = store;
+        this.memoryCache = new MemoryLruCache<String, MemoryEntry>(maxMemoryBytes) {
+            @Override
+            protected int sizeOf(String key, MemoryEntry entry) {
+                return ENTRY_OVERHEAD_BYTES + key.length() * 2
+                    + entry.result.getSegments().size() * SEGMENT_BYTES;
+            }
+        };
+    }
+
+    @Override
+    public SkipDetectionResult detect(MediaIdentifier mediaIdentifier) {
+        try {
+            MemoryEntry entry = lookup(mediaIdentifier.getCacheKey());
+
+            if (entry == null) {
+                return SkipDetectionResult.failed(DetectionSource.CACHE, "No cached data");
+            }
+
+            // # Live detection still has to consult the strategies the prefetch could not run
+            if (entry.provisional) {
+                return SkipDetectionResult.failed(DetectionSource.CACHE, "Provisional entry");
+            }
+
+            // # Expired entries are kept until a fresh result overwrites them (see lookupStale)
+            if (System.currentTimeMillis() - entry.timestamp > CACHE_EXPIRY_MS) {
+                return SkipDetectionResult.failed(DetectionSource.CACHE, "Cache expired");
+            }
+
+            return entry.result;
+
+        } catch (Exception e) {
+            return SkipDetectionResult.failed(DetectionSource.CACHE, "Cache read error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Memory first, then disk. A disk hit is decoded once and kept in memory.
+     * @return The entry, or null on a miss in both tiers.
+     */
+    private MemoryEntry lookup(String cacheKey) {
+        MemoryEntry entry = memoryCache.get(cacheKey);
+        if (entry != null) {
+            return entry;
+        }
+
+        CachedSkipData cachedData = store.get(cacheKey);
+        if (cachedData == null) {
+            return null;
+        }
+
+        entry = MemoryEntry.from(cachedData);
+        if (entry != null) {
+            memoryCache.put(cacheKey, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Returns a cached entry regardless of its age, with reduced confidence.
+     * Used as a provisional result while fresh detection runs.
+     */
+    public SkipDetectionResult detectStale(MediaIdentifier mediaIdentifier) {
+        StaleEntry entry = lookupStale(mediaIdentifier);
+        return entry != null ? entry.result
+            : SkipDetectionResult.failed(DetectionSource.CACHE, "No cached data");
+    }
+
+    /**
+     * Any cached entry for this media, whatever its age, for live detection to show while it runs.
+     * An expired entry comes back as a CACHE result with reduced confidence; a provisional one
+     * keeps its original source and confidence, so it is refined like a live result.
+     * @return The entry, or null on a miss or read error.
+     */
+    public StaleEntry lookupStale(MediaIdentifier mediaIdentifier) {
+        try {
+            MemoryEntry entry = lookup(mediaIdentifier.getCacheKey());
+
+            if (entry == null) {
+                return null;
+            }
+
+            boolean expired = System.currentTimeMillis() - entry.timestamp > CACHE_EXPIRY_MS;
+            SkipDetectionResult result = entry.provisional ? entry.original : SkipDetectionResult.success(
+                DetectionSource.CACHE,
+                STALE_CONFIDENCE,
+                entry.result.getSegments().toArray(new SkipSegment[0])
+            );
+            return new StaleEntry(result, entry.original.getSource(), entry.priority, entry.provisional, expired);
+        } catch (Exception e) {
+            Log.e(TAG, "Cache read error", e);
+            return null;
+        }
+    }
+
+    public void cacheResult(MediaIdentifier mediaIdentifier, SkipDetectionResult result) {
+        cacheResult(mediaIdentifier, result, 0);
+    }
+
+    /**
+     * Caches the final result of a detection.
+     * @param priority Tier of the strategy that produced it.
+     */
+    public void cacheResult(MediaIdentifier mediaIdentifier, SkipDetectionResult result, int priority) {
+        write(mediaIdentifier, result, priority, false);
+    }
+
+    /**
+     * Caches a result that did not come from a full detection (see the class comment).
+     * @param priority Tier of the strategy that produced it.
+     */
+    public void cacheProvisionalResult(MediaIdentifier mediaIdentifier, SkipDetectionResult result, int priority) {
+        write(mediaIdentifier, result, priority, true);
+    }
+
+    private void write(MediaIdentifier mediaIdentifier, SkipDetectionResult result, int priority,
+                       boolean provisional) {
+        if (result == null || !result.isSuccess() || result.getSource() == DetectionSource.CACHE) {
+            return;
+        }
+
+        List<SkipSegment> segmentsList = new ArrayList<>(result.getSegments());
+
+        CachedSkipData cachedData = new CachedSkipData();
+        cachedData.segments = segmentsList;
+        cachedData.timestamp = System.currentTimeMillis();
+        cachedData.source = result.getSource().name();
+        cachedData.confidence = result.getConfidence();
+        cachedData.priority = priority;
+        cachedData.provisional = provisional;
+
+        String cacheKey = mediaIdentifier.getCacheKey();
+        MemoryEntry entry = MemoryEntry.from(cachedData);
+        if (entry != null) {
+            memoryCache.put(cacheKey, entry);
+        }
+
+        try {
+            store.put(cacheKey, cachedData);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to write cache entry", e);
+        }
+    }
+
+    /**
+     * Remembers that a strategy answered "no data" for this media, and drops negative entries
+     * of any media older than ttlMs so the table does not grow without bound.
+     * @param ttlMs Negative entry lifetime; 0 or less disables negative caching.
+     */
+    public void cacheNegativeResult(MediaIdentifier mediaIdentifier, SkipDetectionStrategy strategy, long ttlMs) {
+        long nowMs = System.currentTimeMillis();
+        try {
+            store.pruneNegatives(nowMs - Math.max(0, ttlMs));
+            if (ttlMs > 0) {
+                store.putNegative(mediaIdentifier.getCacheKey(),
+                    negativeKey(strategy.getStrategyName(), mediaIdentifier, strategy.readsMediaInputs()), nowMs);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to write negative cache entry", e);
+        }
+    }
+
+    /**
+     * Names of strategies that reported "no data" for this media within the last ttlMs.
+     * @param ttlMs Negative entry lifetime; 0 or less disables negative caching.
+     */
+    public Set<String> getNegativelyCachedStrategies(MediaIdentifier mediaIdentifier, long ttlMs) {
+        if (ttlMs <= 0) {
+            return Collections.emptySet();
+        }
+        try {
+            Set<String> strategies = new HashSet<>();
+            String mediaSuffix = negativeKey("", mediaIdentifier, true);
+            String idSuffix = negativeKey("", mediaIdentifier, false);
+            for (String key : store.getNegativeStrategies(mediaIdentifier.getCacheKey(),
+                    System.currentTimeMillis() - ttlMs)) {
+                // # Answers given for other inputs (IDs, runtime, file) say nothing about these
+                if (key.endsWith(mediaSuffix)) {
+                    strategies.add(key.substring(0, key.length() - mediaSuffix.length()));
+                } else if (key.endsWith(idSuffix)) {
+                    strategies.add(key.substring(0, key.length() - idSuffix.length()));
+                }
+            }
+            return strategies;
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to read negative cache", e);
+            return Collections.emptySet();
+        }
+    }
+
+    // # Strategy name plus a hash of the inputs the strategy looks the media up by, since the
+    // # cache key only names the episode: "no data" without a TVDB ID or a runtime is no answer
+    // # for a later playback that has them. Strategies that read neither the runtime nor the
+    // # file (withMediaInputs false) get an IDs-only key, so a prefetch's answer still applies.
+    static String negativeKey(String strategyName, MediaIdentifier mediaIdentifier, boolean withMediaInputs) {
+        if (!withMediaInputs) {
+            int ids = Arrays.hashCode(new Object[] {
+                mediaIdentifier.getImdbId(), mediaIdentifier.getTmdbId(), mediaIdentifier.getTraktId(),
+                mediaIdentifier.getTvdbId()
+            });
+            return strategyName + "#id" + Integer.toHexString(ids);
+        }
+        int inputs = Arrays.hashCode(new Object[] {
+            mediaIdentifier.getImdbId(), mediaIdentifier.getTmdbId(), mediaIdentifier.getTraktId(),
+            mediaIdentifier.getTvdbId(), mediaIdentifier.getMediaUri(), mediaIdentifier.getRuntimeSeconds()
+        });
+        return strategyName + "#" + Integer.toHexString(inputs);
+    }
+
+    public void clearCache() {
+        memoryCache.evictAll();
+        store.clear();
+    }
+
+    public void invalidateCache(MediaIdentifier mediaIdentifier) {
+        String cacheKey = mediaIdentifier.getCacheKey();
+        memoryCache.remove(cacheKey);
+        store.remove(cacheKey);
+    }
+
+    /**
+     * Memory tier counters, e.g. "hits=12 misses=3 evictions=0 size=1440/262144".
+     */
+    public String getMemoryCacheStats() {
+        return "hits=" + memoryCache.hitCount()
+            + " misses=" + memoryCache.missCount()
+            + " evictions=" + memoryCache.evictionCount()
+            + " size=" + memoryCache.size() + "/" + memoryCache.maxSize();
+    }
+
+    @Override
+    public String getStrategyName() {
+        return "Local Cache";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public int getPriority() {
+        return 100;
+    }
+
+    /**
+     * StaleEntry
+     * FUNCTION: A cache entry as seen by live detection (see lookupStale).
+     */
+    public static final class StaleEntry {
+        public final SkipDetectionResult result;
+        // # Source the segments were first found by (result may report CACHE instead)
+        public final DetectionSource source;
+        // # Tier of the original source; 0 when unknown
+        public final int priority;
+        public final boolean provisional;
+        public final boolean expired;
+
+        StaleEntry(SkipDetectionResult result, DetectionSource source, int priority, boolean provisional,
+                   boolean expired) {
+            this.result = result;
+            this.source = source;
+            this.priority = priority;
+            this.provisional = provisional;
+            this.expired = expired;
+        }
+    }
+
+    // # A decoded cache entry: the ready-to-return result plus its write time for expiry checks.
+    private static class MemoryEntry {
+        final SkipDetectionResult result;
+        // # The same segments under their original source and confidence
+        final SkipDetectionResult original;
+        final long timestamp;
+        final int priority;
+        final boolean provisional;
+
+        MemoryEntry(SkipDetectionResult result, SkipDetectionResult original, long timestamp,
+                    int priority, boolean provisional) {
+            this.result = result;
+            this.original = original;
+            this.timestamp = timestamp;
+            this.priority = priority;
+            this.provisional = provisional;
+        }
+
+        // # Returns null if the stored data has no valid segments
+        static MemoryEntry from(CachedSkipData data) {
+            if (data.segments == null) {
+                return null;
+            }
+            SkipSegment[] segments = data.segments.toArray(new SkipSegment[0]);
+            SkipDetectionResult result = SkipDetectionResult.success(
+                DetectionSource.CACHE,
+                0.95f,
+                segments
+            );
+            if (!result.isSuccess()) {
+                return null;
+            }
+            SkipDetectionResult original = SkipDetectionResult.success(sourceOf(data), data.confidence, segments);
+            return new MemoryEntry(result, original, data.timestamp, data.priority, data.provisional);
+        }
+
+        private static DetectionSource sourceOf(CachedSkipData data) {
+            try {
+                return data.source != null ? DetectionSource.valueOf(data.source) : DetectionSource.CACHE;
+            } catch (IllegalArgumentException e) {
+                return DetectionSource.CACHE;
+            }
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package com.tvplayer.app.skipdetection.strategies;
 
-import android.util.Log;
-
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
@@ -11,11 +9,17 @@ import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegment;
 import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
 import com.tvplayer.app.skipdetection.SkipDetectionResult.DetectionSource;
 import com.tvplayer.app.skipdetection.SkipDetectionStrategy;
+import com.tvplayer.app.skipdetection.health.CircuitBreaker;
+import com.tvplayer.app.skipdetection.metrics.AdaptiveTimeouts;
+import com.tvplayer.app.skipdetection.platform.Log;
 
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+import okhttp3.Call;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -31,19 +35,34 @@ public class IntroHaterStrategy implements SkipDetectionStrategy {
     private static final String TAG = "IntroHaterStrategy";
     // # The community API base URL.
     private static final String API_BASE_URL = "https://introhater.com/api";
-    private static final int TIMEOUT_SECONDS = 8;
 
     private final OkHttpClient httpClient;
     private final Gson gson;
+    // # Bounds each call by the learned timeout; null leaves it to the client's own timeouts
+    private final AdaptiveTimeouts adaptiveTimeouts;
+    // # Health of the endpoint; while open, isAvailable() is false and no request is made
+    private final CircuitBreaker circuitBreaker;
+    private final String baseUrl;
+
+    // # Constructor 1: Uses the public IntroHater API.
+    // # The app passes a HttpClientProvider.newCachingClient(), so revisits are
+    // # served from the HTTP disk cache or revalidated with a 304
+    public IntroHaterStrategy(OkHttpClient httpClient) {
+        this(httpClient, null, null);
+    }
 
-    public IntroHaterStrategy() {
-        // # HTTP client setup with a reasonable timeout
-        this.httpClient = new OkHttpClient.Builder()
-            .connectTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
-            .readTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
-            .writeTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
-            .build();
+    // # Constructor 2: Allows a custom base URL (e.g. a local test server).
+    public IntroHaterStrategy(OkHttpClient httpClient, String customBaseUrl) {
+        this(httpClient, customBaseUrl, null);
+    }
+
+    // # Constructor 3: Each call also ends at the timeout learned for this strategy.
+    public IntroHaterStrategy(OkHttpClient httpClient, String customBaseUrl, AdaptiveTimeouts adaptiveTimeouts) {
+        this.httpClient = httpClient;
         this.gson = new Gson();
+        this.baseUrl = customBaseUrl != null ? customBaseUrl : API_BASE_URL;
+        this.adaptiveTimeouts = adaptiveTimeouts;
+        this.circuitBreaker = new CircuitBreaker(getStrategyName());
     }
 
     // # Core detection logic: Constructs a URL and fetches skip segments from the API.
@@ -58,15 +77,22 @@ public class IntroHaterStrategy implements SkipDetectionStrategy {
         }
 
         // # Constructs the API URL for a specific episode.
-        String url = String.format("%s/tmdb/%s/season/%d/episode/%d", API_BASE_URL, tmdbId, season, episode);
+        String url = String.format("%s/tmdb/%s/season/%d/episode/%d", baseUrl, tmdbId, season, episode);
 
         Request request = new Request.Builder()
             .url(url)
             .build();
 
-        try (Response response = httpClient.newCall(request).execute()) {
+        // # Checked again here: isAvailable() may be stale, and only one probe may run while half-open
+        if (!circuitBreaker.tryAcquire()) {
+            return SkipDetectionResult.failed(DetectionSource.INTROHATER_API, "Endpoint is down (circuit open).");
+        }
+
+        long deadlineMs = callDeadlineMs();
+        try (Response response = newCall(request, deadlineMs).execute()) {
             if (response.isSuccessful() && response.body() != null) {
                 String json = response.body().string();
+                circuitBreaker.recordSuccess();
                 List<SkipSegment> segments = parseResponse(json);
 
                 if (!segments.isEmpty()) {
@@ -78,20 +104,67 @@ public class IntroHaterStrategy implements SkipDetectionStrategy {
                         segments.toArray(new SkipSegment[0])
                     );
                 } else {
-                    return SkipDetectionResult.failed(DetectionSource.INTROHATER_API, "API returned no skip data.");
+                    return SkipDetectionResult.noData(DetectionSource.INTROHATER_API, "API returned no skip data.");
                 }
+            }
+
+            recordStatus(response.code());
+            if (response.code() == 404) {
+                // # The service has no entry for this episode
+                return SkipDetectionResult.noData(DetectionSource.INTROHATER_API, "API has no entry for this episode.");
             } else {
                 return SkipDetectionResult.failed(DetectionSource.INTROHATER_API, 
                     "API call failed: " + response.code());
             }
         } catch (Exception e) {
+            // # An interrupt means the engine gave up on us, which says nothing about the endpoint;
+            // # neither does running out of a deadline that was learned tighter than the maximum
+            if (Thread.currentThread().isInterrupted() || hitTightenedDeadline(e, deadlineMs)) {
+                circuitBreaker.release();
+            } else {
+                circuitBreaker.recordFailure();
+            }
             Log.e(TAG, "Network error during IntroHater lookup", e);
             return SkipDetectionResult.failed(DetectionSource.INTROHATER_API, "Network error: " + e.getMessage());
         }
     }
 
-    // # Helper method to parse the JSON response from the API.
-    private List<SkipSegment> parseResponse(String json) {
+    // # 5xx and 429 mean the backend is in trouble; any other status means it answered
+    private void recordStatus(int code) {
+        if (code >= 500 || code == 429) {
+            circuitBreaker.recordFailure();
+        } else {
+            circuitBreaker.recordSuccess();
+        }
+    }
+
+    // # The whole call (connect, redirects, body) ends at the learned timeout, which also
+    // # frees the socket when the engine gives up on this strategy
+    private Call newCall(Request request, long deadlineMs) {
+        if (deadlineMs < 0) {
+            return httpClient.newCall(request);
+        }
+        return httpClient.newBuilder()
+            .callTimeout(deadlineMs, TimeUnit.MILLISECONDS)
+            .build()
+            .newCall(request);
+    }
+
+    // # The learned timeout for the next call, or -1 to leave it to the client's own timeouts
+    private long callDeadlineMs() {
+        return adaptiveTimeouts != null ? adaptiveTimeouts.getTimeoutMs(getStrategyName()) : -1;
+    }
+
+    // # OkHttp reports an expired call timeout as a bare InterruptedIOException (connect and read
+    // # timeouts are SocketTimeoutExceptions). Below the maximum the learned deadline may just have
+    // # been tightened, so such a timeout says nothing about the endpoint; at the maximum it does
+    private boolean hitTightenedDeadline(Exception e, long deadlineMs) {
+        return deadlineMs >= 0 && deadlineMs < adaptiveTimeouts.getMaxTimeoutMs()
+            && e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException);
+    }
+
+    // # Helper method to parse the JSON response from the API (package-private for the benchmarks).
+    List<SkipSegment> parseResponse(String json) {
         List<SkipSegment> segments = new ArrayList<>();
         try {
             JsonObject root = gson.fromJson(json, JsonObject.class);
@@ -127,7 +200,12 @@ public class IntroHaterStrategy implements SkipDetectionStrategy {
 
     @Override
     public boolean isAvailable() {
-        return true; // # The API is generally always available to try.
+        // # False while the endpoint is known to be down, so the call is not even scheduled
+        return circuitBreaker.isAvailable();
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
     }
 
     @Override
@@ -135,4 +213,9 @@ public class IntroHaterStrategy implements SkipDetectionStrategy {
         // # FIX: Set to 400 for P1 Priority (Category 3: Community Servers).
         return 400;
     }
+
+    @Override
+    public boolean readsMediaInputs() {
+        return false; // # Looked up by IDs and season/episode only
+    }
 }
\ No newline at end of file
@@ -0,0 +1,404 @@
+package com.tvplayer.app.skipdetection.strategies;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.tvplayer.app.skipdetection.MediaIdentifier;
+import com.tvplayer.app.skipdetection.SkipDetectionResult;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegment;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.DetectionSource;
+import com.tvplayer.app.skipdetection.SkipDetectionStrategy;
+import com.tvplayer.app.skipdetection.health.Mirror;
+import com.tvplayer.app.skipdetection.metrics.AdaptiveTimeouts;
+import com.tvplayer.app.skipdetection.platform.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * IntroSkipperStrategy
+ * FUNCTION: Detects skip segments by querying the Intro-Skipper community API (used by Stremio/Jellyfin).
+ *           The API can be served by several mirrors. Each lookup asks the fastest known mirror
+ *           first; if it has not answered within its usual p95 latency, the next mirror is asked
+ *           too (a hedged request) and whichever answers first wins, the other call is cancelled.
+ *           A mirror that fails outright is replaced by the next one straight away.
+ * INTERACTS WITH: Intro-Skipper public server or mirrors (requires Internet), MediaIdentifier.java
+ *                 (for Trakt ID), Mirror.java (per-mirror latency and CircuitBreaker).
+ * PERSONALIZATION: PUBLIC_MIRROR_URL is used when no mirrors are given. DEFAULT_HEDGE_DELAY_MS
+ *                  is the wait before hedging while a mirror has no latency history yet.
+ */
+public class IntroSkipperStrategy implements SkipDetectionStrategy {
+
+    private static final String TAG = "IntroSkipperStrategy";
+    // # This is a proxy/mirror of the official service.
+    public static final String PUBLIC_MIRROR_URL = "https://busy-jacinta-shugi-c2885b2e.koyeb.app";
+
+    public static final long DEFAULT_HEDGE_DELAY_MS = 1000;
+    // # Floor for the hedge delay, so a very fast mirror does not get a duplicate on every hiccup
+    public static final long MIN_HEDGE_DELAY_MS = 50;
+    private static final double HEDGE_QUANTILE = 0.95;
+
+    private final OkHttpClient httpClient;
+    private final Gson gson;
+    // # Bounds each call by the learned timeout; null leaves it to the client's own timeouts
+    private final AdaptiveTimeouts adaptiveTimeouts;
+    // # In configured order; a mirror whose CircuitBreaker is open is skipped
+    private final List<Mirror> mirrors;
+
+    // # Constructor 1: Uses the default Stremio API URL.
+    // # The app passes a HttpClientProvider.newCachingClient(), so revisits are
+    // # served from the HTTP disk cache or revalidated with a 304
+    public IntroSkipperStrategy(OkHttpClient httpClient) {
+        this(httpClient, (String) null, null);
+    }
+
+    // # Constructor 2: Allows a custom endpoint (useful for development or alternate mirrors).
+    public IntroSkipperStrategy(OkHttpClient httpClient, String customEndpoint) {
+        this(httpClient, customEndpoint, null);
+    }
+
+    // # Constructor 3: Each call also ends at the timeout learned for this strategy.
+    public IntroSkipperStrategy(OkHttpClient httpClient, String customEndpoint, AdaptiveTimeouts adaptiveTimeouts) {
+        this(httpClient,
+            customEndpoint != null ? Collections.singletonList(customEndpoint) : null,
+            adaptiveTimeouts);
+    }
+
+    // # Constructor 4: Several mirrors of the same API, hedged against each other.
+    // # Null or empty uses PUBLIC_MIRROR_URL only.
+    public IntroSkipperStrategy(OkHttpClient httpClient, List<String> mirrorUrls, AdaptiveTimeouts adaptiveTimeouts) {
+        this.httpClient = httpClient;
+        this.gson = new Gson();
+        this.adaptiveTimeouts = adaptiveTimeouts;
+        List<Mirror> list = new ArrayList<>();
+        if (mirrorUrls != null) {
+            for (String url : mirrorUrls) {
+                if (url != null && !url.trim().isEmpty()) {
+                    list.add(new Mirror(getStrategyName(), url.trim().replaceAll("/+$", "")));
+                }
+            }
+        }
+        if (list.isEmpty()) {
+            list.add(new Mirror(getStrategyName(), PUBLIC_MIRROR_URL));
+        }
+        this.mirrors = Collections.unmodifiableList(list);
+    }
+
+    // # Core detection logic: Constructs a URL and fetches skip segments from the API.
+    @Override
+    public SkipDetectionResult detect(MediaIdentifier mediaIdentifier) {
+        String traktId = mediaIdentifier.getTraktId();
+        Integer season = mediaIdentifier.getSeasonNumber();
+        Integer episode = mediaIdentifier.getEpisodeNumber();
+
+        if (traktId == null || traktId.isEmpty() || season == null || episode == null) {
+            return SkipDetectionResult.failed(DetectionSource.INTRO_SKIPPER_API, "Missing Trakt ID or episode info.");
+        }
+
+        // # The API path for a specific episode using the Trakt ID; each mirror prefixes its base URL
+        String path = String.format("/trakt/%s/%d/%d", traktId, season, episode);
+
+        // # Every call below goes through the answers queue, filled by OkHttp's dispatcher threads
+        BlockingQueue<Attempt> answers = new LinkedBlockingQueue<>();
+        List<Attempt> inFlight = new ArrayList<>();
+        List<Mirror> ranked = rankMirrors();
+        int next = startNext(ranked, 0, path, answers, inFlight);
+        if (inFlight.isEmpty()) {
+            return SkipDetectionResult.failed(DetectionSource.INTRO_SKIPPER_API, "Endpoint is down (circuit open).");
+        }
+
+        boolean hedged = false;
+        SkipDetectionResult lastFailure = null;
+        try {
+            while (!inFlight.isEmpty()) {
+                Attempt finished;
+                if (!hedged && next < ranked.size()) {
+                    finished = answers.poll(getHedgeDelayMs(inFlight.get(0).mirror), TimeUnit.MILLISECONDS);
+                    if (finished == null) {
+                        // # Slower than this mirror usually is: ask the next one as well
+                        hedged = true;
+                        Log.d(TAG, "No answer from " + inFlight.get(0).mirror.getBaseUrl() + " yet, hedging");
+                        next = startNext(ranked, next, path, answers, inFlight);
+                        continue;
+                    }
+                } else {
+                    finished = answers.take();
+                }
+
+                inFlight.remove(finished);
+                SkipDetectionResult result = finished.toResult();
+                if (finished.isAnswer()) {
+                    // # The finally block cancels the loser
+                    return result;
+                }
+                lastFailure = result;
+                if (inFlight.isEmpty()) {
+                    // # Failed outright (network error, 5xx): no point waiting for a hedge delay
+                    next = startNext(ranked, next, path, answers, inFlight);
+                }
+            }
+            return lastFailure;
+        } catch (InterruptedException e) {
+            // # The engine gave up on us, which says nothing about the mirrors
+            Thread.currentThread().interrupt();
+            return SkipDetectionResult.failed(DetectionSource.INTRO_SKIPPER_API, "Lookup cancelled.");
+        } finally {
+            for (Attempt attempt : inFlight) {
+                attempt.call.cancel();
+                attempt.mirror.getCircuitBreaker().release();
+            }
+        }
+    }
+
+    // # Mirrors that may be asked, fastest first by median latency. Mirrors without enough history
+    // # go first in configured order, so a new mirror gets measured within a few lookups
+    private List<Mirror> rankMirrors() {
+        final List<Mirror> ranked = new ArrayList<>();
+        final List<Long> medians = new ArrayList<>();
+        for (Mirror mirror : mirrors) {
+            if (mirror.getCircuitBreaker().isAvailable()) {
+                ranked.add(mirror);
+                // # Snapshot, so the order cannot change while sorting
+                medians.add(mirror.getPercentileMs(0.5));
+            }
+        }
+        final List<Mirror> configured = new ArrayList<>(ranked);
+        Collections.sort(ranked, new Comparator<Mirror>() {
+            @Override
+            public int compare(Mirror a, Mirror b) {
+                long medianA = medians.get(configured.indexOf(a));
+                long medianB = medians.get(configured.indexOf(b));
+                // # Unknown (-1) sorts first; the sort is stable, so ties keep configured order
+                return Long.compare(medianA, medianB);
+            }
+        });
+        return ranked;
+    }
+
+    // # Starts a call at the first mirror from 'from' on whose breaker lets one through.
+    // # Returns the index after it, or ranked.size() when none could be started
+    private int startNext(List<Mirror> ranked, int from, String path,
+                          BlockingQueue<Attempt> answers, List<Attempt> inFlight) {
+        for (int i = from; i < ranked.size(); i++) {
+            Mirror mirror = ranked.get(i);
+            // # Checked again here: isAvailable() may be stale, and only one probe may run while half-open
+            if (!mirror.getCircuitBreaker().tryAcquire()) {
+                continue;
+            }
+            Request request = new Request.Builder()
+                .url(mirror.getBaseUrl() + path)
+                .build();
+            long deadlineMs = callDeadlineMs();
+            Attempt attempt = new Attempt(mirror, newCall(request, deadlineMs), deadlineMs, answers);
+            inFlight.add(attempt);
+            attempt.call.enqueue(attempt);
+            return i + 1;
+        }
+        return ranked.size();
+    }
+
+    // # The mirror's own p95, or DEFAULT_HEDGE_DELAY_MS until it has answered a few times
+    long getHedgeDelayMs(Mirror mirror) {
+        long p95 = mirror.getPercentileMs(HEDGE_QUANTILE);
+        return p95 < 0 ? DEFAULT_HEDGE_DELAY_MS : Math.max(MIN_HEDGE_DELAY_MS, p95);
+    }
+
+    // # The whole call (connect, redirects, body) ends at the learned timeout, which also
+    // # frees the socket when the engine gives up on this strategy
+    private Call newCall(Request request, long deadlineMs) {
+        if (deadlineMs < 0) {
+            return httpClient.newCall(request);
+        }
+        return httpClient.newBuilder()
+            .callTimeout(deadlineMs, TimeUnit.MILLISECONDS)
+            .build()
+            .newCall(request);
+    }
+
+    // # The learned timeout for the next call, or -1 to leave it to the client's own timeouts
+    private long callDeadlineMs() {
+        return adaptiveTimeouts != null ? adaptiveTimeouts.getTimeoutMs(getStrategyName()) : -1;
+    }
+
+    // # OkHttp reports an expired call timeout as a bare InterruptedIOException (connect and read
+    // # timeouts are SocketTimeoutExceptions). Below the maximum the learned deadline may just have
+    // # been tightened, so such a timeout says nothing about the endpoint; at the maximum it does
+    private boolean hitTightenedDeadline(Exception e, long deadlineMs) {
+        return deadlineMs >= 0 && deadlineMs < adaptiveTimeouts.getMaxTimeoutMs()
+            && e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException);
+    }
+
+    /**
+     * One call to one mirror. The callback only stores the outcome and queues it; the detecting
+     * thread interprets it in toResult(), so breakers and latencies are only touched for
+     * attempts that were waited for.
+     */
+    private final class Attempt implements Callback {
+        final Mirror mirror;
+        final Call call;
+        // # The call timeout it runs with, or -1
+        private final long deadlineMs;
+        private final BlockingQueue<Attempt> answers;
+        private final long startNanos = System.nanoTime();
+
+        // # Written before the attempt is queued, read after it is taken
+        private int code;
+        private String json;
+        private IOException error;
+        private boolean fromNetwork;
+        private long latencyMs;
+
+        Attempt(Mirror mirror, Call call, long deadlineMs, BlockingQueue<Attempt> answers) {
+            this.mirror = mirror;
+            this.call = call;
+            this.deadlineMs = deadlineMs;
+            this.answers = answers;
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            error = e;
+            answers.add(this);
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) {
+            try {
+                code = response.code();
+                // # Cache hits would drag the latencies down to zero; a 304 revalidation still counts
+                fromNetwork = response.networkResponse() != null;
+                if (response.isSuccessful() && response.body() != null) {
+                    json = response.body().string();
+                }
+            } catch (IOException e) {
+                error = e;
+            } finally {
+                response.close();
+                latencyMs = (System.nanoTime() - startNanos) / 1_000_000;
+                answers.add(this);
+            }
+        }
+
+        // # Anything but a network error, 5xx or 429 means the mirror answered
+        boolean isAnswer() {
+            return error == null && code < 500 && code != 429;
+        }
+
+        SkipDetectionResult toResult() {
+            if (!isAnswer()) {
+                if (error != null && hitTightenedDeadline(error, deadlineMs)) {
+                    mirror.getCircuitBreaker().release();
+                } else {
+                    mirror.getCircuitBreaker().recordFailure();
+                }
+                if (error != null) {
+                    Log.e(TAG, "Network error during Intro-Skipper lookup at " + mirror.getBaseUrl(), error);
+                    return SkipDetectionResult.failed(DetectionSource.INTRO_SKIPPER_API,
+                        "Network error: " + error.getMessage());
+                }
+                return SkipDetectionResult.failed(DetectionSource.INTRO_SKIPPER_API, "API call failed: " + code);
+            }
+
+            mirror.getCircuitBreaker().recordSuccess();
+            if (fromNetwork) {
+                mirror.recordLatency(latencyMs);
+            }
+            if (json != null) {
+                List<SkipSegment> segments = parseResponse(json);
+
+                if (!segments.isEmpty()) {
+                    Log.d(TAG, "Intro-Skipper detection successful with " + segments.size() + " segments");
+                    // # Returns a high-confidence result
+                    return SkipDetectionResult.success(
+                        DetectionSource.INTRO_SKIPPER_API,
+                        0.75f,
+                        segments.toArray(new SkipSegment[0])
+                    );
+                } else {
+                    return SkipDetectionResult.noData(DetectionSource.INTRO_SKIPPER_API, "API returned no skip data.");
+                }
+            }
+            if (code == 404) {
+                // # The service has no entry for this episode
+                return SkipDetectionResult.noData(DetectionSource.INTRO_SKIPPER_API, "API has no entry for this episode.");
+            }
+            return SkipDetectionResult.failed(DetectionSource.INTRO_SKIPPER_API, "API call failed: " + code);
+        }
+    }
+
+    // # Helper method to parse the JSON response from the API (package-private for the benchmarks).
+    List<SkipSegment> parseResponse(String json) {
+        List<SkipSegment> segments = new ArrayList<>();
+        try {
+            JsonObject root = gson.fromJson(json, JsonObject.class);
+            if (root.has("skipSegments") && root.get("skipSegments").isJsonArray()) {
+                JsonArray segmentsArray = root.get("skipSegments").getAsJsonArray();
+                for (int i = 0; i < segmentsArray.size(); i++) {
+                    JsonObject segment = segmentsArray.get(i).getAsJsonObject();
+                    String typeStr = segment.has("skipType") ? segment.get("skipType").getAsString().toLowerCase() : "";
+                    double start = segment.has("showSkipPromptAt") ? segment.get("showSkipPromptAt").getAsDouble() : 0;
+                    double end = segment.has("hideSkipPromptAt") ? segment.get("hideSkipPromptAt").getAsDouble() : 0;
+
+                    if (start >= 0 && end > start) {
+                        if (typeStr.contains("intro") || typeStr.contains("opening")) {
+                            segments.add(new SkipSegment(SkipSegmentType.INTRO, (int) start, (int) end));
+                        } else if (typeStr.contains("recap")) {
+                            segments.add(new SkipSegment(SkipSegmentType.RECAP, (int) start, (int) end));
+                        } else if (typeStr.contains("credits") || typeStr.contains("outro")) {
+                            segments.add(new SkipSegment(SkipSegmentType.CREDITS, (int) start, (int) end));
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error parsing intro-skipper response", e);
+        }
+        return segments;
+    }
+
+    @Override
+    public String getStrategyName() {
+        return "Intro-Skipper (Stremio/Jellyfin)";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        // # False while every mirror is known to be down, so the call is not even scheduled
+        for (Mirror mirror : mirrors) {
+            if (mirror.getCircuitBreaker().isAvailable()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<Mirror> getMirrors() {
+        return mirrors;
+    }
+
+    @Override
+    public int getPriority() {
+        // # FIX: Set to 400 for P1 Priority (Category 3: Community Servers).
+        return 400;
+    }
+
+    @Override
+    public boolean readsMediaInputs() {
+        return false; // # Looked up by IDs and season/episode only
+    }
+}
\ No newline at end of file
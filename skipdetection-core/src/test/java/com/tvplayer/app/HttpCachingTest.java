@@ -0,0 +1,136 @@
+package com.tvplayer.app;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class HttpCachingTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private Cache cache;
+    private OkHttpClient client;
+    private boolean online = true;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        cache = new Cache(folder.newFolder("http"), 1024 * 1024);
+        client = HttpCaching.install(new OkHttpClient.Builder(), cache, () -> online).build();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        cache.close();
+        server.shutdown();
+    }
+
+    private Response get() throws IOException {
+        return client.newCall(new Request.Builder().url(server.url("/segments")).build()).execute();
+    }
+
+    private static String body(Response response) throws IOException {
+        try (Response r = response) {
+            return r.body().string();
+        }
+    }
+
+    @Test
+    public void responsesWithoutCachingHeadersGetTheDefaultMaxAge() throws Exception {
+        server.enqueue(new MockResponse().setBody("segments"));
+
+        try (Response first = get()) {
+            assertEquals("public, max-age=" + HttpCaching.DEFAULT_MAX_AGE_SECONDS,
+                first.header("Cache-Control"));
+            assertEquals("segments", first.body().string());
+        }
+
+        // # Still fresh: answered from disk without a second request
+        Response second = get();
+        assertNull(second.networkResponse());
+        assertNotNull(second.cacheResponse());
+        assertEquals("segments", body(second));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void serverCachingHeadersAreRespected() throws Exception {
+        server.enqueue(new MockResponse().setHeader("Cache-Control", "no-store").setBody("a"));
+        server.enqueue(new MockResponse().setBody("b"));
+
+        assertEquals("a", body(get()));
+        assertEquals("b", body(get()));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void staleEntriesAreRevalidatedWithTheirETag() throws Exception {
+        server.enqueue(new MockResponse()
+            .setHeader("Cache-Control", "max-age=0")
+            .setHeader("ETag", "\"v1\"")
+            .setBody("segments"));
+        server.enqueue(new MockResponse().setResponseCode(304));
+
+        assertEquals("segments", body(get()));
+        Response revalidated = get();
+        assertEquals(200, revalidated.code());
+        assertEquals(304, revalidated.networkResponse().code());
+        assertEquals("segments", body(revalidated));
+
+        server.takeRequest();
+        RecordedRequest conditional = server.takeRequest();
+        assertEquals("\"v1\"", conditional.getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void offlineRequestsServeStaleCopiesWithoutTheNetwork() throws Exception {
+        server.enqueue(new MockResponse().setHeader("Cache-Control", "max-age=0").setBody("segments"));
+        assertEquals("segments", body(get()));
+
+        online = false;
+        Response offline = get();
+        assertNull(offline.networkResponse());
+        assertEquals("segments", body(offline));
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void offlineRequestsWithNothingCachedFailFast() throws Exception {
+        online = false;
+
+        try (Response response = get()) {
+            assertEquals(504, response.code());
+        }
+        assertEquals(0, server.getRequestCount());
+    }
+
+    @Test
+    public void networkFailuresFallBackToAStaleCopy() throws Exception {
+        server.enqueue(new MockResponse().setHeader("Cache-Control", "max-age=0").setBody("segments"));
+        assertEquals("segments", body(get()));
+
+        server.shutdown();
+        Response fallback = get();
+        assertNull(fallback.networkResponse());
+        assertEquals("segments", body(fallback));
+    }
+}
@@ -0,0 +1,134 @@
+package com.tvplayer.app;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SkipMarkersTest {
+
+    private static final int INTRO = SkipMarkers.maskOf(SkipSegmentType.INTRO);
+    private static final int CREDITS = SkipMarkers.maskOf(SkipSegmentType.CREDITS);
+
+    @Test
+    public void emptyIndexFindsNothing() {
+        SkipMarkers markers = new SkipMarkers();
+
+        assertEquals(0, markers.size());
+        assertEquals(-1, markers.findActive(0, SkipMarkers.ALL_TYPES));
+        assertEquals(-1, markers.findNext(0, SkipMarkers.ALL_TYPES));
+        assertArrayEquals(new int[0], markers.getBoundarySeconds());
+        assertFalse(markers.isAtNextEpisode(0));
+    }
+
+    @Test
+    public void addKeepsSegmentsSortedByStartThenEnd() {
+        SkipMarkers markers = new SkipMarkers();
+        markers.add(SkipSegmentType.CREDITS, 1300, 1400);
+        markers.add(SkipSegmentType.RECAP, 10, 60);
+        markers.add(SkipSegmentType.INTRO, 10, 40);
+        // # Invalid ranges are ignored
+        markers.add(SkipSegmentType.INTRO, 50, 50);
+        markers.add(SkipSegmentType.INTRO, -5, 20);
+
+        assertEquals(3, markers.size());
+        assertEquals(SkipSegmentType.INTRO, markers.getType(0));
+        assertEquals(40, markers.getEnd(0));
+        assertEquals(SkipSegmentType.RECAP, markers.getType(1));
+        assertEquals(60, markers.getEnd(1));
+        assertEquals(1300, markers.getStart(2));
+    }
+
+    @Test
+    public void edgesAreInclusiveAtTheStartAndExclusiveAtTheEnd() {
+        SkipMarkers markers = new SkipMarkers();
+        markers.add(SkipSegmentType.INTRO, 30, 90);
+
+        assertEquals(-1, markers.findActive(29, SkipMarkers.ALL_TYPES));
+        assertEquals(0, markers.findActive(30, SkipMarkers.ALL_TYPES));
+        assertEquals(0, markers.findActive(89, SkipMarkers.ALL_TYPES));
+        assertEquals(-1, markers.findActive(90, SkipMarkers.ALL_TYPES));
+
+        // # findNext is strictly after the position
+        assertEquals(0, markers.findNext(29, SkipMarkers.ALL_TYPES));
+        assertEquals(-1, markers.findNext(30, SkipMarkers.ALL_TYPES));
+    }
+
+    @Test
+    public void overlappingTypesResolveByPriorityAndMask() {
+        SkipMarkers markers = new SkipMarkers();
+        markers.add(SkipSegmentType.CREDITS, 1200, 1400);
+        markers.add(SkipSegmentType.INTRO, 1250, 1300);
+
+        int intro = markers.findActive(1260, SkipMarkers.ALL_TYPES);
+        assertEquals(SkipSegmentType.INTRO, markers.getType(intro));
+        int credits = markers.findActive(1260, CREDITS);
+        assertEquals(SkipSegmentType.CREDITS, markers.getType(credits));
+        assertEquals(-1, markers.findActive(1350, INTRO));
+        assertTrue(markers.isInCredits(1350));
+    }
+
+    @Test
+    public void longSegmentIsFoundBehindShorterLaterOnes() {
+        SkipMarkers markers = new SkipMarkers();
+        markers.add(SkipSegmentType.RECAP, 0, 600);
+        markers.add(SkipSegmentType.INTRO, 100, 150);
+        markers.add(SkipSegmentType.CREDITS, 200, 250);
+
+        // # The scan has to walk past the two short segments to reach the recap
+        int active = markers.findActive(400, SkipMarkers.ALL_TYPES);
+        assertEquals(SkipSegmentType.RECAP, markers.getType(active));
+        assertEquals(SkipSegmentType.INTRO, markers.getType(markers.findActive(120, SkipMarkers.ALL_TYPES)));
+        assertEquals(-1, markers.findActive(600, SkipMarkers.ALL_TYPES));
+
+        assertEquals(SkipSegmentType.CREDITS, markers.getType(markers.findNext(120, SkipMarkers.ALL_TYPES)));
+        assertEquals(-1, markers.findNext(120, INTRO));
+    }
+
+    @Test
+    public void removeTypeKeepsTheOtherSegments() {
+        SkipMarkers markers = new SkipMarkers();
+        markers.add(SkipSegmentType.RECAP, 0, 600);
+        markers.add(SkipSegmentType.RECAP, 700, 720);
+        markers.add(SkipSegmentType.INTRO, 100, 150);
+
+        markers.removeType(SkipSegmentType.RECAP);
+
+        assertEquals(1, markers.size());
+        assertEquals(-1, markers.findActive(400, SkipMarkers.ALL_TYPES));
+        assertTrue(markers.isInIntro(120));
+    }
+
+    @Test
+    public void manySegmentsGrowTheIndex() {
+        SkipMarkers markers = new SkipMarkers();
+        for (int i = 19; i >= 0; i--) {
+            markers.add(SkipSegmentType.RECAP, i * 100, i * 100 + 50);
+        }
+
+        assertEquals(20, markers.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, markers.findActive(i * 100 + 10, SkipMarkers.ALL_TYPES));
+            assertEquals(-1, markers.findActive(i * 100 + 60, SkipMarkers.ALL_TYPES));
+        }
+    }
+
+    @Test
+    public void boundariesAreSortedAndDistinct() {
+        SkipMarkers markers = new SkipMarkers();
+        markers.add(SkipSegmentType.RECAP, 90, 120);
+        markers.add(SkipSegmentType.INTRO, 30, 90);
+        markers.setNextEpisodeStart(1300);
+
+        assertArrayEquals(new int[] {30, 90, 120, 1285, 1300, 1315}, markers.getBoundarySeconds());
+        assertTrue(markers.isAtNextEpisode(1285));
+        assertFalse(markers.isAtNextEpisode(1315));
+
+        markers.clearAll();
+        assertArrayEquals(new int[0], markers.getBoundarySeconds());
+    }
+}
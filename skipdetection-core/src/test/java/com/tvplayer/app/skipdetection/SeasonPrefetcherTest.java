@@ -0,0 +1,175 @@
+package com.tvplayer.app.skipdetection;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult.DetectionSource;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegment;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+import com.tvplayer.app.skipdetection.cache.InMemoryKeyValueStore;
+import com.tvplayer.app.skipdetection.platform.ExecutorTaskScheduler;
+import com.tvplayer.app.skipdetection.strategies.CacheStrategy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SeasonPrefetcherTest {
+
+    private final MediaIdentifier queued = new MediaIdentifier.Builder()
+        .setShowName("Show")
+        .setSeasonNumber(1)
+        .setEpisodeNumber(2)
+        .setMediaUri("file:///media/show.s01e02.mkv")
+        .build();
+
+    private CacheStrategy cache;
+    private ExecutorService prefetchExecutor;
+    private ExecutorTaskScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        cache = new CacheStrategy(new InMemoryKeyValueStore());
+        prefetchExecutor = Executors.newSingleThreadExecutor();
+        scheduler = ExecutorTaskScheduler.create(4, Runnable::run);
+    }
+
+    @After
+    public void tearDown() {
+        prefetchExecutor.shutdownNow();
+        scheduler.shutdown();
+    }
+
+    // # Fixed answer at a fixed tier, counting its calls
+    private static SkipDetectionStrategy strategy(String name, int priority, SkipDetectionResult result,
+                                                  AtomicInteger calls) {
+        return new SkipDetectionStrategy() {
+            @Override
+            public SkipDetectionResult detect(MediaIdentifier mediaIdentifier) {
+                calls.incrementAndGet();
+                return result;
+            }
+
+            @Override
+            public String getStrategyName() {
+                return name;
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return true;
+            }
+
+            @Override
+            public int getPriority() {
+                return priority;
+            }
+        };
+    }
+
+    private static SkipDetectionResult intro(DetectionSource source, float confidence, int end) {
+        return SkipDetectionResult.success(source, confidence, new SkipSegment(SkipSegmentType.INTRO, 0, end));
+    }
+
+    private void prefetch(SkipDetectionStrategy api) throws InterruptedException {
+        SeasonPrefetcher prefetcher = new SeasonPrefetcher(cache, Collections.singletonList(api), prefetchExecutor);
+        prefetcher.prefetchEpisode(queued, 0);
+        prefetchExecutor.shutdown();
+        assertTrue(prefetchExecutor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void queuedItemStillReadsItsChaptersWhenItPlays() throws InterruptedException {
+        AtomicInteger apiCalls = new AtomicInteger();
+        AtomicInteger chapterCalls = new AtomicInteger();
+        SkipDetectionStrategy api = strategy("api", 400, intro(DetectionSource.INTRO_SKIPPER_API, 0.75f, 90), apiCalls);
+        SkipDetectionStrategy chapters = strategy("chapters", 500, intro(DetectionSource.CHAPTER_MARKERS, 0.95f, 84),
+            chapterCalls);
+
+        prefetch(api);
+        assertEquals(1, apiCalls.get());
+        assertFalse(cache.detect(queued).isSuccess());
+
+        AtomicReference<SkipDetectionResult> provisional = new AtomicReference<>();
+        AtomicReference<SkipDetectionResult> complete = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        new SkipDetectionEngine(cache, Arrays.asList(chapters, api), scheduler, 10_000,
+            new SkipDetectionEngine.Hooks() { }).detectAsync(queued, new SkipDetectionCallback() {
+                @Override
+                public void onProvisionalResult(SkipDetectionResult result) {
+                    provisional.compareAndSet(null, result);
+                }
+
+                @Override
+                public void onDetectionComplete(SkipDetectionResult result) {
+                    complete.set(result);
+                    done.countDown();
+                }
+
+                @Override
+                public void onDetectionFailed(String errorMessage) {
+                    done.countDown();
+                }
+            });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        // # The prefetched answer was on screen first, then the chapters took over
+        assertEquals(DetectionSource.INTRO_SKIPPER_API, provisional.get().getSource());
+        assertEquals(1, chapterCalls.get());
+        assertEquals(DetectionSource.CHAPTER_MARKERS, complete.get().getSource());
+        assertEquals(84, cache.detect(queued).getSegmentByType(SkipSegmentType.INTRO).endSeconds);
+    }
+
+    @Test
+    public void prefetchedCommunityEntryOutranksTheHeuristic() throws InterruptedException {
+        AtomicInteger apiCalls = new AtomicInteger();
+        SkipDetectionStrategy api = strategy("api", 400, intro(DetectionSource.INTRO_SKIPPER_API, 0.75f, 75), apiCalls);
+        // # MetadataHeuristicStrategy's tier; it always answers once the player knows the runtime
+        SkipDetectionStrategy heuristic = strategy("heuristic", 200,
+            intro(DetectionSource.METADATA_HEURISTIC, 0.40f, 90), new AtomicInteger());
+
+        prefetch(api);
+
+        AtomicReference<SkipDetectionResult> complete = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+        new SkipDetectionEngine(cache, Arrays.asList(api, heuristic), scheduler, 10_000,
+            new SkipDetectionEngine.Hooks() { }).detectAsync(queued, new SkipDetectionCallback() {
+                @Override
+                public void onDetectionComplete(SkipDetectionResult result) {
+                    complete.set(result);
+                    done.countDown();
+                }
+
+                @Override
+                public void onDetectionFailed(String errorMessage) {
+                    done.countDown();
+                }
+            });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(DetectionSource.INTRO_SKIPPER_API, complete.get().getSource());
+        // # The community segments are what the next playback reads from the cache
+        assertEquals(75, cache.detect(queued).getSegmentByType(SkipSegmentType.INTRO).endSeconds);
+    }
+
+    @Test
+    public void freshEntryIsNotPrefetchedAgain() throws InterruptedException {
+        cache.cacheResult(queued, intro(DetectionSource.CHAPTER_MARKERS, 0.95f, 84), 500);
+        AtomicInteger apiCalls = new AtomicInteger();
+
+        prefetch(strategy("api", 400, intro(DetectionSource.INTRO_SKIPPER_API, 0.75f, 90), apiCalls));
+
+        assertEquals(0, apiCalls.get());
+        assertEquals(84, cache.detect(queued).getSegmentByType(SkipSegmentType.INTRO).endSeconds);
+    }
+}
@@ -0,0 +1,447 @@
+package com.tvplayer.app.skipdetection;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult.DetectionSource;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegment;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+import com.tvplayer.app.skipdetection.cache.CachedSkipData;
+import com.tvplayer.app.skipdetection.cache.InMemoryKeyValueStore;
+import com.tvplayer.app.skipdetection.metrics.AdaptiveTimeouts;
+import com.tvplayer.app.skipdetection.platform.ExecutorTaskScheduler;
+import com.tvplayer.app.skipdetection.strategies.CacheStrategy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class SkipDetectionEngineTest {
+
+    private static final long LONG_TIMEOUT_MS = 10_000;
+
+    private final MediaIdentifier episode = new MediaIdentifier.Builder()
+        .setShowName("Show")
+        .setSeasonNumber(1)
+        .setEpisodeNumber(1)
+        .build();
+
+    private ExecutorTaskScheduler scheduler;
+    private InMemoryKeyValueStore store;
+    private CacheStrategy cache;
+
+    @Before
+    public void setUp() {
+        // # Callbacks run on the worker that posts them
+        scheduler = ExecutorTaskScheduler.create(4, Runnable::run);
+        store = new InMemoryKeyValueStore();
+        cache = new CacheStrategy(store);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    // --- Fakes ---
+
+    // # Returns a fixed result, optionally after waiting on a latch (interrupt-aware)
+    private static final class FakeStrategy implements SkipDetectionStrategy {
+        final String name;
+        final int priority;
+        final SkipDetectionResult result;
+        final CountDownLatch release;
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        volatile boolean interrupted;
+
+        FakeStrategy(String name, int priority, SkipDetectionResult result, CountDownLatch release) {
+            this.name = name;
+            this.priority = priority;
+            this.result = result;
+            this.release = release;
+        }
+
+        @Override
+        public SkipDetectionResult detect(MediaIdentifier mediaIdentifier) {
+            calls.incrementAndGet();
+            started.countDown();
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    return SkipDetectionResult.failed(DetectionSource.NONE, "interrupted");
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public String getStrategyName() {
+            return name;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+    }
+
+    // # Records every callback in order
+    private static class RecordingCallback implements SkipDetectionCallback {
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile SkipDetectionResult finalResult;
+
+        @Override
+        public void onDetectionComplete(SkipDetectionResult result) {
+            finalResult = result;
+            events.add("complete:" + result.getSource());
+            done.countDown();
+        }
+
+        @Override
+        public void onDetectionFailed(String errorMessage) {
+            events.add("failed");
+            done.countDown();
+        }
+
+        @Override
+        public void onProvisionalResult(SkipDetectionResult result) {
+            events.add("provisional:" + result.getSource());
+        }
+
+        @Override
+        public void onResultUpgraded(SkipDetectionResult result) {
+            events.add("upgraded:" + result.getSource());
+        }
+
+        SkipDetectionResult await() throws InterruptedException {
+            assertTrue("detection did not finish", done.await(5, TimeUnit.SECONDS));
+            return finalResult;
+        }
+    }
+
+    private static SkipDetectionResult success(DetectionSource source, float confidence, int introEnd) {
+        return SkipDetectionResult.success(source, confidence, new SkipSegment(SkipSegmentType.INTRO, 0, introEnd));
+    }
+
+    // # A final entry written 31 days ago; priority 0 is how rows from before tiers were stored read back
+    private void putExpired(DetectionSource source, int priority, int introEnd) {
+        CachedSkipData old = new CachedSkipData();
+        old.segments = Arrays.asList(new SkipSegment(SkipSegmentType.INTRO, 0, introEnd));
+        old.timestamp = System.currentTimeMillis() - 31L * 24 * 60 * 60 * 1000;
+        old.source = source.name();
+        old.confidence = 0.9f;
+        old.priority = priority;
+        store.put(episode.getCacheKey(), old);
+    }
+
+    private SkipDetectionEngine engine(long timeoutMs, SkipDetectionEngine.Hooks hooks, SkipDetectionStrategy... strategies) {
+        return new SkipDetectionEngine(cache, Arrays.asList(strategies), scheduler, timeoutMs, hooks);
+    }
+
+    private SkipDetectionEngine engine(long timeoutMs, SkipDetectionStrategy... strategies) {
+        return engine(timeoutMs, new SkipDetectionEngine.Hooks() { }, strategies);
+    }
+
+    // --- Tests ---
+
+    @Test
+    public void higherTierWinsOverHigherConfidence() throws InterruptedException {
+        FakeStrategy community = new FakeStrategy("community", 400, success(DetectionSource.INTRO_SKIPPER_API, 0.75f, 90), null);
+        FakeStrategy manual = new FakeStrategy("manual", 100, success(DetectionSource.MANUAL_PREFERENCE, 1.0f, 60), null);
+
+        RecordingCallback callback = new RecordingCallback();
+        engine(LONG_TIMEOUT_MS, community, manual).detectAsync(episode, callback);
+
+        SkipDetectionResult result = callback.await();
+        assertEquals(DetectionSource.INTRO_SKIPPER_API, result.getSource());
+        // # The winner is cached for the next playback
+        assertTrue(cache.detect(episode).isSuccess());
+    }
+
+    @Test
+    public void finalizesEarlyAndCancelsStragglersThatCannotWin() throws InterruptedException {
+        CountDownLatch never = new CountDownLatch(1);
+        FakeStrategy slowAudio = new FakeStrategy("audio", 300, success(DetectionSource.AUDIO_FINGERPRINT, 0.6f, 80), never);
+        // # Answers once the straggler is running, so there is something to interrupt
+        FakeStrategy chapters = new FakeStrategy("chapters", 500, success(DetectionSource.CHAPTER_MARKERS, 0.9f, 90),
+            slowAudio.started);
+
+        RecordingCallback callback = new RecordingCallback();
+        long startMs = System.currentTimeMillis();
+        engine(LONG_TIMEOUT_MS, chapters, slowAudio).detectAsync(episode, callback);
+
+        assertEquals(DetectionSource.CHAPTER_MARKERS, callback.await().getSource());
+        assertTrue(System.currentTimeMillis() - startMs < LONG_TIMEOUT_MS / 2);
+        waitUntil(() -> slowAudio.interrupted);
+    }
+
+    @Test
+    public void lowerTierIsPublishedAsInterimWhileAHigherTierRuns() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        FakeStrategy manual = new FakeStrategy("manual", 100, success(DetectionSource.MANUAL_PREFERENCE, 1.0f, 60), null);
+        FakeStrategy chapters = new FakeStrategy("chapters", 500, success(DetectionSource.CHAPTER_MARKERS, 0.9f, 90), release);
+
+        RecordingCallback callback = new RecordingCallback();
+        engine(LONG_TIMEOUT_MS, manual, chapters).detectAsync(episode, callback);
+
+        assertEquals("provisional:MANUAL_PREFERENCE", callback.events.poll(5, TimeUnit.SECONDS));
+        release.countDown();
+        assertEquals(DetectionSource.CHAPTER_MARKERS, callback.await().getSource());
+        assertEquals("complete:CHAPTER_MARKERS", callback.events.poll(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void timeoutPublishesTheBestResultSoFar() throws InterruptedException {
+        CountDownLatch never = new CountDownLatch(1);
+        FakeStrategy hanging = new FakeStrategy("hanging", 500, success(DetectionSource.CHAPTER_MARKERS, 0.9f, 90), never);
+        FakeStrategy manual = new FakeStrategy("manual", 100, success(DetectionSource.MANUAL_PREFERENCE, 1.0f, 60), null);
+
+        RecordingCallback callback = new RecordingCallback();
+        engine(200, hanging, manual).detectAsync(episode, callback);
+
+        assertEquals(DetectionSource.MANUAL_PREFERENCE, callback.await().getSource());
+        waitUntil(() -> hanging.interrupted);
+    }
+
+    @Test
+    public void strategyPastItsLearnedDeadlineNoLongerHoldsUpDetection() throws InterruptedException {
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts(null, 200, 100, 1000, 2.0);
+        CountDownLatch never = new CountDownLatch(1);
+        FakeStrategy hanging = new FakeStrategy("hanging", 500, success(DetectionSource.CHAPTER_MARKERS, 0.9f, 90), never);
+        FakeStrategy community = new FakeStrategy("community", 400, success(DetectionSource.INTRO_SKIPPER_API, 0.75f, 80), null);
+
+        RecordingCallback callback = new RecordingCallback();
+        long startMs = System.currentTimeMillis();
+        new SkipDetectionEngine(cache, Arrays.<SkipDetectionStrategy>asList(hanging, community), scheduler,
+            LONG_TIMEOUT_MS, new SkipDetectionEngine.Hooks() { }, timeouts).detectAsync(episode, callback);
+
+        assertEquals(DetectionSource.INTRO_SKIPPER_API, callback.await().getSource());
+        assertTrue(System.currentTimeMillis() - startMs < LONG_TIMEOUT_MS / 2);
+        waitUntil(() -> hanging.interrupted);
+        // # The answer taught the timeout; the hang counts as a sample at its deadline
+        assertTrue(timeouts.toString().contains("community=200ms (n=1, 0 timeouts)"));
+        assertTrue(timeouts.toString().contains("hanging=200ms (n=1, 1 timeouts)"));
+    }
+
+    @Test
+    public void exemptStrategyIsNotCutOffByALearnedDeadline() throws InterruptedException {
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts(null, 200, 100, 1000, 2.0);
+        CountDownLatch coldRead = new CountDownLatch(1);
+        FakeStrategy chapters = new FakeStrategy("chapters", 500, success(DetectionSource.CHAPTER_MARKERS, 0.9f, 90), coldRead);
+        FakeStrategy community = new FakeStrategy("community", 400, success(DetectionSource.INTRO_SKIPPER_API, 0.75f, 80), null);
+        timeouts.exempt(chapters.getStrategyName());
+
+        RecordingCallback callback = new RecordingCallback();
+        new SkipDetectionEngine(cache, Arrays.<SkipDetectionStrategy>asList(chapters, community), scheduler,
+            LONG_TIMEOUT_MS, new SkipDetectionEngine.Hooks() { }, timeouts).detectAsync(episode, callback);
+
+        // # Well past the 200 ms the other strategies get
+        Thread.sleep(500);
+        coldRead.countDown();
+
+        assertEquals(DetectionSource.CHAPTER_MARKERS, callback.await().getSource());
+        assertFalse(chapters.interrupted);
+        assertFalse(timeouts.toString().contains("chapters"));
+    }
+
+    @Test
+    public void cacheHitSkipsAllStrategies() throws InterruptedException {
+        cache.cacheResult(episode, success(DetectionSource.INTRO_SKIPPER_API, 0.75f, 90));
+        FakeStrategy community = new FakeStrategy("community", 400, success(DetectionSource.INTRO_SKIPPER_API, 0.75f, 90), null);
+
+        RecordingCallback callback = new RecordingCallback();
+        engine(LONG_TIMEOUT_MS, community).detectAsync(episode, callback);
+
+        assertEquals(DetectionSource.CACHE, callback.await().getSource());
+        assertEquals(0, community.calls.get());
+    }
+
+    @Test
+    public void prefetchedEntryIsShownButHigherTiersStillRun() throws InterruptedException {
+        cache.cacheProvisionalResult(episode, success(DetectionSource.INTRO_SKIPPER_API, 0.75f, 90), 400);
+        FakeStrategy chapters = new FakeStrategy("chapters", 500, success(DetectionSource.CHAPTER_MARKERS, 0.9f, 85), null);
+
+        RecordingCallback callback = new RecordingCallback();
+        engine(LONG_TIMEOUT_MS, chapters).detectAsync(episode, callback);
+
+        assertEquals(DetectionSource.CHAPTER_MARKERS, callback.await().getSource());
+        assertEquals("provisional:INTRO_SKIPPER_API", callback.events.poll());
+        assertEquals(1, chapters.calls.get());
+        // # The live result replaced the prefetched one
+        assertEquals(85, cache.detect(episode).getSegmentByType(SkipSegmentType.INTRO).endSeconds);
+    }
+
+    @Test
+    public void prefetchedEntryBeatsLowerTiersAndIsRefinedIntoTheCache() throws InterruptedException {
+        cache.cacheProvisionalResult(episode, success(DetectionSource.INTRO_SKIPPER_API, 0.75f, 90), 400);
+        FakeStrategy manual = new FakeStrategy("manual", 100, success(DetectionSource.MANUAL_PREFERENCE, 1.0f, 60), null);
+        CountDownLatch refined = new CountDownLatch(1);
+        SkipDetectionEngine.Hooks hooks = new SkipDetectionEngine.Hooks() {
+            @Override
+            public boolean shouldRefine(MediaIdentifier mediaIdentifier, SkipDetectionResult result) {
+                return result.getSource() == DetectionSource.INTRO_SKIPPER_API;
+            }
+
+            @Override
+            public SkipDetectionResult refine(MediaIdentifier mediaIdentifier, SkipDetectionResult result) {
+                return success(result.getSource(), result.getConfidence(), 87);
+            }
+        };
+
+        RecordingCallback callback = new RecordingCallback() {
+            @Override
+            public void onSegmentsRefined(SkipDetectionResult result) {
+                refined.countDown();
+            }
+        };
+        engine(LONG_TIMEOUT_MS, hooks, manual).detectAsync(episode, callback);
+
+        assertEquals(DetectionSource.INTRO_SKIPPER_API, callback.await().getSource());
+        // # The manual fallback never replaced it on screen either
+        assertEquals(Arrays.asList("provisional:INTRO_SKIPPER_API", "complete:INTRO_SKIPPER_API"),
+            new ArrayList<>(callback.events));
+        assertTrue(refined.await(5, TimeUnit.SECONDS));
+        assertEquals(87, cache.detect(episode).getSegmentByType(SkipSegmentType.INTRO).endSeconds);
+    }
+
+    @Test
+    public void expiredEntryKeepsItsTierAgainstLowerTiers() throws InterruptedException {
+        putExpired(DetectionSource.CHAPTER_MARKERS, 500, 90);
+        FakeStrategy community = new FakeStrategy("community", 400, success(DetectionSource.INTRO_SKIPPER_API, 0.75f, 80), null);
+
+        RecordingCallback callback = new RecordingCallback();
+        engine(LONG_TIMEOUT_MS, community).detectAsync(episode, callback);
+
+        assertEquals(90, callback.await().getSegmentByType(SkipSegmentType.INTRO).endSeconds);
+        assertEquals(Arrays.asList("provisional:CACHE", "complete:CACHE"), new ArrayList<>(callback.events));
+        // # Not overwritten by the lower tier either
+        assertEquals(90, cache.detectStale(episode).getSegmentByType(SkipSegmentType.INTRO).endSeconds);
+    }
+
+    @Test
+    public void manualPreferenceNeverReplacesAnExpiredDetection() throws InterruptedException {
+        putExpired(DetectionSource.INTRO_SKIPPER_API, 0, 90);
+        FakeStrategy manual = new FakeStrategy("manual", 100, success(DetectionSource.MANUAL_PREFERENCE, 1.0f, 60), null);
+
+        RecordingCallback callback = new RecordingCallback();
+        engine(LONG_TIMEOUT_MS, manual).detectAsync(episode, callback);
+
+        assertEquals(DetectionSource.CACHE, callback.await().getSource());
+        assertEquals(Arrays.asList("provisional:CACHE", "complete:CACHE"), new ArrayList<>(callback.events));
+        assertEquals(90, cache.detectStale(episode).getSegmentByType(SkipSegmentType.INTRO).endSeconds);
+    }
+
+    @Test
+    public void freshDetectionReplacesAnExpiredEntryOfTheSameTier() throws InterruptedException {
+        putExpired(DetectionSource.INTRO_SKIPPER_API, 400, 90);
+        FakeStrategy community = new FakeStrategy("community", 400, success(DetectionSource.INTRO_SKIPPER_API, 0.75f, 80), null);
+
+        RecordingCallback callback = new RecordingCallback();
+        engine(LONG_TIMEOUT_MS, community).detectAsync(episode, callback);
+
+        assertEquals(DetectionSource.INTRO_SKIPPER_API, callback.await().getSource());
+        assertEquals(80, cache.detect(episode).getSegmentByType(SkipSegmentType.INTRO).endSeconds);
+    }
+
+    @Test
+    public void noDataAnswersAreNotAskedAgainWithinTheTtl() throws InterruptedException {
+        FakeStrategy empty = new FakeStrategy("empty", 400,
+            SkipDetectionResult.noData(DetectionSource.INTROHATER_API, "none"), null);
+        SkipDetectionEngine.Hooks hooks = new SkipDetectionEngine.Hooks() {
+            @Override
+            public long getNegativeCacheTtlMs() {
+                return 60_000;
+            }
+        };
+        SkipDetectionEngine engine = engine(LONG_TIMEOUT_MS, hooks, empty);
+
+        RecordingCallback first = new RecordingCallback();
+        engine.detectAsync(episode, first);
+        first.await();
+        assertEquals("failed", first.events.poll());
+
+        RecordingCallback second = new RecordingCallback();
+        engine.detectAsync(episode, second);
+        second.await();
+        assertEquals(1, empty.calls.get());
+    }
+
+    @Test
+    public void refinedResultIsCachedAndReportedAfterTheFinalResult() throws InterruptedException {
+        FakeStrategy community = new FakeStrategy("community", 400, success(DetectionSource.INTRO_SKIPPER_API, 0.75f, 90), null);
+        List<String> refinedEvents = new ArrayList<>();
+        CountDownLatch refined = new CountDownLatch(1);
+        SkipDetectionEngine.Hooks hooks = new SkipDetectionEngine.Hooks() {
+            @Override
+            public boolean shouldRefine(MediaIdentifier mediaIdentifier, SkipDetectionResult result) {
+                return true;
+            }
+
+            @Override
+            public SkipDetectionResult refine(MediaIdentifier mediaIdentifier, SkipDetectionResult result) {
+                return success(result.getSource(), result.getConfidence(), 87);
+            }
+        };
+
+        RecordingCallback callback = new RecordingCallback() {
+            @Override
+            public void onSegmentsRefined(SkipDetectionResult result) {
+                refinedEvents.add("refined:" + result.getSegmentByType(SkipSegmentType.INTRO).endSeconds);
+                refined.countDown();
+            }
+        };
+        engine(LONG_TIMEOUT_MS, hooks, community).detectAsync(episode, callback);
+
+        assertEquals(90, callback.await().getSegmentByType(SkipSegmentType.INTRO).endSeconds);
+        assertTrue(refined.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("refined:87"), refinedEvents);
+        SkipDetectionResult cached = cache.detect(episode);
+        assertNotNull(cached.getSegmentByType(SkipSegmentType.INTRO));
+        assertEquals(87, cached.getSegmentByType(SkipSegmentType.INTRO).endSeconds);
+    }
+
+    @Test
+    public void failsWhenNoStrategySucceeds() throws InterruptedException {
+        FakeStrategy broken = new FakeStrategy("broken", 400,
+            SkipDetectionResult.failed(DetectionSource.INTRO_SKIPPER_API, "HTTP 500"), null);
+
+        RecordingCallback callback = new RecordingCallback();
+        engine(LONG_TIMEOUT_MS, broken).detectAsync(episode, callback);
+        callback.await();
+
+        assertEquals("failed", callback.events.poll());
+        assertFalse(cache.detect(episode).isSuccess());
+    }
+
+    private interface Condition {
+        boolean holds();
+    }
+
+    private static void waitUntil(Condition condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.holds()) {
+            assertTrue("condition not met in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
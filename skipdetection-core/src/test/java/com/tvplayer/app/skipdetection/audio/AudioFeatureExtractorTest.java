@@ -0,0 +1,83 @@
+package com.tvplayer.app.skipdetection.audio;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AudioFeatureExtractorTest {
+
+    private static final int SAMPLE_RATE = 44100;
+
+    // # Interleaved stereo PCM of a sum of sines, both channels alike
+    private static short[] tones(double seconds, int amplitude, double... frequencies) {
+        int frames = (int) (seconds * SAMPLE_RATE);
+        short[] pcm = new short[frames * 2];
+        for (int i = 0; i < frames; i++) {
+            double sample = 0;
+            for (double hz : frequencies) {
+                sample += Math.sin(2 * Math.PI * hz * i / SAMPLE_RATE);
+            }
+            short value = (short) Math.round(amplitude * sample / frequencies.length);
+            pcm[2 * i] = value;
+            pcm[2 * i + 1] = value;
+        }
+        return pcm;
+    }
+
+    private static AudioFeatures extract(short[] pcm) {
+        AudioFeatureExtractor extractor = new AudioFeatureExtractor();
+        extractor.onFormat(SAMPLE_RATE, 2);
+        // # In codec-sized buffers, as PcmDecoder delivers them
+        short[] buffer = new short[4096];
+        for (int offset = 0; offset < pcm.length; offset += buffer.length) {
+            int count = Math.min(buffer.length, pcm.length - offset);
+            System.arraycopy(pcm, offset, buffer, 0, count);
+            extractor.onSamples(buffer, count);
+        }
+        return extractor.getFeatures();
+    }
+
+    @Test
+    public void framesAreHalfOverlappingAtAbout11kHz() {
+        AudioFeatures features = extract(tones(2.0, 8000, 440));
+
+        // # 44.1 kHz decimated by 4: 22050 samples, 1024-sample frames every 512
+        assertEquals(512.0 / 11025, features.frameHopSeconds, 1e-9);
+        assertEquals(1 + (22050 - 1024) / 512, features.frameCount);
+        assertEquals(features.frameCount * AudioFeatures.CHROMA_BINS, features.chroma.length);
+    }
+
+    @Test
+    public void chromaPeaksAtThePitchClassOfTheTone() {
+        AudioFeatures features = extract(tones(2.0, 8000, 440));
+
+        int frame = features.frameCount / 2;
+        int loudest = 0;
+        for (int c = 1; c < AudioFeatures.CHROMA_BINS; c++) {
+            if (features.chroma[frame * AudioFeatures.CHROMA_BINS + c]
+                    > features.chroma[frame * AudioFeatures.CHROMA_BINS + loudest]) {
+                loudest = c;
+            }
+        }
+        assertEquals(9, loudest); // # A
+        // # Full-scale fraction of a sine: amplitude / sqrt(2)
+        assertEquals(8000 / 32768.0 / Math.sqrt(2), features.rms[frame], 0.01);
+    }
+
+    @Test
+    public void subFingerprintsIgnoreVolume() {
+        short[] quiet = tones(3.0, 4000, 261.6, 329.6, 392.0, 1200, 2500);
+        short[] loud = new short[quiet.length];
+        for (int i = 0; i < quiet.length; i++) {
+            loud[i] = (short) (2 * quiet[i]);
+        }
+
+        AudioFeatures a = extract(quiet);
+        AudioFeatures b = extract(loud);
+
+        assertArrayEquals(a.subFingerprints, b.subFingerprints);
+        assertTrue(b.rms[a.frameCount / 2] > 1.9f * a.rms[a.frameCount / 2]);
+    }
+}
@@ -0,0 +1,47 @@
+package com.tvplayer.app.skipdetection.audio;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class IntMultiMapTest {
+
+    private static List<Integer> valuesOf(IntMultiMap map, int key) {
+        List<Integer> values = new ArrayList<>();
+        for (int slot = map.firstSlot(key); slot >= 0; slot = map.nextSlot(slot)) {
+            values.add(map.valueAt(slot));
+        }
+        return values;
+    }
+
+    @Test
+    public void keepsEveryValueOfAKeyNewestFirst() {
+        IntMultiMap map = new IntMultiMap(5);
+        map.put(7, 1);
+        map.put(0x0FFFFFFF, 2);
+        map.put(7, 3);
+        map.put(0, 4);
+        map.put(7, 5);
+
+        assertEquals(Arrays.asList(5, 3, 1), valuesOf(map, 7));
+        assertEquals(3, map.count(7));
+        assertEquals(Arrays.asList(2), valuesOf(map, 0x0FFFFFFF));
+        assertEquals(Arrays.asList(4), valuesOf(map, 0));
+    }
+
+    @Test
+    public void absentKeysHaveNoValues() {
+        IntMultiMap map = new IntMultiMap(1000);
+        for (int i = 0; i < 1000; i++) {
+            map.put(i * 31, i);
+        }
+
+        assertEquals(-1, map.firstSlot(1));
+        assertEquals(0, map.count(1));
+        assertEquals(Arrays.asList(999), valuesOf(map, 999 * 31));
+    }
+}
@@ -0,0 +1,127 @@
+package com.tvplayer.app.skipdetection.audio;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ShowFingerprintIndexTest {
+
+    private static final double HOP = 0.05;
+    private static final double EPISODE_SECONDS = 300;
+    private static final double THEME_SECONDS = 60;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    // # Sub-fingerprints of the theme, shared by every episode of the show
+    private final int[] theme = randomPrints(new Random(42), (int) Math.round(THEME_SECONDS / HOP));
+
+    private static int[] randomPrints(Random random, int frames) {
+        int[] prints = new int[frames];
+        for (int i = 0; i < frames; i++) {
+            prints[i] = random.nextInt(1 << 28);
+        }
+        return prints;
+    }
+
+    // # Unrelated audio with the theme at themeStart; one bit per frame differs, like a re-encode
+    private AudioFeatures episode(double themeStart, double hop, long seed) {
+        Random random = new Random(seed);
+        int frames = (int) Math.round(EPISODE_SECONDS / HOP);
+        int[] prints = randomPrints(random, frames);
+        int offset = (int) Math.round(themeStart / HOP);
+        for (int i = 0; i < theme.length; i++) {
+            prints[offset + i] = theme[i] ^ (1 << random.nextInt(28));
+        }
+        return new AudioFeatures(frames, hop, new float[frames * AudioFeatures.CHROMA_BINS], new float[frames], prints);
+    }
+
+    private AudioFeatures episode(double themeStart, long seed) {
+        return episode(themeStart, HOP, seed);
+    }
+
+    private ShowFingerprintIndex open() {
+        return ShowFingerprintIndex.open(folder.getRoot(), "Some Show");
+    }
+
+    @Test
+    public void findsTheAudioSharedWithOtherEpisodes() {
+        ShowFingerprintIndex index = open();
+        index.put(1, 1, episode(30, 1));
+        index.put(1, 2, episode(60, 2));
+
+        ShowFingerprintIndex.Match match = index.match(1, 3, episode(45, 3), 15, 120);
+
+        assertNotNull(match);
+        assertEquals(45, match.startSeconds, 1.0);
+        assertEquals(105, match.endSeconds, 1.0);
+        assertEquals(2, match.supportingEpisodes);
+    }
+
+    @Test
+    public void anEpisodeDoesNotMatchItself() {
+        ShowFingerprintIndex index = open();
+        index.put(1, 1, episode(30, 1));
+
+        assertNull(index.match(1, 1, episode(30, 1), 15, 120));
+    }
+
+    @Test
+    public void episodesDecodedAtAnotherFrameRateAreNotCompared() {
+        ShowFingerprintIndex index = open();
+        index.put(1, 1, episode(30, 512.0 / 12000, 1));
+
+        assertNull(index.match(1, 2, episode(30, 2), 15, 120));
+    }
+
+    @Test
+    public void unrelatedAudioDoesNotMatch() {
+        ShowFingerprintIndex index = open();
+        index.put(1, 1, episode(30, 1));
+
+        int frames = (int) Math.round(EPISODE_SECONDS / HOP);
+        AudioFeatures other = new AudioFeatures(frames, HOP, new float[frames * AudioFeatures.CHROMA_BINS],
+            new float[frames], randomPrints(new Random(7), frames));
+        assertNull(index.match(1, 2, other, 15, 120));
+    }
+
+    @Test
+    public void survivesAReopenAndReplacesEpisodes() throws IOException {
+        ShowFingerprintIndex index = open();
+        index.put(1, 1, episode(30, 1));
+        index.put(1, 2, episode(60, 2));
+        index.put(1, 2, episode(90, 2));
+        index.save();
+
+        ShowFingerprintIndex reopened = open();
+        assertEquals(2, reopened.getEpisodeCount());
+        ShowFingerprintIndex.Match match = reopened.match(1, 3, episode(45, 3), 15, 120);
+        assertNotNull(match);
+        assertEquals(45, match.startSeconds, 1.0);
+        assertEquals(2, match.supportingEpisodes);
+        // # Written through a temporary file that is renamed over the index
+        assertEquals(1, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void corruptFileOpensEmpty() throws IOException {
+        ShowFingerprintIndex index = open();
+        index.put(1, 1, episode(30, 1));
+        index.save();
+        File[] files = folder.getRoot().listFiles();
+        try (FileOutputStream out = new FileOutputStream(files[0])) {
+            out.write(new byte[] {0x53, 0x46, 0x50, 0x49, 0, 0, 0, 1, 0, 0, 0, 9});
+        }
+
+        assertEquals(0, open().getEpisodeCount());
+    }
+}
@@ -0,0 +1,61 @@
+package com.tvplayer.app.skipdetection.audio;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ThemeMusicDetectorTest {
+
+    private static final double HOP = 0.05;
+
+    // # Speech everywhere: a new random pitch profile every frame, with pauses between lines;
+    // # between themeStart and themeEnd a steady C major chord at full loudness instead
+    private static AudioFeatures episode(double seconds, double themeStart, double themeEnd, long seed) {
+        Random random = new Random(seed);
+        int frames = (int) Math.round(seconds / HOP);
+        float[] chroma = new float[frames * AudioFeatures.CHROMA_BINS];
+        float[] rms = new float[frames];
+        for (int i = 0; i < frames; i++) {
+            double t = i * HOP;
+            boolean theme = t >= themeStart && t < themeEnd;
+            for (int c = 0; c < AudioFeatures.CHROMA_BINS; c++) {
+                float value = theme
+                    ? (c == 0 || c == 4 || c == 7 ? 0.3f : 0.01f) + 0.005f * random.nextFloat()
+                    : random.nextFloat();
+                chroma[i * AudioFeatures.CHROMA_BINS + c] = value;
+            }
+            // # 0.4 s lines, 0.3 s pauses
+            rms[i] = theme ? 0.3f : (t % 0.7 < 0.4 ? 0.2f : 0.001f);
+        }
+        return new AudioFeatures(frames, HOP, chroma, rms, new int[frames]);
+    }
+
+    @Test
+    public void findsASustainedMusicRun() {
+        ThemeMusicDetector.Detection detection =
+            ThemeMusicDetector.detect(episode(300, 40, 100, 1), 15, 120);
+
+        assertNotNull(detection);
+        assertEquals(40, detection.startSeconds, 1.5);
+        assertEquals(100, detection.endSeconds, 1.5);
+        assertTrue(detection.confidence > 0.5f && detection.confidence <= 0.7f);
+    }
+
+    @Test
+    public void ignoresMusicOfImplausibleLength() {
+        // # A 5 s sting is no intro; nor is 4 minutes of score
+        assertNull(ThemeMusicDetector.detect(episode(300, 40, 45, 2), 15, 120));
+        assertNull(ThemeMusicDetector.detect(episode(300, 30, 270, 3), 15, 120));
+    }
+
+    @Test
+    public void dialogueAloneIsNotMusic() {
+        assertNull(ThemeMusicDetector.detect(episode(300, 0, 0, 4), 15, 120));
+        assertNull(ThemeMusicDetector.detect(new AudioFeatures(0, HOP, new float[0], new float[0], new int[0]), 15, 120));
+    }
+}
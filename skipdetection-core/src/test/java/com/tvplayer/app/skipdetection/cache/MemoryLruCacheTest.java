@@ -0,0 +1,55 @@
+package com.tvplayer.app.skipdetection.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MemoryLruCacheTest {
+
+    // # Every entry weighs its value
+    private static MemoryLruCache<String, Integer> newCache(int maxSize) {
+        return new MemoryLruCache<String, Integer>(maxSize) {
+            @Override
+            protected int sizeOf(String key, Integer value) {
+                return value;
+            }
+        };
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedFirst() {
+        MemoryLruCache<String, Integer> cache = newCache(10);
+        cache.put("a", 4);
+        cache.put("b", 4);
+        cache.get("a"); // # "b" is now the eldest
+        cache.put("c", 4);
+
+        assertNull(cache.get("b"));
+        assertEquals(Integer.valueOf(4), cache.get("a"));
+        assertEquals(Integer.valueOf(4), cache.get("c"));
+        assertEquals(8, cache.size());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    public void replacingAnEntryUpdatesTheSize() {
+        MemoryLruCache<String, Integer> cache = newCache(10);
+        cache.put("a", 3);
+        cache.put("a", 7);
+        assertEquals(7, cache.size());
+        cache.remove("a");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        MemoryLruCache<String, Integer> cache = newCache(10);
+        cache.put("a", 1);
+        cache.get("a");
+        cache.get("a");
+        cache.get("missing");
+        assertEquals(2, cache.hitCount());
+        assertEquals(1, cache.missCount());
+    }
+}
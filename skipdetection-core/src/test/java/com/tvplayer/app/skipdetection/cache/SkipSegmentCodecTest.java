@@ -0,0 +1,49 @@
+package com.tvplayer.app.skipdetection.cache;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegment;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SkipSegmentCodecTest {
+
+    @Test
+    public void roundTripKeepsOrderTypesAndTimes() {
+        List<SkipSegment> segments = Arrays.asList(
+            new SkipSegment(SkipSegmentType.INTRO, 0, 90),
+            new SkipSegment(SkipSegmentType.RECAP, 95, 140),
+            new SkipSegment(SkipSegmentType.CREDITS, 1260, 1440));
+
+        String encoded = SkipSegmentCodec.encode(segments);
+        assertEquals("INTRO:0-90;RECAP:95-140;CREDITS:1260-1440", encoded);
+
+        List<SkipSegment> decoded = SkipSegmentCodec.decode(encoded);
+        assertEquals(3, decoded.size());
+        for (int i = 0; i < segments.size(); i++) {
+            assertEquals(segments.get(i).type, decoded.get(i).type);
+            assertEquals(segments.get(i).startSeconds, decoded.get(i).startSeconds);
+            assertEquals(segments.get(i).endSeconds, decoded.get(i).endSeconds);
+        }
+    }
+
+    @Test
+    public void malformedSegmentsAreDroppedIndividually() {
+        List<SkipSegment> decoded = SkipSegmentCodec.decode("BOGUS:1-2;INTRO:x-5;INTRO:10;CREDITS:100-200");
+        assertEquals(1, decoded.size());
+        assertEquals(SkipSegmentType.CREDITS, decoded.get(0).type);
+        assertEquals(100, decoded.get(0).startSeconds);
+    }
+
+    @Test
+    public void emptyInputDecodesToEmptyList() {
+        assertTrue(SkipSegmentCodec.decode(null).isEmpty());
+        assertTrue(SkipSegmentCodec.decode("").isEmpty());
+        assertEquals("", SkipSegmentCodec.encode(Arrays.<SkipSegment>asList()));
+    }
+}
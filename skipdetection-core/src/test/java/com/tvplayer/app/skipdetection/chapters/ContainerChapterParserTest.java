@@ -0,0 +1,227 @@
+package com.tvplayer.app.skipdetection.chapters;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class ContainerChapterParserTest {
+
+    // # RangedSource over an in-memory file
+    private static final class ByteArraySource implements RangedSource {
+        private final byte[] data;
+
+        ByteArraySource(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public long length() {
+            return data.length;
+        }
+
+        @Override
+        public int read(long position, byte[] buffer, int offset, int length) {
+            if (position >= data.length) {
+                return -1;
+            }
+            int count = (int) Math.min(length, data.length - position);
+            System.arraycopy(data, (int) position, buffer, offset, count);
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static List<ContainerChapter> parse(byte[] file) throws IOException {
+        return ContainerChapterParser.parse(new ByteArraySource(file));
+    }
+
+    // --- Matroska ---
+
+    // # EBML element: ID bytes as written, then an 8-byte size
+    private static byte[] ebml(int id, byte[]... children) {
+        int size = 0;
+        for (byte[] child : children) {
+            size += child.length;
+        }
+        return ebmlClaiming(id, size, children);
+    }
+
+    // # Same, but with a size that need not match the data (corrupt files)
+    private static byte[] ebmlClaiming(int id, long size, byte[]... children) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            if ((id >>> shift) != 0) {
+                out.write((id >>> shift) & 0xFF);
+            }
+        }
+        out.write(0x01);
+        for (int shift = 48; shift >= 0; shift -= 8) {
+            out.write((int) (size >>> shift) & 0xFF);
+        }
+        for (byte[] child : children) {
+            out.write(child, 0, child.length);
+        }
+        return out.toByteArray();
+    }
+
+    // # A Matroska file whose only edition holds the given chapter atoms
+    private static byte[] matroska(byte[]... atoms) {
+        return concat(
+            ebml(0x1A45DFA3, ebml(0x4282, "matroska".getBytes(StandardCharsets.US_ASCII))),
+            ebml(0x18538067, ebml(0x1043A770, ebml(0x45B9, atoms))));
+    }
+
+    private static byte[] uint(long value) {
+        byte[] bytes = new byte[8];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (value >>> (56 - 8 * i));
+        }
+        return bytes;
+    }
+
+    private static byte[] atom(String title, long startMs, long endMs) {
+        return ebml(0xB6,
+            ebml(0x91, uint(startMs * 1_000_000)),
+            ebml(0x92, uint(endMs * 1_000_000)),
+            ebml(0x80, ebml(0x85, title.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void readsMatroskaChaptersOfTheDefaultEdition() throws IOException {
+        byte[] file = concat(
+            ebml(0x1A45DFA3, ebml(0x4282, "matroska".getBytes(StandardCharsets.US_ASCII))),
+            ebml(0x18538067,
+                ebml(0x1549A966, new byte[16]), // # Info, skipped by size
+                ebml(0x1043A770,
+                    ebml(0x45B9, atom("Ignored", 0, 1000)),
+                    ebml(0x45B9,
+                        ebml(0x45DB, uint(1)),
+                        atom("Intro", 0, 90_000),
+                        atom("Episode", 90_000, 1_300_000),
+                        ebml(0xB6, ebml(0x91, uint(1_300_000_000_000L)), ebml(0x98, uint(1))),
+                        atom("Credits", 1_300_000, 1_400_000)))));
+
+        List<ContainerChapter> chapters = parse(file);
+        assertEquals(3, chapters.size());
+        assertEquals("Intro", chapters.get(0).title);
+        assertEquals(90_000, chapters.get(0).endMs);
+        assertEquals("Credits", chapters.get(2).title);
+        assertEquals(1_300_000, chapters.get(2).startMs);
+    }
+
+    @Test
+    public void matroskaChildrenMayNotOverrunTheirParent() {
+        // # A 2 GB title inside a 20-byte atom
+        byte[] hugeTitle = matroska(ebml(0xB6,
+            ebml(0x91, uint(0)),
+            ebml(0x80, ebmlClaiming(0x85, Integer.MAX_VALUE, "Intro".getBytes(StandardCharsets.UTF_8)))));
+        // # Sizes past 2^31 used to go negative when cast
+        byte[] negativeCast = matroska(ebml(0xB6, ebmlClaiming(0x91, 0x80000000L, uint(0))));
+
+        assertCorrupt(hugeTitle);
+        assertCorrupt(negativeCast);
+    }
+
+    @Test
+    public void matroskaIntegersAreAtMostEightBytes() {
+        assertCorrupt(matroska(ebml(0xB6, ebml(0x91, new byte[16]))));
+    }
+
+    @Test
+    public void matroskaTitlesAreCapped() throws IOException {
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            title.append("Opening ");
+        }
+
+        List<ContainerChapter> chapters = parse(matroska(atom(title.toString(), 0, 90_000), atom("Part A", 90_000, 600_000)));
+
+        assertEquals(2, chapters.size());
+        // # Cut at 512 bytes, which end in a space that is trimmed
+        assertEquals(511, chapters.get(0).title.length());
+        assertEquals("Part A", chapters.get(1).title);
+    }
+
+    private static void assertCorrupt(byte[] file) {
+        try {
+            parse(file);
+            fail("Corrupt file was parsed");
+        } catch (IOException expected) {
+            // # Rejected before allocating or reading past the parent
+        }
+    }
+
+    // --- MP4 ---
+
+    private static byte[] box(String type, byte[]... children) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int size = 8;
+        for (byte[] child : children) {
+            size += child.length;
+        }
+        out.write(size >>> 24);
+        out.write(size >>> 16);
+        out.write(size >>> 8);
+        out.write(size);
+        out.write(type.getBytes(StandardCharsets.US_ASCII), 0, 4);
+        for (byte[] child : children) {
+            out.write(child, 0, child.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] neroChapters(Object... titlesAndStartMs) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(1); // # version
+        out.write(new byte[3], 0, 3); // # flags
+        out.write(new byte[4], 0, 4); // # reserved
+        out.write(titlesAndStartMs.length / 2);
+        for (int i = 0; i < titlesAndStartMs.length; i += 2) {
+            byte[] title = ((String) titlesAndStartMs[i]).getBytes(StandardCharsets.UTF_8);
+            long start100ns = ((Number) titlesAndStartMs[i + 1]).longValue() * 10_000;
+            out.write(uint(start100ns), 0, 8);
+            out.write(title.length);
+            out.write(title, 0, title.length);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void readsMp4NeroChaptersAfterMediaData() throws IOException {
+        byte[] file = concat(
+            box("ftyp", "isom".getBytes(StandardCharsets.US_ASCII), new byte[4]),
+            box("mdat", new byte[64]),
+            box("moov",
+                box("udta",
+                    box("chpl", neroChapters("Opening", 0, "Part A", 85_500, "Ending", 1_290_000)))));
+
+        List<ContainerChapter> chapters = parse(file);
+        assertEquals(3, chapters.size());
+        assertEquals("Opening", chapters.get(0).title);
+        assertEquals(85_500, chapters.get(1).startMs);
+        assertEquals(ContainerChapter.UNKNOWN_END, chapters.get(2).endMs);
+    }
+
+    @Test
+    public void otherFormatsAreNotParsed() throws IOException {
+        assertNull(parse("RIFF\0\0\0\0AVI LIST".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part, 0, part.length);
+        }
+        return out.toByteArray();
+    }
+}
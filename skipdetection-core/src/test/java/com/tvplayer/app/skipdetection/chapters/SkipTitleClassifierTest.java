@@ -0,0 +1,47 @@
+package com.tvplayer.app.skipdetection.chapters;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SkipTitleClassifierTest {
+
+    @Test
+    public void namedSkipChaptersAreClassified() {
+        assertEquals(SkipSegmentType.INTRO, SkipTitleClassifier.classify("Intro"));
+        assertEquals(SkipSegmentType.INTRO, SkipTitleClassifier.classify("Opening Credits"));
+        assertEquals(SkipSegmentType.INTRO, SkipTitleClassifier.classify("Main Titles"));
+        assertEquals(SkipSegmentType.RECAP, SkipTitleClassifier.classify("Previously on..."));
+        assertEquals(SkipSegmentType.RECAP, SkipTitleClassifier.classify("Recap"));
+        assertEquals(SkipSegmentType.CREDITS, SkipTitleClassifier.classify("End Credits"));
+        assertEquals(SkipSegmentType.CREDITS, SkipTitleClassifier.classify("Outro"));
+        assertEquals(SkipSegmentType.NEXT_EPISODE, SkipTitleClassifier.classify("Preview"));
+        assertEquals(SkipSegmentType.NEXT_EPISODE, SkipTitleClassifier.classify("Next Episode"));
+    }
+
+    @Test
+    public void animeShorthandsOnlyMatchAsTheWholeTitle() {
+        assertEquals(SkipSegmentType.INTRO, SkipTitleClassifier.classify("OP"));
+        assertEquals(SkipSegmentType.INTRO, SkipTitleClassifier.classify("OP2"));
+        assertEquals(SkipSegmentType.CREDITS, SkipTitleClassifier.classify("ED 1"));
+        assertEquals(SkipSegmentType.CREDITS, SkipTitleClassifier.classify("Ending"));
+        assertNull(SkipTitleClassifier.classify("Op Shop"));
+        assertNull(SkipTitleClassifier.classify("Ed Returns"));
+        assertNull(SkipTitleClassifier.classify("A Happy Ending"));
+    }
+
+    @Test
+    public void ordinarySceneTitlesAreContent() {
+        assertNull(SkipTitleClassifier.classify("The End"));
+        assertNull(SkipTitleClassifier.classify("Dead End"));
+        assertNull(SkipTitleClassifier.classify("What Comes Next"));
+        assertNull(SkipTitleClassifier.classify("Theme Park"));
+        assertNull(SkipTitleClassifier.classify("Titles and Deeds"));
+        assertNull(SkipTitleClassifier.classify("Chapter 3"));
+        assertNull(SkipTitleClassifier.classify(""));
+        assertNull(SkipTitleClassifier.classify(null));
+    }
+}
@@ -0,0 +1,151 @@
+package com.tvplayer.app.skipdetection.health;
+
+import com.tvplayer.app.skipdetection.health.CircuitBreaker.State;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerTest {
+
+    private static final long BASE_MS = 30_000;
+    private static final long MAX_MS = 120_000;
+
+    // # Manual clock
+    private static final class TestBreaker extends CircuitBreaker {
+        long now = 1_000_000;
+
+        TestBreaker(Random random) {
+            super("api", BASE_MS, MAX_MS, random);
+        }
+
+        @Override
+        protected long nowMs() {
+            return now;
+        }
+    }
+
+    // # nextDouble() = 0.5 means no jitter
+    private static TestBreaker breaker() {
+        return new TestBreaker(new Random() {
+            @Override
+            public double nextDouble() {
+                return 0.5;
+            }
+        });
+    }
+
+    private static void fail(CircuitBreaker breaker, int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.recordFailure();
+        }
+    }
+
+    @Test
+    public void opensOnceEnoughRecentRequestsFailed() {
+        TestBreaker breaker = breaker();
+        fail(breaker, CircuitBreaker.MIN_REQUESTS - 1);
+        assertEquals(State.CLOSED, breaker.getState());
+
+        fail(breaker, 1);
+        assertEquals(State.OPEN, breaker.getState());
+        assertFalse(breaker.isAvailable());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    public void occasionalFailuresKeepItClosed() {
+        TestBreaker breaker = breaker();
+        for (int i = 0; i < 20; i++) {
+            assertTrue(breaker.tryAcquire());
+            if (i % 3 == 0) {
+                breaker.recordFailure();
+            } else {
+                breaker.recordSuccess();
+            }
+        }
+        assertEquals(State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void letsExactlyOneProbeThroughAfterTheInterval() {
+        TestBreaker breaker = breaker();
+        fail(breaker, CircuitBreaker.MIN_REQUESTS);
+
+        breaker.now += BASE_MS - 1;
+        assertFalse(breaker.isAvailable());
+        breaker.now += 1;
+        assertTrue(breaker.isAvailable());
+
+        assertTrue(breaker.tryAcquire());
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.isAvailable());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.recordSuccess();
+        assertEquals(State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    public void failedProbesBackOffUpToTheMaximum() {
+        TestBreaker breaker = breaker();
+        fail(breaker, CircuitBreaker.MIN_REQUESTS);
+
+        long[] expectedIntervals = {BASE_MS * 2, BASE_MS * 4, MAX_MS};
+        breaker.now += BASE_MS;
+        for (long interval : expectedIntervals) {
+            assertTrue(breaker.tryAcquire());
+            breaker.recordFailure();
+            assertEquals(State.OPEN, breaker.getState());
+            breaker.now += interval - 1;
+            assertFalse(breaker.isAvailable());
+            breaker.now += 1;
+            assertTrue(breaker.isAvailable());
+        }
+    }
+
+    @Test
+    public void probeIntervalIsJittered() {
+        TestBreaker breaker = new TestBreaker(new Random() {
+            @Override
+            public double nextDouble() {
+                return 1.0;
+            }
+        });
+        fail(breaker, CircuitBreaker.MIN_REQUESTS);
+
+        breaker.now += BASE_MS;
+        assertFalse(breaker.isAvailable());
+        breaker.now += (long) (BASE_MS * CircuitBreaker.JITTER);
+        assertTrue(breaker.isAvailable());
+    }
+
+    @Test
+    public void releasedProbeCanBeRetried() {
+        TestBreaker breaker = breaker();
+        fail(breaker, CircuitBreaker.MIN_REQUESTS);
+        breaker.now += BASE_MS;
+
+        assertTrue(breaker.tryAcquire());
+        breaker.release();
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    public void lostProbeStopsBlockingAfterItsLease() {
+        TestBreaker breaker = breaker();
+        fail(breaker, CircuitBreaker.MIN_REQUESTS);
+        breaker.now += BASE_MS;
+
+        assertTrue(breaker.tryAcquire());
+        breaker.now += 60_000;
+        assertTrue(breaker.tryAcquire());
+    }
+}
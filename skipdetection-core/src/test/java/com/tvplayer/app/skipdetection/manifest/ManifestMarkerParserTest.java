@@ -0,0 +1,107 @@
+package com.tvplayer.app.skipdetection.manifest;
+
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegment;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ManifestMarkerParserTest {
+
+    // # EXT-X-PROGRAM-DATE-TIME of the first segment
+    private static final String PLAYLIST_START = "2024-05-01T20:00:00.000Z";
+    private static final long PLAYLIST_START_MS = ManifestMarkerParser.parseXsDateTime(PLAYLIST_START);
+
+    private static void assertSegment(SkipSegment segment, SkipSegmentType type, int start, int end) {
+        assertEquals(type, segment.type);
+        assertEquals(start, segment.startSeconds);
+        assertEquals(end, segment.endSeconds);
+    }
+
+    @Test
+    public void attributesAreUnquoted() {
+        Map<String, String> attributes = ManifestMarkerParser.parseAttributes(
+            "ID=\"intro-1\",CLASS=\"com.example.intro\",START-DATE=\"" + PLAYLIST_START + "\",DURATION=85.5,X-COM-EXAMPLE=0x1F");
+
+        assertEquals("intro-1", attributes.get("ID"));
+        assertEquals("com.example.intro", attributes.get("CLASS"));
+        assertEquals(PLAYLIST_START, attributes.get("START-DATE"));
+        assertEquals("85.5", attributes.get("DURATION"));
+        assertEquals("0x1F", attributes.get("X-COM-EXAMPLE"));
+    }
+
+    @Test
+    public void dateRangesAreMappedToMediaTime() {
+        List<SkipSegment> segments = ManifestMarkerParser.parseDateRanges(Arrays.asList(
+            "#EXTINF:6.0,",
+            "#EXT-X-DATERANGE:ID=\"a\",CLASS=\"com.example.intro\",START-DATE=\"2024-05-01T20:00:05.000Z\",DURATION=85.5",
+            // # Same instant in another zone, ended by END-DATE
+            "#EXT-X-DATERANGE:ID=\"b\",CLASS=\"com.example.credits\",START-DATE=\"2024-05-01T22:40:00+02:00\","
+                + "END-DATE=\"2024-05-01T22:42:30+02:00\"",
+            "#EXT-X-DATERANGE:ID=\"c\",START-DATE=\"2024-05-01T20:01:00Z\",PLANNED-DURATION=30,X-SKIP-TYPE=\"recap\""),
+            PLAYLIST_START_MS);
+
+        assertEquals(3, segments.size());
+        assertSegment(segments.get(0), SkipSegmentType.INTRO, 5, 90);
+        assertSegment(segments.get(1), SkipSegmentType.CREDITS, 2400, 2550);
+        assertSegment(segments.get(2), SkipSegmentType.RECAP, 60, 90);
+    }
+
+    @Test
+    public void idsUrisAndOtherVendorAttributesNameNothing() {
+        List<SkipSegment> segments = ManifestMarkerParser.parseDateRanges(Arrays.asList(
+            "#EXT-X-DATERANGE:ID=\"intro\",CLASS=\"com.apple.hls.interstitial\",START-DATE=\"2024-05-01T20:00:05Z\","
+                + "DURATION=30,X-ASSET-URI=\"https://ads.example.com/next/op/ad.m3u8\"",
+            "#EXT-X-DATERANGE:ID=\"ad\",START-DATE=\"2024-05-01T20:10:00Z\",DURATION=30,"
+                + "X-ASSET-LIST=\"https://ads.example.com/credits/list.json\",X-OPENING=\"yes\""),
+            PLAYLIST_START_MS);
+
+        assertTrue(segments.isEmpty());
+    }
+
+    @Test
+    public void rangesWithoutAnEndOrBeforeThePlaylistAreDropped() {
+        List<SkipSegment> segments = ManifestMarkerParser.parseDateRanges(Arrays.asList(
+            "#EXT-X-DATERANGE:ID=\"a\",CLASS=\"intro\",START-DATE=\"2024-05-01T20:00:05Z\"",
+            "#EXT-X-DATERANGE:ID=\"b\",CLASS=\"intro\",START-DATE=\"2024-05-01T19:59:00Z\",DURATION=30",
+            "#EXT-X-DATERANGE:ID=\"c\",CLASS=\"intro\",START-DATE=\"yesterday\",DURATION=30"),
+            PLAYLIST_START_MS);
+
+        assertTrue(segments.isEmpty());
+    }
+
+    @Test
+    public void eventsAreOffsetByTheirPeriodStart() {
+        long firstPeriodStartMs = 1_000;
+        List<SkipSegment> segments = ManifestMarkerParser.parseEvents(Arrays.asList(
+            new ManifestMarkerParser.DashEvent(1_000, "skip", "intro", 12_000_000, 60_000, null),
+            // # Second period starts 20 minutes after the first
+            new ManifestMarkerParser.DashEvent(1_201_000, "skip", null, 300_000_000, 90_000,
+                "end credits".getBytes(StandardCharsets.UTF_8)),
+            // # No duration
+            new ManifestMarkerParser.DashEvent(1_000, "skip", "recap", 0, -1, null),
+            // # A URL payload names nothing
+            new ManifestMarkerParser.DashEvent(1_000, "ad", null, 0, 30_000,
+                "https://ads.example.com/intro/vast.xml".getBytes(StandardCharsets.UTF_8))),
+            firstPeriodStartMs);
+
+        assertEquals(2, segments.size());
+        assertSegment(segments.get(0), SkipSegmentType.INTRO, 12, 72);
+        assertSegment(segments.get(1), SkipSegmentType.CREDITS, 1500, 1590);
+    }
+
+    @Test
+    public void xsDateTimeHonoursFractionsAndZones() {
+        long base = ManifestMarkerParser.parseXsDateTime("2024-05-01T20:00:00Z");
+        assertEquals(base + 250, ManifestMarkerParser.parseXsDateTime("2024-05-01T20:00:00.25Z"));
+        assertEquals(base, ManifestMarkerParser.parseXsDateTime("2024-05-01T15:30:00-04:30"));
+        assertEquals(1714593600000L, base);
+    }
+}
@@ -0,0 +1,136 @@
+package com.tvplayer.app.skipdetection.metrics;
+
+import com.tvplayer.app.skipdetection.platform.LatencyStore;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveTimeoutsTest {
+
+    private static final long DEFAULT_MS = 8000;
+    private static final long MIN_MS = 1500;
+    private static final long MAX_MS = 10000;
+
+    // # Keeps what was saved, like SharedPreferences would across restarts
+    private static final class MapLatencyStore implements LatencyStore {
+        final Map<String, long[]> saved = new HashMap<>();
+
+        @Override
+        public long[] load(String strategyName) {
+            long[] latencies = saved.get(strategyName);
+            return latencies != null ? latencies : new long[0];
+        }
+
+        @Override
+        public void save(String strategyName, long[] latenciesMs) {
+            saved.put(strategyName, latenciesMs);
+        }
+    }
+
+    private static AdaptiveTimeouts timeouts(LatencyStore store) {
+        return new AdaptiveTimeouts(store, DEFAULT_MS, MIN_MS, MAX_MS, 2.0);
+    }
+
+    @Test
+    public void usesTheDefaultUntilThereIsEnoughHistory() {
+        AdaptiveTimeouts timeouts = timeouts(null);
+        for (int i = 1; i < AdaptiveTimeouts.MIN_SAMPLES; i++) {
+            timeouts.recordLatency("api", 100);
+        }
+        assertEquals(DEFAULT_MS, timeouts.getTimeoutMs("api"));
+
+        timeouts.recordLatency("api", 100);
+        assertEquals(MIN_MS, timeouts.getTimeoutMs("api"));
+    }
+
+    @Test
+    public void followsTheSlowestRecentAnswerTimesTheFactor() {
+        AdaptiveTimeouts timeouts = timeouts(null);
+        for (int i = 0; i < 20; i++) {
+            timeouts.recordLatency("api", 900);
+        }
+        timeouts.recordLatency("api", 1800);
+        assertEquals(3600, timeouts.getTimeoutMs("api"));
+    }
+
+    @Test
+    public void isClampedToTheMaximum() {
+        AdaptiveTimeouts timeouts = timeouts(null);
+        for (int i = 0; i < 10; i++) {
+            timeouts.recordLatency("slow", 7000);
+        }
+        assertEquals(MAX_MS, timeouts.getTimeoutMs("slow"));
+    }
+
+    @Test
+    public void oldAnswersLeaveTheWindow() {
+        AdaptiveTimeouts timeouts = timeouts(null);
+        timeouts.recordLatency("api", 4000);
+        for (int i = 0; i < AdaptiveTimeouts.WINDOW_SIZE; i++) {
+            timeouts.recordLatency("api", 1000);
+        }
+        assertEquals(2000, timeouts.getTimeoutMs("api"));
+    }
+
+    @Test
+    public void timeoutsWidenTheTimeoutUpToTheMaximum() {
+        AdaptiveTimeouts timeouts = timeouts(null);
+        for (int i = 0; i < 10; i++) {
+            timeouts.recordLatency("api", 100);
+        }
+        assertEquals(MIN_MS, timeouts.getTimeoutMs("api"));
+
+        // # Each run cut off at the deadline counts as an answer at the deadline
+        timeouts.recordTimeout("api");
+        assertEquals(3000, timeouts.getTimeoutMs("api"));
+        timeouts.recordTimeout("api");
+        assertEquals(6000, timeouts.getTimeoutMs("api"));
+        timeouts.recordTimeout("api");
+        assertEquals(MAX_MS, timeouts.getTimeoutMs("api"));
+        assertTrue(timeouts.toString().contains("api=10000ms (n=13, 3 timeouts)"));
+    }
+
+    @Test
+    public void exemptStrategiesAreNotLearned() {
+        AdaptiveTimeouts timeouts = timeouts(null);
+        assertFalse(timeouts.isExempt("chapters"));
+        timeouts.exempt("chapters");
+        assertTrue(timeouts.isExempt("chapters"));
+        assertFalse(timeouts.isExempt("api"));
+    }
+
+    @Test
+    public void historySurvivesARestart() {
+        MapLatencyStore store = new MapLatencyStore();
+        AdaptiveTimeouts first = timeouts(store);
+        for (int i = 0; i < 10; i++) {
+            first.recordLatency("api", 1200);
+        }
+
+        AdaptiveTimeouts second = timeouts(store);
+        assertEquals(2400, second.getTimeoutMs("api"));
+        assertEquals(DEFAULT_MS, second.getTimeoutMs("other"));
+    }
+
+    @Test
+    public void savedHistoryIsOldestFirstAndBounded() {
+        MapLatencyStore store = new MapLatencyStore();
+        AdaptiveTimeouts timeouts = timeouts(store);
+        for (int i = 0; i < AdaptiveTimeouts.WINDOW_SIZE + 3; i++) {
+            timeouts.recordLatency("api", i);
+        }
+
+        long[] saved = store.saved.get("api");
+        assertEquals(AdaptiveTimeouts.WINDOW_SIZE, saved.length);
+        assertEquals(3, saved[0]);
+        assertEquals(AdaptiveTimeouts.WINDOW_SIZE + 2, saved[saved.length - 1]);
+        assertArrayEquals(new long[0], new MapLatencyStore().load("api"));
+    }
+}
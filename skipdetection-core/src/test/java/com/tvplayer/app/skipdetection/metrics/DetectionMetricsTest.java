@@ -0,0 +1,239 @@
+package com.tvplayer.app.skipdetection.metrics;
+
+import com.tvplayer.app.skipdetection.MediaIdentifier;
+import com.tvplayer.app.skipdetection.SkipDetectionCallback;
+import com.tvplayer.app.skipdetection.SkipDetectionEngine;
+import com.tvplayer.app.skipdetection.SkipDetectionResult;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.DetectionSource;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegment;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+import com.tvplayer.app.skipdetection.SkipDetectionStrategy;
+import com.tvplayer.app.skipdetection.cache.InMemoryKeyValueStore;
+import com.tvplayer.app.skipdetection.metrics.DetectionTrace.Completion;
+import com.tvplayer.app.skipdetection.metrics.DetectionTrace.Outcome;
+import com.tvplayer.app.skipdetection.platform.ExecutorTaskScheduler;
+import com.tvplayer.app.skipdetection.strategies.CacheStrategy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DetectionMetricsTest {
+
+    private final MediaIdentifier episode = new MediaIdentifier.Builder()
+        .setShowName("Show")
+        .setSeasonNumber(1)
+        .setEpisodeNumber(1)
+        .build();
+
+    private ExecutorTaskScheduler scheduler;
+    private CacheStrategy cache;
+    private final BlockingQueue<DetectionTrace> traces = new LinkedBlockingQueue<>();
+
+    @Before
+    public void setUp() {
+        scheduler = ExecutorTaskScheduler.create(4, Runnable::run);
+        cache = new CacheStrategy(new InMemoryKeyValueStore());
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    // # Returns a fixed result, optionally after waiting on a latch
+    private static final class FakeStrategy implements SkipDetectionStrategy {
+        final String name;
+        final int priority;
+        final SkipDetectionResult result;
+        final CountDownLatch release;
+
+        FakeStrategy(String name, int priority, SkipDetectionResult result, CountDownLatch release) {
+            this.name = name;
+            this.priority = priority;
+            this.result = result;
+            this.release = release;
+        }
+
+        @Override
+        public SkipDetectionResult detect(MediaIdentifier mediaIdentifier) {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    return SkipDetectionResult.failed(DetectionSource.NONE, "interrupted");
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public String getStrategyName() {
+            return name;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+    }
+
+    private static SkipDetectionResult success(DetectionSource source) {
+        return SkipDetectionResult.success(source, 0.9f, new SkipSegment(SkipSegmentType.INTRO, 0, 90));
+    }
+
+    private SkipDetectionEngine engine(long timeoutMs, SkipDetectionStrategy... strategies) {
+        SkipDetectionEngine engine = new SkipDetectionEngine(cache, Arrays.asList(strategies), scheduler, timeoutMs,
+            new SkipDetectionEngine.Hooks() { });
+        engine.getMetrics().setTraceListener(traces::add);
+        return engine;
+    }
+
+    private void detect(SkipDetectionEngine engine) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        engine.detectAsync(episode, new SkipDetectionCallback() {
+            @Override
+            public void onDetectionComplete(SkipDetectionResult result) {
+                done.countDown();
+            }
+
+            @Override
+            public void onDetectionFailed(String errorMessage) {
+                done.countDown();
+            }
+        });
+        assertTrue("detection did not finish", done.await(5, TimeUnit.SECONDS));
+    }
+
+    private DetectionTrace nextTrace() throws InterruptedException {
+        DetectionTrace trace = traces.poll(5, TimeUnit.SECONDS);
+        assertNotNull("no trace recorded", trace);
+        return trace;
+    }
+
+    private static DetectionTrace.Span span(DetectionTrace trace, String strategyName) {
+        for (DetectionTrace.Span span : trace.getSpans()) {
+            if (span.strategyName.equals(strategyName)) {
+                return span;
+            }
+        }
+        throw new AssertionError("no span for " + strategyName);
+    }
+
+    @Test
+    public void disabledMetricsRecordNothing() throws InterruptedException {
+        SkipDetectionEngine engine = engine(10_000,
+            new FakeStrategy("chapters", 500, success(DetectionSource.CHAPTER_MARKERS), null));
+
+        assertNull(engine.getMetrics().startTrace(episode));
+        detect(engine);
+
+        assertTrue(engine.getMetrics().getRecentTraces().isEmpty());
+        assertTrue(engine.getMetrics().getStrategyStats().isEmpty());
+        assertNull(traces.poll());
+    }
+
+    @Test
+    public void earlyDecisionRecordsTheWinnerAndTheCancelledStraggler() throws InterruptedException {
+        CountDownLatch never = new CountDownLatch(1);
+        SkipDetectionEngine engine = engine(10_000,
+            new FakeStrategy("chapters", 500, success(DetectionSource.CHAPTER_MARKERS), null),
+            new FakeStrategy("audio", 300, success(DetectionSource.AUDIO_FINGERPRINT), never));
+        engine.getMetrics().setEnabled(true);
+
+        detect(engine);
+        DetectionTrace trace = nextTrace();
+
+        assertEquals(Completion.DECIDED_EARLY, trace.getCompletion());
+        assertEquals(DetectionSource.CHAPTER_MARKERS, trace.getResultSource());
+        DetectionTrace.Span chapters = span(trace, "chapters");
+        assertEquals(Outcome.SUCCESS, chapters.outcome);
+        assertEquals(DetectionSource.CHAPTER_MARKERS, chapters.source);
+        assertTrue(chapters.endMicros >= chapters.startMicros);
+        assertEquals(Outcome.CANCELLED, span(trace, "audio").outcome);
+        assertTrue(trace.getTimeToResultMicros() >= chapters.endMicros);
+
+        assertEquals(1, engine.getMetrics().getTimeToResult(DetectionSource.CHAPTER_MARKERS).getCount());
+        List<DetectionMetrics.StrategyStats> stats = engine.getMetrics().getStrategyStats();
+        assertEquals(2, stats.size());
+        for (DetectionMetrics.StrategyStats strategy : stats) {
+            if (strategy.getStrategyName().equals("audio")) {
+                // # Cancelled runs are counted but have no meaningful latency
+                assertEquals(1, strategy.getCount(Outcome.CANCELLED));
+                assertEquals(0, strategy.getLatency().getCount());
+            } else {
+                assertEquals(1, strategy.getCount(Outcome.SUCCESS));
+                assertEquals(1, strategy.getLatency().getCount());
+            }
+        }
+    }
+
+    @Test
+    public void timeoutMarksHangingStrategiesAsTimedOut() throws InterruptedException {
+        CountDownLatch never = new CountDownLatch(1);
+        SkipDetectionEngine engine = engine(100,
+            new FakeStrategy("hanging", 400, success(DetectionSource.INTRO_SKIPPER_API), never),
+            new FakeStrategy("broken", 400, SkipDetectionResult.failed(DetectionSource.INTROHATER_API, "HTTP 500"),
+                null));
+        engine.getMetrics().setEnabled(true);
+
+        detect(engine);
+        DetectionTrace trace = nextTrace();
+
+        assertEquals(Completion.TIMED_OUT, trace.getCompletion());
+        assertEquals(DetectionSource.NONE, trace.getResultSource());
+        assertEquals(Outcome.TIMED_OUT, span(trace, "hanging").outcome);
+        assertEquals(Outcome.FAILED, span(trace, "broken").outcome);
+        assertEquals(1, engine.getMetrics().getTimeToResult(DetectionSource.NONE).getCount());
+    }
+
+    @Test
+    public void cacheHitIsTracedWithoutStrategies() throws InterruptedException {
+        cache.cacheResult(episode, success(DetectionSource.INTRO_SKIPPER_API));
+        SkipDetectionEngine engine = engine(10_000,
+            new FakeStrategy("chapters", 500, success(DetectionSource.CHAPTER_MARKERS), null));
+        engine.getMetrics().setEnabled(true);
+
+        detect(engine);
+        DetectionTrace trace = nextTrace();
+
+        assertEquals(Completion.CACHE_HIT, trace.getCompletion());
+        assertEquals(DetectionSource.CACHE, trace.getResultSource());
+        assertTrue(trace.getSpans().isEmpty());
+        assertTrue(engine.getMetrics().dump().contains("CACHE: n=1"));
+    }
+
+    @Test
+    public void lateReportsAfterFinishAreIgnored() {
+        DetectionMetrics metrics = new DetectionMetrics();
+        metrics.setEnabled(true);
+        DetectionMetrics.Recorder recorder = metrics.startTrace(episode);
+        recorder.strategyQueued("slow");
+        recorder.finish(success(DetectionSource.CHAPTER_MARKERS), Completion.DECIDED_EARLY);
+        recorder.strategyStarted("slow");
+        recorder.strategyFinished("slow", success(DetectionSource.AUDIO_FINGERPRINT));
+
+        DetectionTrace.Span slow = metrics.getRecentTraces().get(0).getSpans().get(0);
+        assertFalse(slow.wasStarted());
+        assertEquals(Outcome.CANCELLED, slow.outcome);
+        assertEquals(1, metrics.getStrategyStats().get(0).getCount(Outcome.CANCELLED));
+    }
+}
@@ -0,0 +1,62 @@
+package com.tvplayer.app.skipdetection.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void percentilesAreWithinOneBucketOfTheTrueValue() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // # 1..100 ms
+        for (int ms = 1; ms <= 100; ms++) {
+            histogram.record(ms * 1000L);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertWithin(50_000, histogram.getPercentileMicros(0.50));
+        assertWithin(95_000, histogram.getPercentileMicros(0.95));
+        assertWithin(99_000, histogram.getPercentileMicros(0.99));
+        assertEquals(100_000, histogram.getMaxMicros());
+        assertEquals(50_500, histogram.getMeanMicros());
+    }
+
+    @Test
+    public void percentileNeverExceedsTheLargestSample() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_010);
+        assertEquals(1_010, histogram.getPercentileMicros(0.99));
+    }
+
+    @Test
+    public void samplesBeyondTheLastBucketAreKept() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(500_000_000L);
+        assertEquals(500_000_000L, histogram.getPercentileMicros(0.5));
+    }
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileMicros(0.99));
+        assertEquals(0, histogram.getMeanMicros());
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(2_000);
+        LatencyHistogram copy = histogram.copy();
+        histogram.record(3_000);
+        assertEquals(1, copy.getCount());
+        assertEquals(2, histogram.getCount());
+    }
+
+    // # Buckets are ~25% wide
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual,
+            actual >= expected && actual <= expected * 13 / 10);
+    }
+}
@@ -0,0 +1,213 @@
+package com.tvplayer.app.skipdetection.strategies;
+
+import com.tvplayer.app.skipdetection.MediaIdentifier;
+import com.tvplayer.app.skipdetection.SkipDetectionResult;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.DetectionSource;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegment;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+import com.tvplayer.app.skipdetection.SkipDetectionStrategy;
+import com.tvplayer.app.skipdetection.cache.CachedSkipData;
+import com.tvplayer.app.skipdetection.cache.InMemoryKeyValueStore;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CacheStrategyTest {
+
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    private final MediaIdentifier episode = new MediaIdentifier.Builder()
+        .setShowName("Show")
+        .setSeasonNumber(1)
+        .setEpisodeNumber(2)
+        .build();
+
+    private InMemoryKeyValueStore store;
+    private CacheStrategy cache;
+
+    @Before
+    public void setUp() {
+        store = new InMemoryKeyValueStore();
+        cache = new CacheStrategy(store);
+    }
+
+    // # A strategy that only answers "no data"; the negative cache reads its name and key inputs
+    private static SkipDetectionStrategy strategy(String name, boolean readsMediaInputs) {
+        return new SkipDetectionStrategy() {
+            @Override
+            public SkipDetectionResult detect(MediaIdentifier mediaIdentifier) {
+                return SkipDetectionResult.noData(DetectionSource.NONE, "nothing");
+            }
+
+            @Override
+            public String getStrategyName() {
+                return name;
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return true;
+            }
+
+            @Override
+            public int getPriority() {
+                return 400;
+            }
+
+            @Override
+            public boolean readsMediaInputs() {
+                return readsMediaInputs;
+            }
+        };
+    }
+
+    private static final SkipDetectionStrategy INTRO_HATER = strategy("IntroHater", false);
+
+    private static SkipDetectionResult apiResult() {
+        return SkipDetectionResult.success(DetectionSource.INTRO_SKIPPER_API, 0.75f,
+            new SkipSegment(SkipSegmentType.INTRO, 10, 90));
+    }
+
+    @Test
+    public void cachedResultIsReturnedAsCacheSource() {
+        cache.cacheResult(episode, apiResult());
+
+        SkipDetectionResult result = cache.detect(episode);
+        assertTrue(result.isSuccess());
+        assertEquals(DetectionSource.CACHE, result.getSource());
+        assertEquals(90, result.getSegmentByType(SkipSegmentType.INTRO).endSeconds);
+    }
+
+    @Test
+    public void entryIsReadFromTheStoreAfterAMemoryMiss() {
+        cache.cacheResult(episode, apiResult());
+
+        // # A new instance starts with an empty memory tier
+        CacheStrategy reopened = new CacheStrategy(store);
+        assertTrue(reopened.detect(episode).isSuccess());
+        assertTrue(reopened.getMemoryCacheStats().startsWith("hits=0 misses=1"));
+        reopened.detect(episode);
+        assertTrue(reopened.getMemoryCacheStats().startsWith("hits=1 misses=1"));
+    }
+
+    @Test
+    public void expiredEntryMissesButIsServedStale() {
+        CachedSkipData old = new CachedSkipData();
+        old.segments = Arrays.asList(new SkipSegment(SkipSegmentType.INTRO, 10, 90));
+        old.timestamp = System.currentTimeMillis() - 31 * DAY_MS;
+        old.source = DetectionSource.INTRO_SKIPPER_API.name();
+        old.confidence = 0.75f;
+        store.put(episode.getCacheKey(), old);
+
+        assertFalse(cache.detect(episode).isSuccess());
+
+        SkipDetectionResult stale = cache.detectStale(episode);
+        assertTrue(stale.isSuccess());
+        assertEquals(0.5f, stale.getConfidence(), 0f);
+
+        CacheStrategy.StaleEntry entry = cache.lookupStale(episode);
+        assertTrue(entry.expired);
+        assertEquals(DetectionSource.CACHE, entry.result.getSource());
+        assertEquals(DetectionSource.INTRO_SKIPPER_API, entry.source);
+    }
+
+    @Test
+    public void provisionalEntryIsNoHitButKeepsItsSourceAndTier() {
+        cache.cacheProvisionalResult(episode, apiResult(), 400);
+
+        assertFalse(cache.detect(episode).isSuccess());
+
+        CacheStrategy.StaleEntry entry = new CacheStrategy(store).lookupStale(episode);
+        assertTrue(entry.provisional);
+        assertFalse(entry.expired);
+        assertEquals(400, entry.priority);
+        assertEquals(DetectionSource.INTRO_SKIPPER_API, entry.result.getSource());
+        assertEquals(0.75f, entry.result.getConfidence(), 0f);
+
+        // # A final result replaces it
+        cache.cacheResult(episode, apiResult(), 400);
+        assertTrue(cache.detect(episode).isSuccess());
+    }
+
+    @Test
+    public void failedAndCachedResultsAreNotStored() {
+        cache.cacheResult(episode, SkipDetectionResult.failed(DetectionSource.NONE, "nothing"));
+        cache.cacheResult(episode, SkipDetectionResult.success(DetectionSource.CACHE, 0.95f,
+            new SkipSegment(SkipSegmentType.INTRO, 10, 90)));
+        assertFalse(cache.detect(episode).isSuccess());
+    }
+
+    @Test
+    public void negativeEntriesHonourTheTtl() {
+        cache.cacheNegativeResult(episode, INTRO_HATER, DAY_MS);
+
+        Set<String> known = cache.getNegativelyCachedStrategies(episode, DAY_MS);
+        assertEquals(1, known.size());
+        assertTrue(known.contains("IntroHater"));
+        // # A TTL of 0 disables negative caching
+        assertTrue(cache.getNegativelyCachedStrategies(episode, 0).isEmpty());
+
+        store.putNegative(episode.getCacheKey(), CacheStrategy.negativeKey("IntroSkipper", episode, false),
+            System.currentTimeMillis() - 2 * DAY_MS);
+        assertFalse(cache.getNegativelyCachedStrategies(episode, DAY_MS).contains("IntroSkipper"));
+    }
+
+    @Test
+    public void expiredNegativeEntriesArePrunedOnWrite() {
+        MediaIdentifier other = new MediaIdentifier.Builder().setShowName("Other").setSeasonNumber(2).setEpisodeNumber(3).build();
+        store.putNegative(other.getCacheKey(), CacheStrategy.negativeKey("IntroSkipper", other, false),
+            System.currentTimeMillis() - 2 * DAY_MS);
+        assertEquals(1, store.getNegativeStrategies(other.getCacheKey(), 0).size());
+
+        cache.cacheNegativeResult(episode, INTRO_HATER, DAY_MS);
+
+        assertTrue(store.getNegativeStrategies(other.getCacheKey(), 0).isEmpty());
+        assertEquals(1, store.getNegativeStrategies(episode.getCacheKey(), 0).size());
+    }
+
+    @Test
+    public void negativeEntriesOnlyApplyToTheSameLookupInputs() {
+        MediaIdentifier withoutRuntime = new MediaIdentifier.Builder().setShowName("Show").setSeasonNumber(1)
+            .setEpisodeNumber(1).setTraktId("42").build();
+        MediaIdentifier withRuntime = new MediaIdentifier.Builder(withoutRuntime).setRuntimeSeconds(2580).build();
+        assertEquals(withoutRuntime.getCacheKey(), withRuntime.getCacheKey());
+
+        cache.cacheNegativeResult(withoutRuntime, strategy("Metadata-Based Heuristics", true), DAY_MS);
+
+        assertTrue(cache.getNegativelyCachedStrategies(withoutRuntime, DAY_MS).contains("Metadata-Based Heuristics"));
+        assertTrue(cache.getNegativelyCachedStrategies(withRuntime, DAY_MS).isEmpty());
+    }
+
+    @Test
+    public void idOnlyStrategiesShareNegativesWithLookupsThatHaveARuntimeAndFile() {
+        // # As SeasonPrefetcher looks the episode up before it plays
+        MediaIdentifier prefetched = new MediaIdentifier.Builder().setShowName("Show").setSeasonNumber(1)
+            .setEpisodeNumber(1).setTraktId("42").build();
+        MediaIdentifier playing = new MediaIdentifier.Builder(prefetched).setRuntimeSeconds(2580)
+            .setMediaUri("file:///media/show.s01e01.mkv").build();
+        MediaIdentifier otherIds = new MediaIdentifier.Builder(playing).setTraktId("43").build();
+
+        cache.cacheNegativeResult(prefetched, INTRO_HATER, DAY_MS);
+
+        assertTrue(cache.getNegativelyCachedStrategies(playing, DAY_MS).contains("IntroHater"));
+        assertTrue(cache.getNegativelyCachedStrategies(otherIds, DAY_MS).isEmpty());
+    }
+
+    @Test
+    public void invalidateRemovesBothTiers() {
+        cache.cacheResult(episode, apiResult());
+        cache.cacheNegativeResult(episode, INTRO_HATER, DAY_MS);
+
+        cache.invalidateCache(episode);
+
+        assertFalse(cache.detect(episode).isSuccess());
+        assertTrue(cache.getNegativelyCachedStrategies(episode, DAY_MS).isEmpty());
+    }
+}
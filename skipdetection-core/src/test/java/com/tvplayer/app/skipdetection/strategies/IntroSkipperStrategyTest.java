@@ -0,0 +1,246 @@
+package com.tvplayer.app.skipdetection.strategies;
+
+import com.tvplayer.app.skipdetection.MediaIdentifier;
+import com.tvplayer.app.skipdetection.SkipDetectionResult;
+import com.tvplayer.app.skipdetection.SkipDetectionResult.SkipSegmentType;
+import com.tvplayer.app.skipdetection.health.CircuitBreaker;
+import com.tvplayer.app.skipdetection.health.Mirror;
+import com.tvplayer.app.skipdetection.metrics.AdaptiveTimeouts;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IntroSkipperStrategyTest {
+
+    private final MediaIdentifier episode = new MediaIdentifier.Builder()
+        .setShowName("Show")
+        .setTraktId("1390")
+        .setSeasonNumber(3)
+        .setEpisodeNumber(7)
+        .build();
+
+    private static final String BODY =
+        "{\"skipSegments\":[{\"skipType\":\"Intro\",\"showSkipPromptAt\":10,\"hideSkipPromptAt\":90}]}";
+
+    private MockWebServer server;
+    private MockWebServer mirror;
+    private IntroSkipperStrategy strategy;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        mirror = new MockWebServer();
+        mirror.start();
+        strategy = new IntroSkipperStrategy(new OkHttpClient(), baseUrl(server));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+        mirror.shutdown();
+    }
+
+    private static String baseUrl(MockWebServer webServer) {
+        return webServer.url("").toString().replaceAll("/$", "");
+    }
+
+    private IntroSkipperStrategy twoMirrors() {
+        return new IntroSkipperStrategy(new OkHttpClient(),
+            Arrays.asList(baseUrl(server), baseUrl(mirror)), null);
+    }
+
+    private static void seed(Mirror target, long latencyMs) {
+        for (int i = 0; i < Mirror.MIN_SAMPLES; i++) {
+            target.recordLatency(latencyMs);
+        }
+    }
+
+    @Test
+    public void parsesSegmentsAndRequestsTheEpisodePath() throws InterruptedException {
+        server.enqueue(new MockResponse().setBody("{\"skipSegments\":["
+            + "{\"skipType\":\"Intro\",\"showSkipPromptAt\":12.4,\"hideSkipPromptAt\":97.9},"
+            + "{\"skipType\":\"Outro\",\"showSkipPromptAt\":1290,\"hideSkipPromptAt\":1380},"
+            + "{\"skipType\":\"Preview\",\"showSkipPromptAt\":1380,\"hideSkipPromptAt\":1400},"
+            + "{\"skipType\":\"Recap\",\"showSkipPromptAt\":50,\"hideSkipPromptAt\":40}]}"));
+
+        SkipDetectionResult result = strategy.detect(episode);
+
+        assertEquals("/trakt/1390/3/7", server.takeRequest().getPath());
+        assertTrue(result.isSuccess());
+        assertEquals(2, result.getSegments().size());
+        assertEquals(12, result.getSegmentByType(SkipSegmentType.INTRO).startSeconds);
+        assertEquals(97, result.getSegmentByType(SkipSegmentType.INTRO).endSeconds);
+        assertEquals(1380, result.getSegmentByType(SkipSegmentType.CREDITS).endSeconds);
+    }
+
+    @Test
+    public void notFoundIsNoData() {
+        server.enqueue(new MockResponse().setResponseCode(404));
+
+        SkipDetectionResult result = strategy.detect(episode);
+        assertFalse(result.isSuccess());
+        assertTrue(result.isNoData());
+    }
+
+    @Test
+    public void serverErrorIsAFailureNotNoData() {
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        SkipDetectionResult result = strategy.detect(episode);
+        assertFalse(result.isSuccess());
+        assertFalse(result.isNoData());
+    }
+
+    @Test
+    public void callEndsAtTheLearnedTimeout() {
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts(null, 200, 100, 1000, 2.0);
+        IntroSkipperStrategy bounded = new IntroSkipperStrategy(new OkHttpClient(), baseUrl(server), timeouts);
+        server.enqueue(new MockResponse().setBody("{}").setHeadersDelay(5, TimeUnit.SECONDS));
+
+        long startMs = System.currentTimeMillis();
+        SkipDetectionResult result = bounded.detect(episode);
+
+        assertFalse(result.isSuccess());
+        assertFalse(result.isNoData());
+        assertTrue(System.currentTimeMillis() - startMs < 2000);
+    }
+
+    @Test
+    public void tightenedDeadlineTimeoutsDoNotOpenTheCircuit() {
+        // # Learned 200 ms, well below the 1 s maximum
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts(null, 200, 100, 1000, 2.0);
+        IntroSkipperStrategy bounded = new IntroSkipperStrategy(new OkHttpClient(), baseUrl(server), timeouts);
+        for (int i = 0; i < CircuitBreaker.MIN_REQUESTS; i++) {
+            server.enqueue(new MockResponse().setBody(BODY).setHeadersDelay(5, TimeUnit.SECONDS));
+            assertFalse(bounded.detect(episode).isSuccess());
+        }
+
+        assertTrue(bounded.isAvailable());
+        assertEquals(CircuitBreaker.State.CLOSED, bounded.getMirrors().get(0).getCircuitBreaker().getState());
+    }
+
+    @Test
+    public void timeoutsAtTheMaximumDeadlineStillOpenTheCircuit() {
+        AdaptiveTimeouts timeouts = new AdaptiveTimeouts(null, 200, 100, 200, 2.0);
+        IntroSkipperStrategy bounded = new IntroSkipperStrategy(new OkHttpClient(), baseUrl(server), timeouts);
+        for (int i = 0; i < CircuitBreaker.MIN_REQUESTS; i++) {
+            server.enqueue(new MockResponse().setBody(BODY).setHeadersDelay(5, TimeUnit.SECONDS));
+            assertFalse(bounded.detect(episode).isSuccess());
+        }
+
+        assertFalse(bounded.isAvailable());
+    }
+
+    @Test
+    public void downEndpointIsNotAskedAgainUntilTheProbe() {
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+            assertFalse(strategy.detect(episode).isSuccess());
+        }
+
+        assertFalse(strategy.isAvailable());
+        assertFalse(strategy.detect(episode).isSuccess());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void notFoundCountsAsAHealthyAnswer() {
+        for (int i = 0; i < 5; i++) {
+            server.enqueue(new MockResponse().setResponseCode(404));
+            strategy.detect(episode);
+        }
+        assertTrue(strategy.isAvailable());
+    }
+
+    @Test
+    public void slowMirrorIsHedgedAndTheFasterAnswerWins() {
+        IntroSkipperStrategy hedging = twoMirrors();
+        seed(hedging.getMirrors().get(0), 100);
+        seed(hedging.getMirrors().get(1), 200);
+        server.enqueue(new MockResponse().setBody(BODY).setHeadersDelay(5, TimeUnit.SECONDS));
+        mirror.enqueue(new MockResponse().setBody(BODY));
+
+        long startMs = System.currentTimeMillis();
+        SkipDetectionResult result = hedging.detect(episode);
+
+        assertTrue(result.isSuccess());
+        assertTrue(System.currentTimeMillis() - startMs < 2000);
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, mirror.getRequestCount());
+        // # The cancelled loser is not held against its mirror
+        assertEquals(CircuitBreaker.State.CLOSED, hedging.getMirrors().get(0).getCircuitBreaker().getState());
+    }
+
+    @Test
+    public void fastMirrorIsNotHedged() {
+        IntroSkipperStrategy hedging = twoMirrors();
+        server.enqueue(new MockResponse().setBody(BODY));
+
+        assertTrue(hedging.detect(episode).isSuccess());
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, mirror.getRequestCount());
+    }
+
+    @Test
+    public void fastestKnownMirrorIsAskedFirst() {
+        IntroSkipperStrategy hedging = twoMirrors();
+        seed(hedging.getMirrors().get(0), 900);
+        seed(hedging.getMirrors().get(1), 300);
+        mirror.enqueue(new MockResponse().setBody(BODY));
+
+        assertTrue(hedging.detect(episode).isSuccess());
+        assertEquals(0, server.getRequestCount());
+        assertEquals(1, mirror.getRequestCount());
+    }
+
+    @Test
+    public void failingMirrorFailsOverWithoutWaitingForTheHedge() {
+        IntroSkipperStrategy hedging = twoMirrors();
+        server.enqueue(new MockResponse().setResponseCode(503));
+        mirror.enqueue(new MockResponse().setBody(BODY));
+
+        long startMs = System.currentTimeMillis();
+        SkipDetectionResult result = hedging.detect(episode);
+
+        assertTrue(result.isSuccess());
+        assertTrue(System.currentTimeMillis() - startMs < IntroSkipperStrategy.DEFAULT_HEDGE_DELAY_MS);
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void downMirrorIsSkipped() {
+        IntroSkipperStrategy hedging = twoMirrors();
+        CircuitBreaker breaker = hedging.getMirrors().get(0).getCircuitBreaker();
+        for (int i = 0; i < CircuitBreaker.MIN_REQUESTS; i++) {
+            breaker.tryAcquire();
+            breaker.recordFailure();
+        }
+        mirror.enqueue(new MockResponse().setBody(BODY));
+
+        assertTrue(hedging.isAvailable());
+        assertTrue(hedging.detect(episode).isSuccess());
+        assertEquals(0, server.getRequestCount());
+    }
+
+    @Test
+    public void missingIdsFailWithoutARequest() {
+        MediaIdentifier movie = new MediaIdentifier.Builder().setTitle("Movie").build();
+
+        assertFalse(strategy.detect(movie).isSuccess());
+        assertEquals(0, server.getRequestCount());
+    }
+}